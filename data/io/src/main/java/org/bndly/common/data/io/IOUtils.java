@@ -27,6 +27,9 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -137,6 +140,67 @@ public final class IOUtils {
 		}
 	}
 
+	/**
+	 * Transfers a region of a file to an output stream without decoding it into intermediate streams. The channel 
+	 * position is not modified.
+	 * @param channel the file channel to read from
+	 * @param position the position of the first byte to transfer
+	 * @param numberOfBytes the number of bytes to transfer
+	 * @param os the output stream to write to
+	 * @throws IOException if the region could not be read or written
+	 */
+	public static void transfer(FileChannel channel, long position, long numberOfBytes, final OutputStream os) throws IOException, ReadIOException, WriteIOException {
+		WritableByteChannel target = new WritableByteChannel() {
+			private boolean open = true;
+
+			@Override
+			public int write(ByteBuffer src) throws IOException {
+				int length = src.remaining();
+				try {
+					if (src.hasArray()) {
+						os.write(src.array(), src.arrayOffset() + src.position(), length);
+						src.position(src.limit());
+					} else {
+						byte[] buf = new byte[Math.min(length, 8192)];
+						while (src.hasRemaining()) {
+							int chunk = Math.min(src.remaining(), buf.length);
+							src.get(buf, 0, chunk);
+							os.write(buf, 0, chunk);
+						}
+					}
+				} catch (IOException e) {
+					throw new WriteIOException(e);
+				}
+				return length;
+			}
+
+			@Override
+			public boolean isOpen() {
+				return open;
+			}
+
+			@Override
+			public void close() throws IOException {
+				open = false;
+			}
+		};
+		long transferred = 0;
+		while (transferred < numberOfBytes) {
+			long count;
+			try {
+				count = channel.transferTo(position + transferred, numberOfBytes - transferred, target);
+			} catch (WriteIOException e) {
+				throw e;
+			} catch (IOException e) {
+				throw new ReadIOException(e);
+			}
+			if (count <= 0) {
+				throw new ReadIOException(new IOException("unexpected end of file after " + transferred + " of " + numberOfBytes + " bytes"));
+			}
+			transferred += count;
+		}
+	}
+
 	public static byte[] read(InputStream is) throws IOException {
 		ByteArrayOutputStream bos = new ByteArrayOutputStream();
 		copy(is, bos);
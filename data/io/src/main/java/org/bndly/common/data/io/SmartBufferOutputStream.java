@@ -213,7 +213,8 @@ public final class SmartBufferOutputStream extends OutputStream {
 				? createdFrom
 				: isBufferedInMemory()
 					? ReplayableInputStream.newInstance(inMemoryBuffer == null ? NOTHING : inMemoryBuffer.toByteArray()) 
-					: ReplayableInputStream.newInstance(Files.newInputStream(fileSystemBufferPath, StandardOpenOption.READ));
+					// the file system buffer is reused, so that the data is neither buffered a second time nor its length unknown
+					: ReplayableInputStream.newInstance(this).replay();
 	}
 
 	public final long getBytesBuffered() {
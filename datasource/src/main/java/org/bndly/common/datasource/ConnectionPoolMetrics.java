@@ -0,0 +1,374 @@
+package org.bndly.common.datasource;
+
+/*-
+ * #%L
+ * Data Source
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The ConnectionPoolMetrics collect the checkout wait times, the borrow and return rates, the statement pool usage and 
+ * the currently borrowed connections of a single data source. The counters of the connection pool itself are read from 
+ * the {@link GenericObjectPool}.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class ConnectionPoolMetrics implements DataSourceMetrics {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ConnectionPoolMetrics.class);
+	private static final long[] BORROW_WAIT_TIME_BOUNDS = new long[]{1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+	private final String dataSourceName;
+	private final long longHeldConnectionThresholdMillis;
+	private final boolean captureBorrowStackTraces;
+	private final AtomicLongArray borrowWaitTimeHistogram = new AtomicLongArray(BORROW_WAIT_TIME_BOUNDS.length + 1);
+	private final LongAdder failedBorrowCount = new LongAdder();
+	private final EventRate borrowRate = new EventRate();
+	private final EventRate returnRate = new EventRate();
+	private final ConcurrentMap<ConnectionKey, BorrowedConnection> borrowedConnections = new ConcurrentHashMap<>();
+	private final ConcurrentMap<ConnectionKey, GenericKeyedObjectPool<?, ?>> statementPools = new ConcurrentHashMap<>();
+	private final LongAdder closedStatementPoolLookupCount = new LongAdder();
+	private final LongAdder closedStatementPoolHitCount = new LongAdder();
+	private volatile boolean statementPoolingEnabled;
+	private volatile GenericObjectPool<?> pool;
+
+	private static final class BorrowedConnection {
+		private final long borrowedAt;
+		private final String threadName;
+		private final Throwable borrowStackTrace;
+
+		public BorrowedConnection(long borrowedAt, String threadName, Throwable borrowStackTrace) {
+			this.borrowedAt = borrowedAt;
+			this.threadName = threadName;
+			this.borrowStackTrace = borrowStackTrace;
+		}
+	}
+
+	/**
+	 * Connections are tracked by identity. The connection wrappers of dbcp may implement equals by their delegates.
+	 */
+	private static final class ConnectionKey {
+		private final Object connection;
+
+		public ConnectionKey(Object connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return ConnectionKey.class.isInstance(obj) && ((ConnectionKey) obj).connection == connection;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(connection);
+		}
+	}
+
+	/**
+	 * Counts events in buckets of one second over the last minute. Each bucket holds the epoch second in its upper 32 
+	 * bits and the count of that second in its lower 32 bits, so that a bucket can be reset and incremented with a single 
+	 * compare and set.
+	 */
+	private static final class EventRate {
+		private static final int WINDOW_SECONDS = 60;
+		private static final long COUNT_MASK = 0xFFFFFFFFL;
+		private final AtomicLongArray buckets = new AtomicLongArray(WINDOW_SECONDS);
+
+		public void mark() {
+			long second = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+			int i = (int) (second % WINDOW_SECONDS);
+			while (true) {
+				long bucket = buckets.get(i);
+				long next = (bucket >>> 32) == second ? bucket + 1 : (second << 32) | 1;
+				if (buckets.compareAndSet(i, bucket, next)) {
+					return;
+				}
+			}
+		}
+
+		public double getRatePerSecond() {
+			long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+			long sum = 0;
+			for (int i = 0; i < WINDOW_SECONDS; i++) {
+				long bucket = buckets.get(i);
+				if (now - (bucket >>> 32) < WINDOW_SECONDS) {
+					sum += bucket & COUNT_MASK;
+				}
+			}
+			return sum / (double) WINDOW_SECONDS;
+		}
+	}
+
+	public ConnectionPoolMetrics(String dataSourceName, long longHeldConnectionThresholdMillis, boolean captureBorrowStackTraces) {
+		if (dataSourceName == null) {
+			throw new IllegalArgumentException("dataSourceName is not allowed to be null");
+		}
+		this.dataSourceName = dataSourceName;
+		this.longHeldConnectionThresholdMillis = longHeldConnectionThresholdMillis;
+		this.captureBorrowStackTraces = captureBorrowStackTraces;
+	}
+
+	public void setPool(GenericObjectPool<?> pool) {
+		this.pool = pool;
+	}
+
+	public void setStatementPoolingEnabled(boolean statementPoolingEnabled) {
+		this.statementPoolingEnabled = statementPoolingEnabled;
+	}
+
+	public void onBorrowed(Object connection, long waitTimeNanos) {
+		recordBorrowWaitTime(waitTimeNanos);
+		borrowRate.mark();
+		Thread thread = Thread.currentThread();
+		Throwable borrowStackTrace = captureBorrowStackTraces ? new Throwable("connection borrowed by thread " + thread.getName()) : null;
+		BorrowedConnection borrowedConnection = new BorrowedConnection(System.currentTimeMillis(), thread.getName(), borrowStackTrace);
+		borrowedConnections.put(new ConnectionKey(connection), borrowedConnection);
+	}
+
+	public void onBorrowFailed(long waitTimeNanos) {
+		recordBorrowWaitTime(waitTimeNanos);
+		failedBorrowCount.increment();
+	}
+
+	public void onReturned(Object connection) {
+		returnRate.mark();
+		BorrowedConnection borrowedConnection = borrowedConnections.remove(new ConnectionKey(connection));
+		if (borrowedConnection != null && longHeldConnectionThresholdMillis > 0) {
+			long heldMillis = System.currentTimeMillis() - borrowedConnection.borrowedAt;
+			if (heldMillis >= longHeldConnectionThresholdMillis) {
+				if (borrowedConnection.borrowStackTrace != null) {
+					LOG.warn("connection of data source {} was held for {}ms by thread {}", dataSourceName, heldMillis, borrowedConnection.threadName, borrowedConnection.borrowStackTrace);
+				} else {
+					LOG.warn("connection of data source {} was held for {}ms by thread {}", dataSourceName, heldMillis, borrowedConnection.threadName);
+				}
+			}
+		}
+	}
+
+	public void onInvalidated(Object connection) {
+		borrowedConnections.remove(new ConnectionKey(connection));
+	}
+
+	public void onStatementPoolCreated(Object connection, GenericKeyedObjectPool<?, ?> statementPool) {
+		statementPools.put(new ConnectionKey(connection), statementPool);
+	}
+
+	public void onStatementPoolDestroyed(Object connection) {
+		GenericKeyedObjectPool<?, ?> statementPool = statementPools.remove(new ConnectionKey(connection));
+		if (statementPool != null) {
+			// keep the numbers of the statement pools of destroyed connections
+			closedStatementPoolLookupCount.add(statementPool.getBorrowedCount());
+			closedStatementPoolHitCount.add(statementPool.getBorrowedCount() - statementPool.getCreatedCount());
+		}
+	}
+
+	private void recordBorrowWaitTime(long waitTimeNanos) {
+		long waitTimeMillis = TimeUnit.NANOSECONDS.toMillis(waitTimeNanos);
+		int i = 0;
+		while (i < BORROW_WAIT_TIME_BOUNDS.length && waitTimeMillis >= BORROW_WAIT_TIME_BOUNDS[i]) {
+			i++;
+		}
+		borrowWaitTimeHistogram.incrementAndGet(i);
+	}
+
+	@Override
+	public String getDataSourceName() {
+		return dataSourceName;
+	}
+
+	@Override
+	public int getNumActive() {
+		GenericObjectPool<?> p = pool;
+		return p == null ? 0 : p.getNumActive();
+	}
+
+	@Override
+	public int getNumIdle() {
+		GenericObjectPool<?> p = pool;
+		return p == null ? 0 : p.getNumIdle();
+	}
+
+	@Override
+	public int getNumWaiters() {
+		GenericObjectPool<?> p = pool;
+		return p == null ? 0 : p.getNumWaiters();
+	}
+
+	@Override
+	public int getMaxTotal() {
+		GenericObjectPool<?> p = pool;
+		return p == null ? 0 : p.getMaxTotal();
+	}
+
+	@Override
+	public long getBorrowedCount() {
+		GenericObjectPool<?> p = pool;
+		return p == null ? 0 : p.getBorrowedCount();
+	}
+
+	@Override
+	public long getReturnedCount() {
+		GenericObjectPool<?> p = pool;
+		return p == null ? 0 : p.getReturnedCount();
+	}
+
+	@Override
+	public long getCreatedCount() {
+		GenericObjectPool<?> p = pool;
+		return p == null ? 0 : p.getCreatedCount();
+	}
+
+	@Override
+	public long getDestroyedCount() {
+		GenericObjectPool<?> p = pool;
+		return p == null ? 0 : p.getDestroyedCount();
+	}
+
+	@Override
+	public long getFailedBorrowCount() {
+		return failedBorrowCount.sum();
+	}
+
+	@Override
+	public double getBorrowRate() {
+		return borrowRate.getRatePerSecond();
+	}
+
+	@Override
+	public double getReturnRate() {
+		return returnRate.getRatePerSecond();
+	}
+
+	@Override
+	public long getMeanBorrowWaitTimeMillis() {
+		GenericObjectPool<?> p = pool;
+		return p == null ? 0 : p.getMeanBorrowWaitTimeMillis();
+	}
+
+	@Override
+	public long getMaxBorrowWaitTimeMillis() {
+		GenericObjectPool<?> p = pool;
+		return p == null ? 0 : p.getMaxBorrowWaitTimeMillis();
+	}
+
+	@Override
+	public long[] getBorrowWaitTimeHistogramBounds() {
+		return BORROW_WAIT_TIME_BOUNDS.clone();
+	}
+
+	@Override
+	public long[] getBorrowWaitTimeHistogram() {
+		long[] histogram = new long[borrowWaitTimeHistogram.length()];
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] = borrowWaitTimeHistogram.get(i);
+		}
+		return histogram;
+	}
+
+	@Override
+	public boolean isStatementPoolingEnabled() {
+		return statementPoolingEnabled;
+	}
+
+	@Override
+	public long getStatementPoolLookupCount() {
+		long lookups = closedStatementPoolLookupCount.sum();
+		for (GenericKeyedObjectPool<?, ?> statementPool : statementPools.values()) {
+			lookups += statementPool.getBorrowedCount();
+		}
+		return lookups;
+	}
+
+	@Override
+	public long getStatementPoolHitCount() {
+		long hits = closedStatementPoolHitCount.sum();
+		for (GenericKeyedObjectPool<?, ?> statementPool : statementPools.values()) {
+			hits += statementPool.getBorrowedCount() - statementPool.getCreatedCount();
+		}
+		return hits;
+	}
+
+	@Override
+	public double getStatementPoolHitRatio() {
+		// the hits are read first, because both numbers only grow while statements are borrowed
+		long hits = getStatementPoolHitCount();
+		long lookups = getStatementPoolLookupCount();
+		if (lookups == 0) {
+			return 0;
+		}
+		return hits / (double) lookups;
+	}
+
+	@Override
+	public long getLongHeldConnectionThresholdMillis() {
+		return longHeldConnectionThresholdMillis;
+	}
+
+	@Override
+	public int getLongHeldConnectionCount() {
+		return getLongHeldConnectionsInternal().size();
+	}
+
+	@Override
+	public String[] getLongHeldConnections() {
+		List<BorrowedConnection> longHeld = getLongHeldConnectionsInternal();
+		long now = System.currentTimeMillis();
+		String[] descriptions = new String[longHeld.size()];
+		for (int i = 0; i < descriptions.length; i++) {
+			BorrowedConnection borrowedConnection = longHeld.get(i);
+			StringWriter sw = new StringWriter();
+			sw.append("held for ").append(Long.toString(now - borrowedConnection.borrowedAt)).append("ms by thread ")
+					.append(borrowedConnection.threadName).append(" since ").append(new Date(borrowedConnection.borrowedAt).toString());
+			if (borrowedConnection.borrowStackTrace != null) {
+				sw.append('\n');
+				borrowedConnection.borrowStackTrace.printStackTrace(new PrintWriter(sw));
+			}
+			descriptions[i] = sw.toString();
+		}
+		return descriptions;
+	}
+
+	private List<BorrowedConnection> getLongHeldConnectionsInternal() {
+		List<BorrowedConnection> longHeld = new ArrayList<>();
+		if (longHeldConnectionThresholdMillis <= 0) {
+			return longHeld;
+		}
+		long now = System.currentTimeMillis();
+		for (BorrowedConnection borrowedConnection : borrowedConnections.values()) {
+			if (now - borrowedConnection.borrowedAt >= longHeldConnectionThresholdMillis) {
+				longHeld.add(borrowedConnection);
+			}
+		}
+		return longHeld;
+	}
+}
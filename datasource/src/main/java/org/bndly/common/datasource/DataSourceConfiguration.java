@@ -274,6 +274,18 @@ public class DataSourceConfiguration {
 				description = "A class name of an eviction policy. NOTE: The class should be made available as a fragment bundle to this bundle."
 		)
 		String pool_evictionPolicyClassName();
+		
+		@AttributeDefinition(
+				name = "Long held connection threshold",
+				description = "Connections that are borrowed for longer than this number of milliseconds are reported as long held connections. 0 disables the detection. Defaults to 60000."
+		)
+		String metrics_longHeldConnectionThresholdMillis();
+		
+		@AttributeDefinition(
+				name = "Capture borrow stack traces",
+				description = "Capture the stack trace of the borrowing code for each borrowed connection, so that long held connections can be traced back to their origin. This adds costs to every checkout."
+		)
+		String metrics_captureBorrowStackTraces();
 	}
 	
 	private DictionaryAdapter adapter;
@@ -323,4 +335,6 @@ public class DataSourceConfiguration {
 	public Long getPoolSoftMinEvictableIdleTimeMillis() { return adapter.getLong("pool.softMinEvictableIdleTimeMillis"); }
 	public String getPoolEvictionPolicyClassName() { return adapter.getString("pool.evictionPolicyClassName"); }
 	public Integer getPoolMaxIdle() { return adapter.getInteger("pool.maxIdle"); }
+	public Long getMetricsLongHeldConnectionThresholdMillis() { return adapter.getLong("metrics.longHeldConnectionThresholdMillis"); }
+	public Boolean getMetricsCaptureBorrowStackTraces() { return adapter.getBoolean("metrics.captureBorrowStackTraces"); }
 }
@@ -0,0 +1,109 @@
+package org.bndly.common.datasource;
+
+/*-
+ * #%L
+ * Data Source
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * DataSourceMetrics exposes the runtime state of the connection pool behind a data source of the {@link DataSourcePool}. 
+ * The interface is also used as the MXBean interface, when the metrics are registered in the platform MBeanServer.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public interface DataSourceMetrics {
+
+	String getDataSourceName();
+
+	int getNumActive();
+
+	int getNumIdle();
+
+	int getNumWaiters();
+
+	int getMaxTotal();
+
+	long getBorrowedCount();
+
+	long getReturnedCount();
+
+	long getCreatedCount();
+
+	long getDestroyedCount();
+
+	/**
+	 * @return the number of checkouts, that failed because of a timeout or because no connection could be created
+	 */
+	long getFailedBorrowCount();
+
+	/**
+	 * @return the average number of borrowed connections per second within the last minute
+	 */
+	double getBorrowRate();
+
+	/**
+	 * @return the average number of returned connections per second within the last minute
+	 */
+	double getReturnRate();
+
+	long getMeanBorrowWaitTimeMillis();
+
+	long getMaxBorrowWaitTimeMillis();
+
+	/**
+	 * The upper bounds in milliseconds of the buckets of {@link #getBorrowWaitTimeHistogram()}. The last bucket of the 
+	 * histogram has no upper bound.
+	 * @return the exclusive upper bounds of the buckets
+	 */
+	long[] getBorrowWaitTimeHistogramBounds();
+
+	/**
+	 * @return the number of checkouts per wait time bucket
+	 */
+	long[] getBorrowWaitTimeHistogram();
+
+	boolean isStatementPoolingEnabled();
+
+	/**
+	 * @return the number of prepared statements, that have been requested from the statement pools of the connections
+	 */
+	long getStatementPoolLookupCount();
+
+	/**
+	 * @return the number of prepared statements, that could be taken from the statement pools without preparing them
+	 */
+	long getStatementPoolHitCount();
+
+	double getStatementPoolHitRatio();
+
+	/**
+	 * @return the number of milliseconds after which a borrowed connection is considered as long held. 0 means, that the 
+	 * detection is disabled.
+	 */
+	long getLongHeldConnectionThresholdMillis();
+
+	int getLongHeldConnectionCount();
+
+	/**
+	 * Describes all connections, that are currently borrowed for longer than 
+	 * {@link #getLongHeldConnectionThresholdMillis()}. If borrow stack traces are captured, the description will contain 
+	 * the stack trace of the borrowing code.
+	 * @return a description per long held connection
+	 */
+	String[] getLongHeldConnections();
+}
@@ -34,6 +34,12 @@ public interface DataSourcePool {
 		void onDestruct(DataSourcePool pool);
 	}
 	DataSource getDataSource(String dataSourceName);
+	/**
+	 * Gets the runtime metrics of the connection pool of a data source.
+	 * @param dataSourceName the name of the data source
+	 * @return the metrics or null, if there is no data source with the provided name
+	 */
+	DataSourceMetrics getMetrics(String dataSourceName);
 	String getDatabaseSchemaNameForDataSource(DataSource dataSource);
 	void addListener(Listener listener);
 	void removeListener(Listener listener);
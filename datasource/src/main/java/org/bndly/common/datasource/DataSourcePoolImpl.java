@@ -34,6 +34,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.management.MBeanServer;
 import javax.sql.DataSource;
 import org.apache.commons.dbcp2.DriverConnectionFactory;
 import org.apache.commons.dbcp2.PoolableConnection;
@@ -59,6 +60,7 @@ import org.slf4j.LoggerFactory;
 public class DataSourcePoolImpl implements DataSourcePool {
 
 	private static final Logger LOG = LoggerFactory.getLogger(DataSourcePoolImpl.class);
+	private static final long DEFAULT_LONG_HELD_CONNECTION_THRESHOLD_MILLIS = 60000;
 
 	private final List<DataSourceConfiguration> dataSourceConfigurations = new ArrayList<>();
 	private final ReadWriteLock dataSourceConfigurationsLock = new ReentrantReadWriteLock();
@@ -73,6 +75,7 @@ public class DataSourcePoolImpl implements DataSourcePool {
 	private final ReadWriteLock registeredDriversLock = new ReentrantReadWriteLock();
 	private ComponentContext componentContext;
 	private boolean active;
+	private MBeanServer mBeanServer;
 	
 	@Reference(
 			bind = "addDataSourceConfiguration",
@@ -116,6 +119,39 @@ public class DataSourcePoolImpl implements DataSourcePool {
 	}
 
 
+	@Reference(
+			bind = "setMBeanServer",
+			unbind = "unsetMBeanServer",
+			cardinality = ReferenceCardinality.OPTIONAL,
+			policy = ReferencePolicy.DYNAMIC,
+			service = MBeanServer.class
+	)
+	public void setMBeanServer(MBeanServer mBeanServer) {
+		dataSourceConfigurationsLock.writeLock().lock();
+		try {
+			this.mBeanServer = mBeanServer;
+			for (RegisteredDataSource registeredDataSource : pool.values()) {
+				registeredDataSource.registerMBean(mBeanServer);
+			}
+		} finally {
+			dataSourceConfigurationsLock.writeLock().unlock();
+		}
+	}
+
+	public void unsetMBeanServer(MBeanServer mBeanServer) {
+		dataSourceConfigurationsLock.writeLock().lock();
+		try {
+			if (this.mBeanServer == mBeanServer) {
+				for (RegisteredDataSource registeredDataSource : pool.values()) {
+					registeredDataSource.unregisterMBean();
+				}
+				this.mBeanServer = null;
+			}
+		} finally {
+			dataSourceConfigurationsLock.writeLock().unlock();
+		}
+	}
+
 	@Activate
 	public void activate(ComponentContext componentContext) {
 		this.componentContext = componentContext;
@@ -239,14 +275,25 @@ public class DataSourcePoolImpl implements DataSourcePool {
 			LOG.warn("driver {} not found for datasource {}", driverClass, name);
 			return;
 		}
-		DataSource ds = createDataSourceFromConfig(configuration, driver);
+		Long longHeldConnectionThresholdMillis = configuration.getMetricsLongHeldConnectionThresholdMillis();
+		Boolean captureBorrowStackTraces = configuration.getMetricsCaptureBorrowStackTraces();
+		ConnectionPoolMetrics metrics = new ConnectionPoolMetrics(
+				name,
+				longHeldConnectionThresholdMillis == null ? DEFAULT_LONG_HELD_CONNECTION_THRESHOLD_MILLIS : longHeldConnectionThresholdMillis,
+				captureBorrowStackTraces == null ? false : captureBorrowStackTraces
+		);
+		DataSource ds = createDataSourceFromConfig(configuration, driver, metrics);
 		if (ds == null) {
 			LOG.error("could not create datasource " + name);
 			return;
 		}
-		RegisteredDataSource registeredDataSource = new RegisteredDataSource(componentContext.getBundleContext(), name, configuration, driver, ds, configuration.getSchemaName());
+		RegisteredDataSource registeredDataSource = new RegisteredDataSource(componentContext.getBundleContext(), name, configuration, driver, ds, configuration.getSchemaName(), metrics);
 		pool.put(name, registeredDataSource);
 		registeredDataSource.init();
+		MBeanServer server = mBeanServer;
+		if (server != null) {
+			registeredDataSource.registerMBean(server);
+		}
 		driver.getDataSources().add(registeredDataSource);
 		listenersLock.readLock().lock();
 		try {
@@ -353,7 +400,16 @@ public class DataSourcePoolImpl implements DataSourcePool {
 		return rds.getDataSource();
 	}
 
-	private DataSource createDataSourceFromConfig(DataSourceConfiguration configuration, RegisteredDriver driver) {
+	@Override
+	public DataSourceMetrics getMetrics(String dataSourceName) {
+		RegisteredDataSource rds = pool.get(dataSourceName);
+		if (rds == null) {
+			return null;
+		}
+		return rds.getMetrics();
+	}
+
+	private DataSource createDataSourceFromConfig(DataSourceConfiguration configuration, RegisteredDriver driver, ConnectionPoolMetrics metrics) {
 		final String driverClassName = configuration.getDriverClass();
 		if (driverClassName != null) {
 			LOG.info("creating data source with driver class: {}", driverClassName);
@@ -378,7 +434,7 @@ public class DataSourcePoolImpl implements DataSourcePool {
 				String connectUri = configuration.getJdbcUrl();
 				Properties properties = new DictionaryToPropertiesAdapter(configuration.getAdapter()).toStringProperties();
 				DriverConnectionFactory connectionFactory = new DriverConnectionFactory(sqlDriver, connectUri, properties);
-				PoolableConnectionFactory poolableConnectionFactory = new PoolableConnectionFactory(connectionFactory, null);
+				PoolableConnectionFactory poolableConnectionFactory = new InstrumentedPoolableConnectionFactory(connectionFactory, metrics);
 				if (configuration.getConnectionInitSqls() != null) {
 					poolableConnectionFactory.setConnectionInitSql(configuration.getConnectionInitSqls());
 				}
@@ -428,7 +484,7 @@ public class DataSourcePoolImpl implements DataSourcePool {
 				
 				
 				
-				GenericObjectPool<PoolableConnection> connectionPool = new GenericObjectPool<>(poolableConnectionFactory);
+				GenericObjectPool<PoolableConnection> connectionPool = new InstrumentedConnectionPool(poolableConnectionFactory, metrics);
 				if (configuration.getPoolBlockWhenExhausted() != null) {
 					connectionPool.setBlockWhenExhausted(configuration.getPoolBlockWhenExhausted());
 				}
@@ -0,0 +1,71 @@
+package org.bndly.common.datasource;
+
+/*-
+ * #%L
+ * Data Source
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.pool2.PooledObjectFactory;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+/**
+ * An InstrumentedConnectionPool reports every checkout, return and invalidation of a connection to the 
+ * {@link ConnectionPoolMetrics} of its data source.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class InstrumentedConnectionPool extends GenericObjectPool<PoolableConnection> {
+
+	private final ConnectionPoolMetrics metrics;
+
+	public InstrumentedConnectionPool(PooledObjectFactory<PoolableConnection> factory, ConnectionPoolMetrics metrics) {
+		super(factory);
+		if (metrics == null) {
+			throw new IllegalArgumentException("metrics is not allowed to be null");
+		}
+		this.metrics = metrics;
+		metrics.setPool(this);
+	}
+
+	@Override
+	public PoolableConnection borrowObject(long borrowMaxWaitMillis) throws Exception {
+		long start = System.nanoTime();
+		PoolableConnection connection;
+		try {
+			connection = super.borrowObject(borrowMaxWaitMillis);
+		} catch (Exception e) {
+			metrics.onBorrowFailed(System.nanoTime() - start);
+			throw e;
+		}
+		metrics.onBorrowed(connection, System.nanoTime() - start);
+		return connection;
+	}
+
+	@Override
+	public void returnObject(PoolableConnection connection) {
+		metrics.onReturned(connection);
+		super.returnObject(connection);
+	}
+
+	@Override
+	public void invalidateObject(PoolableConnection connection) throws Exception {
+		metrics.onInvalidated(connection);
+		super.invalidateObject(connection);
+	}
+}
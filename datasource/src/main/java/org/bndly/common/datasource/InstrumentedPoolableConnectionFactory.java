@@ -0,0 +1,96 @@
+package org.bndly.common.datasource;
+
+/*-
+ * #%L
+ * Data Source
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.dbcp2.ConnectionFactory;
+import org.apache.commons.dbcp2.DelegatingPreparedStatement;
+import org.apache.commons.dbcp2.PStmtKey;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.dbcp2.PoolableConnectionFactory;
+import org.apache.commons.dbcp2.PoolingConnection;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
+
+/**
+ * An InstrumentedPoolableConnectionFactory creates connections just like the {@link PoolableConnectionFactory}. If 
+ * statements are pooled, the statement pooling is not delegated to dbcp, because dbcp does not expose the statement pools 
+ * of its connections. Instead each new connection is wrapped in a {@link PoolingConnection} with an equally configured 
+ * pool, that is tracked by the {@link ConnectionPoolMetrics}.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class InstrumentedPoolableConnectionFactory extends PoolableConnectionFactory {
+
+	private final ConnectionPoolMetrics metrics;
+	private boolean poolStatements;
+	private int maxOpenPreparedStatements = GenericKeyedObjectPoolConfig.DEFAULT_MAX_TOTAL_PER_KEY;
+
+	public InstrumentedPoolableConnectionFactory(ConnectionFactory connectionFactory, ConnectionPoolMetrics metrics) {
+		super(connectionFactory, null);
+		if (metrics == null) {
+			throw new IllegalArgumentException("metrics is not allowed to be null");
+		}
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void setPoolStatements(boolean poolStatements) {
+		// dbcp keeps statement pooling disabled, so that it does not create a statement pool of its own
+		this.poolStatements = poolStatements;
+		metrics.setStatementPoolingEnabled(poolStatements);
+	}
+
+	@Override
+	public void setMaxOpenPrepatedStatements(int maxOpenPreparedStatements) {
+		super.setMaxOpenPrepatedStatements(maxOpenPreparedStatements);
+		this.maxOpenPreparedStatements = maxOpenPreparedStatements;
+	}
+
+	@Override
+	public PooledObject<PoolableConnection> makeObject() throws Exception {
+		PooledObject<PoolableConnection> pooledObject = super.makeObject();
+		if (poolStatements) {
+			PoolableConnection connection = pooledObject.getObject();
+			PoolingConnection poolingConnection = new PoolingConnection(connection.getDelegate());
+			// the same configuration as in PoolableConnectionFactory.makeObject()
+			GenericKeyedObjectPoolConfig config = new GenericKeyedObjectPoolConfig();
+			config.setMaxTotalPerKey(-1);
+			config.setBlockWhenExhausted(false);
+			config.setMaxWaitMillis(0);
+			config.setMaxIdlePerKey(1);
+			config.setMaxTotal(maxOpenPreparedStatements);
+			config.setJmxEnabled(false);
+			GenericKeyedObjectPool<PStmtKey, DelegatingPreparedStatement> statementPool = new GenericKeyedObjectPool<>(poolingConnection, config);
+			poolingConnection.setStatementPool(statementPool);
+			// closing the poolable connection closes the pooling connection and thereby the statement pool
+			connection.setDelegate(poolingConnection);
+			metrics.onStatementPoolCreated(connection, statementPool);
+		}
+		return pooledObject;
+	}
+
+	@Override
+	public void destroyObject(PooledObject<PoolableConnection> pooledObject) throws Exception {
+		metrics.onStatementPoolDestroyed(pooledObject.getObject());
+		super.destroyObject(pooledObject);
+	}
+}
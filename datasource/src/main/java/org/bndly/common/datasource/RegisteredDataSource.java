@@ -21,9 +21,15 @@ package org.bndly.common.datasource;
  */
 
 import org.bndly.common.osgi.util.ServiceRegistrationBuilder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 import javax.sql.DataSource;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  *
@@ -31,13 +37,19 @@ import org.osgi.framework.ServiceRegistration;
  */
 class RegisteredDataSource {
 
+	private static final Logger LOG = LoggerFactory.getLogger(RegisteredDataSource.class);
+	private static final String METRICS_DOMAIN = "org.bndly.common.datasource";
+
 	private final DataSourceConfiguration configuration;
 	private final BundleContext bundleContext;
 	private final String name;
 	private final DataSource dataSource;
 	private final String databaseSchemaName;
 	private final RegisteredDriver registeredDriver;
+	private final DataSourceMetrics metrics;
 	private ServiceRegistration registration;
+	private MBeanServer mBeanServer;
+	private ObjectName metricsObjectName;
 
 	public RegisteredDataSource(
 			BundleContext bundleContext, 
@@ -45,7 +57,8 @@ class RegisteredDataSource {
 			DataSourceConfiguration configuration, 
 			RegisteredDriver registeredDriver, 
 			DataSource dataSource, 
-			String databaseSchemaName
+			String databaseSchemaName,
+			DataSourceMetrics metrics
 	) {
 		if (bundleContext == null) {
 			throw new IllegalArgumentException("bundleContext is not allowed to be null");
@@ -68,6 +81,10 @@ class RegisteredDataSource {
 		}
 		this.dataSource = dataSource;
 		this.databaseSchemaName = databaseSchemaName;
+		if (metrics == null) {
+			throw new IllegalArgumentException("metrics is not allowed to be null");
+		}
+		this.metrics = metrics;
 	}
 
 	public DataSource getDataSource() {
@@ -90,6 +107,10 @@ class RegisteredDataSource {
 		return configuration;
 	}
 
+	public DataSourceMetrics getMetrics() {
+		return metrics;
+	}
+
 	public void init() {
 		registration = ServiceRegistrationBuilder.newInstance(DataSource.class, dataSource)
 				.pid(DataSource.class.getName() + "." + name)
@@ -101,5 +122,34 @@ class RegisteredDataSource {
 			registration.unregister();
 			registration = null;
 		}
+		unregisterMBean();
+	}
+
+	public synchronized void registerMBean(MBeanServer mBeanServer) {
+		if (this.mBeanServer != null) {
+			return;
+		}
+		try {
+			ObjectName objectName = new ObjectName(METRICS_DOMAIN + ":type=DataSourceMetrics,name=" + ObjectName.quote(name));
+			mBeanServer.registerMBean(new StandardMBean(metrics, DataSourceMetrics.class, true), objectName);
+			this.mBeanServer = mBeanServer;
+			this.metricsObjectName = objectName;
+		} catch (JMException e) {
+			LOG.error("could not register metrics of data source " + name + " as mbean: " + e.getMessage(), e);
+		}
+	}
+
+	public synchronized void unregisterMBean() {
+		if (mBeanServer == null) {
+			return;
+		}
+		try {
+			mBeanServer.unregisterMBean(metricsObjectName);
+		} catch (JMException e) {
+			LOG.warn("could not unregister metrics of data source " + name + " as mbean: " + e.getMessage(), e);
+		} finally {
+			mBeanServer = null;
+			metricsObjectName = null;
+		}
 	}
 }
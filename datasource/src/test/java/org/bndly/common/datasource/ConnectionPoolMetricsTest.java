@@ -0,0 +1,148 @@
+package org.bndly.common.datasource;
+
+/*-
+ * #%L
+ * Data Source
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class ConnectionPoolMetricsTest {
+
+	/**
+	 * A stand-in for a connection, that equals every other stand-in like a connection wrapper, that compares its delegate.
+	 */
+	private static final class EqualConnection {
+
+		@Override
+		public boolean equals(Object obj) {
+			return EqualConnection.class.isInstance(obj);
+		}
+
+		@Override
+		public int hashCode() {
+			return 1;
+		}
+	}
+
+	@Test
+	public void testBorrowAndReturn() {
+		ConnectionPoolMetrics metrics = new ConnectionPoolMetrics("test", 60000, false);
+		Object connection = new Object();
+		metrics.onBorrowed(connection, 3000000);
+		Assert.assertEquals(metrics.getBorrowRate() * 60, 1, 0.0001);
+		Assert.assertEquals(metrics.getReturnRate(), 0, 0.0001);
+		// 3ms fall into the bucket between 2ms and 5ms
+		Assert.assertEquals(metrics.getBorrowWaitTimeHistogram()[2], 1);
+		Assert.assertEquals(metrics.getLongHeldConnectionCount(), 0);
+
+		metrics.onReturned(connection);
+		Assert.assertEquals(metrics.getReturnRate() * 60, 1, 0.0001);
+		Assert.assertEquals(metrics.getLongHeldConnectionCount(), 0);
+		Assert.assertEquals(metrics.getFailedBorrowCount(), 0);
+	}
+
+	@Test
+	public void testFailedBorrow() {
+		ConnectionPoolMetrics metrics = new ConnectionPoolMetrics("test", 60000, false);
+		metrics.onBorrowFailed(20000000000L);
+		Assert.assertEquals(metrics.getFailedBorrowCount(), 1);
+		Assert.assertEquals(metrics.getBorrowRate(), 0, 0.0001);
+		long[] histogram = metrics.getBorrowWaitTimeHistogram();
+		Assert.assertEquals(histogram.length, metrics.getBorrowWaitTimeHistogramBounds().length + 1);
+		// 20s exceed the largest bound
+		Assert.assertEquals(histogram[histogram.length - 1], 1);
+	}
+
+	@Test
+	public void testLongHeldConnection() throws InterruptedException {
+		ConnectionPoolMetrics metrics = new ConnectionPoolMetrics("test", 20, true);
+		Object connection = new Object();
+		metrics.onBorrowed(connection, 0);
+		Thread.sleep(50);
+		Assert.assertEquals(metrics.getLongHeldConnectionCount(), 1);
+		String[] longHeldConnections = metrics.getLongHeldConnections();
+		Assert.assertEquals(longHeldConnections.length, 1);
+		Assert.assertTrue(longHeldConnections[0].contains("by thread " + Thread.currentThread().getName()), longHeldConnections[0]);
+		Assert.assertTrue(longHeldConnections[0].contains("testLongHeldConnection"), "the borrow stack trace is missing");
+
+		metrics.onReturned(connection);
+		Assert.assertEquals(metrics.getLongHeldConnectionCount(), 0);
+		Assert.assertEquals(metrics.getLongHeldConnections().length, 0);
+	}
+
+	@Test
+	public void testLongHeldConnectionDetectionDisabled() throws InterruptedException {
+		ConnectionPoolMetrics metrics = new ConnectionPoolMetrics("test", 0, false);
+		metrics.onBorrowed(new Object(), 0);
+		Thread.sleep(5);
+		Assert.assertEquals(metrics.getLongHeldConnectionCount(), 0);
+	}
+
+	@Test
+	public void testConnectionsAreTrackedByIdentity() throws InterruptedException {
+		ConnectionPoolMetrics metrics = new ConnectionPoolMetrics("test", 1, false);
+		EqualConnection a = new EqualConnection();
+		EqualConnection b = new EqualConnection();
+		metrics.onBorrowed(a, 0);
+		metrics.onBorrowed(b, 0);
+		Thread.sleep(10);
+		Assert.assertEquals(metrics.getLongHeldConnectionCount(), 2);
+		metrics.onReturned(a);
+		Assert.assertEquals(metrics.getLongHeldConnectionCount(), 1);
+		metrics.onInvalidated(b);
+		Assert.assertEquals(metrics.getLongHeldConnectionCount(), 0);
+	}
+
+	@Test
+	public void testConcurrentBorrowAndReturn() throws InterruptedException {
+		final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics("test", 60000, false);
+		final int iterations = 1000;
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			threads.add(new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < iterations; j++) {
+						Object connection = new Object();
+						metrics.onBorrowed(connection, 0);
+						metrics.onReturned(connection);
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(metrics.getBorrowRate() * 60, threads.size() * iterations, 0.0001);
+		Assert.assertEquals(metrics.getReturnRate() * 60, threads.size() * iterations, 0.0001);
+		Assert.assertEquals(metrics.getBorrowWaitTimeHistogram()[0], threads.size() * iterations);
+	}
+}
@@ -42,4 +42,39 @@ public interface IPBasedGeoLocator {
 	 * @return A geo location or null, if no location can be determined or if the provided IP address string can not be converted to a valid address.
 	 */
 	IPGeoLocation getGeoLocationByIPAddress(String ipAddressString);
+
+	/**
+	 * Resolves an IPv4 address to a geo location and writes the location to the provided holder. Implementations should perform this 
+	 * lookup without allocating objects.
+	 * @param ip The IPv4 address as an unsigned 32 bit value.
+	 * @param target The holder, that receives the location.
+	 * @return true, if a location has been found and written to the holder.
+	 */
+	default boolean lookupIPv4(int ip, MutableIPGeoLocation target) {
+		IPGeoLocation location = getGeoLocationByIPAddress(BigInteger.valueOf(ip & 0xffffffffL));
+		if (location == null) {
+			return false;
+		}
+		target.set(location.getLatitude(), location.getLongitude());
+		return true;
+	}
+
+	/**
+	 * Resolves an IPv6 address to a geo location and writes the location to the provided holder. IPv4 mapped addresses 
+	 * (<code>::ffff:a.b.c.d</code>) are resolved like the contained IPv4 address. Implementations should perform this lookup without 
+	 * allocating objects.
+	 * @param high The upper 64 bits of the IPv6 address.
+	 * @param low The lower 64 bits of the IPv6 address.
+	 * @param target The holder, that receives the location.
+	 * @return true, if a location has been found and written to the holder.
+	 */
+	default boolean lookupIPv6(long high, long low, MutableIPGeoLocation target) {
+		BigInteger ip = new BigInteger(Long.toUnsignedString(high)).shiftLeft(64).or(new BigInteger(Long.toUnsignedString(low)));
+		IPGeoLocation location = getGeoLocationByIPAddress(ip);
+		if (location == null) {
+			return false;
+		}
+		target.set(location.getLatitude(), location.getLongitude());
+		return true;
+	}
 }
@@ -0,0 +1,53 @@
+package org.bndly.common.ip2location;
+
+/*-
+ * #%L
+ * IP2Location
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A MutableIPGeoLocation is a reusable result holder for the allocation free lookups of the {@link IPBasedGeoLocator}. A caller, that 
+ * performs many lookups, can keep one instance per thread and pass it to every lookup.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class MutableIPGeoLocation implements IPGeoLocation {
+
+	private double latitude;
+	private double longitude;
+
+	public void set(double latitude, double longitude) {
+		this.latitude = latitude;
+		this.longitude = longitude;
+	}
+
+	@Override
+	public double getLatitude() {
+		return latitude;
+	}
+
+	@Override
+	public double getLongitude() {
+		return longitude;
+	}
+
+	@Override
+	public String toString() {
+		return latitude + "," + longitude;
+	}
+}
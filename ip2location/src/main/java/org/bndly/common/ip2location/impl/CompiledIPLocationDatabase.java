@@ -0,0 +1,253 @@
+package org.bndly.common.ip2location.impl;
+
+/*-
+ * #%L
+ * IP2Location
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.ip2location.MutableIPGeoLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The CompiledIPLocationDatabase reads the binary format, that is written by the {@link IPLocationDatabaseCompiler}. The data is usually 
+ * memory mapped, so it lives outside of the heap and is available immediately after the file has been opened. Lookups do not allocate 
+ * objects.
+ * <p>
+ * The format starts with a header of {@value #HEADER_SIZE} bytes: the magic number, the format version, the number of IPv4 ranges and the 
+ * number of IPv6 ranges. The header is followed by the IPv4 section and the IPv6 section. Every section stores its columns one after 
+ * another, so that a binary search only touches the start addresses:
+ * <ul>
+ * <li>IPv4: start addresses (int), end addresses (int), latitudes (double), longitudes (double)</li>
+ * <li>IPv6: upper and lower 64 bits of the start addresses (long), upper and lower 64 bits of the end addresses (long), latitudes (double), 
+ * longitudes (double)</li>
+ * </ul>
+ * All addresses are unsigned and all values are stored in big endian byte order. The ranges of a section are sorted by their start address.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class CompiledIPLocationDatabase {
+
+	/**
+	 * The ASCII characters "BNDLYIP2".
+	 */
+	public static final long MAGIC = 0x424E444C59495032L;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 32;
+	static final int IPV4_ENTRY_SIZE = 4 + 4 + 8 + 8;
+	static final int IPV6_ENTRY_SIZE = 4 * 8 + 8 + 8;
+
+	private final int ipv4Count;
+	private final int ipv6Count;
+	private final IntBuffer ipv4Starts;
+	private final IntBuffer ipv4Ends;
+	private final DoubleBuffer ipv4Latitudes;
+	private final DoubleBuffer ipv4Longitudes;
+	private final LongBuffer ipv6StartsHigh;
+	private final LongBuffer ipv6StartsLow;
+	private final LongBuffer ipv6EndsHigh;
+	private final LongBuffer ipv6EndsLow;
+	private final DoubleBuffer ipv6Latitudes;
+	private final DoubleBuffer ipv6Longitudes;
+
+	private CompiledIPLocationDatabase(ByteBuffer buffer) throws IOException {
+		if (buffer.capacity() < HEADER_SIZE) {
+			throw new IOException("compiled ip location database is too small");
+		}
+		if (buffer.getLong(0) != MAGIC) {
+			throw new IOException("data is not a compiled ip location database");
+		}
+		int version = buffer.getInt(8);
+		if (version != VERSION) {
+			throw new IOException("unsupported version of compiled ip location database: " + version);
+		}
+		ipv4Count = buffer.getInt(12);
+		ipv6Count = buffer.getInt(16);
+		long expectedSize = HEADER_SIZE + (long) ipv4Count * IPV4_ENTRY_SIZE + (long) ipv6Count * IPV6_ENTRY_SIZE;
+		if (ipv4Count < 0 || ipv6Count < 0 || buffer.capacity() < expectedSize) {
+			throw new IOException("compiled ip location database is truncated");
+		}
+		int pos = HEADER_SIZE;
+		ipv4Starts = slice(buffer, pos, ipv4Count * 4).asIntBuffer();
+		pos += ipv4Count * 4;
+		ipv4Ends = slice(buffer, pos, ipv4Count * 4).asIntBuffer();
+		pos += ipv4Count * 4;
+		ipv4Latitudes = slice(buffer, pos, ipv4Count * 8).asDoubleBuffer();
+		pos += ipv4Count * 8;
+		ipv4Longitudes = slice(buffer, pos, ipv4Count * 8).asDoubleBuffer();
+		pos += ipv4Count * 8;
+		ipv6StartsHigh = slice(buffer, pos, ipv6Count * 8).asLongBuffer();
+		pos += ipv6Count * 8;
+		ipv6StartsLow = slice(buffer, pos, ipv6Count * 8).asLongBuffer();
+		pos += ipv6Count * 8;
+		ipv6EndsHigh = slice(buffer, pos, ipv6Count * 8).asLongBuffer();
+		pos += ipv6Count * 8;
+		ipv6EndsLow = slice(buffer, pos, ipv6Count * 8).asLongBuffer();
+		pos += ipv6Count * 8;
+		ipv6Latitudes = slice(buffer, pos, ipv6Count * 8).asDoubleBuffer();
+		pos += ipv6Count * 8;
+		ipv6Longitudes = slice(buffer, pos, ipv6Count * 8).asDoubleBuffer();
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+		ByteBuffer duplicate = buffer.duplicate();
+		duplicate.position(position);
+		duplicate.limit(position + length);
+		return duplicate.slice();
+	}
+
+	/**
+	 * Memory maps a compiled database. The file can be closed or replaced after this method returns.
+	 * @param path the path of the compiled database
+	 * @return the database
+	 * @throws IOException if the file can not be read or if it is not a compiled database
+	 */
+	public static CompiledIPLocationDatabase map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("compiled ip location database at " + path + " is too large to be mapped");
+			}
+			return new CompiledIPLocationDatabase(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		}
+	}
+
+	/**
+	 * Wraps a compiled database, that is already available in memory.
+	 * @param buffer the data of the compiled database
+	 * @return the database
+	 * @throws IOException if the data is not a compiled database
+	 */
+	public static CompiledIPLocationDatabase wrap(ByteBuffer buffer) throws IOException {
+		return new CompiledIPLocationDatabase(buffer);
+	}
+
+	/**
+	 * Tells, if the file at the provided path starts with the magic number of a compiled database.
+	 * @param path the path of the file
+	 * @return true, if the file is a compiled database
+	 * @throws IOException if the file can not be read
+	 */
+	public static boolean isCompiledDatabase(Path path) throws IOException {
+		try (InputStream is = Files.newInputStream(path, StandardOpenOption.READ)) {
+			long magic = 0;
+			for (int i = 0; i < 8; i++) {
+				int b = is.read();
+				if (b < 0) {
+					return false;
+				}
+				magic = (magic << 8) | b;
+			}
+			return magic == MAGIC;
+		}
+	}
+
+	public int getIPv4Count() {
+		return ipv4Count;
+	}
+
+	public int getIPv6Count() {
+		return ipv6Count;
+	}
+
+	/**
+	 * Looks up the range, that contains the provided IPv4 address.
+	 * @param ip the IPv4 address as an unsigned 32 bit value
+	 * @param target the holder, that receives the location
+	 * @return true, if a range has been found
+	 */
+	public boolean lookupIPv4(int ip, MutableIPGeoLocation target) {
+		int index = findIPv4(ip);
+		if (index < 0) {
+			return false;
+		}
+		target.set(ipv4Latitudes.get(index), ipv4Longitudes.get(index));
+		return true;
+	}
+
+	/**
+	 * Looks up the range, that contains the provided IPv6 address. IPv4 mapped addresses are looked up in the IPv4 ranges.
+	 * @param high the upper 64 bits of the IPv6 address
+	 * @param low the lower 64 bits of the IPv6 address
+	 * @param target the holder, that receives the location
+	 * @return true, if a range has been found
+	 */
+	public boolean lookupIPv6(long high, long low, MutableIPGeoLocation target) {
+		if (high == 0 && (low >>> 32) == 0xffffL) {
+			return lookupIPv4((int) low, target);
+		}
+		int index = findIPv6(high, low);
+		if (index < 0) {
+			return false;
+		}
+		target.set(ipv6Latitudes.get(index), ipv6Longitudes.get(index));
+		return true;
+	}
+
+	int findIPv4(int ip) {
+		// find the last range, that starts at or before the ip
+		int low = 0;
+		int high = ipv4Count - 1;
+		int found = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (Integer.compareUnsigned(ipv4Starts.get(mid), ip) <= 0) {
+				found = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		if (found < 0 || Integer.compareUnsigned(ipv4Ends.get(found), ip) < 0) {
+			return -1;
+		}
+		return found;
+	}
+
+	int findIPv6(long ipHigh, long ipLow) {
+		int low = 0;
+		int high = ipv6Count - 1;
+		int found = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (compareUnsigned(ipv6StartsHigh.get(mid), ipv6StartsLow.get(mid), ipHigh, ipLow) <= 0) {
+				found = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		if (found < 0 || compareUnsigned(ipv6EndsHigh.get(found), ipv6EndsLow.get(found), ipHigh, ipLow) < 0) {
+			return -1;
+		}
+		return found;
+	}
+
+	static int compareUnsigned(long xHigh, long xLow, long yHigh, long yLow) {
+		int c = Long.compareUnsigned(xHigh, yHigh);
+		return c != 0 ? c : Long.compareUnsigned(xLow, yLow);
+	}
+}
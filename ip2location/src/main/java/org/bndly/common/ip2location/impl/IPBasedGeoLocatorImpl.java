@@ -22,11 +22,9 @@ package org.bndly.common.ip2location.impl;
 
 import org.bndly.common.ip2location.IPBasedGeoLocator;
 import org.bndly.common.ip2location.IPGeoLocation;
+import org.bndly.common.ip2location.MutableIPGeoLocation;
 import org.bndly.common.lang.StopWatch;
-import org.bndly.shop.common.csv.parsing.CSVDataHandler;
-import org.bndly.shop.common.csv.parsing.CSVParser;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
@@ -34,7 +32,6 @@ import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -70,10 +67,18 @@ public class IPBasedGeoLocatorImpl implements IPBasedGeoLocator {
 
 		@AttributeDefinition(
 				name = "Data location",
-				description = "Path to the IP2Location CSV with the address mappings"
+				description = "Path to the IP2Location CSV with the address mappings or to a database, that has been compiled from such a CSV"
 		)
 		String dataLocation();
 
+		@AttributeDefinition(
+				name = "Compiled data location",
+				description = "Path of the compiled binary database. If the data location points to a CSV, the CSV is compiled to this path, "
+						+ "when the compiled database is missing or older than the CSV. The compiled database is memory mapped, so restarts do not "
+						+ "parse the CSV again. If this path is empty, the CSV is compiled into memory at every activation."
+		)
+		String compiledDataLocation() default "";
+
 		@AttributeDefinition(
 				name = "Column index IP start",
 				description = "Index of the column in the CSV, that contains the start IP of the IP range"
@@ -101,8 +106,10 @@ public class IPBasedGeoLocatorImpl implements IPBasedGeoLocator {
 	}
 	
 	private String dataLocation;
+	private String compiledDataLocation;
 	private ExecutorService executorService;
-	private Future<byte[]> init;
+	private Future<CompiledIPLocationDatabase> init;
+	private volatile CompiledIPLocationDatabase database;
 	private long columnIndexIPStart;
 	private long columnIndexIPEnd;
 	private long columnIndexLatitude;
@@ -158,6 +165,7 @@ public class IPBasedGeoLocatorImpl implements IPBasedGeoLocator {
 	@Activate
 	public void activate(Configuration configuration) {
 		dataLocation = configuration.dataLocation();
+		compiledDataLocation = configuration.compiledDataLocation();
 		columnIndexIPStart = configuration.columnIndexIPStart();
 		columnIndexIPEnd = configuration.columnIndexIPEnd();
 		columnIndexLatitude = configuration.columnIndexLatitude();
@@ -165,97 +173,104 @@ public class IPBasedGeoLocatorImpl implements IPBasedGeoLocator {
 		initData();
 	}
 
-	private static class RowCountingCSVDataHandler implements CSVDataHandler {
-		private long row = 0;
-		@Override
-		public void documentOpened() {
-		}
-
-		@Override
-		public void rowOpened(long l) {
-		}
-
-		@Override
-		public void value(long l, String string, boolean bln) {
-		}
-
-		@Override
-		public void rowClosed(long l) {
-			row++;
-		}
-
-		@Override
-		public void documentClosed() {
-		}
-
-		public long getRowCount() {
-			return row;
-		}
-		
-	}
-	
 	public void initData() {
 		if (dataLocation == null) {
 			return;
 		}
-		final Path get = Paths.get(dataLocation);
-		if (!Files.isRegularFile(get)) {
+		final Path data = Paths.get(dataLocation);
+		if (!Files.isRegularFile(data)) {
 			LOG.error("could not find ip2location data at {}", dataLocation);
 			return;
 		}
+		try {
+			if (CompiledIPLocationDatabase.isCompiledDatabase(data)) {
+				database = map(data);
+				return;
+			}
+		} catch (IOException ex) {
+			LOG.error("could not load compiled ip2location data at " + data, ex);
+			return;
+		}
+		final Path compiled = compiledDataLocation == null || compiledDataLocation.isEmpty() ? null : Paths.get(compiledDataLocation);
+		if (compiled != null && isUpToDate(compiled, data)) {
+			try {
+				database = map(compiled);
+				return;
+			} catch (IOException ex) {
+				LOG.warn("could not load compiled ip2location data at {}. the CSV will be compiled again: {}", compiled, ex.getMessage());
+			}
+		}
 		if (executorService == null) {
 			executorService = Executors.newSingleThreadExecutor();
 		}
-		init = executorService.submit(new Callable<byte[]>() {
+		init = executorService.submit(new Callable<CompiledIPLocationDatabase>() {
 			@Override
-			public byte[] call() throws IOException {
-				// first we count the entries, so we don't waste time when writing the parsed results to an in memory array
-				RowCountingCSVDataHandler rowCountingCSVDataHandler = new RowCountingCSVDataHandler();
-				try (InputStream is = Files.newInputStream(get, StandardOpenOption.READ)) {
-					new CSVParser().parse(new BufferedInputStream(is), rowCountingCSVDataHandler);
-				}
-				LOG.info("the CSV at '{}' contains {} entries", get, rowCountingCSVDataHandler.getRowCount());
-				long byteArraySize = rowCountingCSVDataHandler.getRowCount() * 24; // 24 byte per entry
-				byte[] bytes = new byte[(int)byteArraySize];
-				try (InputStream is = Files.newInputStream(get, StandardOpenOption.READ)) {
-					StopWatch sw = new StopWatch().start();
-					System.out.println("parsing to bytes...");
-					new CSVParser().parse(new BufferedInputStream(is), new ByteBasedCSVDataHandler(bytes, columnIndexIPStart, columnIndexIPEnd, columnIndexLatitude, columnIndexLongitude));
-					System.out.println("parsing to bytes done in " + sw.stop().getMillis() + "ms.");
+			public CompiledIPLocationDatabase call() throws IOException {
+				IPLocationDatabaseCompiler compiler = new IPLocationDatabaseCompiler(
+						columnIndexIPStart, columnIndexIPEnd, columnIndexLatitude, columnIndexLongitude
+				);
+				StopWatch sw = new StopWatch().start();
+				CompiledIPLocationDatabase db;
+				if (compiled == null) {
+					try (InputStream is = Files.newInputStream(data, StandardOpenOption.READ)) {
+						db = CompiledIPLocationDatabase.wrap(compiler.compile(is));
+					}
+				} else {
+					compiler.compile(data, compiled);
+					db = CompiledIPLocationDatabase.map(compiled);
 				}
-				return bytes;
+				LOG.info(
+						"compiled the CSV at '{}' with {} IPv4 and {} IPv6 ranges in {}ms",
+						data, db.getIPv4Count(), db.getIPv6Count(), sw.stop().getMillis()
+				);
+				return db;
 			}
 
 		});
 	}
 
+	private static boolean isUpToDate(Path compiled, Path csv) {
+		try {
+			return Files.isRegularFile(compiled) && Files.getLastModifiedTime(compiled).compareTo(Files.getLastModifiedTime(csv)) >= 0;
+		} catch (IOException ex) {
+			return false;
+		}
+	}
+
+	private static CompiledIPLocationDatabase map(Path path) throws IOException {
+		CompiledIPLocationDatabase db = CompiledIPLocationDatabase.map(path);
+		LOG.info("mapped the compiled ip2location data at '{}' with {} IPv4 and {} IPv6 ranges", path, db.getIPv4Count(), db.getIPv6Count());
+		return db;
+	}
+
 	@Deactivate
 	public void deactivate() {
 		if (init != null) {
 			init.cancel(true);
 			init = null;
 		}
+		database = null;
 		if (executorService != null) {
 			executorService.shutdown();
 			executorService = null;
 		}
 	}
 
-	@Override
-	public IPGeoLocation getGeoLocationByIPAddress(BigInteger ip) {
-		if (init == null) {
-			LOG.warn("ip2location could not be loaded during activation. therefore {} can not be resolved to a location", ip);
+	private CompiledIPLocationDatabase getDatabase() {
+		CompiledIPLocationDatabase db = database;
+		if (db != null) {
+			return db;
+		}
+		Future<CompiledIPLocationDatabase> f = init;
+		if (f == null) {
 			return null;
 		}
 		try {
-			byte[] entries = init.get();
-			long longValue = ip.longValue();
-			int ipInt = (int) ((longValue & 0xff000000) >> 24);
-			ipInt = (ipInt << 8) | (int) ((longValue & 0x00ff0000) >> 16);
-			ipInt = (ipInt << 8) | (int) ((longValue & 0x0000ff00) >> 8);
-			ipInt = (ipInt << 8) | (int) (longValue & 0x000000ff);
-			return search(entries, 0, entries.length/24, ipInt);
+			db = f.get();
+			database = db;
+			return db;
 		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
 			return null;
 		} catch (ExecutionException ex) {
 			// log the execution exception.
@@ -263,57 +278,45 @@ public class IPBasedGeoLocatorImpl implements IPBasedGeoLocator {
 			return null;
 		}
 	}
-	
-	private double toDouble(byte[] bytes, int pos) {
-		return ByteBuffer.wrap(bytes, pos, 8).getDouble();
-	}
-	
-	private int toInt(byte[] bytes, int pos) {
-		return ((bytes[pos + 0] & 0xff) << 24)
-				| ((bytes[pos + 1] & 0xff) << 16)
-				| ((bytes[pos + 2] & 0xff) << 8)
-				| (bytes[pos + 3] & 0xff);
-	}
 
-	private static int compareUnsigned(int x, int y) {
-		// by adding MIN_VALUE we perform a "rolling-shift" of the in value.
-		// when dealing with an unsigned int, it would be negativ as a signed int. therefore by adding the min value, we bring the int in a natural order.
-		x = x + Integer.MIN_VALUE;
-		y = y + Integer.MIN_VALUE;
-		return (x < y) ? -1 : ((x == y) ? 0 : 1);
+	/**
+	 * Resolves the provided IP address. IP addresses, that fit into 32 bits, are treated as IPv4 addresses. The value may also be the 
+	 * signed interpretation of the 4 bytes of an IPv4 address or of the 16 bytes of an IPv6 address. Therefore IPv6 addresses, 
+	 * that fit into 32 bits or whose upper 96 bits are set, can not be told apart from IPv4 addresses. Such addresses should be 
+	 * resolved with {@link #getGeoLocationByIPAddress(java.lang.String)} or {@link #lookupIPv6(long, long, org.bndly.common.ip2location.MutableIPGeoLocation)}.
+	 * @param ip The IP address to look up in the index of IP to geo location mappings.
+	 * @return A geo location or null, if no location can be determined.
+	 */
+	@Override
+	public IPGeoLocation getGeoLocationByIPAddress(BigInteger ip) {
+		MutableIPGeoLocation location = new MutableIPGeoLocation();
+		boolean found;
+		if (ip.bitLength() <= 32) {
+			found = lookupIPv4(ip.intValue(), location);
+		} else {
+			found = lookupIPv6(ip.shiftRight(64).longValue(), ip.longValue(), location);
+		}
+		return found ? location : null;
 	}
 
-	IPGeoLocation search(byte[] bytes, int left, int right, int ip) {
-		if (left >= right) {
-			return null;
-		}
-		int pos = left + (right - left) / 2;
-		int shift = pos * 24;
-		int ipStart = toInt(bytes, shift);
-		if (compareUnsigned(ipStart, ip) > 0) {
-			// target is left
-			return search(bytes, left, pos, ip);
+	@Override
+	public boolean lookupIPv4(int ip, MutableIPGeoLocation target) {
+		CompiledIPLocationDatabase db = getDatabase();
+		if (db == null) {
+			LOG.warn("ip2location could not be loaded during activation. therefore {} can not be resolved to a location", Integer.toUnsignedString(ip));
+			return false;
 		}
-		int ipEnd = toInt(bytes, shift + 4);
-		if (compareUnsigned(ipEnd, ip) < 0) {
-			// target is right
-			return search(bytes, pos + 1, right, ip);
-		} else {
-			// target is in the range
-			final double lat = toDouble(bytes, shift + 8);
-			final double lng = toDouble(bytes, shift + 16);
-			return new IPGeoLocation() {
-				@Override
-				public double getLatitude() {
-					return lat;
-				}
+		return db.lookupIPv4(ip, target);
+	}
 
-				@Override
-				public double getLongitude() {
-					return lng;
-				}
-			};
+	@Override
+	public boolean lookupIPv6(long high, long low, MutableIPGeoLocation target) {
+		CompiledIPLocationDatabase db = getDatabase();
+		if (db == null) {
+			LOG.warn("ip2location could not be loaded during activation. therefore {}:{} can not be resolved to a location", Long.toHexString(high), Long.toHexString(low));
+			return false;
 		}
+		return db.lookupIPv6(high, low, target);
 	}
 	
 	Entry search(Entry[] entries, int left, int right, BigInteger ip) {
@@ -344,18 +347,31 @@ public class IPBasedGeoLocatorImpl implements IPBasedGeoLocator {
 				return null;
 			}
 
+			MutableIPGeoLocation location = new MutableIPGeoLocation();
+			boolean found;
 			if (Inet4Address.class.isInstance(address)) {
-				return getGeoLocationByIPAddress(new BigInteger(((Inet4Address) address).getAddress()));
+				byte[] b = address.getAddress();
+				found = lookupIPv4(((b[0] & 0xff) << 24) | ((b[1] & 0xff) << 16) | ((b[2] & 0xff) << 8) | (b[3] & 0xff), location);
 			} else if (Inet6Address.class.isInstance(address)) {
-				return getGeoLocationByIPAddress(new BigInteger(((Inet6Address) address).getAddress()));
+				byte[] b = address.getAddress();
+				found = lookupIPv6(toLong(b, 0), toLong(b, 8), location);
 			} else {
 				return null;
 			}
+			return found ? location : null;
 		} catch (UnknownHostException ex) {
 			return null;
 		}
 	}
 
+	private static long toLong(byte[] bytes, int pos) {
+		long value = 0;
+		for (int i = pos; i < pos + 8; i++) {
+			value = (value << 8) | (bytes[i] & 0xff);
+		}
+		return value;
+	}
+
 	/**
 	 * This setter exists only for testing purpose.
 	 * @param dataLocation the location of the CSV with the ip data
@@ -364,6 +380,14 @@ public class IPBasedGeoLocatorImpl implements IPBasedGeoLocator {
 		this.dataLocation = dataLocation;
 	}
 
+	/**
+	 * This setter exists only for testing purpose.
+	 * @param compiledDataLocation the location of the compiled ip data
+	 */
+	void setCompiledDataLocation(String compiledDataLocation) {
+		this.compiledDataLocation = compiledDataLocation;
+	}
+
 	/**
 	 * This setter exists only for testing purpose.
 	 * @param columnIndexIPStart index of the ip start column
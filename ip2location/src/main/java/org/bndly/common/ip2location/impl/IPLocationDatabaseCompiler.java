@@ -0,0 +1,401 @@
+package org.bndly.common.ip2location.impl;
+
+/*-
+ * #%L
+ * IP2Location
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.shop.common.csv.CSVConfig;
+import org.bndly.shop.common.csv.parsing.CSVDataHandler;
+import org.bndly.shop.common.csv.parsing.CSVParser;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The IPLocationDatabaseCompiler converts an IP2Location CSV into the binary format of the {@link CompiledIPLocationDatabase}. The CSV may 
+ * contain IPv4 ranges, IPv6 ranges or both. IPv6 ranges within the IPv4 mapped address space (<code>::ffff:0:0/96</code>) are stored as 
+ * IPv4 ranges. Rows with values, that can not be parsed, are skipped.
+ * <p>
+ * The compiler can be run from the command line:
+ * <pre>java -cp ... org.bndly.common.ip2location.impl.IPLocationDatabaseCompiler &lt;csv&gt; &lt;target&gt; [ipStartColumn ipEndColumn latitudeColumn longitudeColumn]</pre>
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class IPLocationDatabaseCompiler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(IPLocationDatabaseCompiler.class);
+	private static final BigInteger MAX_IPV4 = BigInteger.valueOf(0xffffffffL);
+	private static final BigInteger IPV4_MAPPED_START = BigInteger.valueOf(0xffff00000000L);
+	private static final BigInteger IPV4_MAPPED_END = BigInteger.valueOf(0xffffffffffffL);
+	private static final BigInteger MAX_IPV6 = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+
+	private final long columnIndexIPStart;
+	private final long columnIndexIPEnd;
+	private final long columnIndexLatitude;
+	private final long columnIndexLongitude;
+
+	public IPLocationDatabaseCompiler(long columnIndexIPStart, long columnIndexIPEnd, long columnIndexLatitude, long columnIndexLongitude) {
+		this.columnIndexIPStart = columnIndexIPStart;
+		this.columnIndexIPEnd = columnIndexIPEnd;
+		this.columnIndexLatitude = columnIndexLatitude;
+		this.columnIndexLongitude = columnIndexLongitude;
+	}
+
+	/**
+	 * Compiles the CSV into a heap buffer.
+	 * @param csv the IP2Location CSV
+	 * @return the compiled database, that can be passed to {@link CompiledIPLocationDatabase#wrap(java.nio.ByteBuffer)}
+	 */
+	public ByteBuffer compile(InputStream csv) throws IOException {
+		RangeCollectingCSVDataHandler handler = new RangeCollectingCSVDataHandler();
+		BufferedInputStream bis = new BufferedInputStream(csv);
+		final String newLine = detectNewLine(bis);
+		new CSVParser(new CSVConfig() {
+			@Override
+			public String getNewLine() {
+				return newLine;
+			}
+
+			@Override
+			public String getQuote() {
+				return CSVConfig.DEFAULT.getQuote();
+			}
+
+			@Override
+			public String getSeparator() {
+				return CSVConfig.DEFAULT.getSeparator();
+			}
+		}).parse(bis, handler);
+		if (handler.skipped > 0) {
+			LOG.warn("skipped {} rows of the ip2location CSV, because they could not be parsed", handler.skipped);
+		}
+		return handler.write();
+	}
+
+	/**
+	 * IP2Location ships its CSVs with windows line breaks, but the line breaks may have been converted, when the CSV has been copied.
+	 */
+	private static String detectNewLine(BufferedInputStream bis) throws IOException {
+		int limit = 64 * 1024;
+		bis.mark(limit);
+		try {
+			int previous = -1;
+			for (int i = 0; i < limit; i++) {
+				int b = bis.read();
+				if (b < 0) {
+					break;
+				}
+				if (b == '\n') {
+					return previous == '\r' ? "\r\n" : "\n";
+				}
+				previous = b;
+			}
+			return CSVConfig.DEFAULT.getNewLine();
+		} finally {
+			bis.reset();
+		}
+	}
+
+	/**
+	 * Compiles the CSV at the source path to the target path. The compiled database is written to a temporary file first, so that a 
+	 * database, that is currently mapped, is replaced atomically.
+	 * @param source the path of the IP2Location CSV
+	 * @param target the path of the compiled database
+	 * @throws IOException if the CSV can not be read or the compiled database can not be written
+	 */
+	public void compile(Path source, Path target) throws IOException {
+		ByteBuffer compiled;
+		try (InputStream is = Files.newInputStream(source, StandardOpenOption.READ)) {
+			compiled = compile(is);
+		}
+		Path directory = target.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path tmp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (compiled.hasRemaining()) {
+					channel.write(compiled);
+				}
+				channel.force(false);
+			}
+			try {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2 && args.length != 6) {
+			System.err.println(
+					"usage: " + IPLocationDatabaseCompiler.class.getName() + " <csv> <target> [ipStartColumn ipEndColumn latitudeColumn longitudeColumn]"
+			);
+			System.exit(1);
+			return;
+		}
+		IPLocationDatabaseCompiler compiler;
+		if (args.length == 6) {
+			compiler = new IPLocationDatabaseCompiler(Long.parseLong(args[2]), Long.parseLong(args[3]), Long.parseLong(args[4]), Long.parseLong(args[5]));
+		} else {
+			// the column layout of the IP2Location DB5 CSVs
+			compiler = new IPLocationDatabaseCompiler(0, 1, 6, 7);
+		}
+		Path target = Paths.get(args[1]);
+		compiler.compile(Paths.get(args[0]), target);
+		CompiledIPLocationDatabase database = CompiledIPLocationDatabase.map(target);
+		System.out.println(
+				"compiled " + database.getIPv4Count() + " IPv4 ranges and " + database.getIPv6Count() + " IPv6 ranges to " + target
+		);
+	}
+
+	private class RangeCollectingCSVDataHandler implements CSVDataHandler {
+
+		private String ipStart;
+		private String ipEnd;
+		private String lat;
+		private String lng;
+		private long skipped;
+
+		private int ipv4Count;
+		private int[] ipv4Starts = new int[1024];
+		private int[] ipv4Ends = new int[1024];
+		private double[] ipv4Latitudes = new double[1024];
+		private double[] ipv4Longitudes = new double[1024];
+
+		private int ipv6Count;
+		private long[] ipv6Starts = new long[2 * 1024];
+		private long[] ipv6Ends = new long[2 * 1024];
+		private double[] ipv6Latitudes = new double[1024];
+		private double[] ipv6Longitudes = new double[1024];
+
+		@Override
+		public void documentOpened() {
+		}
+
+		@Override
+		public void rowOpened(long rowIndex) {
+			ipStart = null;
+			ipEnd = null;
+			lat = null;
+			lng = null;
+		}
+
+		@Override
+		public void value(long index, String value, boolean quoted) {
+			if (columnIndexIPStart == index) {
+				ipStart = value;
+			} else if (columnIndexIPEnd == index) {
+				ipEnd = value;
+			} else if (columnIndexLatitude == index) {
+				lat = value;
+			} else if (columnIndexLongitude == index) {
+				lng = value;
+			}
+		}
+
+		@Override
+		public void rowClosed(long rowIndex) {
+			if (ipStart == null || ipEnd == null || lat == null || lng == null) {
+				skipped++;
+				return;
+			}
+			BigInteger start;
+			BigInteger end;
+			double latitude;
+			double longitude;
+			try {
+				start = new BigInteger(ipStart.trim());
+				end = new BigInteger(ipEnd.trim());
+				latitude = Double.parseDouble(lat);
+				longitude = Double.parseDouble(lng);
+			} catch (NumberFormatException e) {
+				skipped++;
+				return;
+			}
+			if (start.signum() < 0 || end.compareTo(MAX_IPV6) > 0 || start.compareTo(end) > 0) {
+				skipped++;
+				return;
+			}
+			if (end.compareTo(MAX_IPV4) <= 0) {
+				addIPv4(start.intValue(), end.intValue(), latitude, longitude);
+			} else if (start.compareTo(IPV4_MAPPED_START) >= 0 && end.compareTo(IPV4_MAPPED_END) <= 0) {
+				addIPv4(start.intValue(), end.intValue(), latitude, longitude);
+			} else {
+				addIPv6(start.shiftRight(64).longValue(), start.longValue(), end.shiftRight(64).longValue(), end.longValue(), latitude, longitude);
+			}
+		}
+
+		@Override
+		public void documentClosed() {
+		}
+
+		private void addIPv4(int start, int end, double latitude, double longitude) {
+			if (ipv4Count == ipv4Starts.length) {
+				int size = ipv4Count * 2;
+				ipv4Starts = Arrays.copyOf(ipv4Starts, size);
+				ipv4Ends = Arrays.copyOf(ipv4Ends, size);
+				ipv4Latitudes = Arrays.copyOf(ipv4Latitudes, size);
+				ipv4Longitudes = Arrays.copyOf(ipv4Longitudes, size);
+			}
+			ipv4Starts[ipv4Count] = start;
+			ipv4Ends[ipv4Count] = end;
+			ipv4Latitudes[ipv4Count] = latitude;
+			ipv4Longitudes[ipv4Count] = longitude;
+			ipv4Count++;
+		}
+
+		private void addIPv6(long startHigh, long startLow, long endHigh, long endLow, double latitude, double longitude) {
+			if (ipv6Count == ipv6Latitudes.length) {
+				int size = ipv6Count * 2;
+				ipv6Starts = Arrays.copyOf(ipv6Starts, size * 2);
+				ipv6Ends = Arrays.copyOf(ipv6Ends, size * 2);
+				ipv6Latitudes = Arrays.copyOf(ipv6Latitudes, size);
+				ipv6Longitudes = Arrays.copyOf(ipv6Longitudes, size);
+			}
+			ipv6Starts[ipv6Count * 2] = startHigh;
+			ipv6Starts[ipv6Count * 2 + 1] = startLow;
+			ipv6Ends[ipv6Count * 2] = endHigh;
+			ipv6Ends[ipv6Count * 2 + 1] = endLow;
+			ipv6Latitudes[ipv6Count] = latitude;
+			ipv6Longitudes[ipv6Count] = longitude;
+			ipv6Count++;
+		}
+
+		private ByteBuffer write() {
+			Integer[] ipv4Order = sortIPv4();
+			Integer[] ipv6Order = sortIPv6();
+			long size = CompiledIPLocationDatabase.HEADER_SIZE
+					+ (long) ipv4Count * CompiledIPLocationDatabase.IPV4_ENTRY_SIZE
+					+ (long) ipv6Count * CompiledIPLocationDatabase.IPV6_ENTRY_SIZE;
+			if (size > Integer.MAX_VALUE) {
+				throw new IllegalStateException("too many ip ranges for a compiled ip location database");
+			}
+			ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+			buffer.putLong(CompiledIPLocationDatabase.MAGIC);
+			buffer.putInt(CompiledIPLocationDatabase.VERSION);
+			buffer.putInt(ipv4Count);
+			buffer.putInt(ipv6Count);
+			buffer.position(CompiledIPLocationDatabase.HEADER_SIZE);
+			for (int i = 0; i < ipv4Count; i++) {
+				buffer.putInt(ipv4Starts[index(ipv4Order, i)]);
+			}
+			for (int i = 0; i < ipv4Count; i++) {
+				buffer.putInt(ipv4Ends[index(ipv4Order, i)]);
+			}
+			for (int i = 0; i < ipv4Count; i++) {
+				buffer.putDouble(ipv4Latitudes[index(ipv4Order, i)]);
+			}
+			for (int i = 0; i < ipv4Count; i++) {
+				buffer.putDouble(ipv4Longitudes[index(ipv4Order, i)]);
+			}
+			for (int i = 0; i < ipv6Count; i++) {
+				buffer.putLong(ipv6Starts[index(ipv6Order, i) * 2]);
+			}
+			for (int i = 0; i < ipv6Count; i++) {
+				buffer.putLong(ipv6Starts[index(ipv6Order, i) * 2 + 1]);
+			}
+			for (int i = 0; i < ipv6Count; i++) {
+				buffer.putLong(ipv6Ends[index(ipv6Order, i) * 2]);
+			}
+			for (int i = 0; i < ipv6Count; i++) {
+				buffer.putLong(ipv6Ends[index(ipv6Order, i) * 2 + 1]);
+			}
+			for (int i = 0; i < ipv6Count; i++) {
+				buffer.putDouble(ipv6Latitudes[index(ipv6Order, i)]);
+			}
+			for (int i = 0; i < ipv6Count; i++) {
+				buffer.putDouble(ipv6Longitudes[index(ipv6Order, i)]);
+			}
+			buffer.flip();
+			return buffer;
+		}
+
+		private int index(Integer[] order, int i) {
+			return order == null ? i : order[i];
+		}
+
+		/**
+		 * IP2Location CSVs are sorted already. The order is only computed, if a CSV is not sorted.
+		 * @return the sorted indexes or null, if the ranges are already sorted
+		 */
+		private Integer[] sortIPv4() {
+			boolean sorted = true;
+			for (int i = 1; i < ipv4Count && sorted; i++) {
+				sorted = Integer.compareUnsigned(ipv4Starts[i - 1], ipv4Starts[i]) <= 0;
+			}
+			if (sorted) {
+				return null;
+			}
+			Integer[] order = createOrder(ipv4Count);
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return Integer.compareUnsigned(ipv4Starts[o1], ipv4Starts[o2]);
+				}
+			});
+			return order;
+		}
+
+		private Integer[] sortIPv6() {
+			boolean sorted = true;
+			for (int i = 1; i < ipv6Count && sorted; i++) {
+				sorted = compareIPv6Starts(i - 1, i) <= 0;
+			}
+			if (sorted) {
+				return null;
+			}
+			Integer[] order = createOrder(ipv6Count);
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return compareIPv6Starts(o1, o2);
+				}
+			});
+			return order;
+		}
+
+		private int compareIPv6Starts(int x, int y) {
+			return CompiledIPLocationDatabase.compareUnsigned(ipv6Starts[x * 2], ipv6Starts[x * 2 + 1], ipv6Starts[y * 2], ipv6Starts[y * 2 + 1]);
+		}
+
+		private Integer[] createOrder(int count) {
+			Integer[] order = new Integer[count];
+			for (int i = 0; i < count; i++) {
+				order[i] = i;
+			}
+			return order;
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package org.bndly.common.ip2location.impl;
+
+/*-
+ * #%L
+ * IP2Location
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.ip2location.IPGeoLocation;
+import org.bndly.common.ip2location.MutableIPGeoLocation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class CompiledIPLocationDatabaseTest {
+
+	private static final String IPV6_CSV = ""
+			// ::ffff:1.0.0.0 - ::ffff:1.0.0.255 is an IPv4 mapped range
+			+ "\"281470698520576\",\"281470698520831\",\"AU\",\"Australia\",\"Queensland\",\"Brisbane\",\"-27.467940\",\"153.028090\"\n"
+			// 2001:200:: - 2001:200:ffff:ffff:ffff:ffff:ffff:ffff
+			+ "\"42540528726795050063891204319802818560\",\"42540528806023212578155541913346768895\",\"JP\",\"Japan\",\"Tokyo\",\"Tokyo\",\"35.689500\",\"139.691710\"\n"
+			// ff00:: - ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff
+			+ "\"338953138925153547590470800371487866880\",\"340282366920938463463374607431768211455\",\"-\",\"-\",\"-\",\"-\",\"1.000000\",\"2.000000\"\n";
+
+	private static final String MIXED_CSV = ""
+			// 0.0.0.0 - 1.2.255.255
+			+ "\"0\",\"16973823\",\"-\",\"-\",\"-\",\"-\",\"5.000000\",\"6.000000\"\n"
+			// ff00:: - ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff
+			+ "\"338953138925153547590470800371487866880\",\"340282366920938463463374607431768211455\",\"-\",\"-\",\"-\",\"-\",\"1.000000\",\"2.000000\"\n";
+
+	private CompiledIPLocationDatabase compileTestCSV() throws IOException {
+		try (InputStream is = getClass().getClassLoader().getResourceAsStream("IP2LOCATION-LITE-DB5.CSV")) {
+			return CompiledIPLocationDatabase.wrap(new IPLocationDatabaseCompiler(0, 1, 6, 7).compile(is));
+		}
+	}
+
+	@Test
+	public void testIPv4Lookup() throws IOException {
+		CompiledIPLocationDatabase database = compileTestCSV();
+		Assert.assertEquals(database.getIPv4Count(), 7);
+		Assert.assertEquals(database.getIPv6Count(), 0);
+
+		MutableIPGeoLocation location = new MutableIPGeoLocation();
+		// 1.0.0.0 is the first address of the brisbane range
+		Assert.assertTrue(database.lookupIPv4(16777216, location));
+		Assert.assertEquals(location.getLatitude(), -27.467940);
+		Assert.assertEquals(location.getLongitude(), 153.028090);
+		// 1.0.3.255 is the last address of the fuzhou range
+		Assert.assertTrue(database.lookupIPv4(16778239, location));
+		Assert.assertEquals(location.getLatitude(), 26.061390);
+		Assert.assertEquals(location.getLongitude(), 119.306110);
+		// 1.0.15.255 is the last address of the test data
+		Assert.assertTrue(database.lookupIPv4(16781311, location));
+		Assert.assertEquals(location.getLatitude(), 23.116670);
+		Assert.assertEquals(location.getLongitude(), 113.250000);
+		// 255.0.0.1 is not covered by the test data
+		Assert.assertFalse(database.lookupIPv4(0xff000001, location));
+		// ::ffff:1.0.0.0 is looked up as 1.0.0.0
+		Assert.assertTrue(database.lookupIPv6(0, 0xffff01000000L, location));
+		Assert.assertEquals(location.getLatitude(), -27.467940);
+	}
+
+	@Test
+	public void testIPv6Lookup() throws IOException {
+		CompiledIPLocationDatabase database = CompiledIPLocationDatabase.wrap(
+				new IPLocationDatabaseCompiler(0, 1, 6, 7).compile(new ByteArrayInputStream(IPV6_CSV.getBytes(StandardCharsets.UTF_8)))
+		);
+		Assert.assertEquals(database.getIPv4Count(), 1);
+		Assert.assertEquals(database.getIPv6Count(), 2);
+
+		MutableIPGeoLocation location = new MutableIPGeoLocation();
+		Assert.assertTrue(database.lookupIPv4(0x010000ff, location));
+		Assert.assertEquals(location.getLatitude(), -27.467940);
+		// 2001:200::1
+		Assert.assertTrue(database.lookupIPv6(0x2001020000000000L, 1, location));
+		Assert.assertEquals(location.getLatitude(), 35.689500);
+		Assert.assertEquals(location.getLongitude(), 139.691710);
+		// 2001:201::
+		Assert.assertFalse(database.lookupIPv6(0x2001020100000000L, 0, location));
+		// ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff requires an unsigned comparison
+		Assert.assertTrue(database.lookupIPv6(-1L, -1L, location));
+		Assert.assertEquals(location.getLatitude(), 1.0);
+	}
+
+	@Test
+	public void testLocatorDoesNotResolveIPv6AddressesAsIPv4() throws IOException {
+		Path dir = Files.createTempDirectory("ip2location");
+		Path csv = dir.resolve("ip.csv");
+		try {
+			Files.write(csv, MIXED_CSV.getBytes(StandardCharsets.UTF_8));
+			IPBasedGeoLocatorImpl locator = new IPBasedGeoLocatorImpl();
+			locator.setDataLocation(csv.toString());
+			locator.setColumnIndexIPStart(0);
+			locator.setColumnIndexIPEnd(1);
+			locator.setColumnIndexLatitude(6);
+			locator.setColumnIndexLongitude(7);
+			locator.initData();
+			IPGeoLocation location = locator.getGeoLocationByIPAddress("1.2.3.4");
+			Assert.assertNotNull(location);
+			Assert.assertEquals(location.getLatitude(), 5.0);
+			// ::1 is not 0.0.0.1
+			Assert.assertNull(locator.getGeoLocationByIPAddress("::1"));
+			// ::1.2.3.4 is an IPv6 address, that is not covered by the test data
+			Assert.assertNull(locator.getGeoLocationByIPAddress("::1.2.3.4"));
+			// a negative value as a signed BigInteger, but not an IPv4 address
+			location = locator.getGeoLocationByIPAddress("ffff:ffff:ffff:ffff:ffff:ffff:102:304");
+			Assert.assertNotNull(location);
+			Assert.assertEquals(location.getLatitude(), 1.0);
+			// the IPv4 mapped address is looked up as IPv4 address
+			location = locator.getGeoLocationByIPAddress("::ffff:1.2.3.4");
+			Assert.assertNotNull(location);
+			Assert.assertEquals(location.getLatitude(), 5.0);
+			locator.deactivate();
+		} finally {
+			Files.deleteIfExists(csv);
+			Files.deleteIfExists(dir);
+		}
+	}
+
+	@Test
+	public void testLocatorMapsCompiledDatabase() throws IOException {
+		Path dir = Files.createTempDirectory("ip2location");
+		Path csv = dir.resolve("ip.csv");
+		Path compiled = dir.resolve("ip.bin");
+		try {
+			Files.write(csv, IPV6_CSV.getBytes(StandardCharsets.UTF_8));
+			IPBasedGeoLocatorImpl locator = new IPBasedGeoLocatorImpl();
+			locator.setDataLocation(csv.toString());
+			locator.setCompiledDataLocation(compiled.toString());
+			locator.setColumnIndexIPStart(0);
+			locator.setColumnIndexIPEnd(1);
+			locator.setColumnIndexLatitude(6);
+			locator.setColumnIndexLongitude(7);
+			locator.initData();
+			IPGeoLocation location = locator.getGeoLocationByIPAddress("2001:200::1");
+			Assert.assertNotNull(location);
+			Assert.assertEquals(location.getLatitude(), 35.689500);
+			locator.deactivate();
+			Assert.assertTrue(CompiledIPLocationDatabase.isCompiledDatabase(compiled));
+
+			// the compiled database can be used directly
+			locator = new IPBasedGeoLocatorImpl();
+			locator.setDataLocation(compiled.toString());
+			locator.initData();
+			location = locator.getGeoLocationByIPAddress("1.0.0.1");
+			Assert.assertNotNull(location);
+			Assert.assertEquals(location.getLongitude(), 153.028090);
+			location = locator.getGeoLocationByIPAddress(new BigInteger(1, new byte[]{0x20, 0x01, 0x02, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1}));
+			Assert.assertNotNull(location);
+			Assert.assertEquals(location.getLongitude(), 139.691710);
+			locator.deactivate();
+		} finally {
+			Files.deleteIfExists(compiled);
+			Files.deleteIfExists(csv);
+			Files.deleteIfExists(dir);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package org.bndly.common.ip2location.impl;
+
+/*-
+ * #%L
+ * IP2Location
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.ip2location.MutableIPGeoLocation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the lookups per second of the {@link CompiledIPLocationDatabase} with a generated database of consecutive IPv4 and IPv6 
+ * ranges. The benchmark is not executed by the test suite. Run it with the main method from the test classpath.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IPLocationLookupBenchmark {
+
+	private static final int ADDRESSES = 4096;
+
+	@Param({"10000", "1000000"})
+	private int ranges;
+
+	private CompiledIPLocationDatabase database;
+	private int[] ipv4Addresses;
+	private long[] ipv6Addresses;
+	private int index;
+
+	@State(Scope.Thread)
+	public static class Target {
+
+		private final MutableIPGeoLocation location = new MutableIPGeoLocation();
+	}
+
+	@Setup
+	public void setup() throws IOException {
+		// every IPv4 range covers 256 addresses, every IPv6 range covers a /48 network
+		StringBuilder csv = new StringBuilder();
+		for (int i = 0; i < ranges; i++) {
+			long start = 0x01000000L + i * 256L;
+			appendRow(csv, Long.toString(start), Long.toString(start + 255), i);
+		}
+		for (int i = 0; i < ranges; i++) {
+			BigInteger start = BigInteger.valueOf(0x20010000L + i).shiftLeft(96);
+			BigInteger end = start.add(BigInteger.ONE.shiftLeft(80)).subtract(BigInteger.ONE);
+			appendRow(csv, start.toString(), end.toString(), i);
+		}
+		database = CompiledIPLocationDatabase.wrap(
+				new IPLocationDatabaseCompiler(0, 1, 2, 3).compile(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.US_ASCII)))
+		);
+		Random random = new Random(42);
+		ipv4Addresses = new int[ADDRESSES];
+		ipv6Addresses = new long[ADDRESSES * 2];
+		for (int i = 0; i < ADDRESSES; i++) {
+			ipv4Addresses[i] = 0x01000000 + random.nextInt(ranges * 256);
+			ipv6Addresses[i * 2] = (0x20010000L + random.nextInt(ranges)) << 32;
+			ipv6Addresses[i * 2 + 1] = random.nextLong();
+		}
+	}
+
+	private static void appendRow(StringBuilder csv, String start, String end, int i) {
+		csv.append('"').append(start).append("\",\"").append(end).append("\",\"")
+				.append(i % 180 - 90).append("\",\"").append(i % 360 - 180).append("\"\n");
+	}
+
+	@Benchmark
+	public boolean lookupIPv4(Target target) {
+		int i = index = (index + 1) & (ADDRESSES - 1);
+		return database.lookupIPv4(ipv4Addresses[i], target.location);
+	}
+
+	@Benchmark
+	public boolean lookupIPv6(Target target) {
+		int i = index = (index + 1) & (ADDRESSES - 1);
+		return database.lookupIPv6(ipv6Addresses[i * 2], ipv6Addresses[i * 2 + 1], target.location);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(IPLocationLookupBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -22,8 +22,12 @@ package org.bndly.common.json.api;
 
 import org.bndly.common.json.model.JSObject;
 import org.bndly.common.json.model.JSValue;
+import org.bndly.common.json.serializing.JSONStreamWriter;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
@@ -33,7 +37,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- *
+ * The CompiledObjectDeSerializerFactory inspects a class once and creates a {@link Serializer} or {@link Deserializer} 
+ * for it. The properties are accessed through {@link MethodHandle} instances, that are created during the compilation. 
+ * Hence there is no reflective invocation or access check per property access. The compiled serializers are 
+ * {@link StreamingSerializer} instances. When they write to a {@link JSONStreamWriter}, primitive and string properties 
+ * are written directly without boxing or creating intermediate {@link JSValue} instances, as long as the conversion context 
+ * serializes the property type with the default serializers. If another serializer has been registered for the property 
+ * type, the property is serialized through the conversion context, so that the JSON equals the JSON of the tree path.
+ * 
  * @author cybercon &lt;bndly@cybercon.de&gt;
  */
 public final class CompiledObjectDeSerializerFactory {
@@ -41,6 +52,9 @@ public final class CompiledObjectDeSerializerFactory {
 	public static final CompiledObjectDeSerializerFactory INSTANCE = new CompiledObjectDeSerializerFactory();
 
 	private static final Logger LOG = LoggerFactory.getLogger(CompiledObjectDeSerializerFactory.class);
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
 	private static final String PREFIX_OBJECT = "get";
 	private static final String PREFIX_BOOLEAN = "is";
 	private static final String PREFIX_SETTER = "set";
@@ -99,6 +113,7 @@ public final class CompiledObjectDeSerializerFactory {
 	
 	private interface CompiledPropertySerializer {
 		void serialize(Object source, JSObject target, ConversionContext conversionContext);
+		void serialize(Object source, JSONStreamWriter writer, ConversionContext conversionContext) throws IOException;
 	}
 	
 	private interface CompiledPropertyDeserializer {
@@ -142,10 +157,18 @@ public final class CompiledObjectDeSerializerFactory {
 	}
 	
 	public Serializer compileSerializer(final Class clazzToInspect) {
-		return compileSerializer(clazzToInspect, DEFAULT_GETTER_NAMING_POLICY, CompilationFlavor.GETTERS);
+		return compileStreamingSerializer(clazzToInspect);
 	}
 
 	public Serializer compileSerializer(final Class clazzToInspect, NamingPolicy namingPolicy, CompilationFlavor compilationFlavor) {
+		return compileStreamingSerializer(clazzToInspect, namingPolicy, compilationFlavor);
+	}
+	
+	public StreamingSerializer compileStreamingSerializer(final Class clazzToInspect) {
+		return compileStreamingSerializer(clazzToInspect, DEFAULT_GETTER_NAMING_POLICY, CompilationFlavor.GETTERS);
+	}
+
+	public StreamingSerializer compileStreamingSerializer(final Class clazzToInspect, NamingPolicy namingPolicy, CompilationFlavor compilationFlavor) {
 		if (namingPolicy == null) {
 			namingPolicy = DEFAULT_GETTER_NAMING_POLICY;
 		}
@@ -155,7 +178,8 @@ public final class CompiledObjectDeSerializerFactory {
 		// look for fields and for getters
 		final Map<String, CompiledPropertySerializer> propertySerializers = new LinkedHashMap<>();
 		inspectForSerializers(clazzToInspect, propertySerializers, namingPolicy, compilationFlavor);
-		return new Serializer() {
+		final CompiledPropertySerializer[] compiledPropertySerializers = propertySerializers.values().toArray(new CompiledPropertySerializer[propertySerializers.size()]);
+		return new StreamingSerializer() {
 			@Override
 			public boolean canSerialize(Type sourceType, ConversionContext conversionContext, Object javaValue) {
 				return clazzToInspect.equals(sourceType);
@@ -164,11 +188,24 @@ public final class CompiledObjectDeSerializerFactory {
 			@Override
 			public JSValue serialize(Type sourceType, ConversionContext conversionContext, Object javaValue) {
 				JSObject object = new JSObject();
-				for (CompiledPropertySerializer propertySerializer : propertySerializers.values()) {
+				for (CompiledPropertySerializer propertySerializer : compiledPropertySerializers) {
 					propertySerializer.serialize(javaValue, object, conversionContext);
 				}
 				return object;
 			}
+
+			@Override
+			public void serialize(Type sourceType, ConversionContext conversionContext, Object javaValue, JSONStreamWriter writer) throws IOException {
+				if (javaValue == null) {
+					writer.writeNull();
+					return;
+				}
+				writer.writeObjectStart();
+				for (CompiledPropertySerializer propertySerializer : compiledPropertySerializers) {
+					propertySerializer.serialize(javaValue, writer, conversionContext);
+				}
+				writer.writeObjectEnd();
+			}
 		};
 	}
 	
@@ -240,53 +277,15 @@ public final class CompiledObjectDeSerializerFactory {
 		if (propertyDeserializers.containsKey(propertyName)) {
 			return;
 		}
-		final Type propertyType = field.getGenericType();
-		if (field.getType().isPrimitive()) {
-			propertyDeserializers.put(propertyName, new CompiledPropertyDeserializer() {
-				@Override
-				public void deserialize(JSObject source, Object target, ConversionContext conversionContext) {
-					JSValue jsonPropertyValue = source.getMemberValue(propertyName);
-					if (jsonPropertyValue != null) {
-						boolean ia = field.isAccessible();
-						try {
-							field.setAccessible(true);
-							Object deserialized = conversionContext.deserialize(propertyType, jsonPropertyValue);
-							// primitives can not be null, therefore we have the additional check here
-							if (deserialized != null) {
-								field.set(target, deserialized);
-							}
-						} catch (IllegalAccessException ex) {
-							// reading the field failed.
-							LOG.error("could not get property: " + ex.getMessage(), ex);
-						} finally {
-							field.setAccessible(ia);
-						}
-					}
-				}
-
-			});
-		} else {
-			propertyDeserializers.put(propertyName, new CompiledPropertyDeserializer() {
-				@Override
-				public void deserialize(JSObject source, Object target, ConversionContext conversionContext) {
-					JSValue jsonPropertyValue = source.getMemberValue(propertyName);
-					if (jsonPropertyValue != null) {
-						boolean ia = field.isAccessible();
-						try {
-							field.setAccessible(true);
-							Object deserialized = conversionContext.deserialize(propertyType, jsonPropertyValue);
-							field.set(target, deserialized);
-						} catch (IllegalAccessException ex) {
-							// reading the field failed.
-							LOG.error("could not get property: " + ex.getMessage(), ex);
-						} finally {
-							field.setAccessible(ia);
-						}
-					}
-				}
-
-			});
+		MethodHandle setter;
+		try {
+			field.setAccessible(true);
+			setter = LOOKUP.unreflectSetter(field);
+		} catch (IllegalAccessException | SecurityException ex) {
+			LOG.error("could not access field " + field + ": " + ex.getMessage(), ex);
+			return;
 		}
+		propertyDeserializers.put(propertyName, new PropertyDeserializer(propertyName, field.getGenericType(), field.getType().isPrimitive(), setter));
 	}
 	
 	private void compileFieldSerializer(final Field field, Map<String, CompiledPropertySerializer> propertySerializers, NamingPolicy namingPolicy) {
@@ -304,26 +303,15 @@ public final class CompiledObjectDeSerializerFactory {
 		if (propertySerializers.containsKey(propertyName)) {
 			return;
 		}
-		final Type propertyType = field.getGenericType();
-		propertySerializers.put(propertyName, new CompiledPropertySerializer() {
-			@Override
-			public void serialize(Object source, JSObject target, ConversionContext conversionContext) {
-				boolean ia = field.isAccessible();
-				try {
-					field.setAccessible(true);
-					Object propertyValue = field.get(source);
-					JSValue serializedObjectProperty = conversionContext.serialize(propertyType, propertyValue);
-					if (serializedObjectProperty != null) {
-						target.createMember(propertyName).setValue(serializedObjectProperty);
-					}
-				} catch (IllegalAccessException ex) {
-					// reading the field failed.
-					LOG.error("could not get property: " + ex.getMessage(), ex);
-				} finally {
-					field.setAccessible(ia);
-				}
-			}
-		});
+		MethodHandle getter;
+		try {
+			field.setAccessible(true);
+			getter = LOOKUP.unreflectGetter(field);
+		} catch (IllegalAccessException | SecurityException ex) {
+			LOG.error("could not access field " + field + ": " + ex.getMessage(), ex);
+			return;
+		}
+		propertySerializers.put(propertyName, createPropertySerializer(propertyName, field.getGenericType(), field.getType(), getter));
 	}
 
 	private void compileSetterDeserializer(final Method publicMethod, Map<String, CompiledPropertyDeserializer> propertyDeserializers, NamingPolicy namingPolicy) {
@@ -350,44 +338,12 @@ public final class CompiledObjectDeSerializerFactory {
 		if (propertyDeserializers.containsKey(propertyName)) {
 			return;
 		}
-		if (publicMethod.getParameterTypes()[0].isPrimitive()) {
-			// for primitives we need an additional null check
-			propertyDeserializers.put(propertyName, new CompiledPropertyDeserializer() {
-				@Override
-				public void deserialize(JSObject source, Object target, ConversionContext conversionContext) {
-					JSValue propertyJsonValue = source.getMemberValue(propertyName);
-					if (propertyJsonValue != null) {
-						Object deserializedProperty = conversionContext.deserialize(pt[0], propertyJsonValue);
-						// call the setter
-						if (deserializedProperty != null) {
-							try {
-								publicMethod.invoke(target, deserializedProperty);
-							} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-								// invoking a public setter failed.
-								LOG.error("could not set property: " + ex.getMessage(), ex);
-							}
-						}
-					}
-				}
-			});
-		} else {
-			propertyDeserializers.put(propertyName, new CompiledPropertyDeserializer() {
-				@Override
-				public void deserialize(JSObject source, Object target, ConversionContext conversionContext) {
-					JSValue propertyJsonValue = source.getMemberValue(propertyName);
-					if (propertyJsonValue != null) {
-						Object deserializedProperty = conversionContext.deserialize(pt[0], propertyJsonValue);
-						// call the setter
-						try {
-							publicMethod.invoke(target, deserializedProperty);
-						} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-							// invoking a public setter failed.
-							LOG.error("could not set property: " + ex.getMessage(), ex);
-						}
-					}
-				}
-			});
+		MethodHandle setter = unreflect(publicMethod);
+		if (setter == null) {
+			return;
 		}
+		// for primitives we need an additional null check
+		propertyDeserializers.put(propertyName, new PropertyDeserializer(propertyName, pt[0], publicMethod.getParameterTypes()[0].isPrimitive(), setter));
 	}
 	
 	private void compileGetterSerializer(final Method publicMethod, Map<String, CompiledPropertySerializer> propertySerializers, NamingPolicy namingPolicy) {
@@ -423,22 +379,230 @@ public final class CompiledObjectDeSerializerFactory {
 		if (propertySerializers.containsKey(propertyName)) {
 			return;
 		}
-		propertySerializers.put(propertyName, new CompiledPropertySerializer() {
-			@Override
-			public void serialize(Object source, JSObject target, ConversionContext conversionContext) {
-				try {
-					Object propertyValue = publicMethod.invoke(source);
-					Type propertyType = publicMethod.getGenericReturnType();
-					JSValue serializedObjectProperty = conversionContext.serialize(propertyType, propertyValue);
-					if (serializedObjectProperty != null) {
-						target.createMember(propertyName).setValue(serializedObjectProperty);
-					}
-				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-					// invoking the public getter failed.
-					LOG.error("could not get property: " + ex.getMessage(), ex);
-				}
+		MethodHandle getter = unreflect(publicMethod);
+		if (getter == null) {
+			return;
+		}
+		propertySerializers.put(propertyName, createPropertySerializer(propertyName, publicMethod.getGenericReturnType(), returnType, getter));
+	}
+
+	private static MethodHandle unreflect(Method publicMethod) {
+		try {
+			return LOOKUP.unreflect(publicMethod);
+		} catch (IllegalAccessException ex) {
+			// public methods of non-public classes are only accessible, if the access check is suppressed
+			try {
+				publicMethod.setAccessible(true);
+				return LOOKUP.unreflect(publicMethod);
+			} catch (IllegalAccessException | SecurityException ex2) {
+				LOG.error("could not access method " + publicMethod + ": " + ex2.getMessage(), ex2);
+				return null;
+			}
+		}
+	}
+
+	private static CompiledPropertySerializer createPropertySerializer(String propertyName, Type propertyType, Class<?> rawType, MethodHandle getter) {
+		if (long.class.equals(rawType) || int.class.equals(rawType) || short.class.equals(rawType) || byte.class.equals(rawType)) {
+			return new LongPropertySerializer(propertyName, propertyType, getter);
+		} else if (double.class.equals(rawType) || float.class.equals(rawType)) {
+			return new DoublePropertySerializer(propertyName, propertyType, getter);
+		} else if (boolean.class.equals(rawType)) {
+			return new BooleanPropertySerializer(propertyName, propertyType, getter);
+		} else if (String.class.equals(rawType)) {
+			return new StringPropertySerializer(propertyName, propertyType, getter);
+		} else {
+			return new PropertySerializer(propertyName, propertyType, getter);
+		}
+	}
+
+	private static class PropertySerializer implements CompiledPropertySerializer {
+		protected final String propertyName;
+		protected final Type propertyType;
+		private final MethodHandle getter;
+
+		public PropertySerializer(String propertyName, Type propertyType, MethodHandle getter) {
+			this.propertyName = propertyName;
+			this.propertyType = propertyType;
+			this.getter = getter.asType(GETTER_TYPE);
+		}
+
+		@Override
+		public final void serialize(Object source, JSObject target, ConversionContext conversionContext) {
+			Object propertyValue;
+			try {
+				propertyValue = (Object) getter.invokeExact(source);
+			} catch (Throwable ex) {
+				// invoking the getter failed.
+				LOG.error("could not get property: " + ex.getMessage(), ex);
+				return;
+			}
+			JSValue serializedObjectProperty = conversionContext.serialize(propertyType, propertyValue);
+			if (serializedObjectProperty != null) {
+				target.createMember(propertyName).setValue(serializedObjectProperty);
+			}
+		}
+
+		@Override
+		public void serialize(Object source, JSONStreamWriter writer, ConversionContext conversionContext) throws IOException {
+			Object propertyValue;
+			try {
+				propertyValue = (Object) getter.invokeExact(source);
+			} catch (Throwable ex) {
+				// invoking the getter failed.
+				LOG.error("could not get property: " + ex.getMessage(), ex);
+				return;
+			}
+			writeValue(propertyValue, writer, conversionContext);
+		}
+
+		protected final void writeValue(Object propertyValue, JSONStreamWriter writer, ConversionContext conversionContext) throws IOException {
+			JSValue serializedObjectProperty = conversionContext.serialize(propertyType, propertyValue);
+			if (serializedObjectProperty != null) {
+				writer.writeMemberName(propertyName).writeValue(serializedObjectProperty);
+			}
+		}
+	}
+
+	private static final class LongPropertySerializer extends PropertySerializer {
+		private final MethodHandle longGetter;
+
+		public LongPropertySerializer(String propertyName, Type propertyType, MethodHandle getter) {
+			super(propertyName, propertyType, getter);
+			this.longGetter = getter.asType(MethodType.methodType(long.class, Object.class));
+		}
+
+		@Override
+		public void serialize(Object source, JSONStreamWriter writer, ConversionContext conversionContext) throws IOException {
+			if (!conversionContext.isSerializedByDefault(propertyType)) {
+				super.serialize(source, writer, conversionContext);
+				return;
+			}
+			long propertyValue;
+			try {
+				propertyValue = (long) longGetter.invokeExact(source);
+			} catch (Throwable ex) {
+				// invoking the getter failed.
+				LOG.error("could not get property: " + ex.getMessage(), ex);
+				return;
+			}
+			writer.writeMemberName(propertyName).writeLong(propertyValue);
+		}
+	}
+
+	private static final class DoublePropertySerializer extends PropertySerializer {
+		private final MethodHandle doubleGetter;
+
+		public DoublePropertySerializer(String propertyName, Type propertyType, MethodHandle getter) {
+			super(propertyName, propertyType, getter);
+			this.doubleGetter = getter.asType(MethodType.methodType(double.class, Object.class));
+		}
+
+		@Override
+		public void serialize(Object source, JSONStreamWriter writer, ConversionContext conversionContext) throws IOException {
+			if (!conversionContext.isSerializedByDefault(propertyType)) {
+				super.serialize(source, writer, conversionContext);
+				return;
+			}
+			double propertyValue;
+			try {
+				propertyValue = (double) doubleGetter.invokeExact(source);
+			} catch (Throwable ex) {
+				// invoking the getter failed.
+				LOG.error("could not get property: " + ex.getMessage(), ex);
+				return;
+			}
+			writer.writeMemberName(propertyName).writeDouble(propertyValue);
+		}
+	}
+
+	private static final class BooleanPropertySerializer extends PropertySerializer {
+		private final MethodHandle booleanGetter;
+
+		public BooleanPropertySerializer(String propertyName, Type propertyType, MethodHandle getter) {
+			super(propertyName, propertyType, getter);
+			this.booleanGetter = getter.asType(MethodType.methodType(boolean.class, Object.class));
+		}
+
+		@Override
+		public void serialize(Object source, JSONStreamWriter writer, ConversionContext conversionContext) throws IOException {
+			if (!conversionContext.isSerializedByDefault(propertyType)) {
+				super.serialize(source, writer, conversionContext);
+				return;
 			}
-		});
+			boolean propertyValue;
+			try {
+				propertyValue = (boolean) booleanGetter.invokeExact(source);
+			} catch (Throwable ex) {
+				// invoking the getter failed.
+				LOG.error("could not get property: " + ex.getMessage(), ex);
+				return;
+			}
+			writer.writeMemberName(propertyName).writeBoolean(propertyValue);
+		}
+	}
+
+	private static final class StringPropertySerializer extends PropertySerializer {
+		private final MethodHandle stringGetter;
+
+		public StringPropertySerializer(String propertyName, Type propertyType, MethodHandle getter) {
+			super(propertyName, propertyType, getter);
+			this.stringGetter = getter.asType(MethodType.methodType(String.class, Object.class));
+		}
+
+		@Override
+		public void serialize(Object source, JSONStreamWriter writer, ConversionContext conversionContext) throws IOException {
+			if (!conversionContext.isSerializedByDefault(propertyType)) {
+				super.serialize(source, writer, conversionContext);
+				return;
+			}
+			String propertyValue;
+			try {
+				propertyValue = (String) stringGetter.invokeExact(source);
+			} catch (Throwable ex) {
+				// invoking the getter failed.
+				LOG.error("could not get property: " + ex.getMessage(), ex);
+				return;
+			}
+			if (propertyValue == null) {
+				// the conversion context decides, if null values are skipped
+				writeValue(null, writer, conversionContext);
+			} else {
+				writer.writeMemberName(propertyName).writeString(propertyValue);
+			}
+		}
+	}
+
+	private static final class PropertyDeserializer implements CompiledPropertyDeserializer {
+		private final String propertyName;
+		private final Type propertyType;
+		private final boolean primitive;
+		private final MethodHandle setter;
+
+		public PropertyDeserializer(String propertyName, Type propertyType, boolean primitive, MethodHandle setter) {
+			this.propertyName = propertyName;
+			this.propertyType = propertyType;
+			this.primitive = primitive;
+			this.setter = setter.asType(SETTER_TYPE);
+		}
+
+		@Override
+		public void deserialize(JSObject source, Object target, ConversionContext conversionContext) {
+			JSValue propertyJsonValue = source.getMemberValue(propertyName);
+			if (propertyJsonValue == null) {
+				return;
+			}
+			Object deserializedProperty = conversionContext.deserialize(propertyType, propertyJsonValue);
+			// primitives can not be null, therefore we have the additional check here
+			if (deserializedProperty == null && primitive) {
+				return;
+			}
+			try {
+				setter.invokeExact(target, deserializedProperty);
+			} catch (Throwable ex) {
+				// invoking the setter failed.
+				LOG.error("could not set property: " + ex.getMessage(), ex);
+			}
+		}
 	}
 
 	private static String lowercaseFirstChar(String propertyName) {
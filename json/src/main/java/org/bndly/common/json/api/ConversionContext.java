@@ -30,6 +30,17 @@ import java.lang.reflect.Type;
  */
 public interface ConversionContext {
 	JSValue serialize(Type sourceType, Object value);
+
+	/**
+	 * Tells, if non-null values of the provided type are serialized by the default number, boolean or string serializers. 
+	 * Compiled streaming serializers write the values of such types directly instead of calling 
+	 * {@link #serialize(java.lang.reflect.Type, java.lang.Object)}.
+	 * @param sourceType the type of the values
+	 * @return true, if the default serializers are used for the type
+	 */
+	default boolean isSerializedByDefault(Type sourceType) {
+		return false;
+	}
 	Object deserialize(Type targetType, JSValue value);
 	Object newInstance(Type desiredType, JSValue value);
 	boolean canInstantiate(Type desiredType, JSValue value);
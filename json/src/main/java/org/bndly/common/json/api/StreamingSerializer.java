@@ -0,0 +1,35 @@
+package org.bndly.common.json.api;
+
+/*-
+ * #%L
+ * JSON
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.json.serializing.JSONStreamWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * A StreamingSerializer is a {@link Serializer} that can also write the JSON representation of a Java value directly 
+ * to a {@link JSONStreamWriter} without building a {@link org.bndly.common.json.model.JSValue} tree first.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public interface StreamingSerializer extends Serializer {
+	void serialize(Type sourceType, ConversionContext conversionContext, Object javaValue, JSONStreamWriter writer) throws IOException;
+}
@@ -29,7 +29,9 @@ import org.bndly.common.json.model.JSValue;
 import org.bndly.common.json.parsing.Stack;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  *
@@ -37,6 +39,20 @@ import java.util.List;
  */
 public class ConversionContextImpl implements ConversionContext {
 
+	// non-null values, that are used to find the serializer of a type, which is written directly by the compiled serializers
+	private static final Map<Type, Object> SAMPLE_VALUES = new HashMap<>();
+
+	static {
+		SAMPLE_VALUES.put(long.class, 0L);
+		SAMPLE_VALUES.put(int.class, 0);
+		SAMPLE_VALUES.put(short.class, (short) 0);
+		SAMPLE_VALUES.put(byte.class, (byte) 0);
+		SAMPLE_VALUES.put(double.class, 0D);
+		SAMPLE_VALUES.put(float.class, 0F);
+		SAMPLE_VALUES.put(boolean.class, false);
+		SAMPLE_VALUES.put(String.class, "");
+	}
+
 	private final List<Serializer> serializers = new ArrayList<>();
 	private final List<Deserializer> deserializers = new ArrayList<>();
 	private final List<Instanciator> instanciators = new ArrayList<>();
@@ -44,6 +60,7 @@ public class ConversionContextImpl implements ConversionContext {
 	private boolean stopAtCycles;
 	private final Stack<Object> objectStack = new Stack<>();
 	private boolean skipNullValues;
+	private final Map<Type, Boolean> serializedByDefault = new HashMap<>();
 
 	@Override
 	public String memberNameOfMapEntry(Type mapType, Type entryType, Object entryKey, Object entryValue) {
@@ -80,6 +97,26 @@ public class ConversionContextImpl implements ConversionContext {
 		}
 	}
 
+	@Override
+	public boolean isSerializedByDefault(Type sourceType) {
+		Boolean result = serializedByDefault.get(sourceType);
+		if (result == null) {
+			result = Boolean.FALSE;
+			Object sample = SAMPLE_VALUES.get(sourceType);
+			if (sample != null) {
+				for (Serializer serializer : serializers) {
+					if (serializer.canSerialize(sourceType, this, sample)) {
+						Class<?> serializerType = serializer.getClass();
+						result = NumberDeSerializer.class.equals(serializerType) || BooleanDeSerializer.class.equals(serializerType) || StringDeSerializer.class.equals(serializerType);
+						break;
+					}
+				}
+			}
+			serializedByDefault.put(sourceType, result);
+		}
+		return result;
+	}
+
 	@Override
 	public Object deserialize(Type targetType, JSValue value) {
 		if (stopAtCycles && objectStack.contains(value)) {
@@ -145,6 +182,7 @@ public class ConversionContextImpl implements ConversionContext {
 	public void addSerializer(Serializer serializer) {
 		if (serializer != null) {
 			serializers.add(0, serializer);
+			serializedByDefault.clear();
 		}
 	}
 	
@@ -157,6 +195,7 @@ public class ConversionContextImpl implements ConversionContext {
 	public void removeSerializer(Serializer serializer) {
 		if (serializer != null) {
 			serializers.remove(serializer);
+			serializedByDefault.clear();
 		}
 	}
 
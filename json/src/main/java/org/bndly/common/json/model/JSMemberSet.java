@@ -0,0 +1,247 @@
+package org.bndly.common.json.model;
+
+/*-
+ * #%L
+ * JSON
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A JSMemberSet holds the members of a {@link JSObject} in their insertion order. The members are kept in a plain array, 
+ * which is searched linearly as long as the object has only a few members. Once the set grows beyond 
+ * {@link #COMPACT_SIZE} members, an index of the member names is created, so that a member can be looked up by its name 
+ * in constant time. If several members share the same name, the index points to the first of them.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class JSMemberSet extends AbstractSet<JSMember> {
+
+	static final int COMPACT_SIZE = 8;
+	private static final JSMember[] EMPTY = new JSMember[0];
+
+	private JSMember[] members;
+	private int size;
+	private Map<String, JSMember> index;
+	private int modCount;
+
+	public JSMemberSet() {
+		members = EMPTY;
+	}
+
+	public JSMemberSet(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("expectedSize is not allowed to be negative");
+		}
+		members = expectedSize == 0 ? EMPTY : new JSMember[expectedSize];
+	}
+
+	public JSMemberSet(Collection<? extends JSMember> members) {
+		this(members.size());
+		addAll(members);
+	}
+
+	/**
+	 * Looks up the first member with the provided name.
+	 * @param name the name of the member
+	 * @return the first member with the provided name or null, if there is no such member
+	 */
+	public JSMember getMember(String name) {
+		if (name == null) {
+			return null;
+		}
+		if (index == null) {
+			if (size <= COMPACT_SIZE) {
+				for (int i = 0; i < size; i++) {
+					if (name.equals(getName(members[i]))) {
+						return members[i];
+					}
+				}
+				return null;
+			}
+			buildIndex();
+		}
+		return index.get(name);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	@Override
+	public boolean add(JSMember member) {
+		if (member == null) {
+			throw new IllegalArgumentException("member is not allowed to be null");
+		}
+		if (contains(member)) {
+			return false;
+		}
+		if (size == members.length) {
+			members = Arrays.copyOf(members, Math.max(4, size + (size >> 1)));
+		}
+		members[size++] = member;
+		modCount++;
+		if (index != null) {
+			String name = getName(member);
+			if (name != null) {
+				index.putIfAbsent(name, member);
+			}
+		} else if (size > COMPACT_SIZE) {
+			buildIndex();
+		}
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int i = indexOf(o);
+		if (i < 0) {
+			return false;
+		}
+		removeAt(i);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(members, 0, size, null);
+		size = 0;
+		index = null;
+		modCount++;
+	}
+
+	@Override
+	public Iterator<JSMember> iterator() {
+		return new Iterator<JSMember>() {
+			private int cursor;
+			private int lastReturned = -1;
+			private int expectedModCount = modCount;
+
+			@Override
+			public boolean hasNext() {
+				return cursor < size;
+			}
+
+			@Override
+			public JSMember next() {
+				if (expectedModCount != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (cursor >= size) {
+					throw new NoSuchElementException();
+				}
+				lastReturned = cursor;
+				return members[cursor++];
+			}
+
+			@Override
+			public void remove() {
+				if (lastReturned < 0) {
+					throw new IllegalStateException("next() has not been called");
+				}
+				if (expectedModCount != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				removeAt(lastReturned);
+				cursor = lastReturned;
+				lastReturned = -1;
+				expectedModCount = modCount;
+			}
+		};
+	}
+
+	private int indexOf(Object o) {
+		if (!JSMember.class.isInstance(o)) {
+			return -1;
+		}
+		JSMember member = (JSMember) o;
+		String name = getName(member);
+		if (index != null && name != null) {
+			JSMember first = index.get(name);
+			if (first == null) {
+				// there is no member with that name at all
+				return -1;
+			}
+			if (first == member) {
+				for (int i = 0; i < size; i++) {
+					if (members[i] == member) {
+						return i;
+					}
+				}
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			if (member.equals(members[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void removeAt(int i) {
+		JSMember removed = members[i];
+		int numMoved = size - i - 1;
+		if (numMoved > 0) {
+			System.arraycopy(members, i + 1, members, i, numMoved);
+		}
+		members[--size] = null;
+		modCount++;
+		if (index != null) {
+			String name = getName(removed);
+			if (name != null && index.get(name) == removed) {
+				// the next member with the same name takes over the index entry
+				index.remove(name);
+				for (int j = i; j < size; j++) {
+					if (name.equals(getName(members[j]))) {
+						index.put(name, members[j]);
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private void buildIndex() {
+		Map<String, JSMember> tmp = new HashMap<>(size * 2);
+		for (int i = 0; i < size; i++) {
+			String name = getName(members[i]);
+			if (name != null) {
+				tmp.putIfAbsent(name, members[i]);
+			}
+		}
+		index = tmp;
+	}
+
+	private static String getName(JSMember member) {
+		JSString name = member.getName();
+		return name == null ? null : name.getValue();
+	}
+}
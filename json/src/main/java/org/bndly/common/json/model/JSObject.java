@@ -21,7 +21,6 @@ package org.bndly.common.json.model;
  */
 
 import java.math.BigDecimal;
-import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class JSObject extends JSValue {
@@ -32,6 +31,11 @@ public class JSObject extends JSValue {
 		return members;
 	}
 
+	/**
+	 * Sets the members of this object. Lookups by name are only indexed, if the provided set is a {@link JSMemberSet}. 
+	 * Any other set implementation will be searched linearly.
+	 * @param members the members of this object
+	 */
 	public final void setMembers(Set<JSMember> members) {
 		this.members = members;
 	}
@@ -43,7 +47,7 @@ public class JSObject extends JSValue {
 		JSMember member = new JSMember();
 		member.setName(new JSString(name));
 		if (getMembers() == null) {
-			setMembers(new LinkedHashSet<JSMember>());
+			setMembers(new JSMemberSet());
 		}
 		getMembers().add(member);
 		return member;
@@ -168,6 +172,9 @@ public class JSObject extends JSValue {
 		if (getMembers() == null) {
 			return null;
 		}
+		if (JSMemberSet.class.isInstance(getMembers())) {
+			return ((JSMemberSet) getMembers()).getMember(name);
+		}
 		for (JSMember member : getMembers()) {
 			if (member.getName() != null && name.equals(member.getName().getValue())) {
 				return member;
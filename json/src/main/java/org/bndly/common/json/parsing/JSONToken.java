@@ -0,0 +1,40 @@
+package org.bndly.common.json.parsing;
+
+/*-
+ * #%L
+ * JSON
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * The tokens, that are reported by a {@link JSONTokenReader}.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public enum JSONToken {
+	START_OBJECT,
+	END_OBJECT,
+	START_ARRAY,
+	END_ARRAY,
+	MEMBER_NAME,
+	STRING,
+	NUMBER,
+	TRUE,
+	FALSE,
+	NULL,
+	END_DOCUMENT
+}
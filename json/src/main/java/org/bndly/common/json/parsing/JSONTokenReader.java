@@ -0,0 +1,571 @@
+package org.bndly.common.json.parsing;
+
+/*-
+ * #%L
+ * JSON
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.json.model.JSArray;
+import org.bndly.common.json.model.JSBoolean;
+import org.bndly.common.json.model.JSNull;
+import org.bndly.common.json.model.JSNumber;
+import org.bndly.common.json.model.JSObject;
+import org.bndly.common.json.model.JSString;
+import org.bndly.common.json.model.JSValue;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * A JSONTokenReader is a pull parser for JSON documents. Instead of building a tree of {@link JSValue} instances like 
+ * the {@link JSONParser}, the reader reports the document as a sequence of {@link JSONToken} values. The value of the 
+ * current token can be retrieved with the getters of the reader. Values, that are not of interest, can be skipped 
+ * with {@link #skipValue()}. If a part of the document is required as a tree, it can be read with 
+ * {@link #readValue()}.
+ * <p>
+ * The input is read in blocks. Hence the reader should not be wrapped with a BufferedReader.
+ * </p>
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class JSONTokenReader implements AutoCloseable {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	// the scopes of the reader. a scope describes, what is expected next.
+	private static final byte SCOPE_DOCUMENT_START = 0;
+	private static final byte SCOPE_DOCUMENT_END = 1;
+	private static final byte SCOPE_OBJECT_START = 2;
+	private static final byte SCOPE_OBJECT_NAME = 3;
+	private static final byte SCOPE_OBJECT_AFTER_NAME = 4;
+	private static final byte SCOPE_OBJECT_AFTER_VALUE = 5;
+	private static final byte SCOPE_ARRAY_START = 6;
+	private static final byte SCOPE_ARRAY_VALUE = 7;
+	private static final byte SCOPE_ARRAY_AFTER_VALUE = 8;
+
+	private final Reader reader;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private long consumedChars;
+
+	private byte[] scopes = new byte[32];
+	private int depth;
+
+	private final StringBuilder stringBuilder = new StringBuilder();
+	private JSONToken currentToken;
+	private String currentString;
+	private boolean currentNumberIsIntegral;
+	private BigDecimal currentDecimal;
+
+	public JSONTokenReader(Reader reader) {
+		if (reader == null) {
+			throw new IllegalArgumentException("reader is not allowed to be null");
+		}
+		this.reader = reader;
+		scopes[0] = SCOPE_DOCUMENT_START;
+	}
+
+	public JSONTokenReader(InputStream in, String charset) {
+		this(createReader(in, charset));
+	}
+
+	private static Reader createReader(InputStream in, String charset) {
+		try {
+			return new InputStreamReader(in, charset);
+		} catch (UnsupportedEncodingException ex) {
+			throw new ParsingException("could not parse JSON, because the charset " + charset + " was unknown: " + ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Reads the next token from the input.
+	 * @return the next token. {@link JSONToken#END_DOCUMENT} is returned, when the input has been read completely.
+	 * @throws ParsingException if the input is not valid JSON or could not be read
+	 */
+	public JSONToken nextToken() {
+		currentString = null;
+		currentDecimal = null;
+		currentToken = readNextToken(false);
+		return currentToken;
+	}
+
+	/**
+	 * @return the token, that has been read by the last call of {@link #nextToken()}
+	 */
+	public JSONToken getCurrentToken() {
+		return currentToken;
+	}
+
+	/**
+	 * @return the number of nested objects and arrays, that surround the current position
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Gets the value of the current token as a string. This works for member names, strings and numbers.
+	 * @return the string value of the current token
+	 * @throws ParsingException if the current token has no string representation
+	 */
+	public String getString() {
+		if (currentToken == JSONToken.MEMBER_NAME || currentToken == JSONToken.STRING || currentToken == JSONToken.NUMBER) {
+			return currentString;
+		}
+		throw new ParsingException("current token " + currentToken + " has no string value");
+	}
+
+	public BigDecimal getDecimal() {
+		assertCurrentToken(JSONToken.NUMBER);
+		if (currentDecimal == null) {
+			currentDecimal = new BigDecimal(currentString);
+		}
+		return currentDecimal;
+	}
+
+	public long getLong() {
+		assertCurrentToken(JSONToken.NUMBER);
+		if (currentNumberIsIntegral && currentString.length() < 19) {
+			// no overflow possible
+			return Long.parseLong(currentString);
+		}
+		return getDecimal().longValue();
+	}
+
+	public int getInt() {
+		assertCurrentToken(JSONToken.NUMBER);
+		if (currentNumberIsIntegral && currentString.length() < 10) {
+			// no overflow possible
+			return Integer.parseInt(currentString);
+		}
+		return getDecimal().intValue();
+	}
+
+	public double getDouble() {
+		assertCurrentToken(JSONToken.NUMBER);
+		return Double.parseDouble(currentString);
+	}
+
+	public boolean getBoolean() {
+		if (currentToken == JSONToken.TRUE) {
+			return true;
+		} else if (currentToken == JSONToken.FALSE) {
+			return false;
+		}
+		throw new ParsingException("current token " + currentToken + " is not a boolean");
+	}
+
+	private void assertCurrentToken(JSONToken expected) {
+		if (currentToken != expected) {
+			throw new ParsingException("current token " + currentToken + " is not a " + expected);
+		}
+	}
+
+	/**
+	 * Skips the value of the current token. If the current token starts an object or array, all tokens up to the 
+	 * matching end token will be skipped. If the current token is a member name, the value of the member will be 
+	 * skipped. Strings within the skipped value are not decoded.
+	 * @throws ParsingException if the input is not valid JSON or could not be read
+	 */
+	public void skipValue() {
+		if (currentToken == JSONToken.MEMBER_NAME) {
+			currentToken = readNextToken(true);
+		}
+		if (currentToken == JSONToken.START_OBJECT || currentToken == JSONToken.START_ARRAY) {
+			int targetDepth = depth - 1;
+			while (depth > targetDepth) {
+				currentToken = readNextToken(true);
+				if (currentToken == JSONToken.END_DOCUMENT) {
+					throw new ParsingException("unexpected end of input");
+				}
+			}
+		}
+		currentString = null;
+		currentDecimal = null;
+	}
+
+	/**
+	 * Reads the value of the current token as a tree. If the current token starts an object or array, all tokens up 
+	 * to the matching end token will be consumed. If the current token is a member name, the value of the member 
+	 * will be read.
+	 * @return the value of the current token
+	 * @throws ParsingException if the current token does not start a value or the input is not valid JSON
+	 */
+	public JSValue readValue() {
+		if (currentToken == JSONToken.MEMBER_NAME) {
+			nextToken();
+		}
+		switch (currentToken) {
+			case START_OBJECT: {
+				JSObject object = new JSObject();
+				JSONToken token = nextToken();
+				while (token == JSONToken.MEMBER_NAME) {
+					String name = currentString;
+					nextToken();
+					object.createMember(name).setValue(readValue());
+					token = nextToken();
+				}
+				assertCurrentToken(JSONToken.END_OBJECT);
+				return object;
+			}
+			case START_ARRAY: {
+				JSArray array = new JSArray();
+				JSONToken token = nextToken();
+				while (token != JSONToken.END_ARRAY) {
+					array.add(readValue());
+					token = nextToken();
+				}
+				return array;
+			}
+			case STRING:
+				return new JSString(currentString);
+			case NUMBER:
+				return new JSNumber(getDecimal());
+			case TRUE:
+				return new JSBoolean(true);
+			case FALSE:
+				return new JSBoolean(false);
+			case NULL:
+				return JSNull.INSTANCE;
+			default:
+				throw new ParsingException("current token " + currentToken + " does not start a value");
+		}
+	}
+
+	private JSONToken readNextToken(boolean skipping) {
+		while (true) {
+			int c = nextNonWhitespace();
+			switch (scopes[depth]) {
+				case SCOPE_DOCUMENT_START:
+					if (c < 0) {
+						return JSONToken.END_DOCUMENT;
+					}
+					scopes[depth] = SCOPE_DOCUMENT_END;
+					return readValueToken(c, skipping);
+				case SCOPE_DOCUMENT_END:
+					if (c < 0) {
+						return JSONToken.END_DOCUMENT;
+					}
+					throw unexpected(c, "end of input");
+				case SCOPE_OBJECT_START:
+					if (c == '}') {
+						return endScope(JSONToken.END_OBJECT);
+					}
+					return readMemberName(c, skipping);
+				case SCOPE_OBJECT_NAME:
+					return readMemberName(c, skipping);
+				case SCOPE_OBJECT_AFTER_NAME:
+					if (c != ':') {
+						throw unexpected(c, "':'");
+					}
+					scopes[depth] = SCOPE_OBJECT_AFTER_VALUE;
+					return readValueToken(nextNonWhitespace(), skipping);
+				case SCOPE_OBJECT_AFTER_VALUE:
+					if (c == ',') {
+						scopes[depth] = SCOPE_OBJECT_NAME;
+						continue;
+					} else if (c == '}') {
+						return endScope(JSONToken.END_OBJECT);
+					}
+					throw unexpected(c, "',' or '}'");
+				case SCOPE_ARRAY_START:
+					if (c == ']') {
+						return endScope(JSONToken.END_ARRAY);
+					}
+					scopes[depth] = SCOPE_ARRAY_AFTER_VALUE;
+					return readValueToken(c, skipping);
+				case SCOPE_ARRAY_VALUE:
+					scopes[depth] = SCOPE_ARRAY_AFTER_VALUE;
+					return readValueToken(c, skipping);
+				case SCOPE_ARRAY_AFTER_VALUE:
+					if (c == ',') {
+						scopes[depth] = SCOPE_ARRAY_VALUE;
+						continue;
+					} else if (c == ']') {
+						return endScope(JSONToken.END_ARRAY);
+					}
+					throw unexpected(c, "',' or ']'");
+				default:
+					throw new IllegalStateException("unsupported scope " + scopes[depth]);
+			}
+		}
+	}
+
+	private JSONToken endScope(JSONToken token) {
+		depth--;
+		return token;
+	}
+
+	private void beginScope(byte scope) {
+		depth++;
+		if (depth == scopes.length) {
+			scopes = Arrays.copyOf(scopes, scopes.length * 2);
+		}
+		scopes[depth] = scope;
+	}
+
+	private JSONToken readMemberName(int c, boolean skipping) {
+		if (c != '"') {
+			throw unexpected(c, "member name");
+		}
+		readString(skipping);
+		scopes[depth] = SCOPE_OBJECT_AFTER_NAME;
+		return JSONToken.MEMBER_NAME;
+	}
+
+	private JSONToken readValueToken(int c, boolean skipping) {
+		switch (c) {
+			case '{':
+				beginScope(SCOPE_OBJECT_START);
+				return JSONToken.START_OBJECT;
+			case '[':
+				beginScope(SCOPE_ARRAY_START);
+				return JSONToken.START_ARRAY;
+			case '"':
+				readString(skipping);
+				return JSONToken.STRING;
+			case 't':
+				readLiteral("rue");
+				return JSONToken.TRUE;
+			case 'f':
+				readLiteral("alse");
+				return JSONToken.FALSE;
+			case 'n':
+				readLiteral("ull");
+				return JSONToken.NULL;
+			case '-':
+			case '0':
+			case '1':
+			case '2':
+			case '3':
+			case '4':
+			case '5':
+			case '6':
+			case '7':
+			case '8':
+			case '9':
+				readNumber((char) c);
+				return JSONToken.NUMBER;
+			default:
+				throw unexpected(c, "value");
+		}
+	}
+
+	private void readLiteral(String remainder) {
+		for (int i = 0; i < remainder.length(); i++) {
+			int c = read();
+			if (c != remainder.charAt(i)) {
+				throw unexpected(c, "'" + remainder.charAt(i) + "'");
+			}
+		}
+	}
+
+	private void readNumber(char first) {
+		StringBuilder sb = stringBuilder;
+		sb.setLength(0);
+		sb.append(first);
+		boolean integral = true;
+		while (true) {
+			if (position == limit && !fill()) {
+				break;
+			}
+			char c = buffer[position];
+			if ((c >= '0' && c <= '9') || c == '-' || c == '+') {
+				sb.append(c);
+			} else if (c == '.' || c == 'e' || c == 'E') {
+				integral = false;
+				sb.append(c);
+			} else {
+				break;
+			}
+			position++;
+		}
+		if (!isValidNumber(sb)) {
+			throw new ParsingException("illegal number " + sb + " at character " + (consumedChars + position));
+		}
+		currentString = sb.toString();
+		currentNumberIsIntegral = integral;
+	}
+
+	private static boolean isValidNumber(CharSequence number) {
+		int i = 0;
+		int length = number.length();
+		if (number.charAt(i) == '-') {
+			i++;
+		}
+		int digits = 0;
+		while (i < length && Character.isDigit(number.charAt(i))) {
+			i++;
+			digits++;
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if (i < length && number.charAt(i) == '.') {
+			i++;
+			digits = 0;
+			while (i < length && Character.isDigit(number.charAt(i))) {
+				i++;
+				digits++;
+			}
+			if (digits == 0) {
+				return false;
+			}
+		}
+		if (i < length && (number.charAt(i) == 'e' || number.charAt(i) == 'E')) {
+			i++;
+			if (i < length && (number.charAt(i) == '-' || number.charAt(i) == '+')) {
+				i++;
+			}
+			digits = 0;
+			while (i < length && Character.isDigit(number.charAt(i))) {
+				i++;
+				digits++;
+			}
+			if (digits == 0) {
+				return false;
+			}
+		}
+		return i == length;
+	}
+
+	private void readString(boolean skipping) {
+		StringBuilder sb = stringBuilder;
+		sb.setLength(0);
+		while (true) {
+			if (position == limit && !fill()) {
+				throw new ParsingException("unexpected end of input while reading a string");
+			}
+			// copy all plain characters of the buffer at once
+			int start = position;
+			while (position < limit) {
+				char c = buffer[position];
+				if (c == '"' || c == '\\') {
+					break;
+				}
+				position++;
+			}
+			if (!skipping) {
+				sb.append(buffer, start, position - start);
+			}
+			if (position == limit) {
+				continue;
+			}
+			char c = buffer[position++];
+			if (c == '"') {
+				break;
+			}
+			char escaped = readEscapedCharacter();
+			if (!skipping) {
+				sb.append(escaped);
+			}
+		}
+		currentString = skipping ? null : sb.toString();
+	}
+
+	private char readEscapedCharacter() {
+		int c = read();
+		switch (c) {
+			case '"':
+			case '\\':
+			case '/':
+				return (char) c;
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'r':
+				return '\r';
+			case 'n':
+				return '\n';
+			case 't':
+				return '\t';
+			case 'u':
+				int decoded = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(read(), 16);
+					if (digit < 0) {
+						throw new ParsingException("illegal unicode escape sequence at character " + (consumedChars + position));
+					}
+					decoded = (decoded << 4) | digit;
+				}
+				return (char) decoded;
+			default:
+				throw new ParsingException("escaped character not supported");
+		}
+	}
+
+	private int nextNonWhitespace() {
+		while (true) {
+			if (position == limit && !fill()) {
+				return -1;
+			}
+			char c = buffer[position++];
+			if (!Character.isWhitespace(c)) {
+				return c;
+			}
+		}
+	}
+
+	private int read() {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position++];
+	}
+
+	private boolean fill() {
+		consumedChars += limit;
+		position = 0;
+		limit = 0;
+		try {
+			int r = reader.read(buffer, 0, buffer.length);
+			while (r == 0) {
+				r = reader.read(buffer, 0, buffer.length);
+			}
+			if (r < 0) {
+				return false;
+			}
+			limit = r;
+			return true;
+		} catch (IOException ex) {
+			throw new ParsingException("could not parse JSON, because the input could not be read : " + ex.getMessage(), ex);
+		}
+	}
+
+	private ParsingException unexpected(int c, String expected) {
+		if (c < 0) {
+			return new ParsingException("unexpected end of input. expected " + expected);
+		}
+		return new ParsingException("unexpected character '" + (char) c + "' at character " + (consumedChars + position - 1) + ". expected " + expected);
+	}
+
+	@Override
+	public void close() {
+		try {
+			reader.close();
+		} catch (IOException ex) {
+			// we can not compensate this error.
+		}
+	}
+}
@@ -21,8 +21,8 @@ package org.bndly.common.json.parsing;
  */
 
 import org.bndly.common.json.model.JSMember;
+import org.bndly.common.json.model.JSMemberSet;
 import org.bndly.common.json.model.JSObject;
-import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class ObjectParsingState extends ParsingState {
@@ -48,7 +48,7 @@ public class ObjectParsingState extends ParsingState {
 				public void didParseMember(JSMember member) {
 					Set<JSMember> members = value.getMembers();
 					if (members == null) {
-						members = new LinkedHashSet<>();
+						members = new JSMemberSet();
 						value.setMembers(members);
 					}
 					members.add(member);
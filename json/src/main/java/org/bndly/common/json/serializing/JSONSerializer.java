@@ -58,6 +58,10 @@ public class JSONSerializer {
 		serializeValue(jsObject, new JSONWriter(writer));
 	}
 
+	public void serialize(JSValue jsObject, JSONWriter writer) throws IOException {
+		serializeValue(jsObject, writer);
+	}
+
 	private void serializeValue(JSValue jsValue, JSONWriter writer) throws IOException {
 		if (JSObject.class.isAssignableFrom(jsValue.getClass())) {
 			writer.writeObjectStart();
@@ -0,0 +1,215 @@
+package org.bndly.common.json.serializing;
+
+/*-
+ * #%L
+ * JSON
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.json.model.JSValue;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * A JSONStreamWriter writes a JSON document without requiring a tree of {@link JSValue} instances. The writer keeps 
+ * track of the nesting of objects and arrays and inserts the separators between members and items on its own. 
+ * Invalid sequences of write calls, such as a value in an object without a preceding member name, are rejected with 
+ * an {@link IllegalStateException}.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class JSONStreamWriter implements AutoCloseable {
+
+	private static final byte SCOPE_DOCUMENT = 0;
+	private static final byte SCOPE_DOCUMENT_COMPLETE = 1;
+	private static final byte SCOPE_OBJECT_EMPTY = 2;
+	private static final byte SCOPE_OBJECT = 3;
+	private static final byte SCOPE_OBJECT_NAME_WRITTEN = 4;
+	private static final byte SCOPE_ARRAY_EMPTY = 5;
+	private static final byte SCOPE_ARRAY = 6;
+
+	private final JSONWriter writer;
+	private byte[] scopes = new byte[32];
+	private int depth;
+
+	public JSONStreamWriter(Writer writer) {
+		this(new JSONWriter(writer));
+	}
+
+	public JSONStreamWriter(JSONWriter writer) {
+		if (writer == null) {
+			throw new IllegalArgumentException("writer is not allowed to be null");
+		}
+		this.writer = writer;
+		scopes[0] = SCOPE_DOCUMENT;
+	}
+
+	public JSONStreamWriter writeObjectStart() throws IOException {
+		beforeValue();
+		writer.writeObjectStart();
+		beginScope(SCOPE_OBJECT_EMPTY);
+		return this;
+	}
+
+	public JSONStreamWriter writeObjectEnd() throws IOException {
+		byte scope = scopes[depth];
+		if (scope != SCOPE_OBJECT_EMPTY && scope != SCOPE_OBJECT) {
+			throw new IllegalStateException("can not end an object, because no object or a member without value is being written");
+		}
+		depth--;
+		writer.writeObjectEnd();
+		return this;
+	}
+
+	public JSONStreamWriter writeArrayStart() throws IOException {
+		beforeValue();
+		writer.writeArrayStart();
+		beginScope(SCOPE_ARRAY_EMPTY);
+		return this;
+	}
+
+	public JSONStreamWriter writeArrayEnd() throws IOException {
+		byte scope = scopes[depth];
+		if (scope != SCOPE_ARRAY_EMPTY && scope != SCOPE_ARRAY) {
+			throw new IllegalStateException("can not end an array, because no array is being written");
+		}
+		depth--;
+		writer.writeArrayEnd();
+		return this;
+	}
+
+	public JSONStreamWriter writeMemberName(String name) throws IOException {
+		if (name == null) {
+			throw new IllegalArgumentException("name is not allowed to be null");
+		}
+		byte scope = scopes[depth];
+		if (scope == SCOPE_OBJECT) {
+			writer.writeComma();
+		} else if (scope != SCOPE_OBJECT_EMPTY) {
+			throw new IllegalStateException("member names can only be written within objects");
+		}
+		writer.writeString(name);
+		writer.writeColon();
+		scopes[depth] = SCOPE_OBJECT_NAME_WRITTEN;
+		return this;
+	}
+
+	public JSONStreamWriter writeString(String value) throws IOException {
+		if (value == null) {
+			return writeNull();
+		}
+		beforeValue();
+		writer.writeString(value);
+		return this;
+	}
+
+	public JSONStreamWriter writeLong(long value) throws IOException {
+		beforeValue();
+		writer.writeLong(value);
+		return this;
+	}
+
+	public JSONStreamWriter writeDouble(double value) throws IOException {
+		beforeValue();
+		writer.writeDouble(value);
+		return this;
+	}
+
+	public JSONStreamWriter writeDecimal(BigDecimal value) throws IOException {
+		if (value == null) {
+			return writeNull();
+		}
+		beforeValue();
+		writer.writeDecimal(value);
+		return this;
+	}
+
+	public JSONStreamWriter writeBoolean(boolean value) throws IOException {
+		beforeValue();
+		writer.writeBoolean(value);
+		return this;
+	}
+
+	public JSONStreamWriter writeNull() throws IOException {
+		beforeValue();
+		writer.writeNull();
+		return this;
+	}
+
+	/**
+	 * Writes an already existing tree of JSON values at the current position.
+	 * @param value the value to write. null will be written as a JSON null.
+	 * @return this writer
+	 * @throws IOException if the value could not be written
+	 */
+	public JSONStreamWriter writeValue(JSValue value) throws IOException {
+		if (value == null) {
+			return writeNull();
+		}
+		beforeValue();
+		new JSONSerializer().serialize(value, writer);
+		return this;
+	}
+
+	/**
+	 * @return true, if a complete JSON value has been written
+	 */
+	public boolean isComplete() {
+		return depth == 0 && scopes[0] == SCOPE_DOCUMENT_COMPLETE;
+	}
+
+	private void beforeValue() throws IOException {
+		byte scope = scopes[depth];
+		switch (scope) {
+			case SCOPE_DOCUMENT:
+				scopes[depth] = SCOPE_DOCUMENT_COMPLETE;
+				break;
+			case SCOPE_OBJECT_NAME_WRITTEN:
+				scopes[depth] = SCOPE_OBJECT;
+				break;
+			case SCOPE_ARRAY_EMPTY:
+				scopes[depth] = SCOPE_ARRAY;
+				break;
+			case SCOPE_ARRAY:
+				writer.writeComma();
+				break;
+			case SCOPE_DOCUMENT_COMPLETE:
+				throw new IllegalStateException("the document has already been written completely");
+			default:
+				throw new IllegalStateException("values within objects require a member name");
+		}
+	}
+
+	private void beginScope(byte scope) {
+		depth++;
+		if (depth == scopes.length) {
+			scopes = Arrays.copyOf(scopes, scopes.length * 2);
+		}
+		scopes[depth] = scope;
+	}
+
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+}
@@ -31,6 +31,8 @@ import java.math.BigDecimal;
  */
 public final class JSONWriter implements AutoCloseable {
 
+	private static final double MAX_EXACT_INTEGRAL_DOUBLE = 9007199254740992D; // 2^53
+
 	private final Writer writer;
 	private char[] charbuffer = new char[4];
 
@@ -97,6 +99,10 @@ public final class JSONWriter implements AutoCloseable {
 	}
 	
 	public JSONWriter writeDouble(double doubleValue) throws IOException {
+		if (doubleValue == Math.rint(doubleValue) && Math.abs(doubleValue) < MAX_EXACT_INTEGRAL_DOUBLE) {
+			// integral values are written just like their decimal representation without trailing zeros
+			return writeLong((long) doubleValue);
+		}
 		return writeDecimal(new BigDecimal(doubleValue));
 	}
 	
@@ -22,19 +22,141 @@ package org.bndly.common.json.unmarshalling;
 
 import org.bndly.common.json.api.ConversionContext;
 import org.bndly.common.json.api.ConversionContextBuilder;
+import org.bndly.common.json.impl.ObjectDeSerializer;
 import org.bndly.common.json.model.JSObject;
+import org.bndly.common.json.model.JSValue;
+import org.bndly.common.json.parsing.JSONToken;
+import org.bndly.common.json.parsing.JSONTokenReader;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * maps a parsed JSON document to a Java Class
  */
 public class Unmarshaller {
 
+	private static final Logger LOG = LoggerFactory.getLogger(Unmarshaller.class);
+
 	public <E> E unmarshall(JSObject documentRoot, Class<E> targetType) {
 		ConversionContext ctx = new ConversionContextBuilder().initDefaults().build();
+		return unmarshall(ctx, documentRoot, targetType);
+	}
+
+	private <E> E unmarshall(ConversionContext ctx, JSObject documentRoot, Class<E> targetType) {
 		E instance = (E) ctx.deserialize(targetType, documentRoot);
 		if (instance == null) {
 			throw new UnmarshallingException("could not instantiate type " + targetType.getName());
 		}
 		return instance;
 	}
+
+	public <E> E unmarshall(Reader reader, Class<E> targetType) {
+		try (JSONTokenReader tokenReader = new JSONTokenReader(reader)) {
+			return unmarshall(tokenReader, targetType);
+		}
+	}
+
+	/**
+	 * Maps the next JSON object of the token reader to a Java Class. The members of the object are bound one after 
+	 * another to the public setters of the target type. Only the value of the current member is held as a 
+	 * {@link JSValue} tree and members without a setter are skipped. Target types, that can not be instantiated 
+	 * without looking at the entire object, are bound from a tree of the entire object.
+	 * @param <E> the target type
+	 * @param reader the reader, that is positioned before or at the start of a JSON object
+	 * @param targetType the target type
+	 * @return the bound instance
+	 */
+	public <E> E unmarshall(JSONTokenReader reader, Class<E> targetType) {
+		JSONToken token = reader.getCurrentToken();
+		if (token == null || token == JSONToken.MEMBER_NAME) {
+			token = reader.nextToken();
+		}
+		if (token != JSONToken.START_OBJECT) {
+			throw new UnmarshallingException("expected a JSON object but found " + token);
+		}
+		ConversionContext ctx = new ConversionContextBuilder().initDefaults().build();
+		JSObject emptyObject = new JSObject();
+		if (!isStreamingBindingSupported(ctx, targetType, emptyObject)) {
+			return unmarshall(ctx, (JSObject) reader.readValue(), targetType);
+		}
+		E instance = (E) ctx.newInstance(targetType, emptyObject);
+		if (instance == null) {
+			throw new UnmarshallingException("could not instantiate type " + targetType.getName());
+		}
+		Map<String, List<Method>> settersByMemberName = getSettersByMemberName(targetType);
+		token = reader.nextToken();
+		while (token == JSONToken.MEMBER_NAME) {
+			List<Method> setters = settersByMemberName.get(reader.getString());
+			if (setters == null) {
+				reader.skipValue();
+			} else {
+				JSValue memberValue = reader.readValue();
+				for (Method setter : setters) {
+					Object v = ctx.deserialize(setter.getGenericParameterTypes()[0], memberValue);
+					try {
+						setter.invoke(instance, v);
+					} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
+						// invoking a public setter failed.
+						LOG.error("could not set property: " + ex.getMessage(), ex);
+					}
+				}
+			}
+			token = reader.nextToken();
+		}
+		return instance;
+	}
+
+	private boolean isStreamingBindingSupported(ConversionContext ctx, Class<?> targetType, JSObject emptyObject) {
+		if (targetType.isInterface() || targetType.isArray() || Modifier.isAbstract(targetType.getModifiers())) {
+			return false;
+		}
+		if (Map.class.isAssignableFrom(targetType) || Collection.class.isAssignableFrom(targetType)) {
+			return false;
+		}
+		return ctx.canInstantiate(targetType, emptyObject);
+	}
+
+	private Map<String, List<Method>> getSettersByMemberName(Class<?> targetType) {
+		// same setter resolution as in the ObjectDeSerializer. the member name with a lower case first char wins.
+		Map<String, List<Method>> settersByMemberName = new HashMap<>();
+		Map<String, List<Method>> settersByPropertyName = new HashMap<>();
+		for (Method publicMethod : targetType.getMethods()) {
+			if (Object.class.equals(publicMethod.getDeclaringClass())) {
+				continue;
+			}
+			Type[] parameterTypes = publicMethod.getGenericParameterTypes();
+			String methodName = publicMethod.getName();
+			if (parameterTypes.length != 1 || !methodName.startsWith("set") || methodName.length() == 3) {
+				continue;
+			}
+			String propertyName = methodName.substring(3);
+			addSetter(settersByMemberName, ObjectDeSerializer.lowercaseFirstChar(propertyName), publicMethod);
+			addSetter(settersByPropertyName, propertyName, publicMethod);
+		}
+		for (Map.Entry<String, List<Method>> entry : settersByPropertyName.entrySet()) {
+			if (!settersByMemberName.containsKey(entry.getKey())) {
+				settersByMemberName.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return settersByMemberName;
+	}
+
+	private static void addSetter(Map<String, List<Method>> setters, String name, Method setter) {
+		List<Method> list = setters.get(name);
+		if (list == null) {
+			list = new ArrayList<>();
+			setters.put(name, list);
+		}
+		list.add(setter);
+	}
 }
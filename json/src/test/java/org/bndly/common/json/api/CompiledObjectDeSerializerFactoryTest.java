@@ -21,10 +21,15 @@ package org.bndly.common.json.api;
  */
 
 import org.bndly.common.json.impl.StringDeSerializer;
+import org.bndly.common.json.model.JSString;
 import org.bndly.common.json.model.JSValue;
+import org.bndly.common.json.parsing.JSONParser;
 import org.bndly.common.json.serializing.JSONSerializer;
+import org.bndly.common.json.serializing.JSONStreamWriter;
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.lang.reflect.Type;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -91,6 +96,64 @@ public class CompiledObjectDeSerializerFactoryTest {
 		}
 	}
 
+	public static class PojoWithPrimitives {
+
+		private int count;
+		private long id;
+		private double price;
+		private boolean active;
+		private Integer boxed;
+		private String name;
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public double getPrice() {
+			return price;
+		}
+
+		public void setPrice(double price) {
+			this.price = price;
+		}
+
+		public boolean isActive() {
+			return active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+
+		public Integer getBoxed() {
+			return boxed;
+		}
+
+		public void setBoxed(Integer boxed) {
+			this.boxed = boxed;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
 	@Test
 	public void testPojo() throws IOException {
 		Pojo pojo = new Pojo();
@@ -171,4 +234,86 @@ public class CompiledObjectDeSerializerFactoryTest {
 		// we first inspected getters and then fields, and since both have different names, we have two values in the json
 		Assert.assertEquals(toString(serialized), "{\"name\":\"testPojoFields\",\"NAME\":\"testPojoFields\"}");
 	}
+
+	@Test
+	public void testPojoWithPrimitivesStreaming() throws IOException {
+		PojoWithPrimitives pojo = new PojoWithPrimitives();
+		pojo.count = 42;
+		pojo.id = Long.MAX_VALUE;
+		pojo.price = 12.5;
+		pojo.active = true;
+		pojo.name = "say \"hello\"";
+		for (CompiledObjectDeSerializerFactory.CompilationFlavor flavor : CompiledObjectDeSerializerFactory.CompilationFlavor.values()) {
+			StreamingSerializer serializer = CompiledObjectDeSerializerFactory.INSTANCE.compileStreamingSerializer(PojoWithPrimitives.class, null, flavor);
+			ConversionContext conversionContext = new ConversionContextBuilder().initDefaults().skipNullValues().serializer(serializer).build();
+			String fromTree = toString(conversionContext.serialize(PojoWithPrimitives.class, pojo));
+			StringWriter sw = new StringWriter();
+			JSONStreamWriter writer = new JSONStreamWriter(sw);
+			serializer.serialize(PojoWithPrimitives.class, conversionContext, pojo, writer);
+			writer.flush();
+			Assert.assertTrue(writer.isComplete());
+			Assert.assertEquals(sw.toString(), fromTree);
+			// the order of the getters is not defined, hence only the members are checked
+			Assert.assertTrue(fromTree.contains("\"count\":42"), fromTree);
+			Assert.assertTrue(fromTree.contains("\"id\":9223372036854775807"), fromTree);
+			Assert.assertTrue(fromTree.contains("\"price\":12.5"), fromTree);
+			if (flavor != CompiledObjectDeSerializerFactory.CompilationFlavor.GETTERS) {
+				// boolean getters with the 'is' prefix are not picked up by the getter inspection
+				Assert.assertTrue(fromTree.contains("\"active\":true"), fromTree);
+			}
+			Assert.assertTrue(fromTree.contains("\"name\":\"say \\\"hello\\\"\""), fromTree);
+			Assert.assertFalse(fromTree.contains("boxed"), fromTree);
+		}
+	}
+
+	@Test
+	public void testPojoWithPrimitivesStreamingUsesRegisteredSerializers() throws IOException {
+		PojoWithPrimitives pojo = new PojoWithPrimitives();
+		pojo.count = 42;
+		pojo.id = 7;
+		pojo.price = 12.5;
+		pojo.name = "hello";
+		Serializer customSerializer = new Serializer() {
+			@Override
+			public boolean canSerialize(Type sourceType, ConversionContext conversionContext, Object javaValue) {
+				return (long.class.equals(sourceType) || String.class.equals(sourceType)) && javaValue != null;
+			}
+
+			@Override
+			public JSValue serialize(Type sourceType, ConversionContext conversionContext, Object javaValue) {
+				return new JSString("custom " + javaValue);
+			}
+		};
+		StreamingSerializer serializer = CompiledObjectDeSerializerFactory.INSTANCE.compileStreamingSerializer(PojoWithPrimitives.class, null, CompiledObjectDeSerializerFactory.CompilationFlavor.FIELDS);
+		ConversionContext conversionContext = new ConversionContextBuilder().initDefaults().skipNullValues().serializer(customSerializer).serializer(serializer).build();
+		String fromTree = toString(conversionContext.serialize(PojoWithPrimitives.class, pojo));
+		StringWriter sw = new StringWriter();
+		JSONStreamWriter writer = new JSONStreamWriter(sw);
+		serializer.serialize(PojoWithPrimitives.class, conversionContext, pojo, writer);
+		writer.flush();
+		Assert.assertEquals(sw.toString(), fromTree);
+		Assert.assertTrue(fromTree.contains("\"id\":\"custom 7\""), fromTree);
+		Assert.assertTrue(fromTree.contains("\"name\":\"custom hello\""), fromTree);
+		// the int and double properties are still written by the default serializers
+		Assert.assertTrue(fromTree.contains("\"count\":42"), fromTree);
+		Assert.assertTrue(fromTree.contains("\"price\":12.5"), fromTree);
+	}
+
+	@Test
+	public void testPojoWithPrimitivesDeserializing() throws IOException {
+		String json = "{\"count\":42,\"id\":9223372036854775807,\"price\":12.5,\"active\":true,\"boxed\":7,\"name\":\"test\"}";
+		JSValue parsed = new JSONParser().parse(new StringReader(json));
+		for (CompiledObjectDeSerializerFactory.CompilationFlavor flavor : CompiledObjectDeSerializerFactory.CompilationFlavor.values()) {
+			Deserializer deserializer = CompiledObjectDeSerializerFactory.INSTANCE.compileDeserializer(PojoWithPrimitives.class, null, flavor);
+			ConversionContext conversionContext = new ConversionContextBuilder().initDefaults().deserializer(deserializer).build();
+			PojoWithPrimitives pojo = (PojoWithPrimitives) conversionContext.deserialize(PojoWithPrimitives.class, parsed);
+			Assert.assertNotNull(pojo);
+			Assert.assertEquals(pojo.count, 42);
+			Assert.assertEquals(pojo.id, Long.MAX_VALUE);
+			Assert.assertEquals(pojo.price, 12.5);
+			Assert.assertTrue(pojo.active);
+			Assert.assertEquals(pojo.boxed, Integer.valueOf(7));
+			Assert.assertEquals(pojo.name, "test");
+		}
+	}
 }
@@ -0,0 +1,115 @@
+package org.bndly.common.json.model;
+
+/*-
+ * #%L
+ * JSON
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class JSMemberSetTest {
+
+	@Test
+	public void testLookupKeepsInsertionOrder() {
+		JSObject object = new JSObject();
+		int count = JSMemberSet.COMPACT_SIZE * 4;
+		for (int i = 0; i < count; i++) {
+			object.createMemberValue("m" + i, i);
+			Assert.assertEquals(object.getMemberNumberValue("m" + i).intValue(), i);
+			Assert.assertEquals(object.getMemberNumberValue("m0").intValue(), 0);
+		}
+		Assert.assertTrue(JSMemberSet.class.isInstance(object.getMembers()));
+		Assert.assertEquals(object.getMembers().size(), count);
+		Assert.assertNull(object.getMember("missing"));
+		int i = 0;
+		for (JSMember member : object.getMembers()) {
+			Assert.assertEquals(member.getName().getValue(), "m" + i);
+			i++;
+		}
+	}
+
+	@Test
+	public void testDuplicateNames() {
+		for (int size : new int[]{2, JSMemberSet.COMPACT_SIZE * 2}) {
+			JSObject object = new JSObject();
+			for (int i = 0; i < size; i++) {
+				object.createMemberValue("m" + i, i);
+			}
+			JSMember first = object.createMember("dup");
+			first.setValue(JSBoolean.TRUE);
+			JSMember second = object.createMember("dup");
+			second.setValue(JSBoolean.FALSE);
+			Assert.assertEquals(object.getMembers().size(), size + 2);
+			Assert.assertSame(object.getMember("dup"), first);
+			// adding the same member twice is not allowed in a set
+			Assert.assertFalse(object.getMembers().add(first));
+			Assert.assertTrue(object.getMembers().contains(second));
+
+			Assert.assertTrue(object.getMembers().remove(first));
+			Assert.assertSame(object.getMember("dup"), second);
+			Assert.assertFalse(object.getMembers().contains(first));
+			Assert.assertTrue(object.getMembers().remove(second));
+			Assert.assertNull(object.getMember("dup"));
+		}
+	}
+
+	@Test
+	public void testIteratorRemove() {
+		JSObject object = new JSObject();
+		int count = JSMemberSet.COMPACT_SIZE * 2;
+		for (int i = 0; i < count; i++) {
+			object.createMemberValue("m" + i, i);
+		}
+		Iterator<JSMember> iterator = object.getMembers().iterator();
+		while (iterator.hasNext()) {
+			JSMember member = iterator.next();
+			if (Integer.parseInt(member.getName().getValue().substring(1)) % 2 == 0) {
+				iterator.remove();
+			}
+		}
+		Assert.assertEquals(object.getMembers().size(), count / 2);
+		for (int i = 0; i < count; i++) {
+			if (i % 2 == 0) {
+				Assert.assertNull(object.getMember("m" + i));
+			} else {
+				Assert.assertEquals(object.getMemberNumberValue("m" + i).intValue(), i);
+			}
+		}
+		object.getMembers().clear();
+		Assert.assertTrue(object.getMembers().isEmpty());
+		Assert.assertNull(object.getMember("m1"));
+	}
+
+	@Test
+	public void testForeignMemberSet() {
+		JSObject object = new JSObject();
+		object.setMembers(new LinkedHashSet<JSMember>());
+		object.createMemberValue("a", "1");
+		object.createMemberValue("b", "2");
+		Assert.assertTrue(LinkedHashSet.class.isInstance(object.getMembers()));
+		Assert.assertEquals(object.getMemberStringValue("b"), "2");
+		Assert.assertEquals(new JSMemberSet(object.getMembers()), object.getMembers());
+	}
+}
@@ -0,0 +1,122 @@
+package org.bndly.shop.common.json;
+
+/*-
+ * #%L
+ * JSON
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.json.model.JSObject;
+import org.bndly.common.json.model.JSValue;
+import org.bndly.common.json.parsing.JSONParser;
+import org.bndly.common.json.parsing.JSONToken;
+import org.bndly.common.json.parsing.JSONTokenReader;
+import org.bndly.common.json.serializing.JSONStreamWriter;
+import org.bndly.common.json.unmarshalling.Unmarshaller;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the tree building {@link JSONParser} with the {@link JSONTokenReader}. The benchmark is not executed by the 
+ * test suite. Run it with the main method from the test classpath.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JSONParsingBenchmark {
+
+	@Param({"10", "1000"})
+	private int items;
+
+	private String json;
+
+	@Setup
+	public void setup() throws IOException {
+		StringWriter sw = new StringWriter();
+		JSONStreamWriter writer = new JSONStreamWriter(sw);
+		writer.writeObjectStart().writeMemberName("identifier").writeString("cart-4711").writeMemberName("items").writeArrayStart();
+		for (int i = 0; i < items; i++) {
+			writer.writeObjectStart()
+					.writeMemberName("productName").writeString("product \"" + i + "\" with a description")
+					.writeMemberName("price").writeDecimal(new BigDecimal("139.99").add(new BigDecimal(i)))
+					.writeMemberName("wishListId").writeLong(i)
+					.writeMemberName("ignored").writeArrayStart().writeBoolean(true).writeNull().writeArrayEnd()
+					.writeObjectEnd();
+		}
+		writer.writeArrayEnd().writeObjectEnd().flush();
+		json = sw.toString();
+	}
+
+	@Benchmark
+	public JSValue parseTree() {
+		return new JSONParser().parse(new StringReader(json));
+	}
+
+	@Benchmark
+	public JSValue readTree() {
+		JSONTokenReader reader = new JSONTokenReader(new StringReader(json));
+		reader.nextToken();
+		return reader.readValue();
+	}
+
+	@Benchmark
+	public void readTokens(Blackhole blackhole) {
+		JSONTokenReader reader = new JSONTokenReader(new StringReader(json));
+		JSONToken token = reader.nextToken();
+		while (token != JSONToken.END_DOCUMENT) {
+			blackhole.consume(token);
+			token = reader.nextToken();
+		}
+	}
+
+	@Benchmark
+	public Object unmarshallTree() {
+		return new Unmarshaller().unmarshall((JSObject) new JSONParser().parse(new StringReader(json)), UnmarshallingTest.Cart.class);
+	}
+
+	@Benchmark
+	public Object unmarshallStream() {
+		return new Unmarshaller().unmarshall(new StringReader(json), UnmarshallingTest.Cart.class);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(JSONParsingBenchmark.class.getSimpleName()).build()).run();
+	}
+}
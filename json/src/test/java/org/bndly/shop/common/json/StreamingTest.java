@@ -0,0 +1,160 @@
+package org.bndly.shop.common.json;
+
+/*-
+ * #%L
+ * JSON
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.json.model.JSArray;
+import org.bndly.common.json.model.JSNumber;
+import org.bndly.common.json.model.JSObject;
+import org.bndly.common.json.parsing.JSONParser;
+import org.bndly.common.json.parsing.JSONToken;
+import org.bndly.common.json.parsing.JSONTokenReader;
+import org.bndly.common.json.parsing.ParsingException;
+import org.bndly.common.json.serializing.JSONSerializer;
+import org.bndly.common.json.serializing.JSONStreamWriter;
+import org.bndly.common.json.unmarshalling.Unmarshaller;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class StreamingTest {
+
+	private static final String INPUT = "  {  \"attribute\"  :\t\"w\\u00e4rt\\n\" \n ,\"array\":[\"string im array\"\r,\f  3,  0.3,-3,-0.3, 1E+3   ,  null   ,true, false   ,{  }],\"numeric\"\n\r :1E+3,\"nestedObject\"\t: {\"a\":[[],{}]}}";
+
+	@Test
+	public void readTokens() {
+		JSONTokenReader reader = new JSONTokenReader(new StringReader("{\"a\":\"b\\\"c\",\"n\":[12,-0.5e2,true,false,null],\"o\":{}}"));
+		Assert.assertEquals(reader.nextToken(), JSONToken.START_OBJECT);
+		Assert.assertEquals(reader.nextToken(), JSONToken.MEMBER_NAME);
+		Assert.assertEquals(reader.getString(), "a");
+		Assert.assertEquals(reader.nextToken(), JSONToken.STRING);
+		Assert.assertEquals(reader.getString(), "b\"c");
+		Assert.assertEquals(reader.nextToken(), JSONToken.MEMBER_NAME);
+		Assert.assertEquals(reader.getString(), "n");
+		Assert.assertEquals(reader.nextToken(), JSONToken.START_ARRAY);
+		Assert.assertEquals(reader.getDepth(), 2);
+		Assert.assertEquals(reader.nextToken(), JSONToken.NUMBER);
+		Assert.assertEquals(reader.getLong(), 12L);
+		Assert.assertEquals(reader.nextToken(), JSONToken.NUMBER);
+		Assert.assertEquals(reader.getDouble(), -50D);
+		Assert.assertEquals(reader.getDecimal().compareTo(new BigDecimal("-50")), 0);
+		Assert.assertEquals(reader.nextToken(), JSONToken.TRUE);
+		Assert.assertTrue(reader.getBoolean());
+		Assert.assertEquals(reader.nextToken(), JSONToken.FALSE);
+		Assert.assertEquals(reader.nextToken(), JSONToken.NULL);
+		Assert.assertEquals(reader.nextToken(), JSONToken.END_ARRAY);
+		Assert.assertEquals(reader.nextToken(), JSONToken.MEMBER_NAME);
+		Assert.assertEquals(reader.nextToken(), JSONToken.START_OBJECT);
+		Assert.assertEquals(reader.nextToken(), JSONToken.END_OBJECT);
+		Assert.assertEquals(reader.nextToken(), JSONToken.END_OBJECT);
+		Assert.assertEquals(reader.getDepth(), 0);
+		Assert.assertEquals(reader.nextToken(), JSONToken.END_DOCUMENT);
+	}
+
+	@Test
+	public void skipValues() {
+		JSONTokenReader reader = new JSONTokenReader(new StringReader(INPUT));
+		Assert.assertEquals(reader.nextToken(), JSONToken.START_OBJECT);
+		Assert.assertEquals(reader.nextToken(), JSONToken.MEMBER_NAME);
+		reader.skipValue();
+		Assert.assertEquals(reader.nextToken(), JSONToken.MEMBER_NAME);
+		Assert.assertEquals(reader.getString(), "array");
+		reader.skipValue();
+		Assert.assertEquals(reader.nextToken(), JSONToken.MEMBER_NAME);
+		Assert.assertEquals(reader.getString(), "numeric");
+		Assert.assertEquals(reader.nextToken(), JSONToken.NUMBER);
+		Assert.assertEquals(reader.getInt(), 1000);
+		Assert.assertEquals(reader.nextToken(), JSONToken.MEMBER_NAME);
+		Assert.assertEquals(reader.nextToken(), JSONToken.START_OBJECT);
+		reader.skipValue();
+		Assert.assertEquals(reader.nextToken(), JSONToken.END_OBJECT);
+		Assert.assertEquals(reader.nextToken(), JSONToken.END_DOCUMENT);
+	}
+
+	@Test
+	public void readValueLikeParser() throws IOException {
+		JSONTokenReader reader = new JSONTokenReader(new StringReader(INPUT));
+		reader.nextToken();
+		JSObject streamed = (JSObject) reader.readValue();
+		JSObject parsed = (JSObject) new JSONParser().parse(new StringReader(INPUT));
+		Assert.assertEquals(streamed.getMemberStringValue("attribute"), "wärt\n");
+		Assert.assertEquals(streamed.getMemberStringValue("attribute"), parsed.getMemberStringValue("attribute"));
+		JSArray array = streamed.getMemberArrayValue("array");
+		Assert.assertEquals(array.size(), 10);
+		Assert.assertEquals(((JSNumber) array.getItems().get(5)).getValue().compareTo(new BigDecimal(1000)), 0);
+		Assert.assertEquals(streamed.getMemberNumberValue("numeric").compareTo(parsed.getMemberNumberValue("numeric")), 0);
+
+		StringWriter streamedJson = new StringWriter();
+		new JSONSerializer().serialize(streamed, streamedJson);
+		StringWriter parsedJson = new StringWriter();
+		new JSONSerializer().serialize(parsed, parsedJson);
+		Assert.assertEquals(streamedJson.toString(), parsedJson.toString());
+	}
+
+	@Test
+	public void rejectInvalidInput() {
+		String[] invalid = new String[]{"{\"a\" 1}", "{\"a\":1,}", "[1 2]", "{\"a\":01.}", "[tru]", "{} {}", "{\"a\":\"b"};
+		for (String input : invalid) {
+			JSONTokenReader reader = new JSONTokenReader(new StringReader(input));
+			try {
+				while (reader.nextToken() != JSONToken.END_DOCUMENT) {
+				}
+				Assert.fail("expected a parsing exception for " + input);
+			} catch (ParsingException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void writeStream() throws IOException {
+		StringWriter sw = new StringWriter();
+		JSONStreamWriter writer = new JSONStreamWriter(sw);
+		writer.writeObjectStart()
+				.writeMemberName("a").writeString("x\"y")
+				.writeMemberName("b").writeArrayStart().writeLong(1).writeBoolean(true).writeNull().writeObjectStart().writeObjectEnd().writeArrayEnd()
+				.writeMemberName("c").writeValue(new JSObject().createMemberValue("d", 2))
+				.writeMemberName("e").writeDecimal(new BigDecimal("1.50"))
+				.writeObjectEnd();
+		writer.flush();
+		Assert.assertTrue(writer.isComplete());
+		Assert.assertEquals(sw.toString(), "{\"a\":\"x\\\"y\",\"b\":[1,true,null,{}],\"c\":{\"d\":2},\"e\":1.5}");
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void writeValueWithoutMemberName() throws IOException {
+		new JSONStreamWriter(new StringWriter()).writeObjectStart().writeLong(1);
+	}
+
+	@Test
+	public void unmarshallStream() {
+		String input = "{\"unknown\":{\"x\":[1,2,3]},\"identifier\":\"cart\",\"items\":[{\"productName\":\"p1\",\"price\":1.5,\"wishListId\":3},{\"productName\":\"p2\"}]}";
+		UnmarshallingTest.Cart cart = new Unmarshaller().unmarshall(new StringReader(input), UnmarshallingTest.Cart.class);
+		Assert.assertEquals(cart.getIdentifier(), "cart");
+		Assert.assertEquals(cart.getItems().size(), 2);
+		Assert.assertEquals(cart.getItems().get(0).getProductName(), "p1");
+		Assert.assertEquals(cart.getItems().get(0).getPrice().compareTo(new BigDecimal("1.5")), 0);
+		Assert.assertEquals(cart.getItems().get(0).getWishListId(), Long.valueOf(3));
+		Assert.assertEquals(cart.getItems().get(1).getProductName(), "p2");
+	}
+}
@@ -0,0 +1,204 @@
+package org.bndly.common.mapper;
+
+/*-
+ * #%L
+ * Mapper
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.reflection.BeanPropertyAccessor;
+import org.bndly.common.reflection.BeanPropertyWriter;
+import org.bndly.common.reflection.CompiledBeanPropertyAccessorWriter;
+import org.bndly.common.reflection.CompiledFieldBeanPropertyAccessorWriter;
+import org.bndly.common.reflection.UnresolvablePropertyException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A CopyPlan is the precompiled form of the tuples of a {@link TypeSpecificMapperImpl}. The mapping direction is resolved once and every 
+ * property of a compiled bean is accessed through a {@link MethodHandle}, that is created when the plan is compiled. Properties, that can not 
+ * be compiled, are accessed through the {@link BeanPropertyAccessor} and {@link BeanPropertyWriter} of the mapped property.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class CopyPlan {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final List<Step> steps;
+
+	private CopyPlan(List<Step> steps) {
+		this.steps = steps;
+	}
+
+	public static CopyPlan compile(List<Tuple> tuples, boolean swapMappingDirection) {
+		List<Step> steps = new ArrayList<>(tuples.size());
+		for (Tuple tuple : tuples) {
+			MappedProperty source = tuple.getSource();
+			MappedProperty target = tuple.getTarget();
+			if (swapMappingDirection) {
+				source = tuple.getTarget();
+				target = tuple.getSource();
+			}
+			steps.add(new Step(source, target, compileGetter(source), compileSetter(target), resolveType(target)));
+		}
+		return new CopyPlan(Collections.unmodifiableList(steps));
+	}
+
+	public List<Step> getSteps() {
+		return steps;
+	}
+
+	private static MethodHandle compileGetter(MappedProperty property) {
+		CompiledBeanPropertyAccessorWriter accessorWriter = getCompiledAccessorWriter(property.getAccessor(), property.getName());
+		if (accessorWriter == null) {
+			return null;
+		}
+		try {
+			CompiledFieldBeanPropertyAccessorWriter.CompiledField compiledField = accessorWriter.getFieldAccessorWriter().getCompiledField(property.getName());
+			if (compiledField != null) {
+				if (compiledField.isStatic()) {
+					return null;
+				}
+				Field field = compiledField.getField();
+				field.setAccessible(true);
+				return LOOKUP.unreflectGetter(field).asType(GETTER_TYPE);
+			}
+			Method getter = accessorWriter.getMethodAccessorWriter().getGetterMethod(property.getName());
+			if (getter == null) {
+				return null;
+			}
+			getter.setAccessible(true);
+			return LOOKUP.unreflect(getter).asType(GETTER_TYPE);
+		} catch (IllegalAccessException | SecurityException e) {
+			// the property will be read through the accessor
+			return null;
+		}
+	}
+
+	private static MethodHandle compileSetter(MappedProperty property) {
+		CompiledBeanPropertyAccessorWriter accessorWriter = getCompiledAccessorWriter(property.getWriter(), property.getName());
+		if (accessorWriter == null) {
+			return null;
+		}
+		try {
+			CompiledFieldBeanPropertyAccessorWriter.CompiledField compiledField = accessorWriter.getFieldAccessorWriter().getCompiledField(property.getName());
+			if (compiledField != null) {
+				if (compiledField.isStatic() || compiledField.isFinal()) {
+					return null;
+				}
+				Field field = compiledField.getField();
+				field.setAccessible(true);
+				return LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+			}
+			Method setter = accessorWriter.getMethodAccessorWriter().getSetterMethod(property.getName());
+			if (setter == null) {
+				return null;
+			}
+			setter.setAccessible(true);
+			return LOOKUP.unreflect(setter).asType(SETTER_TYPE);
+		} catch (IllegalAccessException | SecurityException e) {
+			// the property will be written through the writer
+			return null;
+		}
+	}
+
+	private static CompiledBeanPropertyAccessorWriter getCompiledAccessorWriter(Object accessorOrWriter, String propertyName) {
+		// indexed collection properties keep their special handling in the accessor
+		if (!CompiledBeanPropertyAccessorWriter.class.isInstance(accessorOrWriter) || propertyName.indexOf('[') > -1) {
+			return null;
+		}
+		return (CompiledBeanPropertyAccessorWriter) accessorOrWriter;
+	}
+
+	private static Class<?> resolveType(MappedProperty property) {
+		// compiled accessors do not look at the target instance when they resolve the type of a property
+		if (getCompiledAccessorWriter(property.getAccessor(), property.getName()) == null) {
+			return null;
+		}
+		try {
+			return property.getAccessor().typeOf(property.getName(), null);
+		} catch (UnresolvablePropertyException e) {
+			return null;
+		}
+	}
+
+	public static final class Step {
+
+		private final MappedProperty source;
+		private final MappedProperty target;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final Class<?> targetType;
+
+		private Step(MappedProperty source, MappedProperty target, MethodHandle getter, MethodHandle setter, Class<?> targetType) {
+			this.source = source;
+			this.target = target;
+			this.getter = getter;
+			this.setter = setter;
+			this.targetType = targetType;
+		}
+
+		public MappedProperty getSource() {
+			return source;
+		}
+
+		public MappedProperty getTarget() {
+			return target;
+		}
+
+		public Object get(Object sourceObject) {
+			if (getter == null) {
+				return source.getAccessor().get(source.getName(), sourceObject);
+			}
+			try {
+				return (Object) getter.invokeExact(sourceObject);
+			} catch (Throwable e) {
+				// the accessor ignores failing reads as well
+				return null;
+			}
+		}
+
+		public boolean set(Object value, Object targetObject) {
+			if (setter == null) {
+				return target.getWriter().set(target.getName(), value, targetObject);
+			}
+			try {
+				setter.invokeExact(targetObject, value);
+				return true;
+			} catch (Throwable e) {
+				// the writer ignores failing writes as well
+				return false;
+			}
+		}
+
+		public Class<?> typeOfTarget(Object targetObject) {
+			if (targetType != null) {
+				return targetType;
+			}
+			return target.getAccessor().typeOf(target.getName(), targetObject);
+		}
+	}
+}
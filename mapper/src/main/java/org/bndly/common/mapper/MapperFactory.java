@@ -30,6 +30,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.osgi.service.component.annotations.Component;
 
 @Component(service = MapperFactory.class, immediate = true)
@@ -50,6 +52,33 @@ public class MapperFactory {
 	private ComplexTypeDetector complexTypeDetector;
 	private MapperAmbiguityResolver ambiguityResolver;
 
+	/**
+	 * Marks a resolved input and output type combination, for which no mapper exists.
+	 */
+	private static final Mapper NO_MAPPER = new Mapper() {
+		@Override
+		public void map(Object source, Object target, MappingContext context, MappingState state) {
+		}
+	};
+	/**
+	 * The resolved mappers and collection type checks are replaced with empty maps, whenever a mapper or collection type adapter is registered. 
+	 * A resolution, that is running while a registration takes place, will only write to the replaced map.
+	 */
+	private volatile ConcurrentMap<ResolvedMapperKey, Mapper> resolvedMappers = new ConcurrentHashMap<>();
+	private volatile ConcurrentMap<Class<?>, Boolean> resolvedCollectionTypes = new ConcurrentHashMap<>();
+	private final Mapper collectionCopyMapper = new CollectionCopyMapperImpl() {
+
+		@Override
+		protected CollectionTypeAdapter assertCollectionTypeAdapterExists(Object object) {
+			return _assertCollectionTypeAdapterExists(object);
+		}
+
+		@Override
+		protected CollectionTypeAdapter assertCollectionTypeAdapterExists(Class<?> type) {
+			return _assertCollectionTypeAdapterExists(type);
+		}
+	};
+
 	private MappedProperty buildMappedProperty(String propertyName, CompiledBeanPropertyAccessorWriter accessorWriter) {
 		try {
 			Class<?> propertyType = accessorWriter.typeOf(propertyName, null);
@@ -81,6 +110,12 @@ public class MapperFactory {
 			}
 			collectionMapperByElementType.put(elementType, collectionMapper);
 		}
+		invalidateResolvedMappers();
+	}
+
+	private void invalidateResolvedMappers() {
+		resolvedMappers = new ConcurrentHashMap<>();
+		resolvedCollectionTypes = new ConcurrentHashMap<>();
 	}
 
 	public MappingContext buildContext() {
@@ -181,10 +216,20 @@ public class MapperFactory {
 
 	public void register(CollectionTypeAdapter adapter) {
 		this.collectionTypeAdapters.put(adapter.getSupportedCollectionType(), adapter);
+		invalidateResolvedMappers();
 	}
 
 	private boolean _isCollectionType(Class<?> type) {
-		return _getCollectionTypeAdapterFor(type) != null;
+		if (type == null) {
+			return _getCollectionTypeAdapterFor(type) != null;
+		}
+		ConcurrentMap<Class<?>, Boolean> collectionTypes = resolvedCollectionTypes;
+		Boolean isCollectionType = collectionTypes.get(type);
+		if (isCollectionType == null) {
+			isCollectionType = _getCollectionTypeAdapterFor(type) != null;
+			collectionTypes.put(type, isCollectionType);
+		}
+		return isCollectionType;
 	}
 
 	public void build(Class<?> restType, Class<?> domainType) {
@@ -338,29 +383,34 @@ public class MapperFactory {
 	}
 
 	private Mapper _getMapper(Class<?> inputType, Class<?> desiredOutputType, Object inputObject) {
+		ConcurrentMap<ResolvedMapperKey, Mapper> mappersByKey = resolvedMappers;
+		ResolvedMapperKey key = new ResolvedMapperKey(inputType, desiredOutputType);
+		Mapper mapper = mappersByKey.get(key);
+		if (mapper != null) {
+			return mapper == NO_MAPPER ? null : mapper;
+		}
+		MapperResolution resolution = new MapperResolution();
+		mapper = resolveMapper(inputType, desiredOutputType, inputObject, resolution);
+		if (!resolution.inputObjectDependent) {
+			mappersByKey.put(key, mapper == null ? NO_MAPPER : mapper);
+		}
+		return mapper;
+	}
+
+	private Mapper resolveMapper(Class<?> inputType, Class<?> desiredOutputType, Object inputObject, MapperResolution resolution) {
 		if (Proxy.isProxyClass(inputType)) {
 			Class<?>[] interfaces = inputType.getInterfaces();
 			for (Class<?> interfaceType : interfaces) {
-				Mapper mapper = _getMapper(interfaceType, desiredOutputType, inputObject);
+				Mapper mapper = resolveMapper(interfaceType, desiredOutputType, inputObject, resolution);
 				if (mapper != null) {
 					return mapper;
 				}
 			}
 		}
 		if (_isCollectionType(inputType) && _isCollectionType(desiredOutputType)) {
-			return new CollectionCopyMapperImpl() {
-
-				@Override
-				protected CollectionTypeAdapter assertCollectionTypeAdapterExists(Object object) {
-					return _assertCollectionTypeAdapterExists(object);
-				}
-
-				@Override
-				protected CollectionTypeAdapter assertCollectionTypeAdapterExists(Class<?> type) {
-					return _assertCollectionTypeAdapterExists(type);
-				}
-			};
+			return collectionCopyMapper;
 		}
+		Class<?> declaredInputType = inputType;
 		Mapper mapper = null;
 		while (mapper == null && inputType != null && !Object.class.equals(inputType)) {
 			Map<Class<?>, Mapper> mappersForInput = this.mappersByType.get(inputType);
@@ -372,6 +422,7 @@ public class MapperFactory {
 							throw new IllegalStateException("can not resolve mapper ambiguity, because a ambiguityResolver is missing");
 						}
 						mapper = ambiguityResolver.pickMapper(inputType, mappersForInput, inputObject);
+						resolution.inputObjectDependent = true;
 					} else {
 						for (Map.Entry<Class<?>, Mapper> entry : mappersForInput.entrySet()) {
 							Mapper tmp = entry.getValue();
@@ -396,6 +447,7 @@ public class MapperFactory {
 							mapper = tmp;
 						} else {
 							mapper = ambiguityResolver.pickMapper(inputType, mappersForInput, inputObject);
+							resolution.inputObjectDependent = true;
 						}
 					} else {
 						Class<?> curOutputType = desiredOutputType;
@@ -426,6 +478,19 @@ public class MapperFactory {
 			}
 			inputType = inputType.getSuperclass();
 		}
+		if (mapper == null && !Proxy.isProxyClass(declaredInputType)) {
+			// generated implementations of schema bean interfaces only match the mappers of their interfaces
+			Class<?> type = declaredInputType;
+			while (mapper == null && type != null && !Object.class.equals(type)) {
+				for (Class<?> interfaceType : type.getInterfaces()) {
+					mapper = resolveMapper(interfaceType, desiredOutputType, inputObject, resolution);
+					if (mapper != null) {
+						break;
+					}
+				}
+				type = type.getSuperclass();
+			}
+		}
 		return mapper;
 	}
 
@@ -473,4 +538,41 @@ public class MapperFactory {
 		this.missingMapperHandler = missingMapperHandler;
 	}
 
+	private static final class ResolvedMapperKey {
+
+		private final Class<?> inputType;
+		private final Class<?> desiredOutputType;
+		private final int hashCode;
+
+		public ResolvedMapperKey(Class<?> inputType, Class<?> desiredOutputType) {
+			this.inputType = inputType;
+			this.desiredOutputType = desiredOutputType;
+			this.hashCode = 31 * inputType.hashCode() + (desiredOutputType == null ? 0 : desiredOutputType.hashCode());
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!ResolvedMapperKey.class.isInstance(obj)) {
+				return false;
+			}
+			ResolvedMapperKey other = (ResolvedMapperKey) obj;
+			return inputType == other.inputType && desiredOutputType == other.desiredOutputType;
+		}
+	}
+
+	private static final class MapperResolution {
+
+		/**
+		 * true, if the ambiguity resolver picked the mapper for the provided input object. such a mapper can not be reused for other objects.
+		 */
+		private boolean inputObjectDependent;
+	}
 }
@@ -29,14 +29,12 @@ public abstract class TypeSpecificMapperImpl implements TypeSpecificMapper {
 	
 	private final Class<?> inputType;
 	private final Class<?> outputType;
-	private final List<Tuple> tuples;
-	private final boolean swapMappingDirection;
+	private final CopyPlan copyPlan;
 
 	public TypeSpecificMapperImpl(Class<?> inputType, Class<?> outputType, List<Tuple> tuples, boolean swapMappingDirection) {
 		this.inputType = inputType;
 		this.outputType = outputType;
-		this.tuples = tuples;
-		this.swapMappingDirection = swapMappingDirection;
+		this.copyPlan = CopyPlan.compile(tuples, swapMappingDirection);
 	}
 
 	protected abstract List<MappingPreInterceptor> getMappingPreInterceptors();
@@ -57,15 +55,11 @@ public abstract class TypeSpecificMapperImpl implements TypeSpecificMapper {
 		for (MappingPreInterceptor mappingPreInterceptor : getMappingPreInterceptors()) {
 			mappingPreInterceptor.preIntercept(intermediate);
 		}
-		for (Tuple tuple : tuples) {
-			MappedProperty s = tuple.getSource();
-			MappedProperty t = tuple.getTarget();
-			if (swapMappingDirection) {
-				t = tuple.getSource();
-				s = tuple.getTarget();
-			}
+		for (CopyPlan.Step step : copyPlan.getSteps()) {
+			MappedProperty s = step.getSource();
+			MappedProperty t = step.getTarget();
 
-			Object sourceValue = s.getAccessor().get(s.getName(), source);
+			Object sourceValue = step.get(source);
 
 			boolean isReferenceable = isComplexType(s.getType(), sourceValue);
 			boolean isCollection = false;
@@ -80,21 +74,21 @@ public abstract class TypeSpecificMapperImpl implements TypeSpecificMapper {
 			if (!isReferenceable) {
 				if (!isCollection) {
 					// simple properties can be copied
-					t.getWriter().set(t.getName(), sourceValue, target);
+					step.set(sourceValue, target);
 				} else {
 					// collections need more love
 					if (sourceValue == null) {
-						t.getWriter().set(t.getName(), null, target);
+						step.set(null, target);
 					} else {
 						CollectionTypeAdapter sourceCollectionAdapter = assertCollectionTypeAdapterExists(sourceValue);
 
-						Class<?> targetType = t.getAccessor().typeOf(t.getName(), target);
+						Class<?> targetType = step.typeOfTarget(target);
 						final CollectionTypeAdapter targetCollectionAdapter = assertCollectionTypeAdapterExists(targetType);
 						final Object targetCollection = targetCollectionAdapter.newCollectionInstance(targetType);
 						if (targetCollection == null) {
 							throw new IllegalStateException("could not instantiate " + targetType + " with collection adapter " + targetCollectionAdapter.getClass());
 						}
-						t.getWriter().set(t.getName(), targetCollection, target);
+						step.set(targetCollection, target);
 						// map all collection entries of the source collection
 						sourceCollectionAdapter.iterate(sourceValue, new CollectionTypeAdapter.IterationHandler() {
 							@Override
@@ -111,12 +105,12 @@ public abstract class TypeSpecificMapperImpl implements TypeSpecificMapper {
 				try {
 					// if i can somehow get a hold of the target type of the property,
 					// then i should try to use it.
-					Class<?> typeOfPropertyInTarget = t.getAccessor().typeOf(t.getName(), target);
+					Class<?> typeOfPropertyInTarget = step.typeOfTarget(target);
 					targetValue = context.map(sourceValue, typeOfPropertyInTarget, tupleMappingState);
 				} catch (Exception e) {
 					throw new IllegalStateException("could not map: " + e.getMessage(), e);
 				}
-				if (!t.getWriter().set(t.getName(), targetValue, target)) {
+				if (!step.set(targetValue, target)) {
 					LOG.error("could not set {} in ", t.getName(), target);
 				}
 			}
@@ -0,0 +1,296 @@
+package org.bndly.common.mapper;
+
+/*-
+ * #%L
+ * Mapper
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the auto mappers of the {@link MapperFactory} with a wide graph (an order with many lines) and a deep graph (a chain of nested 
+ * categories). The benchmark is not executed by the test suite. Run it with the main method from the test classpath.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+	@Param({"10", "1000"})
+	private int lines;
+
+	@Param({"5", "50"})
+	private int depth;
+
+	private MapperFactory mapperFactory;
+	private OrderRestBean order;
+	private CategoryRestBean category;
+
+	@Setup
+	public void setup() {
+		mapperFactory = new MapperFactory();
+		mapperFactory.register(new DomainCollectionAdapter());
+		mapperFactory.setComplexTypeDetector(new ComplexTypeDetector() {
+			@Override
+			public boolean isComplexType(Class<?> type, Object instance) {
+				return instance != null && instance.getClass().isAnnotationPresent(Mapping.class);
+			}
+		});
+		mapperFactory.build(OrderRestBean.class, Order.class);
+		mapperFactory.build(LineRestBean.class, Line.class);
+		mapperFactory.build(ProductRestBean.class, Product.class);
+		mapperFactory.build(CategoryRestBean.class, Category.class);
+
+		category = null;
+		for (int i = 0; i < depth; i++) {
+			CategoryRestBean child = new CategoryRestBean();
+			child.setCode("category-" + i);
+			child.setName("Category " + i);
+			child.setParent(category);
+			category = child;
+		}
+
+		order = new OrderRestBean();
+		order.setOrderNumber("order-4711");
+		order.setCurrency("EUR");
+		List<LineRestBean> orderLines = new ArrayList<>(lines);
+		for (int i = 0; i < lines; i++) {
+			ProductRestBean product = new ProductRestBean();
+			product.setSku("sku-" + i);
+			product.setName("product " + i);
+			product.setCategory(category);
+			LineRestBean line = new LineRestBean();
+			line.setPosition(i);
+			line.setQuantity(i % 5 + 1);
+			line.setPrice(new BigDecimal("139.99").add(new BigDecimal(i)));
+			line.setProduct(product);
+			orderLines.add(line);
+		}
+		order.setLines(orderLines);
+	}
+
+	@Benchmark
+	public Order mapWideGraph() {
+		return mapperFactory.buildContext().map(order, Order.class);
+	}
+
+	@Benchmark
+	public Category mapDeepGraph() {
+		return mapperFactory.buildContext().map(category, Category.class);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(MapperBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	@Mapping
+	public static class OrderRestBean {
+
+		private String orderNumber;
+		private String currency;
+		private List<LineRestBean> lines;
+
+		public String getOrderNumber() {
+			return orderNumber;
+		}
+
+		public void setOrderNumber(String orderNumber) {
+			this.orderNumber = orderNumber;
+		}
+
+		public String getCurrency() {
+			return currency;
+		}
+
+		public void setCurrency(String currency) {
+			this.currency = currency;
+		}
+
+		public List<LineRestBean> getLines() {
+			return lines;
+		}
+
+		public void setLines(List<LineRestBean> lines) {
+			this.lines = lines;
+		}
+	}
+
+	@Mapping
+	public static class LineRestBean {
+
+		private int position;
+		private long quantity;
+		private BigDecimal price;
+		private ProductRestBean product;
+
+		public int getPosition() {
+			return position;
+		}
+
+		public void setPosition(int position) {
+			this.position = position;
+		}
+
+		public long getQuantity() {
+			return quantity;
+		}
+
+		public void setQuantity(long quantity) {
+			this.quantity = quantity;
+		}
+
+		public BigDecimal getPrice() {
+			return price;
+		}
+
+		public void setPrice(BigDecimal price) {
+			this.price = price;
+		}
+
+		public ProductRestBean getProduct() {
+			return product;
+		}
+
+		public void setProduct(ProductRestBean product) {
+			this.product = product;
+		}
+	}
+
+	@Mapping
+	public static class ProductRestBean {
+
+		private String sku;
+		private String name;
+		private CategoryRestBean category;
+
+		public String getSku() {
+			return sku;
+		}
+
+		public void setSku(String sku) {
+			this.sku = sku;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public CategoryRestBean getCategory() {
+			return category;
+		}
+
+		public void setCategory(CategoryRestBean category) {
+			this.category = category;
+		}
+	}
+
+	@Mapping
+	public static class CategoryRestBean {
+
+		private String code;
+		private String name;
+		private CategoryRestBean parent;
+
+		public String getCode() {
+			return code;
+		}
+
+		public void setCode(String code) {
+			this.code = code;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public CategoryRestBean getParent() {
+			return parent;
+		}
+
+		public void setParent(CategoryRestBean parent) {
+			this.parent = parent;
+		}
+	}
+
+	public static class Order {
+
+		private String orderNumber;
+		private String currency;
+		private List<Line> lines;
+
+		public List<Line> getLines() {
+			return lines;
+		}
+	}
+
+	public static class Line {
+
+		private int position;
+		private long quantity;
+		private BigDecimal price;
+		private Product product;
+	}
+
+	public static class Product {
+
+		private String sku;
+		private String name;
+		private Category category;
+	}
+
+	public static class Category {
+
+		private String code;
+		private String name;
+		private Category parent;
+
+		public Category getParent() {
+			return parent;
+		}
+	}
+}
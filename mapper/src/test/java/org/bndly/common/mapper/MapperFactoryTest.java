@@ -0,0 +1,145 @@
+package org.bndly.common.mapper;
+
+/*-
+ * #%L
+ * Mapper
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class MapperFactoryTest {
+
+	private MapperFactory mapperFactory;
+
+	public interface Named {
+		String getName();
+	}
+
+	public interface Labeled extends Named {
+	}
+
+	public static abstract class AbstractBean {
+	}
+
+	/**
+	 * Mimics a generated schema bean implementation, that extends a base class and implements the schema bean interface.
+	 */
+	public static class NamedImpl extends AbstractBean implements Named {
+
+		private final String name;
+
+		public NamedImpl(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+	public static class LabeledImpl extends NamedImpl implements Labeled {
+
+		public LabeledImpl(String name) {
+			super(name);
+		}
+	}
+
+	public static class NameRestBean {
+
+		private String name;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	@BeforeMethod
+	public void setup() {
+		mapperFactory = new MapperFactory();
+		mapperFactory.registerMapper(new TypeSpecificMapper() {
+			@Override
+			public Class<?> getSupportedInput() {
+				return Named.class;
+			}
+
+			@Override
+			public Class<?> getSupportedOutput() {
+				return NameRestBean.class;
+			}
+
+			@Override
+			public void map(Object source, Object target, MappingContext context, MappingState state) {
+				((NameRestBean) target).setName(((Named) source).getName());
+			}
+		});
+	}
+
+	@Test
+	public void testMapperOfInterfaceIsResolvedForImplementingClass() {
+		NameRestBean output = mapperFactory.buildContext().map(new NamedImpl("a"), NameRestBean.class);
+		Assert.assertNotNull(output);
+		Assert.assertEquals(output.getName(), "a");
+	}
+
+	@Test
+	public void testMapperOfSuperInterfaceIsResolvedForImplementingClass() {
+		NameRestBean output = mapperFactory.buildContext().map(new LabeledImpl("b"), NameRestBean.class);
+		Assert.assertNotNull(output);
+		Assert.assertEquals(output.getName(), "b");
+	}
+
+	@Test
+	public void testMapperOfInterfaceIsResolvedWithoutOutputType() {
+		Object output = mapperFactory.buildContext().map(new NamedImpl("c"), (MappingState) null);
+		Assert.assertTrue(NameRestBean.class.isInstance(output));
+		Assert.assertEquals(((NameRestBean) output).getName(), "c");
+	}
+
+	@Test
+	public void testMapperOfClassHierarchyIsPreferred() {
+		mapperFactory.registerMapper(new TypeSpecificMapper() {
+			@Override
+			public Class<?> getSupportedInput() {
+				return AbstractBean.class;
+			}
+
+			@Override
+			public Class<?> getSupportedOutput() {
+				return NameRestBean.class;
+			}
+
+			@Override
+			public void map(Object source, Object target, MappingContext context, MappingState state) {
+				((NameRestBean) target).setName("bean");
+			}
+		});
+		NameRestBean output = mapperFactory.buildContext().map(new NamedImpl("d"), NameRestBean.class);
+		Assert.assertEquals(output.getName(), "bean");
+	}
+}
@@ -22,10 +22,10 @@ package org.bndly.pdf;
 
 import org.bndly.css.CSSItem;
 import org.bndly.css.CSSParsingException;
-import org.bndly.css.CSSReader;
 import java.util.List;
 
 import org.bndly.css.CSSStyle;
+import org.bndly.pdf.css.CSSRuleIndex;
 import org.bndly.pdf.layout.AbsoluteLayout;
 import org.bndly.pdf.layout.AddPageOverflowStrategy;
 import org.bndly.pdf.layout.DocumentLayout;
@@ -37,6 +37,7 @@ import org.bndly.pdf.layout.TextSizeStrategy;
 import org.bndly.pdf.layout.ThrowAwayOverflowStrategy;
 import org.bndly.pdf.layout.VerticalLayout;
 import org.bndly.pdf.output.InputStreamResolver;
+import org.bndly.pdf.output.PDFResourceCache;
 import org.bndly.pdf.output.PDFPrinterImpl;
 import org.bndly.pdf.visualobject.Container;
 import org.bndly.pdf.visualobject.Document;
@@ -52,7 +53,6 @@ import org.bndly.pdf.visualobject.TableColumn;
 import org.bndly.pdf.visualobject.Text;
 import org.bndly.pdf.visualobject.VisualObjectFactory;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,9 +63,11 @@ public class PrintingContext implements OverflowStrategyFactory, LayoutFactory,
 	
 	private TextSizeStrategy textSizeStrategy;
 	private InputStreamResolver inputStreamResolver;
+	private PDFResourceCache resourceCache = PDFResourceCache.getSharedInstance();
 	private final long id;
 	private long idCounter = 0;
 	private final List<CSSStyle> styles = new ArrayList<>();
+	private CSSRuleIndex styleIndex;
 
 	public PrintingContext() {
 		idCounter = 0;
@@ -88,6 +90,17 @@ public class PrintingContext implements OverflowStrategyFactory, LayoutFactory,
 		this.inputStreamResolver = inputStreamResolver;
 	}
 
+	public PDFResourceCache getResourceCache() {
+		return resourceCache;
+	}
+
+	public void setResourceCache(PDFResourceCache resourceCache) {
+		if (resourceCache == null) {
+			throw new IllegalArgumentException("resourceCache is not allowed to be null");
+		}
+		this.resourceCache = resourceCache;
+	}
+
 	public long plusplus() {
 		return idCounter++;		
 	}
@@ -108,12 +121,33 @@ public class PrintingContext implements OverflowStrategyFactory, LayoutFactory,
 		CSSStyle cssStyle = new CSSStyle();
 		cssStyle.setSelector(selector);
 		getStyles().add(cssStyle);
+		invalidateStyles();
 		return cssStyle;
 	}
 	
 	public List<CSSStyle> getStyles() {
 		return styles;
 	}
+
+	/**
+	 * Gets the index of the compiled styles. The index is built when it is requested for the first time after the styles have changed. 
+	 * Styles, that are added to {@link #getStyles()}, are detected automatically. If the selector or the attributes of a style are changed, 
+	 * after the index has been built, {@link #invalidateStyles()} has to be called.
+	 * @return the index of the compiled styles
+	 */
+	public CSSRuleIndex getStyleIndex() {
+		if (styleIndex == null || styleIndex.getStyleCount() != styles.size()) {
+			styleIndex = new CSSRuleIndex(styles);
+		}
+		return styleIndex;
+	}
+
+	/**
+	 * Drops the compiled styles. The calculated styles of all visual objects will be calculated again on their next access.
+	 */
+	public void invalidateStyles() {
+		styleIndex = null;
+	}
 	
 	public void loadStyleSheetFromLocation(String location) {
 		InputStreamResolver isr = getInputStreamResolver();
@@ -123,22 +157,15 @@ public class PrintingContext implements OverflowStrategyFactory, LayoutFactory,
 			return;
 		}
 		try {
-			InputStream is = isr.resolve(location);
-			if (is != null) {
-				try (InputStream tmp = is) {
-					CSSReader cssReader = new CSSReader();
-					List<CSSItem> items = cssReader.read(tmp);
-					for (CSSItem item : items) {
-						if (CSSStyle.class.isInstance(item)) {
-							styles.add((CSSStyle)item);
-						}
-					}
-				} catch (IOException | CSSParsingException ex) {
-					LOG.error("could not load CSS from location " + location + ": " + ex.getMessage(), ex);
+			List<CSSItem> items = resourceCache.getStyleSheet(location, isr);
+			for (CSSItem item : items) {
+				if (CSSStyle.class.isInstance(item)) {
+					styles.add((CSSStyle)item);
 				}
 			}
-		} catch (IOException ex) {
-			LOG.error("could not resolve CSS from location " + location + ": " + ex.getMessage(), ex);
+			invalidateStyles();
+		} catch (IOException | CSSParsingException ex) {
+			LOG.error("could not load CSS from location " + location + ": " + ex.getMessage(), ex);
 		}
 	}
 
@@ -0,0 +1,127 @@
+package org.bndly.pdf.css;
+
+/*-
+ * #%L
+ * PDF Document Printer
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.css.CSSStyle;
+import org.bndly.css.selector.CSSSelector;
+import org.bndly.css.selector.CSSSelectorParser;
+import org.bndly.css.selector.CSSTypeSelector;
+import org.bndly.pdf.visualobject.VisualObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CSSRuleIndex groups the compiled styles of a style sheet by the rightmost type selector of their selector. A type selector is either 
+ * the type name of a visual object or a style class with a leading dot. To find the styles of a visual object, only the styles of its type 
+ * name and its style classes have to be tested. Styles without a rightmost type selector are tested for every visual object.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class CSSRuleIndex {
+
+	private static final Comparator<CompiledCSSStyle> BY_ORDER = new Comparator<CompiledCSSStyle>() {
+		@Override
+		public int compare(CompiledCSSStyle o1, CompiledCSSStyle o2) {
+			return Integer.compare(o1.getOrder(), o2.getOrder());
+		}
+	};
+
+	private final int styleCount;
+	private final Map<String, List<CompiledCSSStyle>> stylesByTypeName = new HashMap<>();
+	private final List<CompiledCSSStyle> unindexedStyles = new ArrayList<>();
+
+	public CSSRuleIndex(List<CSSStyle> styles) {
+		styleCount = styles.size();
+		CSSSelectorParser parser = new CSSSelectorParser();
+		for (int i = 0; i < styles.size(); i++) {
+			CSSStyle cssStyle = styles.get(i);
+			List<CSSSelector> selectors = parser.parseSelectorString(cssStyle.getSelector());
+			CompiledCSSStyle compiledStyle = new CompiledCSSStyle(cssStyle, i, selectors);
+			CSSSelector rightmost = selectors.isEmpty() ? null : selectors.get(selectors.size() - 1);
+			if (rightmost != null && rightmost.is(CSSTypeSelector.class)) {
+				String typeName = rightmost.as(CSSTypeSelector.class).getTypeName();
+				List<CompiledCSSStyle> stylesOfType = stylesByTypeName.get(typeName);
+				if (stylesOfType == null) {
+					stylesOfType = new ArrayList<>();
+					stylesByTypeName.put(typeName, stylesOfType);
+				}
+				stylesOfType.add(compiledStyle);
+			} else {
+				unindexedStyles.add(compiledStyle);
+			}
+		}
+	}
+
+	/**
+	 * The number of styles, that have been compiled into this index.
+	 * @return the number of styles
+	 */
+	public int getStyleCount() {
+		return styleCount;
+	}
+
+	/**
+	 * Gets all styles, that apply on the provided visual object.
+	 * @param visualObject the visual object to match
+	 * @return the matching styles in the order of the style sheet
+	 */
+	public List<CompiledCSSStyle> getMatchingStyles(VisualObject visualObject) {
+		List<CompiledCSSStyle> candidates = new ArrayList<>(unindexedStyles);
+		int sources = candidates.isEmpty() ? 0 : 1;
+		sources += addCandidates(CSSSelectorMatcher.typeNameOf(visualObject.getClass()), candidates);
+		String styleClasses = visualObject.getStyleClasses();
+		if (styleClasses != null) {
+			for (String styleName : styleClasses.split(" ")) {
+				sources += addCandidates("." + styleName, candidates);
+			}
+		}
+		if (candidates.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (sources > 1) {
+			Collections.sort(candidates, BY_ORDER);
+		}
+		CSSSelectorMatcher matcher = new CSSSelectorMatcher();
+		List<CompiledCSSStyle> matching = new ArrayList<>(candidates.size());
+		CompiledCSSStyle previous = null;
+		for (CompiledCSSStyle candidate : candidates) {
+			// a style class might be listed twice in the style classes of the visual object
+			if (candidate != previous && matcher.selectorsApplyOn(candidate.getSelectors(), visualObject)) {
+				matching.add(candidate);
+			}
+			previous = candidate;
+		}
+		return matching;
+	}
+
+	private int addCandidates(String typeName, List<CompiledCSSStyle> candidates) {
+		List<CompiledCSSStyle> stylesOfType = stylesByTypeName.get(typeName);
+		if (stylesOfType == null) {
+			return 0;
+		}
+		candidates.addAll(stylesOfType);
+		return 1;
+	}
+}
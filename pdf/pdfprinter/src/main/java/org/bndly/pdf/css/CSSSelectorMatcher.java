@@ -22,6 +22,8 @@ package org.bndly.pdf.css;
 
 import org.bndly.common.lang.StringUtil;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.bndly.css.CSSStyle;
 import org.bndly.css.selector.CSSChildSelector;
@@ -33,15 +35,34 @@ import org.bndly.pdf.visualobject.VisualObject;
 
 public class CSSSelectorMatcher {
 	
+	private static final ConcurrentMap<Class<?>, String> TYPE_NAMES = new ConcurrentHashMap<>();
+	
 	private VisualObject currentVisualObject;
 	
+	/**
+	 * Gets the name, that is used by type selectors to select visual objects of the provided type.
+	 * @param type the type of a visual object
+	 * @return the simple name of the type with a lower case first letter
+	 */
+	public static String typeNameOf(Class<? extends VisualObject> type) {
+		String typeName = TYPE_NAMES.get(type);
+		if (typeName == null) {
+			typeName = StringUtil.lowerCaseFirstLetter(type.getSimpleName());
+			TYPE_NAMES.put(type, typeName);
+		}
+		return typeName;
+	}
+	
 	public boolean styleAppliesOn(CSSStyle style, VisualObject v) {
-		currentVisualObject = v;
 		String selectorString = style.getSelector();
 		// parse the string into CSSSelectors
 		CSSSelectorParser parser = new CSSSelectorParser();
 		List<CSSSelector> selectors = parser.parseSelectorString(selectorString);
-		
+		return selectorsApplyOn(selectors, v);
+	}
+	
+	public boolean selectorsApplyOn(List<CSSSelector> selectors, VisualObject v) {
+		currentVisualObject = v;
 		boolean allSelectorsApply = true;
 		// while all selectors apply
 		for (int i = selectors.size() - 1; i >= 0 && allSelectorsApply; i--) {
@@ -87,9 +108,7 @@ public class CSSSelectorMatcher {
 				}
 			}
 		} else {
-			Class<? extends VisualObject> clazz = currentVisualObject.getClass();
-			String baseClass = clazz.getSimpleName();
-			baseClass = StringUtil.lowerCaseFirstLetter(baseClass);
+			String baseClass = typeNameOf(currentVisualObject.getClass());
 			if (n.equals(baseClass)) {
 				return true;
 			}
@@ -0,0 +1,104 @@
+package org.bndly.pdf.css;
+
+/*-
+ * #%L
+ * PDF Document Printer
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.css.CSSAttribute;
+import org.bndly.css.CSSStyle;
+import org.bndly.css.selector.CSSSelector;
+import java.util.List;
+
+/**
+ * A CompiledCSSStyle is a {@link CSSStyle} with a parsed selector and parsed attribute values. Quoted values become strings without the quotes 
+ * and numeric values with an optional <code>pt</code> suffix become doubles.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class CompiledCSSStyle {
+
+	private final CSSStyle style;
+	private final int order;
+	private final List<CSSSelector> selectors;
+	private final String[] attributeNames;
+	private final Object[] attributeValues;
+
+	public CompiledCSSStyle(CSSStyle style, int order, List<CSSSelector> selectors) {
+		this.style = style;
+		this.order = order;
+		this.selectors = selectors;
+		List<CSSAttribute> attributes = style.getAttributes();
+		int size = attributes == null ? 0 : attributes.size();
+		attributeNames = new String[size];
+		attributeValues = new Object[size];
+		for (int i = 0; i < size; i++) {
+			CSSAttribute cssAttribute = attributes.get(i);
+			attributeNames[i] = cssAttribute.getName();
+			attributeValues[i] = filterAttributeValue(cssAttribute.getValue());
+		}
+	}
+
+	private static Object filterAttributeValue(String rawValue) {
+		Object value = rawValue;
+		if (rawValue.charAt(0) == '"' && rawValue.charAt(rawValue.length() - 1) == '"') {
+			value = rawValue.substring(1, rawValue.length() - 1);
+		} else {
+			String rawDoubleValue = rawValue;
+			if (rawValue.endsWith("pt")) {
+				rawDoubleValue = rawValue.replace("pt", "");
+			}
+			try {
+				Double d = new Double(rawDoubleValue);
+				value = d;
+			} catch (Exception e) {
+				// ignore invalid doubles
+			}
+		}
+		return value;
+	}
+
+	public CSSStyle getStyle() {
+		return style;
+	}
+
+	/**
+	 * The position of the style in the style sheet. Styles with a higher order overwrite the attributes of styles with a lower order.
+	 * @return the position of the style
+	 */
+	public int getOrder() {
+		return order;
+	}
+
+	public List<CSSSelector> getSelectors() {
+		return selectors;
+	}
+
+	public int getAttributeCount() {
+		return attributeNames.length;
+	}
+
+	public String getAttributeName(int index) {
+		return attributeNames[index];
+	}
+
+	public Object getAttributeValue(int index) {
+		return attributeValues[index];
+	}
+
+}
@@ -25,4 +25,13 @@ import java.io.InputStream;
 
 public interface InputStreamResolver {
 	InputStream resolve(String fileName) throws IOException;
+
+	/**
+	 * Gets the last modification time of a resolvable file. Parsed resources are only cached, if the last modification time is known.
+	 * @param fileName the name of the file
+	 * @return the last modification time in milliseconds or -1, if it is unknown
+	 */
+	default long getLastModified(String fileName) {
+		return -1;
+	}
 }
@@ -20,9 +20,7 @@ package org.bndly.pdf.output;
  * #L%
  */
 
-import org.bndly.common.data.io.ReplayableInputStream;
 import org.bndly.css.CSSItem;
-import org.bndly.css.CSSReader;
 import org.bndly.css.CSSStyle;
 import org.bndly.pdf.Point2D;
 import org.bndly.pdf.PrintingContext;
@@ -49,9 +47,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import org.apache.fontbox.ttf.TrueTypeFont;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
@@ -60,8 +60,6 @@ import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDTrueTypeFont;
 import org.apache.pdfbox.pdmodel.font.PDType0Font;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
-import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,18 +67,31 @@ import org.slf4j.LoggerFactory;
 public class PDFPrinterImpl extends PrintingObjectImpl implements PDFPrinter {
 
 	private static final Logger LOG = LoggerFactory.getLogger(PDFPrinter.class);
+	private static final InputStreamResolver FILE_RESOLVER = new InputStreamResolver() {
+		@Override
+		public InputStream resolve(String fileName) throws IOException {
+			return new FileInputStream(fileName);
+		}
+
+		@Override
+		public long getLastModified(String fileName) {
+			File file = new File(fileName);
+			return file.isFile() ? file.lastModified() : -1;
+		}
+	};
 
 	private Document document;
 	private PDDocument pddoc;
-	private final List<FontBinding> fontBindings = new ArrayList<>();
+	private final Map<String, FontBinding> fontBindings = new HashMap<>();
 	private Container currentPageContainer;
-	private final List<ImageBinding> imageBindings = new ArrayList<>();
+	private final Map<String, ImageBinding> imageBindings = new HashMap<>();
 	private PDPageContentStream contentStream;
 	private final float debugFontSize = 6f;
 	private final boolean isDebugEnabled = false;
 	private int currentPageIndex;
 	private int totalPages;
 	private OutputStream outputStream;
+	private PrintResult lastPrintResult;
 
 	public PDFPrinterImpl(PrintingContext printingContext, PrintingObject owner) {
 		super(printingContext, owner);
@@ -121,6 +132,13 @@ public class PDFPrinterImpl extends PrintingObjectImpl implements PDFPrinter {
 
 		currentPageIndex = 0;
 		document = d;
+		// fonts and images are bound to the PDDocument they have been loaded into
+		fontBindings.clear();
+		imageBindings.clear();
+		contentStream = null;
+		lastPrintResult = null;
+		long start = System.nanoTime();
+		long layoutNanos = 0;
 		try {
 			pddoc = new PDDocument();
 			loadResources();
@@ -128,13 +146,24 @@ public class PDFPrinterImpl extends PrintingObjectImpl implements PDFPrinter {
 			document.doLayout();
 			totalPages = countPagesOf(document);
 			fillSystemText(document, true); // handle postLayout system texts (like !totalPages!)
+			layoutNanos = System.nanoTime() - start;
 			generatePages();
 			pddoc.save(outputStream);
 			pddoc.close();
+			lastPrintResult = new PrintResult(layoutNanos, System.nanoTime() - start - layoutNanos, null);
 		} catch (IOException e) {
 			LOG.error("failed to print document as pdf: " + e.getMessage(), e);
+			lastPrintResult = new PrintResult(layoutNanos, layoutNanos == 0 ? 0 : System.nanoTime() - start - layoutNanos, e);
 		}
 	}
+
+	/**
+	 * Gets the result of the last call to {@link #print(org.bndly.pdf.visualobject.Document, java.io.OutputStream)}.
+	 * @return the result or null, if nothing has been printed yet
+	 */
+	public PrintResult getLastPrintResult() {
+		return lastPrintResult;
+	}
 	
 
 	private int countPagesOf(Document document) {
@@ -382,7 +411,7 @@ public class PDFPrinterImpl extends PrintingObjectImpl implements PDFPrinter {
 					binding.setName(font);
 					binding.setWeight(fontWeight);
 					binding.setStyle(fontStyle);
-					fontBindings.add(binding);
+					fontBindings.put(fontBindingKey(font, fontWeight, fontStyle), binding);
 				} catch (IOException e) {
 					LOG.error("failed to load a font resource: " + e.getMessage(), e);
 				}
@@ -391,22 +420,20 @@ public class PDFPrinterImpl extends PrintingObjectImpl implements PDFPrinter {
 		if (vo.is(Image.class)) {
 			Image i = vo.as(Image.class);
 			String src = i.getSource();
-			if (src.toLowerCase().endsWith(".jpg")) {
+			if (src.toLowerCase().endsWith(".jpg") && !imageBindings.containsKey(src)) {
 				InputStreamResolver resolver = getContext().getInputStreamResolver();
-				ReplayableInputStream is;
-				if (resolver != null) {
-					is = ReplayableInputStream.newInstance(resolver.resolve(src));
-				} else {
-					is = ReplayableInputStream.newInstance(new FileInputStream(src));
+				if (resolver == null) {
+					resolver = FILE_RESOLVER;
 				}
-
-				PDImageXObject ximage = JPEGFactory.createFromStream(pddoc, is);
-//				PDJpeg ximage = new PDJpeg(pddoc, is);
-				ximage.setColorSpace(PDDeviceRGB.INSTANCE);
+				PDFResourceCache.JPEGImage image = getContext().getResourceCache().getJPEGImage(src, resolver);
+				if (image == null) {
+					throw new FileNotFoundException("could not resolve image " + src);
+				}
+				PDImageXObject ximage = image.createImage(pddoc);
 				ImageBinding binding = new ImageBinding();
 				binding.setName(src);
 				binding.setPdImage(ximage);
-				imageBindings.add(binding);
+				imageBindings.put(src, binding);
 			}
 		}
 		if (Container.class.isAssignableFrom(vo.getClass())) {
@@ -475,11 +502,10 @@ public class PDFPrinterImpl extends PrintingObjectImpl implements PDFPrinter {
 
 		} else {
 			InputStreamResolver isr = getContext().getInputStreamResolver();
-			InputStream input = isr.resolve(font);
-			if (input != null) {
-				try (InputStream tmp = input) {
-					pdFont = PDType0Font.load(pddoc, tmp);
-				}
+			// the parsed font is shared between documents. only the embedding is done for every document.
+			TrueTypeFont trueTypeFont = getContext().getResourceCache().getTrueTypeFont(font, isr);
+			if (trueTypeFont != null) {
+				pdFont = PDType0Font.load(pddoc, trueTypeFont, true);
 			}
 //			throw new IllegalStateException(
 //					"Seems like you want to use a TTF font '" + font + "'. I discourage you form using these fonts, since they often are poorly "
@@ -491,44 +517,34 @@ public class PDFPrinterImpl extends PrintingObjectImpl implements PDFPrinter {
 
 	private boolean isFontLoaded(String name, FontWeights fontWeight, FontStyles fontStyle) {
 		if (name != null) {
-			for (FontBinding b : fontBindings) {
-				if (name.equals(b.getName()) && fontStyle == b.getStyle() && fontWeight == b.getWeight()) {
-					return true;
-				}
-			}
+			return fontBindings.containsKey(fontBindingKey(name, fontWeight, fontStyle));
 		}
 		return false;
 	}
 
+	private static String fontBindingKey(String name, FontWeights fontWeight, FontStyles fontStyle) {
+		return name + "|" + fontWeight + "|" + fontStyle;
+	}
+
 	@Override
 	public FontBinding getFontBinding(String name, FontWeights fontWeight, FontStyles fontStyle) {
-		for (FontBinding b : fontBindings) {
-			if (name.equals(b.getName()) && fontStyle == b.getStyle() && fontWeight == b.getWeight()) {
-				return b;
-			}
-		}
-		return null;
+		return fontBindings.get(fontBindingKey(name, fontWeight, fontStyle));
 	}
 
 	public ImageBinding getImageBinding(String name) {
-		for (ImageBinding b : imageBindings) {
-			if (name.equals(b.getName())) {
-				return b;
-			}
-		}
-		return null;
+		return imageBindings.get(name);
 	}
 
 	public void loadStyleSheet(String css) {
-		CSSReader cssReader = new CSSReader();
 		try {
-			List<CSSItem> items = cssReader.read(css);
+			List<CSSItem> items = getContext().getResourceCache().getStyleSheet(css, FILE_RESOLVER);
 			List<CSSStyle> styles = getContext().getStyles();
 			for (CSSItem item : items) {
 				if (CSSStyle.class.isInstance(item)) {
 					styles.add((CSSStyle)item);
 				}
 			}
+			getContext().invalidateStyles();
 		} catch (Exception e) {
 			throw new RuntimeException("failed reading the CSS from " + css, e);
 		}
@@ -0,0 +1,287 @@
+package org.bndly.pdf.output;
+
+/*-
+ * #%L
+ * PDF Document Printer
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.css.CSSItem;
+import org.bndly.css.CSSParsingException;
+import org.bndly.css.CSSReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * The PDFResourceCache keeps parsed style sheets, parsed true type fonts and the data of JPEG images across printed documents. Entries are 
+ * identified by the kind of the resource, the resource name and the last modification time, that is reported by the 
+ * {@link InputStreamResolver}. Resources without a known last modification time are not cached. The cache is bounded by the number of bytes 
+ * of the cached resource data. If the bound is exceeded, the least recently used entries are dropped.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class PDFResourceCache {
+
+	public static final long DEFAULT_MAX_BYTES = 32L * 1024L * 1024L;
+	private static final PDFResourceCache SHARED_INSTANCE = new PDFResourceCache(DEFAULT_MAX_BYTES);
+
+	private static enum Kind {
+		STYLESHEET,
+		FONT,
+		JPEG
+	}
+
+	private final long maxBytes;
+	private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long currentBytes;
+
+	public PDFResourceCache(long maxBytes) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("maxBytes is not allowed to be negative");
+		}
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Gets the cache, that is shared by all printing contexts of the process.
+	 * @return the shared cache
+	 */
+	public static PDFResourceCache getSharedInstance() {
+		return SHARED_INSTANCE;
+	}
+
+	/**
+	 * Gets the parsed items of a style sheet. The returned list is shared and must not be modified.
+	 * @param name the name of the style sheet
+	 * @param resolver the resolver to read the style sheet with
+	 * @return the parsed items or an empty list, if the style sheet could not be resolved
+	 * @throws IOException if the style sheet could not be read
+	 * @throws CSSParsingException if the style sheet could not be parsed
+	 */
+	public List<CSSItem> getStyleSheet(String name, InputStreamResolver resolver) throws IOException, CSSParsingException {
+		Key key = createKey(Kind.STYLESHEET, name, resolver);
+		List<CSSItem> items = (List<CSSItem>) get(key);
+		if (items == null) {
+			byte[] data = readData(name, resolver);
+			if (data == null) {
+				return Collections.emptyList();
+			}
+			items = Collections.unmodifiableList(new CSSReader().read(new ByteArrayInputStream(data)));
+			put(key, items, data.length);
+		}
+		return items;
+	}
+
+	/**
+	 * Gets a parsed true type font. The font is shared between documents and must not be closed.
+	 * @param name the name of the font file
+	 * @param resolver the resolver to read the font file with
+	 * @return the parsed font or null, if the font file could not be resolved
+	 * @throws IOException if the font file could not be read or parsed
+	 */
+	public TrueTypeFont getTrueTypeFont(String name, InputStreamResolver resolver) throws IOException {
+		Key key = createKey(Kind.FONT, name, resolver);
+		TrueTypeFont font = (TrueTypeFont) get(key);
+		if (font == null) {
+			byte[] data = readData(name, resolver);
+			if (data == null) {
+				return null;
+			}
+			font = new TTFParser().parse(new ByteArrayInputStream(data));
+			put(key, font, data.length);
+		}
+		return font;
+	}
+
+	/**
+	 * Gets the data of a JPEG image.
+	 * @param name the name of the image
+	 * @param resolver the resolver to read the image with
+	 * @return the image data or null, if the image could not be resolved
+	 * @throws IOException if the image could not be read
+	 */
+	public JPEGImage getJPEGImage(String name, InputStreamResolver resolver) throws IOException {
+		Key key = createKey(Kind.JPEG, name, resolver);
+		JPEGImage image = (JPEGImage) get(key);
+		if (image == null) {
+			byte[] data = readData(name, resolver);
+			if (data == null) {
+				return null;
+			}
+			image = new JPEGImage(data);
+			put(key, image, data.length);
+		}
+		return image;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		currentBytes = 0;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public synchronized long getCurrentBytes() {
+		return currentBytes;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private static Key createKey(Kind kind, String name, InputStreamResolver resolver) {
+		if (name == null || resolver == null) {
+			return null;
+		}
+		long lastModified = resolver.getLastModified(name);
+		if (lastModified < 0) {
+			return null;
+		}
+		return new Key(kind, name, lastModified);
+	}
+
+	private synchronized Object get(Key key) {
+		if (key == null) {
+			return null;
+		}
+		Entry entry = entries.get(key);
+		return entry == null ? null : entry.value;
+	}
+
+	private synchronized void put(Key key, Object value, long size) {
+		if (key == null || size > maxBytes) {
+			return;
+		}
+		Entry previous = entries.put(key, new Entry(value, size));
+		if (previous != null) {
+			currentBytes -= previous.size;
+		}
+		currentBytes += size;
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (currentBytes > maxBytes && iterator.hasNext()) {
+			Entry eldest = iterator.next();
+			iterator.remove();
+			currentBytes -= eldest.size;
+		}
+	}
+
+	private static byte[] readData(String name, InputStreamResolver resolver) throws IOException {
+		if (name == null || resolver == null) {
+			return null;
+		}
+		InputStream input = resolver.resolve(name);
+		if (input == null) {
+			return null;
+		}
+		try (InputStream tmp = input) {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int r;
+			while ((r = tmp.read(buffer)) > -1) {
+				bos.write(buffer, 0, r);
+			}
+			return bos.toByteArray();
+		}
+	}
+
+	/**
+	 * The data of a JPEG image. The dimensions of the image are taken from the first image object, that is created from the data. Later 
+	 * image objects embed the data without inspecting it again.
+	 */
+	public static final class JPEGImage {
+
+		private final byte[] data;
+		private volatile int[] dimensions;
+
+		private JPEGImage(byte[] data) {
+			this.data = data;
+		}
+
+		public PDImageXObject createImage(PDDocument document) throws IOException {
+			int[] d = dimensions;
+			PDImageXObject ximage;
+			if (d == null) {
+				ximage = JPEGFactory.createFromByteArray(document, data);
+				dimensions = new int[]{ximage.getWidth(), ximage.getHeight(), ximage.getBitsPerComponent()};
+				ximage.setColorSpace(PDDeviceRGB.INSTANCE);
+			} else {
+				ximage = new PDImageXObject(document, new ByteArrayInputStream(data), COSName.DCT_DECODE, d[0], d[1], d[2], PDDeviceRGB.INSTANCE);
+			}
+			return ximage;
+		}
+	}
+
+	private static final class Key {
+
+		private final Kind kind;
+		private final String name;
+		private final long lastModified;
+
+		public Key(Kind kind, String name, long lastModified) {
+			this.kind = kind;
+			this.name = name;
+			this.lastModified = lastModified;
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = kind.hashCode();
+			hash = 31 * hash + name.hashCode();
+			hash = 31 * hash + (int) (lastModified ^ (lastModified >>> 32));
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!Key.class.isInstance(obj)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return kind == other.kind && lastModified == other.lastModified && name.equals(other.name);
+		}
+	}
+
+	private static final class Entry {
+
+		private final Object value;
+		private final long size;
+
+		public Entry(Object value, long size) {
+			this.value = value;
+			this.size = size;
+		}
+	}
+}
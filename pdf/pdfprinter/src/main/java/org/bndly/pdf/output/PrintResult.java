@@ -0,0 +1,62 @@
+package org.bndly.pdf.output;
+
+/*-
+ * #%L
+ * PDF Document Printer
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * The PrintResult describes the last run of {@link PDFPrinterImpl#print(org.bndly.pdf.visualobject.Document, java.io.OutputStream)}. 
+ * The layout time includes the loading of fonts and images and the layout of the document. The write time includes the generation of the 
+ * pages and the serialization of the PDF.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class PrintResult {
+
+	private final long layoutNanos;
+	private final long writeNanos;
+	private final Exception failure;
+
+	public PrintResult(long layoutNanos, long writeNanos, Exception failure) {
+		this.layoutNanos = layoutNanos;
+		this.writeNanos = writeNanos;
+		this.failure = failure;
+	}
+
+	public long getLayoutNanos() {
+		return layoutNanos;
+	}
+
+	public long getWriteNanos() {
+		return writeNanos;
+	}
+
+	/**
+	 * Gets the exception, that stopped the printing. The printer only logs this exception, so callers, that need to know if the PDF is 
+	 * complete, have to look at the result.
+	 * @return the exception or null, if the PDF has been written completely
+	 */
+	public Exception getFailure() {
+		return failure;
+	}
+
+	public boolean isSuccess() {
+		return failure == null;
+	}
+}
@@ -22,9 +22,7 @@ package org.bndly.pdf.style;
 
 import java.util.List;
 
-import org.bndly.css.CSSAttribute;
-import org.bndly.css.CSSStyle;
-import org.bndly.pdf.css.CSSSelectorMatcher;
+import org.bndly.pdf.css.CompiledCSSStyle;
 import org.bndly.pdf.PrintingContext;
 import org.bndly.pdf.PrintingObject;
 import org.bndly.pdf.visualobject.VisualObject;
@@ -43,45 +41,15 @@ public class CalculatedStyle extends Style {
 
 	private static void mergeStyleFromTo(VisualObject object, CalculatedStyle style) {
 		PrintingContext ctx = style.getContext();
-		List<CSSStyle> allStyles = ctx.getStyles();
-		CSSSelectorMatcher matcher = new CSSSelectorMatcher();
-		if (allStyles != null) {
-			for (CSSStyle cssStyle : allStyles) {
-				if (matcher.styleAppliesOn(cssStyle, object)) {
-					// set the style attributes in the resulting style
-					List<CSSAttribute> attributes = cssStyle.getAttributes();
-					if (attributes != null) {
-						for (CSSAttribute cssAttribute : attributes) {
-							String attributeValue = cssAttribute.getValue();
-							Object filteredValue = filterAttributeValue(attributeValue);
-							String attributeName = cssAttribute.getName();
-							style.superSet(attributeName, filteredValue);
-						}
-					}
-				}
+		List<CompiledCSSStyle> matchingStyles = ctx.getStyleIndex().getMatchingStyles(object);
+		for (CompiledCSSStyle cssStyle : matchingStyles) {
+			// set the style attributes in the resulting style
+			for (int i = 0; i < cssStyle.getAttributeCount(); i++) {
+				style.superSet(cssStyle.getAttributeName(i), cssStyle.getAttributeValue(i));
 			}
 		}
 	}
 
-	private static Object filterAttributeValue(String rawValue) {
-		Object value = rawValue;
-		if (rawValue.charAt(0) == '"' && rawValue.charAt(rawValue.length() - 1) == '"') {
-			value = rawValue.substring(1, rawValue.length() - 1);
-		} else {
-			String rawDoubleValue = rawValue;
-			if (rawValue.endsWith("pt")) {
-				rawDoubleValue = rawValue.replace("pt", "");
-			}
-			try {
-				Double d = new Double(rawDoubleValue);
-				value = d;
-			} catch (Exception e) {
-				// ignore invalid doubles
-			}
-		}
-		return value;
-	}
-
 	private void superSet(String attributeName, Object attributeValue) {
 		super.set(attributeName, attributeValue);
 	}
@@ -107,6 +107,17 @@ public class Container extends VisualObject {
 			items.add(object);
 		}
 		object.ownerContainer = this;
+		object.invalidateCalculatedStyle();
+	}
+
+	@Override
+	protected void invalidateCalculatedStyle() {
+		super.invalidateCalculatedStyle();
+		if (items != null) {
+			for (VisualObject item : items) {
+				item.invalidateCalculatedStyle();
+			}
+		}
 	}
 
 	public final Layout getLayout() {
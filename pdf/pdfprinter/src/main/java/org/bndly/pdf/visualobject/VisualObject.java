@@ -26,6 +26,7 @@ import org.bndly.pdf.Point2D;
 import org.bndly.pdf.PrintingContext;
 import org.bndly.pdf.PrintingObject;
 import org.bndly.pdf.PrintingObjectImpl;
+import org.bndly.pdf.css.CSSRuleIndex;
 import org.bndly.pdf.style.CalculatedStyle;
 import org.bndly.pdf.style.Style;
 import org.bndly.pdf.style.StyleAttributes;
@@ -41,6 +42,8 @@ public abstract class VisualObject extends PrintingObjectImpl {
 	private Style style;
 	protected Container ownerContainer;
 	private String styleClasses;
+	private Style calculatedStyle;
+	private CSSRuleIndex calculatedStyleIndex;
 
 	public VisualObject(PrintingContext context, PrintingObject owner) {
 		super(context, owner);
@@ -123,7 +126,21 @@ public abstract class VisualObject extends PrintingObjectImpl {
 		this.relativePosition = relativePosition;
 	}
 	public Style getCalculatedStyle() {
-		return CalculatedStyle.createFrom(this);
+		CSSRuleIndex styleIndex = getContext().getStyleIndex();
+		if (calculatedStyle == null || calculatedStyleIndex != styleIndex) {
+			calculatedStyle = CalculatedStyle.createFrom(this);
+			calculatedStyleIndex = styleIndex;
+		}
+		return calculatedStyle;
+	}
+	
+	/**
+	 * Drops the calculated style, because the style classes or the owner container of this visual object or of one of its owner containers 
+	 * have changed.
+	 */
+	protected void invalidateCalculatedStyle() {
+		calculatedStyle = null;
+		calculatedStyleIndex = null;
 	}
 	public Double getRatio() {
 		Double w = getWidth();
@@ -256,6 +273,7 @@ public abstract class VisualObject extends PrintingObjectImpl {
 	}
 	public void setStyleClasses(String styleClasses) {
 		this.styleClasses = styleClasses;
+		invalidateCalculatedStyle();
 	}
 	
 	public void destroy() {
@@ -0,0 +1,98 @@
+package org.bndly.pdf.css;
+
+/*-
+ * #%L
+ * PDF Document Printer
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.css.CSSAttribute;
+import org.bndly.css.CSSStyle;
+import org.bndly.pdf.PrintingContext;
+import org.bndly.pdf.style.Style;
+import org.bndly.pdf.style.StyleAttributes;
+import org.bndly.pdf.visualobject.Container;
+import org.bndly.pdf.visualobject.Document;
+import org.bndly.pdf.visualobject.Page;
+import org.bndly.pdf.visualobject.Text;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class CSSRuleIndexTest {
+
+	@Test
+	public void testMatchingStylesAreAppliedInStyleSheetOrder() {
+		PrintingContext printingContext = new PrintingContext();
+		createStyle(printingContext, ".big", StyleAttributes.FONT_SIZE, "20pt");
+		createStyle(printingContext, "text", StyleAttributes.FONT_SIZE, "12pt");
+		createStyle(printingContext, "page > text", StyleAttributes.FONT, "\"helvetica\"");
+		createStyle(printingContext, "image", StyleAttributes.FONT, "courier");
+
+		Document document = printingContext.createDocument(printingContext);
+		Page page = printingContext.createPage(document);
+		document.add(page);
+		Text text = printingContext.createText(page);
+		text.setStyleClasses("big big");
+		page.add(text);
+
+		Style style = text.getCalculatedStyle();
+		Assert.assertEquals(style.get(StyleAttributes.FONT_SIZE), 12D);
+		Assert.assertEquals(style.get(StyleAttributes.FONT), "helvetica");
+	}
+
+	@Test
+	public void testCalculatedStyleIsCachedUntilTheTreeOrTheStylesChange() {
+		PrintingContext printingContext = new PrintingContext();
+		createStyle(printingContext, "page > text", StyleAttributes.FONT_SIZE, "12pt");
+
+		Document document = printingContext.createDocument(printingContext);
+		Page page = printingContext.createPage(document);
+		document.add(page);
+		Container container = printingContext.createContainer(document);
+		document.add(container);
+		Text text = printingContext.createText(page);
+		container.add(text);
+
+		Style style = text.getCalculatedStyle();
+		Assert.assertNull(style.get(StyleAttributes.FONT_SIZE));
+		Assert.assertSame(text.getCalculatedStyle(), style);
+
+		// moving the owner container into the page changes the style of the text
+		page.add(container);
+		style = text.getCalculatedStyle();
+		Assert.assertEquals(style.get(StyleAttributes.FONT_SIZE), 12D);
+		Assert.assertSame(text.getCalculatedStyle(), style);
+
+		container.setStyleClasses("small");
+		Assert.assertNotSame(text.getCalculatedStyle(), style);
+		createStyle(printingContext, ".small > text", StyleAttributes.FONT_SIZE, "8");
+		Assert.assertEquals(text.getCalculatedStyle().get(StyleAttributes.FONT_SIZE), 8D);
+	}
+
+	private static CSSStyle createStyle(PrintingContext printingContext, String selector, String attributeName, String attributeValue) {
+		CSSStyle cssStyle = printingContext.createStyle(selector);
+		CSSAttribute attribute = new CSSAttribute();
+		attribute.setName(attributeName);
+		attribute.setValue(attributeValue);
+		cssStyle.addAttribute(attribute);
+		return cssStyle;
+	}
+}
@@ -0,0 +1,121 @@
+package org.bndly.pdf.output;
+
+/*-
+ * #%L
+ * PDF Document Printer
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.css.CSSItem;
+import org.bndly.css.CSSParsingException;
+import org.bndly.css.CSSStyle;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class PDFResourceCacheTest {
+
+	private static class TestResolver implements InputStreamResolver {
+
+		private final Map<String, String> contents = new HashMap<>();
+		private final Map<String, Long> lastModified = new HashMap<>();
+		private int resolved;
+
+		public void put(String fileName, String content, long lastModified) {
+			contents.put(fileName, content);
+			this.lastModified.put(fileName, lastModified);
+		}
+
+		@Override
+		public InputStream resolve(String fileName) throws IOException {
+			resolved++;
+			String content = contents.get(fileName);
+			return content == null ? null : new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public long getLastModified(String fileName) {
+			Long l = lastModified.get(fileName);
+			return l == null ? -1 : l;
+		}
+	}
+
+	@Test
+	public void testStyleSheetIsParsedOnceUntilItIsModified() throws IOException, CSSParsingException {
+		PDFResourceCache cache = new PDFResourceCache(PDFResourceCache.DEFAULT_MAX_BYTES);
+		TestResolver resolver = new TestResolver();
+		resolver.put("invoice.css", "text { font-size: 12pt; }", 1000);
+
+		List<CSSItem> items = cache.getStyleSheet("invoice.css", resolver);
+		Assert.assertEquals(items.size(), 1);
+		Assert.assertEquals(((CSSStyle) items.get(0)).getSelector(), "text");
+		Assert.assertSame(cache.getStyleSheet("invoice.css", resolver), items);
+		Assert.assertEquals(resolver.resolved, 1);
+
+		resolver.put("invoice.css", "page { width: 100; }", 2000);
+		items = cache.getStyleSheet("invoice.css", resolver);
+		Assert.assertEquals(((CSSStyle) items.get(0)).getSelector(), "page");
+		Assert.assertEquals(resolver.resolved, 2);
+	}
+
+	@Test
+	public void testResourcesWithoutLastModificationTimeAreNotCached() throws IOException, CSSParsingException {
+		PDFResourceCache cache = new PDFResourceCache(PDFResourceCache.DEFAULT_MAX_BYTES);
+		TestResolver resolver = new TestResolver();
+		resolver.put("invoice.css", "text { font-size: 12pt; }", -1);
+
+		cache.getStyleSheet("invoice.css", resolver);
+		cache.getStyleSheet("invoice.css", resolver);
+		Assert.assertEquals(resolver.resolved, 2);
+		Assert.assertEquals(cache.size(), 0);
+		Assert.assertTrue(cache.getStyleSheet("missing.css", resolver).isEmpty());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEntriesAreDroppedWhenTheCacheIsFull() throws IOException, CSSParsingException {
+		String css = "text { font-size: 12pt; }";
+		PDFResourceCache cache = new PDFResourceCache(css.length() * 2);
+		TestResolver resolver = new TestResolver();
+		resolver.put("a.css", css, 1);
+		resolver.put("b.css", css, 1);
+		resolver.put("c.css", css, 1);
+
+		cache.getStyleSheet("a.css", resolver);
+		cache.getStyleSheet("b.css", resolver);
+		cache.getStyleSheet("a.css", resolver);
+		cache.getStyleSheet("c.css", resolver);
+		Assert.assertEquals(cache.size(), 2);
+		Assert.assertEquals(cache.getCurrentBytes(), css.length() * 2);
+		Assert.assertEquals(resolver.resolved, 3);
+
+		// b has been dropped, because a has been used more recently
+		cache.getStyleSheet("a.css", resolver);
+		Assert.assertEquals(resolver.resolved, 3);
+		cache.getStyleSheet("b.css", resolver);
+		Assert.assertEquals(resolver.resolved, 4);
+	}
+}
@@ -0,0 +1,77 @@
+package org.bndly.pdf.templating;
+
+/*-
+ * #%L
+ * PDF templating
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.data.api.ChangeableData;
+import org.bndly.common.data.api.Data;
+import org.bndly.common.data.api.DataStore;
+import org.bndly.common.data.api.SimpleData;
+import org.bndly.common.data.io.ReplayableInputStream;
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * The DataStorePDFRenderSink stores the rendered PDFs in a {@link DataStore}. The name of the data is the name of the job with an 
+ * optional prefix and the suffix <code>.pdf</code>. Existing data with the same name is updated.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class DataStorePDFRenderSink implements PDFRenderSink {
+
+	public static final String CONTENT_TYPE = "application/pdf";
+
+	private final DataStore dataStore;
+	private final String namePrefix;
+
+	public DataStorePDFRenderSink(DataStore dataStore) {
+		this(dataStore, "");
+	}
+
+	public DataStorePDFRenderSink(DataStore dataStore, String namePrefix) {
+		if (dataStore == null) {
+			throw new IllegalArgumentException("dataStore is not allowed to be null");
+		}
+		this.dataStore = dataStore;
+		this.namePrefix = namePrefix == null ? "" : namePrefix;
+	}
+
+	@Override
+	public void accept(PDFRenderJob job, ReplayableInputStream pdf) throws IOException {
+		String name = namePrefix + job.getName() + ".pdf";
+		Date now = new Date();
+		Data found = dataStore.findByName(name);
+		if (found == null) {
+			SimpleData d = new SimpleData(null);
+			d.setName(name);
+			d.setContentType(CONTENT_TYPE);
+			d.setCreatedOn(now);
+			d.setInputStream(pdf);
+			dataStore.create(d);
+		} else if (ChangeableData.class.isInstance(found)) {
+			ChangeableData cd = (ChangeableData) found;
+			cd.setUpdatedOn(now);
+			cd.setInputStream(pdf);
+			dataStore.update(found);
+		} else {
+			throw new IOException("data " + name + " exists in data store " + dataStore.getName() + " but can not be changed");
+		}
+	}
+}
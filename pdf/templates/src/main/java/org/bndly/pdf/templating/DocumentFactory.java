@@ -26,7 +26,6 @@ import org.bndly.common.velocity.api.Renderer;
 import org.bndly.common.velocity.api.VelocityDataProvider;
 import org.bndly.css.CSSItem;
 import org.bndly.css.CSSParsingException;
-import org.bndly.css.CSSReader;
 import org.bndly.css.CSSStyle;
 import org.bndly.document.reader.DocumentReader;
 import org.bndly.document.xml.XDocument;
@@ -34,6 +33,7 @@ import org.bndly.pdf.PrintingContext;
 import org.bndly.pdf.mapper.DocumentMapper;
 import org.bndly.pdf.output.InputStreamResolver;
 import org.bndly.pdf.output.PDFPrinter;
+import org.bndly.pdf.output.PDFResourceCache;
 import org.bndly.pdf.visualobject.Document;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -112,7 +112,7 @@ public class DocumentFactory {
 		}
 	}
 	
-	private XDocument buildXDocument(final PDFTemplate template) {
+	XDocument buildXDocument(final PDFTemplate template) {
 		// i'd prefer the other solution, but it does not work for some reason.
 		SmartBufferOutputStream smartOutputBuffer = SmartBufferOutputStream.newInstance();
 		OutputStreamWriter writer;
@@ -155,12 +155,19 @@ public class DocumentFactory {
 	}
 
 	public void renderDocument(XDocument xDocument, String[] cssNames, OutputStream outputStream, boolean flushAndClose) {
+		renderDocument(xDocument, loadStyles(cssNames), outputStream, flushAndClose);
+	}
+
+	List<CSSStyle> loadStyles(String[] cssNames) {
 		try {
 			final List<CSSStyle> styles = new ArrayList<>();
+			if (cssNames == null) {
+				return styles;
+			}
+			InputStreamResolver resolver = createInputStreamResolver();
 			for (String cssName : cssNames) {
 				try {
-					InputStream is = createInputStreamResolver().resolve(cssName);
-					List<CSSItem> items = new CSSReader().read(is);
+					List<CSSItem> items = PDFResourceCache.getSharedInstance().getStyleSheet(cssName, resolver);
 					if (items != null) {
 						for (CSSItem item : items) {
 							if (CSSStyle.class.isInstance(item)) {
@@ -172,7 +179,7 @@ public class DocumentFactory {
 					LOG.error("failed to load CSS " + cssName, e);
 				}
 			}
-			renderDocument(xDocument, styles, outputStream, flushAndClose);
+			return styles;
 		} catch (IOException ex) {
 			throw new IllegalStateException("failed to read CSS from inputstream: " + ex.getMessage(), ex);
 		} catch (CSSParsingException ex) {
@@ -203,7 +210,7 @@ public class DocumentFactory {
 		}
 	}
 
-	private InputStreamResolver createInputStreamResolver() {
+	InputStreamResolver createInputStreamResolver() {
 		InputStreamResolver isr = new InputStreamResolver() {
 			@Override
 			public InputStream resolve(String fileName) throws IOException {
@@ -222,6 +229,21 @@ public class DocumentFactory {
 					lock.readLock().unlock();
 				}
 			}
+
+			@Override
+			public long getLastModified(String fileName) {
+				lock.readLock().lock();
+				try {
+					for (VelocityDataProvider velocityDataProvider : velocityDataProviders) {
+						if (velocityDataProvider.exists(fileName)) {
+							return velocityDataProvider.getLastModified(fileName);
+						}
+					}
+					return -1;
+				} finally {
+					lock.readLock().unlock();
+				}
+			}
 		};
 		return isr;
 	}
@@ -0,0 +1,65 @@
+package org.bndly.pdf.templating;
+
+/*-
+ * #%L
+ * PDF templating
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.data.io.ReplayableInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The OutputStreamPDFRenderSink copies every rendered PDF to an output stream, that is opened for the job. The output stream is closed 
+ * after the PDF has been copied.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class OutputStreamPDFRenderSink implements PDFRenderSink {
+
+	public static interface OutputStreamProvider {
+
+		OutputStream open(PDFRenderJob job) throws IOException;
+	}
+
+	private final OutputStreamProvider outputStreamProvider;
+
+	public OutputStreamPDFRenderSink(OutputStreamProvider outputStreamProvider) {
+		if (outputStreamProvider == null) {
+			throw new IllegalArgumentException("outputStreamProvider is not allowed to be null");
+		}
+		this.outputStreamProvider = outputStreamProvider;
+	}
+
+	@Override
+	public void accept(PDFRenderJob job, ReplayableInputStream pdf) throws IOException {
+		try (OutputStream os = outputStreamProvider.open(job)) {
+			if (os == null) {
+				throw new IOException("no output stream available for " + job.getName());
+			}
+			byte[] buffer = new byte[4096];
+			int r;
+			while ((r = pdf.read(buffer)) > -1) {
+				os.write(buffer, 0, r);
+			}
+			os.flush();
+		} finally {
+			pdf.close();
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package org.bndly.pdf.templating;
+
+/*-
+ * #%L
+ * PDF templating
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDFBatchMetrics is a snapshot of the throughput of the {@link PDFBatchRenderer}. The time of the stages is summed up over all rendered 
+ * documents, so the sum of the stages can be larger than the elapsed time, if several workers are used.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class PDFBatchMetrics {
+
+	public static enum Stage {
+		/**
+		 * Rendering the velocity template and reading the resulting document.
+		 */
+		TEMPLATING,
+		/**
+		 * Mapping the document to visual objects, loading fonts and images and laying out the pages.
+		 */
+		LAYOUT,
+		/**
+		 * Generating the PDF pages and serializing the PDF.
+		 */
+		WRITE,
+		/**
+		 * Handing the serialized PDF over to the {@link PDFRenderSink}.
+		 */
+		SINK
+	}
+
+	private final long submitted;
+	private final long completed;
+	private final long failed;
+	private final int queueDepth;
+	private final int activeWorkers;
+	private final long elapsedNanos;
+	private final long[] stageNanos;
+
+	PDFBatchMetrics(long submitted, long completed, long failed, int queueDepth, int activeWorkers, long elapsedNanos, long[] stageNanos) {
+		this.submitted = submitted;
+		this.completed = completed;
+		this.failed = failed;
+		this.queueDepth = queueDepth;
+		this.activeWorkers = activeWorkers;
+		this.elapsedNanos = elapsedNanos;
+		this.stageNanos = stageNanos;
+	}
+
+	public long getSubmitted() {
+		return submitted;
+	}
+
+	public long getCompleted() {
+		return completed;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * Gets the number of jobs, that have been submitted but not yet been picked up by a worker.
+	 * @return the number of waiting jobs
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	public int getActiveWorkers() {
+		return activeWorkers;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public double getDocumentsPerSecond() {
+		if (elapsedNanos <= 0) {
+			return 0;
+		}
+		return completed * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	public long getStageNanos(Stage stage) {
+		return stageNanos[stage.ordinal()];
+	}
+
+	/**
+	 * Gets the average time, that a completed document spent in the provided stage.
+	 * @param stage the stage
+	 * @return the average time in milliseconds
+	 */
+	public double getAverageStageMillis(Stage stage) {
+		if (completed == 0) {
+			return 0;
+		}
+		return getStageNanos(stage) / (double) completed / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("completed=").append(completed)
+				.append(" failed=").append(failed)
+				.append(" submitted=").append(submitted)
+				.append(" queueDepth=").append(queueDepth)
+				.append(" activeWorkers=").append(activeWorkers)
+				.append(" documentsPerSecond=").append(String.format("%.2f", getDocumentsPerSecond()));
+		for (Stage stage : Stage.values()) {
+			sb.append(" ").append(stage.name().toLowerCase()).append("=").append(String.format("%.2f", getAverageStageMillis(stage))).append("ms");
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,376 @@
+package org.bndly.pdf.templating;
+
+/*-
+ * #%L
+ * PDF templating
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.data.io.ReplayableInputStream;
+import org.bndly.common.data.io.SmartBufferOutputStream;
+import org.bndly.css.CSSStyle;
+import org.bndly.document.xml.XDocument;
+import org.bndly.pdf.PrintingContext;
+import org.bndly.pdf.mapper.DocumentMapper;
+import org.bndly.pdf.output.InputStreamResolver;
+import org.bndly.pdf.output.PDFPrinterImpl;
+import org.bndly.pdf.output.PrintResult;
+import org.bndly.pdf.visualobject.Document;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The PDFBatchRenderer renders large numbers of PDFs in parallel on a bounded pool of workers. Every worker keeps its own 
+ * {@link PrintingContext} and PDF printer, so that the compiled styles are reused as long as the jobs of a worker use the same style 
+ * sheets. Submitting jobs blocks, while all workers are busy and the queue is full. The finished PDFs are handed over to a 
+ * {@link PDFRenderSink}.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+@Component(service = PDFBatchRenderer.class)
+@Designate(ocd = PDFBatchRenderer.Configuration.class)
+public class PDFBatchRenderer {
+
+	@ObjectClassDefinition(
+			name = "PDF Batch Renderer",
+			description = "The batch renderer renders PDF documents in parallel, for example for invoice runs."
+	)
+	public @interface Configuration {
+
+		@AttributeDefinition(
+				name = "Workers",
+				description = "The number of threads, that render PDFs in parallel. 0 uses the number of available processors."
+		)
+		int workers() default 0;
+
+		@AttributeDefinition(
+				name = "Queue capacity",
+				description = "The number of jobs, that may wait for a free worker. Submitting further jobs blocks until a worker picks up a job."
+		)
+		int queueCapacity() default 64;
+
+		@AttributeDefinition(
+				name = "Shutdown timeout",
+				description = "The number of seconds to wait for queued jobs, when the renderer is stopped."
+		)
+		long shutdownTimeout() default 30;
+	}
+
+	private static final Logger LOG = LoggerFactory.getLogger(PDFBatchRenderer.class);
+
+	@Reference
+	private DocumentFactory documentFactory;
+	private volatile ThreadPoolExecutor executor;
+	private Semaphore capacity;
+	private long shutdownTimeout = 30;
+	private volatile PDFBatchStatistics statistics = new PDFBatchStatistics();
+	private final ThreadLocal<RenderWorker> workers = new ThreadLocal<>();
+
+	@Activate
+	public void activate(Configuration configuration) {
+		shutdownTimeout = configuration.shutdownTimeout();
+		start(configuration.workers(), configuration.queueCapacity());
+	}
+
+	@Deactivate
+	public void deactivate() {
+		stop();
+	}
+
+	/**
+	 * Starts the workers of the renderer. This method is called on activation and is only required, if the renderer is used outside of 
+	 * an OSGi container.
+	 * @param workerCount the number of workers or 0 for the number of available processors
+	 * @param queueCapacity the number of jobs, that may wait for a free worker
+	 */
+	public synchronized void start(int workerCount, int queueCapacity) {
+		if (executor != null) {
+			throw new IllegalStateException("batch renderer has already been started");
+		}
+		if (workerCount <= 0) {
+			workerCount = Runtime.getRuntime().availableProcessors();
+		}
+		queueCapacity = Math.max(1, queueCapacity);
+		final AtomicInteger threadCounter = new AtomicInteger();
+		// the semaphore keeps the submitters waiting instead of letting the executor reject the jobs. a job releases its permit while its 
+		// worker is still busy, so the queue of the executor has to have room for the permits of the workers as well.
+		capacity = new Semaphore(workerCount + queueCapacity);
+		executor = new ThreadPoolExecutor(
+				workerCount, workerCount, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(workerCount + queueCapacity), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "pdf-batch-renderer-" + threadCounter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		statistics = new PDFBatchStatistics();
+	}
+
+	/**
+	 * Stops the workers after the queued jobs have been rendered or the shutdown timeout has elapsed.
+	 */
+	public void stop() {
+		ThreadPoolExecutor toStop;
+		synchronized (this) {
+			toStop = executor;
+			executor = null;
+			capacity = null;
+		}
+		if (toStop == null) {
+			return;
+		}
+		toStop.shutdown();
+		try {
+			if (!toStop.awaitTermination(shutdownTimeout, TimeUnit.SECONDS)) {
+				LOG.warn("PDF batch renderer did not complete the queued jobs within {} seconds", shutdownTimeout);
+				toStop.shutdownNow();
+			}
+		} catch (InterruptedException ex) {
+			toStop.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Submits a single job. If all workers are busy and the queue is full, this method blocks until a worker picks up a job.
+	 * @param job the job to render
+	 * @param sink the sink, that receives the PDF
+	 * @return a future, that completes after the PDF has been handed over to the sink or the job has failed
+	 * @throws InterruptedException if the thread is interrupted while waiting for a free slot in the queue
+	 */
+	public Future<?> submit(PDFRenderJob job, PDFRenderSink sink) throws InterruptedException {
+		return submit(job, sink, null, null);
+	}
+
+	/**
+	 * Renders all jobs of the provided iterator and waits until all of them have been handed over to the sink. The jobs are pulled from 
+	 * the iterator only as fast as the workers can render them, so the iterator may lazily create the jobs.
+	 * @param jobs the jobs to render
+	 * @param sink the sink, that receives the PDFs
+	 * @return the metrics of this batch
+	 * @throws InterruptedException if the thread is interrupted while waiting for the workers
+	 */
+	public PDFBatchMetrics renderAll(Iterator<PDFRenderJob> jobs, PDFRenderSink sink) throws InterruptedException {
+		PDFBatchStatistics batch = new PDFBatchStatistics();
+		final AtomicLong pending = new AtomicLong();
+		while (jobs.hasNext()) {
+			PDFRenderJob job = jobs.next();
+			pending.incrementAndGet();
+			try {
+				submit(job, sink, batch, pending);
+			} catch (InterruptedException | RuntimeException e) {
+				pending.decrementAndGet();
+				throw e;
+			}
+		}
+		synchronized (pending) {
+			while (pending.get() > 0) {
+				pending.wait(1000);
+				ThreadPoolExecutor ex = executor;
+				if (pending.get() > 0 && (ex == null || ex.isTerminated())) {
+					throw new IllegalStateException("batch renderer has been stopped before the batch has been completed");
+				}
+			}
+		}
+		PDFBatchMetrics metrics = batch.snapshot(getQueueDepth(), getActiveWorkers());
+		LOG.info("rendered PDF batch: {}", metrics);
+		return metrics;
+	}
+
+	private Future<?> submit(
+			final PDFRenderJob job, final PDFRenderSink sink, final PDFBatchStatistics batch, final AtomicLong pending
+	) throws InterruptedException {
+		if (job == null || sink == null) {
+			throw new IllegalArgumentException("job and sink are not allowed to be null");
+		}
+		final ThreadPoolExecutor ex;
+		final Semaphore cap;
+		synchronized (this) {
+			ex = executor;
+			cap = capacity;
+		}
+		if (ex == null) {
+			throw new IllegalStateException("batch renderer has not been started");
+		}
+		cap.acquire();
+		final PDFBatchStatistics stats = statistics;
+		stats.submitted();
+		if (batch != null) {
+			batch.submitted();
+		}
+		try {
+			Future<?> future = ex.submit(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						render(job, sink, stats, batch);
+					} finally {
+						cap.release();
+						if (pending != null && pending.decrementAndGet() == 0) {
+							synchronized (pending) {
+								pending.notifyAll();
+							}
+						}
+					}
+				}
+			});
+			return future;
+		} catch (RejectedExecutionException e) {
+			cap.release();
+			throw new IllegalStateException("batch renderer has been stopped", e);
+		}
+	}
+
+	private void render(PDFRenderJob job, PDFRenderSink sink, PDFBatchStatistics stats, PDFBatchStatistics batch) {
+		long start = System.nanoTime();
+		try {
+			RenderWorker worker = workers.get();
+			if (worker == null) {
+				worker = new RenderWorker(documentFactory.createInputStreamResolver());
+				workers.set(worker);
+			}
+			XDocument xDocument = job.getDocument();
+			if (xDocument == null) {
+				xDocument = documentFactory.buildXDocument(job.getTemplate());
+			}
+			long templated = System.nanoTime();
+			record(PDFBatchMetrics.Stage.TEMPLATING, templated - start, stats, batch);
+
+			SmartBufferOutputStream buffer = SmartBufferOutputStream.newInstance();
+			PrintResult result = worker.print(xDocument, documentFactory.loadStyles(job.getCssNames()), buffer);
+			long printed = System.nanoTime();
+			if (result == null) {
+				throw new IllegalStateException("printer did not provide a result for " + job.getName());
+			}
+			// the layout stage includes the mapping of the document to visual objects
+			record(PDFBatchMetrics.Stage.LAYOUT, printed - templated - result.getWriteNanos(), stats, batch);
+			record(PDFBatchMetrics.Stage.WRITE, result.getWriteNanos(), stats, batch);
+			if (!result.isSuccess()) {
+				throw result.getFailure();
+			}
+
+			ReplayableInputStream pdf = buffer.getBufferedDataAsReplayableStream().doReplay();
+			sink.accept(job, pdf);
+			record(PDFBatchMetrics.Stage.SINK, System.nanoTime() - printed, stats, batch);
+			stats.completed();
+			if (batch != null) {
+				batch.completed();
+			}
+		} catch (Exception e) {
+			stats.failed();
+			if (batch != null) {
+				batch.failed();
+			}
+			LOG.error("failed to render PDF " + job.getName() + ": " + e.getMessage(), e);
+			sink.failed(job, e);
+		}
+	}
+
+	private static void record(PDFBatchMetrics.Stage stage, long nanos, PDFBatchStatistics stats, PDFBatchStatistics batch) {
+		stats.record(stage, nanos);
+		if (batch != null) {
+			batch.record(stage, nanos);
+		}
+	}
+
+	/**
+	 * Gets the metrics since the renderer has been started or the metrics have been reset.
+	 * @return a snapshot of the metrics
+	 */
+	public PDFBatchMetrics getMetrics() {
+		return statistics.snapshot(getQueueDepth(), getActiveWorkers());
+	}
+
+	public void resetMetrics() {
+		statistics = new PDFBatchStatistics();
+	}
+
+	private int getQueueDepth() {
+		ThreadPoolExecutor ex = executor;
+		return ex == null ? 0 : ex.getQueue().size();
+	}
+
+	private int getActiveWorkers() {
+		ThreadPoolExecutor ex = executor;
+		return ex == null ? 0 : ex.getActiveCount();
+	}
+
+	public void setDocumentFactory(DocumentFactory documentFactory) {
+		this.documentFactory = documentFactory;
+	}
+
+	/**
+	 * A worker keeps a printing context and a printer for the thread, that it is bound to.
+	 */
+	private static final class RenderWorker {
+
+		private final PrintingContext context;
+		private final PDFPrinterImpl printer;
+		private final DocumentMapper mapper = new DocumentMapper();
+
+		public RenderWorker(InputStreamResolver inputStreamResolver) {
+			context = new PrintingContext();
+			context.setInputStreamResolver(inputStreamResolver);
+			printer = context.createPDFPrinter();
+		}
+
+		public PrintResult print(XDocument xDocument, List<CSSStyle> styles, OutputStream outputStream) {
+			List<CSSStyle> current = context.getStyles();
+			if (!isSameStyles(current, styles)) {
+				// the compiled styles are only dropped, if the style sheets have changed
+				current.clear();
+				current.addAll(styles);
+				context.invalidateStyles();
+			}
+			Document document = mapper.toDocument(xDocument, printer);
+			printer.print(document, outputStream);
+			return printer.getLastPrintResult();
+		}
+
+		private static boolean isSameStyles(List<CSSStyle> current, List<CSSStyle> styles) {
+			if (current.size() != styles.size()) {
+				return false;
+			}
+			for (int i = 0; i < current.size(); i++) {
+				if (current.get(i) != styles.get(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
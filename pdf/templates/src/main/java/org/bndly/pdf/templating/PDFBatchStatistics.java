@@ -0,0 +1,72 @@
+package org.bndly.pdf.templating;
+
+/*-
+ * #%L
+ * PDF templating
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the counters and stage timings of the {@link PDFBatchRenderer}, either for the whole life time of the renderer or for a single 
+ * batch.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class PDFBatchStatistics {
+
+	private final long startNanos = System.nanoTime();
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder[] stageNanos;
+
+	PDFBatchStatistics() {
+		PDFBatchMetrics.Stage[] stages = PDFBatchMetrics.Stage.values();
+		stageNanos = new LongAdder[stages.length];
+		for (int i = 0; i < stages.length; i++) {
+			stageNanos[i] = new LongAdder();
+		}
+	}
+
+	void submitted() {
+		submitted.increment();
+	}
+
+	void completed() {
+		completed.increment();
+	}
+
+	void failed() {
+		failed.increment();
+	}
+
+	void record(PDFBatchMetrics.Stage stage, long nanos) {
+		stageNanos[stage.ordinal()].add(nanos);
+	}
+
+	PDFBatchMetrics snapshot(int queueDepth, int activeWorkers) {
+		long[] stages = new long[stageNanos.length];
+		for (int i = 0; i < stages.length; i++) {
+			stages[i] = stageNanos[i].sum();
+		}
+		return new PDFBatchMetrics(
+				submitted.sum(), completed.sum(), failed.sum(), queueDepth, activeWorkers, System.nanoTime() - startNanos, stages
+		);
+	}
+}
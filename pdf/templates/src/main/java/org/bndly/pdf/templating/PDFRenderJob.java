@@ -0,0 +1,95 @@
+package org.bndly.pdf.templating;
+
+/*-
+ * #%L
+ * PDF templating
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.document.xml.XDocument;
+
+/**
+ * A PDFRenderJob describes a single document of a batch, that is rendered by the {@link PDFBatchRenderer}. The document is either 
+ * created from a {@link PDFTemplate} or it is provided as an already built {@link XDocument}.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class PDFRenderJob {
+
+	private final String name;
+	private final PDFTemplate template;
+	private final XDocument document;
+	private final String[] cssNames;
+
+	private PDFRenderJob(String name, PDFTemplate template, XDocument document, String[] cssNames) {
+		if (name == null) {
+			throw new IllegalArgumentException("name is not allowed to be null");
+		}
+		this.name = name;
+		this.template = template;
+		this.document = document;
+		this.cssNames = cssNames == null ? new String[0] : cssNames;
+	}
+
+	/**
+	 * Creates a job, that renders the template with its entity as the data of the document.
+	 * @param name the name of the rendered PDF
+	 * @param template the template including the data
+	 * @return the job
+	 */
+	public static PDFRenderJob fromTemplate(String name, PDFTemplate template) {
+		if (template == null) {
+			throw new IllegalArgumentException("template is not allowed to be null");
+		}
+		return new PDFRenderJob(name, template, null, template.getCssNames());
+	}
+
+	/**
+	 * Creates a job for a document, that does not have to be rendered from a template.
+	 * @param name the name of the rendered PDF
+	 * @param document the document
+	 * @param cssNames the names of the style sheets, that should be applied to the document
+	 * @return the job
+	 */
+	public static PDFRenderJob fromDocument(String name, XDocument document, String... cssNames) {
+		if (document == null) {
+			throw new IllegalArgumentException("document is not allowed to be null");
+		}
+		return new PDFRenderJob(name, null, document, cssNames);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public PDFTemplate getTemplate() {
+		return template;
+	}
+
+	public XDocument getDocument() {
+		return document;
+	}
+
+	public String[] getCssNames() {
+		return cssNames;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,49 @@
+package org.bndly.pdf.templating;
+
+/*-
+ * #%L
+ * PDF templating
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.data.io.ReplayableInputStream;
+import java.io.IOException;
+
+/**
+ * A PDFRenderSink receives the PDFs, that have been rendered by the {@link PDFBatchRenderer}. Sinks are called from the worker threads 
+ * of the renderer and therefore have to be thread safe.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public interface PDFRenderSink {
+
+	/**
+	 * Stores the completely rendered PDF of a job.
+	 * @param job the rendered job
+	 * @param pdf the data of the PDF
+	 * @throws IOException if the PDF could not be stored
+	 */
+	void accept(PDFRenderJob job, ReplayableInputStream pdf) throws IOException;
+
+	/**
+	 * Is called, if a job could not be rendered or stored.
+	 * @param job the failed job
+	 * @param failure the cause of the failure
+	 */
+	default void failed(PDFRenderJob job, Exception failure) {
+	}
+}
@@ -0,0 +1,74 @@
+package org.bndly.pdf.templating;
+
+/*-
+ * #%L
+ * PDF templating
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.velocity.api.VelocityDataProvider;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Provides the test resources of this module to the {@link DocumentFactory}.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+class ClassPathDataProvider implements VelocityDataProvider {
+
+	private final ClassLoader classLoader = ClassPathDataProvider.class.getClassLoader();
+
+	@Override
+	public String getName() {
+		return "classpath";
+	}
+
+	@Override
+	public byte[] getBytes(String sourceName) {
+		return null;
+	}
+
+	@Override
+	public InputStream getStream(String sourceName) {
+		return classLoader.getResourceAsStream(sourceName);
+	}
+
+	@Override
+	public long getLastModified(String sourceName) {
+		// the test resources do not change, while the tests are running
+		return exists(sourceName) ? 0 : -1;
+	}
+
+	@Override
+	public boolean isModified(String sourceName, long lastModified) {
+		return false;
+	}
+
+	@Override
+	public boolean exists(String sourceName) {
+		return classLoader.getResource(sourceName) != null;
+	}
+
+	static InputStream open(String sourceName) throws IOException {
+		InputStream is = ClassPathDataProvider.class.getClassLoader().getResourceAsStream(sourceName);
+		if (is == null) {
+			throw new IOException("could not find " + sourceName);
+		}
+		return is;
+	}
+}
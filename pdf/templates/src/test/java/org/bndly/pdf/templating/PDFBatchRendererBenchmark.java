@@ -0,0 +1,111 @@
+package org.bndly.pdf.templating;
+
+/*-
+ * #%L
+ * PDF templating
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.data.io.ReplayableInputStream;
+import org.bndly.document.reader.DocumentReader;
+import org.bndly.document.xml.XDocument;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the {@link PDFBatchRenderer} with the table split test document of this module. One invocation renders a batch of documents, 
+ * so the throughput of the different worker counts can be compared with the time of a batch. The stage breakdown of the last batch is 
+ * logged by the renderer. The benchmark is not executed by the test suite. Run it with the main method from the test classpath.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PDFBatchRendererBenchmark {
+
+	private static final String CSS = "tablesplittest.css";
+	private static final String XML = "tablesplittest.xml";
+
+	@Param({"1", "2", "4"})
+	private int workers;
+
+	@Param({"32"})
+	private int documents;
+
+	private PDFBatchRenderer renderer;
+	private List<PDFRenderJob> jobs;
+	private final PDFRenderSink sink = new PDFRenderSink() {
+		@Override
+		public void accept(PDFRenderJob job, ReplayableInputStream pdf) throws IOException {
+			pdf.close();
+		}
+	};
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		DocumentFactory documentFactory = new DocumentFactory();
+		documentFactory.addVelocityDataProvider(new ClassPathDataProvider());
+		XDocument xDocument;
+		try (InputStream is = ClassPathDataProvider.open(XML)) {
+			xDocument = new DocumentReader().read(is);
+		}
+		jobs = new ArrayList<>();
+		for (int i = 0; i < documents; i++) {
+			jobs.add(PDFRenderJob.fromDocument("document-" + i, xDocument, CSS));
+		}
+		renderer = new PDFBatchRenderer();
+		renderer.setDocumentFactory(documentFactory);
+		renderer.start(workers, documents);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		renderer.stop();
+	}
+
+	@Benchmark
+	public PDFBatchMetrics renderBatch() throws InterruptedException {
+		return renderer.renderAll(jobs.iterator(), sink);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PDFBatchRendererBenchmark.class.getSimpleName()).build()).run();
+	}
+}
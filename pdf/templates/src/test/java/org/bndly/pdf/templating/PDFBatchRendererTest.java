@@ -0,0 +1,85 @@
+package org.bndly.pdf.templating;
+
+/*-
+ * #%L
+ * PDF templating
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.document.reader.DocumentReader;
+import org.bndly.document.xml.XDocument;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PDFBatchRendererTest {
+
+	private static final String CSS = "tablesplittest.css";
+	private static final String XML = "tablesplittest.xml";
+
+	@Test
+	public void testRenderAll() throws IOException, InterruptedException {
+		DocumentFactory documentFactory = new DocumentFactory();
+		documentFactory.addVelocityDataProvider(new ClassPathDataProvider());
+		XDocument xDocument;
+		try (InputStream is = ClassPathDataProvider.open(XML)) {
+			xDocument = new DocumentReader().read(is);
+		}
+		List<PDFRenderJob> jobs = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			jobs.add(PDFRenderJob.fromDocument("invoice-" + i, xDocument, CSS));
+		}
+
+		final Map<String, byte[]> pdfs = new ConcurrentHashMap<>();
+		PDFBatchRenderer renderer = new PDFBatchRenderer();
+		renderer.setDocumentFactory(documentFactory);
+		renderer.start(2, 2);
+		try {
+			PDFBatchMetrics metrics = renderer.renderAll(jobs.iterator(), new OutputStreamPDFRenderSink(new OutputStreamPDFRenderSink.OutputStreamProvider() {
+				@Override
+				public OutputStream open(final PDFRenderJob job) throws IOException {
+					return new ByteArrayOutputStream() {
+						@Override
+						public void close() throws IOException {
+							pdfs.put(job.getName(), toByteArray());
+						}
+					};
+				}
+			}));
+			Assert.assertEquals(metrics.getCompleted(), 8);
+			Assert.assertEquals(metrics.getFailed(), 0);
+			Assert.assertTrue(metrics.getStageNanos(PDFBatchMetrics.Stage.LAYOUT) > 0);
+			Assert.assertTrue(metrics.getStageNanos(PDFBatchMetrics.Stage.WRITE) > 0);
+			Assert.assertTrue(metrics.getDocumentsPerSecond() > 0);
+			Assert.assertEquals(renderer.getMetrics().getCompleted(), 8);
+		} finally {
+			renderer.stop();
+		}
+		Assert.assertEquals(pdfs.size(), 8);
+		for (byte[] pdf : pdfs.values()) {
+			Assert.assertEquals(new String(pdf, 0, 5, StandardCharsets.US_ASCII), "%PDF-");
+		}
+	}
+}
@@ -73,6 +73,26 @@ public final class CompiledMethodBeanPropertyAccessorWriter implements BeanPrope
 		return settersByName.keySet();
 	}
 
+	/**
+	 * Gets the getter method of a property.
+	 * @param propertyName the name of the property without a collection index
+	 * @return the getter method or null, if the property can not be read
+	 */
+	public Method getGetterMethod(String propertyName) {
+		CompiledGetter getter = gettersByName.get(propertyName);
+		return getter == null ? null : getter.getMethod();
+	}
+
+	/**
+	 * Gets the setter method of a property.
+	 * @param propertyName the name of the property without a collection index
+	 * @return the setter method or null, if the property can not be written
+	 */
+	public Method getSetterMethod(String propertyName) {
+		CompiledSetter setter = settersByName.get(propertyName);
+		return setter == null ? null : setter.getMethod();
+	}
+
 	private void inspectType(Class inspectedType, Map<String, CompiledGetter> getters, Map<String, CompiledSetter> setters, Set<Class> inspected) {
 		if (inspectedType == null || Object.class.equals(inspectedType)) {
 			return;
@@ -26,6 +26,7 @@ import org.bndly.common.converter.api.ConverterRegistry;
 import org.bndly.common.data.io.ReplayableInputStream;
 import org.bndly.rest.api.CacheContext;
 import org.bndly.rest.api.Context;
+import org.bndly.rest.api.RequestTimings;
 import org.bndly.rest.controller.api.ControllerBinding;
 import org.bndly.rest.controller.api.ControllerResourceRegistry;
 import org.bndly.rest.controller.api.ExceptionMapper;
@@ -148,6 +149,10 @@ public class ControllerResourceProvider implements ResourceProvider {
 	public Resource build(Context context, ResourceProvider provider) throws ResourceBuildingException {
 		ControllerBinding binding = controllerResourceRegistry.resolveBindingForResourceURI(context.getURI(), context.getMethod());
 		Method method = binding.getMethod();
+		RequestTimings timings = context.getRequestTimings();
+		if (timings != null) {
+			timings.setBinding(binding.getControllerType().getName() + "#" + method.getName());
+		}
 		// parse the arguments from URI or payload
 		Object[] args;
 		try {
@@ -171,7 +176,15 @@ public class ControllerResourceProvider implements ResourceProvider {
 					}
 				}
 			}
-			Object result = method.invoke(binding.getController(), args);
+			Object result;
+			long start = System.nanoTime();
+			try {
+				result = method.invoke(binding.getController(), args);
+			} finally {
+				if (timings != null) {
+					timings.stop(RequestTimings.Stage.CONTROLLER_INVOCATION, start);
+				}
+			}
 			if (Response.class.isInstance(result)) {
 				Object entity = ((Response) result).getEntity();
 				if (entity != null) {
@@ -24,5 +24,21 @@ public interface AtomLinkInjector {
     String NAME = "atomLinkInjector";
     <T> T addDiscovery(T entity);
     <T> T addDiscovery(T entity, boolean isRoot);
+	/**
+	 * Injects the links into all entities of a collection in one pass. This is the same as calling 
+	 * {@link #addDiscovery(java.lang.Object, boolean)} for each entity.
+	 * @param <T> the type of the collection
+	 * @param entities the entities, that shall receive links
+	 * @param isRoot true, if the entities are the roots of the current message
+	 * @return the provided collection
+	 */
+	default <T extends Iterable<?>> T addDiscoveries(T entities, boolean isRoot) {
+		if (entities != null) {
+			for (Object entity : entities) {
+				addDiscovery(entity, isRoot);
+			}
+		}
+		return entities;
+	}
 	public AtomLinkBean getLinkByName(String rel, String targetClassName);
 }
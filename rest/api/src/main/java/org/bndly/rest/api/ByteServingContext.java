@@ -21,6 +21,7 @@ package org.bndly.rest.api;
  */
 
 import org.bndly.common.data.io.ReplayableInputStream;
+import java.nio.channels.FileChannel;
 
 /**
  *
@@ -33,4 +34,5 @@ public interface ByteServingContext {
 	void setAcceptRanges(DataRange.Unit unit);
 	boolean isByteServingRequest();
 	void serveDataFromStream(ReplayableInputStream rpis, Long rpisLength, String etag);
+	void serveDataFromChannel(FileChannel channel, long position, long length, String etag);
 }
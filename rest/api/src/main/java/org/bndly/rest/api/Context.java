@@ -65,4 +65,5 @@ public interface Context {
 	boolean canBeCached();
 	void serveFromCache();
 	void saveInCache(ReplayableInputStream is);
+	RequestTimings getRequestTimings();
 }
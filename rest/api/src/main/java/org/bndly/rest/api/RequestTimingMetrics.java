@@ -0,0 +1,59 @@
+package org.bndly.rest.api;
+
+/*-
+ * #%L
+ * REST API
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+
+/**
+ * RequestTimingMetrics aggregate the {@link RequestTimings} of all requests, that have been served by the same binding 
+ * with the same HTTP method. The interface is also used as the MXBean interface, when the metrics are registered in 
+ * the platform MBeanServer.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public interface RequestTimingMetrics {
+
+	String getBinding();
+
+	String getHTTPMethod();
+
+	long getCount();
+
+	/**
+	 * @return the number of requests, whose total time exceeded the slow request threshold
+	 */
+	long getSlowCount();
+
+	/**
+	 * The upper bounds in microseconds of the histogram buckets. The last bucket of a histogram has no upper bound.
+	 * @return the exclusive upper bounds of the buckets
+	 */
+	long[] getHistogramBoundsMicros();
+
+	/**
+	 * @return the number of requests per duration bucket for each stage name of {@link RequestTimings.Stage}
+	 */
+	Map<String, long[]> getStageHistograms();
+
+	Map<String, Long> getStageMeanNanos();
+
+	Map<String, Long> getStageMaxNanos();
+}
@@ -0,0 +1,110 @@
+package org.bndly.rest.api;
+
+/*-
+ * #%L
+ * REST API
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * RequestTimings collect the time in nanoseconds, that a single request spent in the stages of the REST request 
+ * pipeline. The timings of a request are only written by the thread, that serves the request. Stages may be entered 
+ * several times. In this case the durations are summed up.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class RequestTimings {
+
+	/**
+	 * The stages of the request pipeline. {@link #CONTROLLER_INVOCATION} is nested in {@link #RESOURCE_RESOLUTION}. 
+	 * {@link #LINK_INJECTION} is nested in the stage, that injects the links. This is usually the controller invocation 
+	 * or the rendering.
+	 */
+	public static enum Stage {
+		REQUEST_INTERCEPTION,
+		CACHE_LOOKUP,
+		CACHE_SERVING,
+		RESOURCE_RESOLUTION,
+		CONTROLLER_INVOCATION,
+		LINK_INJECTION,
+		RESOURCE_INTERCEPTION,
+		RENDERING,
+		TOTAL
+	}
+
+	private static final Stage[] STAGES = Stage.values();
+
+	private final long startNanos;
+	private final long[] nanosByStage = new long[STAGES.length];
+	private String binding;
+
+	public RequestTimings() {
+		this.startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Adds the provided duration to a stage.
+	 * @param stage the stage
+	 * @param startNanos the value of {@link System#nanoTime()} when the stage has been entered
+	 */
+	public void stop(Stage stage, long startNanos) {
+		add(stage, System.nanoTime() - startNanos);
+	}
+
+	public void add(Stage stage, long durationNanos) {
+		nanosByStage[stage.ordinal()] += durationNanos;
+	}
+
+	public long getNanos(Stage stage) {
+		return nanosByStage[stage.ordinal()];
+	}
+
+	/**
+	 * Stops the timing of the whole request. The elapsed time since the creation of these timings will be stored as 
+	 * {@link Stage#TOTAL}.
+	 */
+	public void complete() {
+		nanosByStage[Stage.TOTAL.ordinal()] = System.nanoTime() - startNanos;
+	}
+
+	/**
+	 * @return the name of the binding, that served the request or null, if no binding was involved
+	 */
+	public String getBinding() {
+		return binding;
+	}
+
+	public void setBinding(String binding) {
+		this.binding = binding;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Stage stage : STAGES) {
+			long nanos = nanosByStage[stage.ordinal()];
+			if (nanos == 0 && stage != Stage.TOTAL) {
+				continue;
+			}
+			if (sb.length() > 0) {
+				sb.append(", ");
+			}
+			sb.append(stage.name()).append("=").append(nanos / 1000).append("us");
+		}
+		return sb.toString();
+	}
+}
@@ -32,12 +32,18 @@ public abstract class AbstractFlushStrategy implements FlushStrategy {
 
 	protected final String cacheRoot;
 	protected final List<CacheEventListener> cacheEventListeners;
+	protected final CacheEntryIndex cacheEntryIndex;
 
 	protected AbstractFlushStrategy(String cacheRoot, List<CacheEventListener> cacheEventListeners) {
+		this(cacheRoot, cacheEventListeners, null);
+	}
+
+	protected AbstractFlushStrategy(String cacheRoot, List<CacheEventListener> cacheEventListeners, CacheEntryIndex cacheEntryIndex) {
 		if (cacheRoot == null) {
 			throw new IllegalArgumentException("cacheRoot is not allowed to be null");
 		}
 		this.cacheRoot = cacheRoot;
 		this.cacheEventListeners = cacheEventListeners == null ? Collections.EMPTY_LIST : cacheEventListeners;
+		this.cacheEntryIndex = cacheEntryIndex;
 	}
 }
@@ -24,10 +24,14 @@ import org.bndly.common.data.io.IOUtils;
 import org.bndly.common.data.io.ReplayableInputStream;
 import org.bndly.rest.cache.api.CacheEntry;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -42,12 +46,131 @@ import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
  */
 public class CacheEntryIO {
 
+	private static final String DATA_ENTRY_NAME = "data.bin";
+	private static final int TAR_BLOCK_SIZE = 512;
+	private static final int TAR_NAME_OFFSET = 0;
+	private static final int TAR_NAME_LENGTH = 100;
+	private static final int TAR_SIZE_OFFSET = 124;
+	private static final int TAR_SIZE_LENGTH = 12;
+	private static final String ETAG_META_DATA_NAME = "ETag";
+	// the meta data is the first tar entry and the etag is its first value
+	private static final long ETAG_VALUE_OFFSET = TAR_BLOCK_SIZE + ETAG_META_DATA_NAME.length() + 1;
+
+	/**
+	 * An ETagCalculator creates the etag of a cache entry from its payload.
+	 */
+	public static interface ETagCalculator {
+
+		/**
+		 * @return the length of all etags, that are created by this calculator
+		 */
+		int getETagLength();
+
+		/**
+		 * Reads the payload of a cache entry and creates an etag for it.
+		 * @param data the payload
+		 * @return the etag
+		 * @throws IOException if the payload could not be read
+		 */
+		String calculateETag(InputStream data) throws IOException;
+	}
+
 	public void serialize(CacheEntry cacheEntry, OutputStream outputStream) {
 		TarArchiveOutputStream tos = new TarArchiveOutputStream(outputStream);
-		
+		long size = makeSureThatWeKnowCacheEntrySize(cacheEntry);
+		appendMetaDataToTar(tos, cacheEntry, cacheEntry.getETag(), size);
+		appendToTar(tos, DATA_ENTRY_NAME, cacheEntry.getData(), size);
+	}
+
+	/**
+	 * Serializes a cache entry and creates its etag while the payload is written. The payload is read only once. 
+	 * The meta data is written with a placeholder for the etag, which is replaced as soon as the payload has been 
+	 * written. The etag of the provided cache entry is ignored.
+	 * @param cacheEntry the cache entry to serialize
+	 * @param channel the channel of the cache file. the cache entry will be written at the start of the channel.
+	 * @param eTagCalculator the calculator for the etag
+	 * @return the created etag
+	 * @throws IOException if the cache file could not be written
+	 */
+	public String serialize(CacheEntry cacheEntry, FileChannel channel, ETagCalculator eTagCalculator) throws IOException {
+		int eTagLength = eTagCalculator.getETagLength();
+		StringBuilder placeholder = new StringBuilder(eTagLength);
+		for (int i = 0; i < eTagLength; i++) {
+			placeholder.append('-');
+		}
+		long size = makeSureThatWeKnowCacheEntrySize(cacheEntry);
+		final TarArchiveOutputStream tos = new TarArchiveOutputStream(Channels.newOutputStream(channel));
+		appendMetaDataToTar(tos, cacheEntry, placeholder.toString(), size);
+
+		TarArchiveEntry entry = new TarArchiveEntry(DATA_ENTRY_NAME);
+		entry.setSize(size);
+		tos.putArchiveEntry(entry);
+		// every byte, that is read by the calculator, is written to the tar entry.
+		InputStream tee = new FilterInputStream(cacheEntry.getData()) {
+			@Override
+			public int read() throws IOException {
+				int b = super.read();
+				if (b > -1) {
+					tos.write(b);
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int r = super.read(b, off, len);
+				if (r > 0) {
+					tos.write(b, off, r);
+				}
+				return r;
+			}
+
+			@Override
+			public long skip(long n) throws IOException {
+				// skipped bytes have to end up in the tar entry as well
+				byte[] buf = new byte[(int) Math.min(n, 4096)];
+				long skipped = 0;
+				while (skipped < n) {
+					int r = read(buf, 0, (int) Math.min(n - skipped, buf.length));
+					if (r < 0) {
+						break;
+					}
+					skipped += r;
+				}
+				return skipped;
+			}
+
+			@Override
+			public boolean markSupported() {
+				return false;
+			}
+		};
+		String eTag = eTagCalculator.calculateETag(tee);
+		// the calculator might not have consumed the entire payload
+		IOUtils.consume(tee);
+		tos.closeArchiveEntry();
+		tos.finish();
+		tos.flush();
+
+		if (eTag == null || eTag.length() != eTagLength || eTag.indexOf('\n') > -1 || eTag.indexOf('\r') > -1) {
+			throw new IllegalStateException("etag calculator created an etag, that does not fit into the cache entry meta data: " + eTag);
+		}
+		ByteBuffer eTagBuffer = ByteBuffer.wrap(eTag.getBytes("UTF-8"));
+		if (eTagBuffer.remaining() != eTagLength) {
+			throw new IllegalStateException("etags are required to be single byte characters: " + eTag);
+		}
+		long position = ETAG_VALUE_OFFSET;
+		while (eTagBuffer.hasRemaining()) {
+			position += channel.write(eTagBuffer, position);
+		}
+		return eTag;
+	}
+
+	private void appendMetaDataToTar(TarArchiveOutputStream tos, CacheEntry cacheEntry, String eTag, long size) {
 		// like HTTP: first write the meta data, than comes the payload
 		StringBuffer sb = new StringBuffer();
-		writeMetaData(sb, "ETag", cacheEntry.getETag());
+		// the etag has to be the first meta data. see ETAG_VALUE_OFFSET
+		writeMetaData(sb, ETAG_META_DATA_NAME, eTag);
 		writeMetaData(sb, "Last-Modified", cacheEntry.getLastModified());
 		String encoding = cacheEntry.getEncoding();
 		if (encoding != null) {
@@ -60,7 +183,6 @@ public class CacheEntryIO {
 		if (maxAge != null) {
 			writeMetaData(sb, "Cache-Control", "max-age=" + maxAge.toString());
 		}
-		long size = makeSureThatWeKnowCacheEntrySize(cacheEntry);
 		writeMetaData(sb, "Content-Length", Long.toString(size));
 		String meta = sb.toString();
 		try {
@@ -69,8 +191,6 @@ public class CacheEntryIO {
 		} catch (UnsupportedEncodingException ex) {
 			throw new IllegalStateException("utf-8 is a required encoding");
 		}
-		
-		appendToTar(tos, "data.bin", cacheEntry.getData(), size);
 	}
 
 	private long makeSureThatWeKnowCacheEntrySize(CacheEntry cacheEntry) {
@@ -163,6 +283,103 @@ public class CacheEntryIO {
 		return cacheEntry;
 	}
 
+	/**
+	 * Looks up the position of the first payload byte in a serialized cache entry. Only the tar headers are read, 
+	 * the payload itself is skipped.
+	 * @param channel the channel of the cache file
+	 * @return the offset of the payload or -1, if the payload could not be located
+	 * @throws IOException if the cache file could not be read
+	 */
+	public long findDataOffset(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(TAR_BLOCK_SIZE);
+		long headerPosition = 0;
+		while (readTarHeader(channel, headerPosition, header)) {
+			String name = readTarHeaderName(header);
+			if (name.isEmpty()) {
+				// end of archive marker
+				return -1;
+			}
+			long size = readTarHeaderSize(header);
+			if (size < 0) {
+				return -1;
+			}
+			if (DATA_ENTRY_NAME.equals(name)) {
+				return headerPosition + TAR_BLOCK_SIZE;
+			}
+			long paddedSize = ((size + TAR_BLOCK_SIZE - 1) / TAR_BLOCK_SIZE) * TAR_BLOCK_SIZE;
+			headerPosition = headerPosition + TAR_BLOCK_SIZE + paddedSize;
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks, if the payload of a serialized cache entry is still located at the provided offset. This guards against 
+	 * cache files, that have been replaced since the offset has been looked up.
+	 * @param channel the channel of the cache file
+	 * @param dataOffset the expected offset of the payload
+	 * @param contentLength the expected length of the payload
+	 * @return true, if the payload with the expected length starts at the provided offset
+	 * @throws IOException if the cache file could not be read
+	 */
+	public boolean isDataAtOffset(FileChannel channel, long dataOffset, long contentLength) throws IOException {
+		long headerPosition = dataOffset - TAR_BLOCK_SIZE;
+		if (headerPosition < 0 || dataOffset + contentLength > channel.size()) {
+			return false;
+		}
+		ByteBuffer header = ByteBuffer.allocate(TAR_BLOCK_SIZE);
+		if (!readTarHeader(channel, headerPosition, header)) {
+			return false;
+		}
+		return DATA_ENTRY_NAME.equals(readTarHeaderName(header)) && readTarHeaderSize(header) == contentLength;
+	}
+
+	private boolean readTarHeader(FileChannel channel, long position, ByteBuffer header) throws IOException {
+		header.clear();
+		while (header.hasRemaining()) {
+			int read = channel.read(header, position + header.position());
+			if (read < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String readTarHeaderName(ByteBuffer header) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = TAR_NAME_OFFSET; i < TAR_NAME_OFFSET + TAR_NAME_LENGTH; i++) {
+			byte b = header.get(i);
+			if (b == 0) {
+				break;
+			}
+			sb.append((char) (b & 0xFF));
+		}
+		return sb.toString();
+	}
+
+	private long readTarHeaderSize(ByteBuffer header) {
+		if ((header.get(TAR_SIZE_OFFSET) & 0x80) != 0) {
+			// binary encoded sizes are not written by this class
+			return -1;
+		}
+		long size = 0;
+		boolean digitsFound = false;
+		for (int i = TAR_SIZE_OFFSET; i < TAR_SIZE_OFFSET + TAR_SIZE_LENGTH; i++) {
+			byte b = header.get(i);
+			if (b == 0 || b == ' ') {
+				if (digitsFound) {
+					break;
+				}
+				continue;
+			}
+			if (b < '0' || b > '7') {
+				return -1;
+			}
+			digitsFound = true;
+			size = (size << 3) + (b - '0');
+		}
+		return digitsFound ? size : -1;
+	}
+
 	private void writeMetaData(StringBuffer sb, String name, String value) {
 		if (value == null) {
 			return;
@@ -197,7 +414,7 @@ public class CacheEntryIO {
 
 	private boolean appendTarEntryToCacheEntry(TarArchiveInputStream tis, TarArchiveEntry tarEntry, final CacheEntryImpl cacheEntry) {
 		String tarEntryName = tarEntry.getName();
-		if ("data.bin".equals(tarEntryName)) {
+		if (DATA_ENTRY_NAME.equals(tarEntryName)) {
 			ReplayableInputStream content = readTarEntryDataToBytes(tis, tarEntry, true); // i assume, that data.bin is always the last tar entry!
 			long l = content.getLength();
 			if (l > -1) {
@@ -213,7 +430,7 @@ public class CacheEntryIO {
 
 					@Override
 					public void handle(String name, String value) {
-						if ("ETag".equals(name)) {
+						if (ETAG_META_DATA_NAME.equals(name)) {
 							cacheEntry.setEtag(value);
 						} else if ("Content-Type".equals(name)) {
 							String marker = "; charset=";
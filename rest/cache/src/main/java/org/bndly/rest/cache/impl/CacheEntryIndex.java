@@ -0,0 +1,320 @@
+package org.bndly.rest.cache.impl;
+
+/*-
+ * #%L
+ * REST Cache
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.rest.cache.api.CacheEntry;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The CacheEntryIndex keeps the meta data of cache files in memory, so that conditional requests can be answered 
+ * without reading the cache files. Small response bodies are kept in a second tier, that is bounded by the total 
+ * number of bytes. Both tiers evict the least recently used entries.
+ * Whenever a cache file is deleted by a flush, the index has to be informed via {@link #invalidate(java.nio.file.Path)}
+ * or {@link #clear()}. Each invalidation increases a generation counter and leaves a tombstone with that generation 
+ * for the invalidated path. Entries, that have been read before an invalidation of their path, are not stored 
+ * afterwards. The tombstones are bounded. If a tombstone is evicted, its generation becomes the floor for all paths 
+ * without a tombstone, so that an evicted tombstone can only cause a superfluous drop.
+ * If stale bodies are retained, the in-memory body and meta data of an invalidated entry are kept until the cache file 
+ * has been written again, so that they can be served while the entry is being rebuilt.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class CacheEntryIndex {
+
+	private final int maxEntries;
+	private final long maxBodyBytes;
+	private final int maxBodySize;
+	private final Map<Path, MetaData> metaDataByPath;
+	private final Map<Path, byte[]> bodiesByPath;
+	private final boolean retainStaleBodies;
+	private final Map<Path, StaleEntry> staleEntriesByPath;
+	private final Map<Path, Long> tombstonesByPath;
+	private long bodyBytes;
+	private long staleBodyBytes;
+	private long generation;
+	private long tombstoneFloor;
+
+	public CacheEntryIndex(final int maxEntries, long maxBodyBytes, int maxBodySize) {
+		this(maxEntries, maxBodyBytes, maxBodySize, false);
+	}
+
+	public CacheEntryIndex(final int maxEntries, long maxBodyBytes, int maxBodySize, boolean retainStaleBodies) {
+		this.maxEntries = maxEntries;
+		this.maxBodyBytes = maxBodyBytes;
+		this.maxBodySize = maxBodySize;
+		this.metaDataByPath = new LinkedHashMap<Path, MetaData>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Path, MetaData> eldest) {
+				if (size() > maxEntries) {
+					// a body can only be served together with its meta data
+					removeBody(eldest.getKey());
+					return true;
+				}
+				return false;
+			}
+
+		};
+		this.bodiesByPath = new LinkedHashMap<>(16, 0.75f, true);
+		final int maxTombstones = Math.max(maxEntries, 1024);
+		this.tombstonesByPath = new LinkedHashMap<Path, Long>(16, 0.75f, false) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Path, Long> eldest) {
+				if (size() > maxTombstones) {
+					tombstoneFloor = Math.max(tombstoneFloor, eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+
+		};
+		this.retainStaleBodies = retainStaleBodies;
+		this.staleEntriesByPath = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * A StaleEntry is the last known state of an invalidated cache file, whose body was held in memory.
+	 */
+	public static final class StaleEntry {
+
+		private final MetaData metaData;
+		private final byte[] body;
+
+		private StaleEntry(MetaData metaData, byte[] body) {
+			this.metaData = metaData;
+			this.body = body;
+		}
+
+		public MetaData getMetaData() {
+			return metaData;
+		}
+
+		public byte[] getBody() {
+			return body;
+		}
+	}
+
+	public static final class MetaData {
+
+		private final String etag;
+		private final String contentType;
+		private final String encoding;
+		private final String contentLanguage;
+		private final Long contentLength;
+		private final Integer maxAge;
+		private final Date lastModified;
+		private final Long dataOffset;
+
+		public MetaData(String etag, String contentType, String encoding, String contentLanguage, Long contentLength, Integer maxAge, Date lastModified) {
+			this(etag, contentType, encoding, contentLanguage, contentLength, maxAge, lastModified, null);
+		}
+
+		public MetaData(String etag, String contentType, String encoding, String contentLanguage, Long contentLength, Integer maxAge, Date lastModified, Long dataOffset) {
+			this.etag = etag;
+			this.contentType = contentType;
+			this.encoding = encoding;
+			this.contentLanguage = contentLanguage;
+			this.contentLength = contentLength;
+			this.maxAge = maxAge;
+			// the cache files only store the last modified date with a precision of seconds
+			this.lastModified = lastModified == null ? null : new Date((lastModified.getTime() / 1000) * 1000);
+			this.dataOffset = dataOffset;
+		}
+
+		/**
+		 * Creates a copy of this meta data with the given offset of the payload within the cache file.
+		 * @param dataOffset the offset of the first payload byte or null, if unknown
+		 * @return a new meta data instance
+		 */
+		public MetaData withDataOffset(Long dataOffset) {
+			return new MetaData(etag, contentType, encoding, contentLanguage, contentLength, maxAge, lastModified, dataOffset);
+		}
+
+		public static MetaData of(CacheEntry cacheEntry) {
+			return new MetaData(
+					cacheEntry.getETag(), 
+					cacheEntry.getContentType(), 
+					cacheEntry.getEncoding(), 
+					cacheEntry.getContentLanguage(), 
+					cacheEntry.getContentLength(), 
+					cacheEntry.getMaxAge(), 
+					cacheEntry.getLastModified()
+			);
+		}
+
+		public String getETag() {
+			return etag;
+		}
+
+		public String getContentType() {
+			return contentType;
+		}
+
+		public String getEncoding() {
+			return encoding;
+		}
+
+		public String getContentLanguage() {
+			return contentLanguage;
+		}
+
+		public Long getContentLength() {
+			return contentLength;
+		}
+
+		public Integer getMaxAge() {
+			return maxAge;
+		}
+
+		public Date getLastModified() {
+			return lastModified == null ? null : new Date(lastModified.getTime());
+		}
+
+		/**
+		 * @return the offset of the first payload byte within the cache file or null, if unknown
+		 */
+		public Long getDataOffset() {
+			return dataOffset;
+		}
+
+	}
+
+	private static Path key(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	/**
+	 * @return the generation, that has to be passed to {@link #put(java.nio.file.Path, org.bndly.rest.cache.impl.CacheEntryIndex.MetaData, long)} 
+	 * or {@link #putBody(java.nio.file.Path, byte[], long)} after the cache file has been read
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+
+	private boolean isInvalidatedSince(Path key, long generation) {
+		Long tombstone = tombstonesByPath.get(key);
+		return (tombstone == null ? tombstoneFloor : tombstone) > generation;
+	}
+
+	public synchronized MetaData getMetaData(Path path) {
+		return metaDataByPath.get(key(path));
+	}
+
+	public synchronized byte[] getBody(Path path) {
+		return bodiesByPath.get(key(path));
+	}
+
+	public synchronized StaleEntry getStaleEntry(Path path) {
+		return staleEntriesByPath.get(key(path));
+	}
+
+	public boolean isRetainingStaleBodies() {
+		return retainStaleBodies;
+	}
+
+	public boolean isBodyCacheable(Long contentLength) {
+		return contentLength != null && contentLength <= maxBodySize && contentLength <= maxBodyBytes;
+	}
+
+	public synchronized void put(Path path, MetaData metaData, long generation) {
+		Path key = key(path);
+		// a put means, that the cache file exists again. hence the stale state is outdated.
+		removeStaleEntry(key);
+		if (maxEntries <= 0 || isInvalidatedSince(key, generation)) {
+			return;
+		}
+		metaDataByPath.put(key, metaData);
+	}
+
+	public synchronized void putBody(Path path, byte[] body, long generation) {
+		Path key = key(path);
+		if (isInvalidatedSince(key, generation) || !isBodyCacheable((long) body.length)) {
+			return;
+		}
+		byte[] previous = bodiesByPath.put(key, body);
+		if (previous != null) {
+			bodyBytes -= previous.length;
+		}
+		bodyBytes += body.length;
+		Iterator<byte[]> iterator = bodiesByPath.values().iterator();
+		while (bodyBytes > maxBodyBytes && iterator.hasNext()) {
+			bodyBytes -= iterator.next().length;
+			iterator.remove();
+		}
+	}
+
+	public synchronized void invalidate(Path path) {
+		generation++;
+		Path key = key(path);
+		// re-inserting moves the tombstone to the end of the eviction order
+		tombstonesByPath.remove(key);
+		tombstonesByPath.put(key, generation);
+		MetaData metaData = metaDataByPath.remove(key);
+		byte[] body = bodiesByPath.remove(key);
+		if (body != null) {
+			bodyBytes -= body.length;
+			if (retainStaleBodies && metaData != null) {
+				putStaleEntry(key, new StaleEntry(metaData, body));
+			}
+		}
+	}
+
+	private void removeBody(Path key) {
+		byte[] body = bodiesByPath.remove(key);
+		if (body != null) {
+			bodyBytes -= body.length;
+		}
+	}
+
+	private void putStaleEntry(Path key, StaleEntry staleEntry) {
+		removeStaleEntry(key);
+		staleEntriesByPath.put(key, staleEntry);
+		staleBodyBytes += staleEntry.body.length;
+		Iterator<StaleEntry> iterator = staleEntriesByPath.values().iterator();
+		while (staleBodyBytes > maxBodyBytes && iterator.hasNext()) {
+			staleBodyBytes -= iterator.next().body.length;
+			iterator.remove();
+		}
+	}
+
+	private void removeStaleEntry(Path key) {
+		StaleEntry previous = staleEntriesByPath.remove(key);
+		if (previous != null) {
+			staleBodyBytes -= previous.body.length;
+		}
+	}
+
+	public synchronized void clear() {
+		generation++;
+		tombstonesByPath.clear();
+		tombstoneFloor = generation;
+		metaDataByPath.clear();
+		bodiesByPath.clear();
+		bodyBytes = 0;
+		staleEntriesByPath.clear();
+		staleBodyBytes = 0;
+	}
+}
@@ -0,0 +1,129 @@
+package org.bndly.rest.cache.impl;
+
+/*-
+ * #%L
+ * REST Cache
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CacheFillCoordinator makes sure, that only one request at a time builds the cache file of a missing or expired 
+ * cache entry. The cache file path is used as the key, because it already contains the resource path, the language 
+ * and the content type. Requests, that miss the same cache file while it is being built, wait for the fill to be 
+ * released and can then be served from the fresh cache file.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class CacheFillCoordinator {
+
+	private final ConcurrentMap<Path, Fill> fillsByPath = new ConcurrentHashMap<>();
+	private final long timeoutMillis;
+
+	public CacheFillCoordinator(long timeoutMillis) {
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	public final class Fill {
+
+		private final Path path;
+		private final CountDownLatch latch = new CountDownLatch(1);
+		private volatile Path storedPath;
+
+		private Fill(Path path) {
+			this.path = path;
+		}
+
+		/**
+		 * Waits until the fill has been released or the configured timeout has passed.
+		 * @return true, if the fill has been released in time
+		 */
+		public boolean await() {
+			try {
+				return latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+
+		/**
+		 * Releases the fill, so that waiting requests will look up the cache file again. Releasing a fill more than once 
+		 * has no effect.
+		 */
+		public void release() {
+			fillsByPath.remove(path, this);
+			latch.countDown();
+		}
+
+		/**
+		 * Releases the fill after the cache entry has been stored. The content type of a response is negotiated while 
+		 * the resource is rendered. Hence the entry may be stored in another cache file than the one of the fill. Waiting 
+		 * requests use the stored path to look up the entry.
+		 * @param storedPath the path of the cache file, that has been written
+		 */
+		public void complete(Path storedPath) {
+			this.storedPath = storedPath;
+			release();
+		}
+
+		/**
+		 * @return the path of the cache file, that has been written by the fill, or null if the fill did not store an entry
+		 */
+		public Path getStoredPath() {
+			return storedPath;
+		}
+
+		public boolean isReleased() {
+			return latch.getCount() == 0;
+		}
+	}
+
+	private static Path key(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Starts filling the cache file at the provided path.
+	 * @param path the path of the cache file
+	 * @return the fill, that has to be released by the caller, or null, if another request is already filling the cache 
+	 * file
+	 */
+	public Fill tryStart(Path path) {
+		Path key = key(path);
+		Fill fill = new Fill(key);
+		return fillsByPath.putIfAbsent(key, fill) == null ? fill : null;
+	}
+
+	/**
+	 * Returns the fill of the cache file at the provided path, if there is any.
+	 * @param path the path of the cache file
+	 * @return the fill or null, if nobody is filling the cache file
+	 */
+	public Fill getRunningFill(Path path) {
+		return fillsByPath.get(key(path));
+	}
+
+	public long getTimeoutMillis() {
+		return timeoutMillis;
+	}
+}
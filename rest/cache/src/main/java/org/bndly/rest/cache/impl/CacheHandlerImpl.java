@@ -36,11 +36,14 @@ import org.bndly.rest.api.ResourceURI;
 import org.bndly.rest.api.StatusWriter;
 import org.bndly.rest.cache.api.CacheEntry;
 import org.bndly.rest.cache.api.CacheTransaction;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
@@ -48,6 +51,9 @@ import java.nio.file.StandardOpenOption;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  *
@@ -55,11 +61,34 @@ import java.util.Locale;
  */
 public final class CacheHandlerImpl implements CacheHandler {
 
+	private static final Logger LOG = LoggerFactory.getLogger(CacheHandlerImpl.class);
 	private CacheEntry cacheEntry;
+	private CacheFillCoordinator.Fill fill;
 
 	private final CacheInterceptor cacheInterceptor;
 	private final HashService hashService;
 	private static final byte[] insecureSalt = new byte[]{0, 1, 2, 3, 4, 5, 6, 7};
+	private final CacheEntryIO.ETagCalculator eTagCalculator = new CacheEntryIO.ETagCalculator() {
+		private int eTagLength = -1;
+
+		@Override
+		public int getETagLength() {
+			if (eTagLength < 0) {
+				// the length of a hash does not depend on the hashed data
+				try {
+					eTagLength = buildCacheEtagFromData(new ByteArrayInputStream(new byte[0])).length();
+				} catch (IOException ex) {
+					throw new IllegalStateException("could not determine etag length: " + ex.getMessage(), ex);
+				}
+			}
+			return eTagLength;
+		}
+
+		@Override
+		public String calculateETag(InputStream data) throws IOException {
+			return buildCacheEtagFromData(data);
+		}
+	};
 	private CacheTransaction cacheTransaction;
 	private CacheTransaction cacheTransactionWithSuppressedEventing;
 
@@ -118,40 +147,23 @@ public final class CacheHandlerImpl implements CacheHandler {
 
 	@Override
 	public void returnCachedData(Context context) {
-		CacheContext cc = context.getCacheContext();
-		String etag = cc.getETag();
-		boolean etagAccepted = etag == null || etag.equals(cacheEntry.getETag());
-		boolean dateAccepted = true;
-		Date modifiedSince = cc.getIfModifiedSince();
-		if (modifiedSince != null) {
-			Date lm = cacheEntry.getLastModified();
-			if (lm != null) {
-				if (lm.getTime() >= modifiedSince.getTime()) {
-					dateAccepted = true;
-				} else {
-					dateAccepted = false;
-				}
-			}
-		}
-
 		final String encoding = cacheEntry.getEncoding();
 		ContentType ct = getContentTypeOfCacheEntry(cacheEntry);
-		if (etagAccepted && dateAccepted) {
-			if (etag != null || modifiedSince != null) {
-				ByteServingContext bsc = context.getByteServingContext();
-				boolean isRangeRequest = bsc.isByteServingRequest();
-				if (!isRangeRequest) {
-					// return not modified
-					if (ct != null) {
-						context.setOutputContentType(ct, encoding);
-					}
-					context.getStatusWriter().write(StatusWriter.Code.NOT_MODIFIED);
-					return;
-				}
+		if (isAnsweredAsNotModified(context, cacheEntry)) {
+			// return not modified
+			if (ct != null) {
+				context.setOutputContentType(ct, encoding);
 			}
+			context.getStatusWriter().write(StatusWriter.Code.NOT_MODIFIED);
+			return;
 		}
 
-		ReplayableInputStream is = cacheEntry.getData();
+		// large bodies of indexed cache files are transferred straight from the file channel, 
+		// so that the tar archive does not have to be decoded.
+		ReplayableInputStream is = null;
+		if (!isServableFromChannel(cacheEntry)) {
+			is = cacheEntry.getData();
+		}
 		if (ct != null) {
 			context.setOutputContentType(ct, encoding);
 		}
@@ -176,10 +188,16 @@ public final class CacheHandlerImpl implements CacheHandler {
 				
 			}, encoding);
 		}
+		ByteServingContext bsc = context.getByteServingContext();
+		if (is == null) {
+			if (serveCachedDataFromChannel((IndexedCacheEntry) cacheEntry, bsc, context)) {
+				return;
+			}
+			is = cacheEntry.getData();
+		}
 		// make the replayable input stream a no-op. this means, we don't want 
 		// to buffer here, because we are already serving data from disk.
 		is = is.noOp();
-		ByteServingContext bsc = context.getByteServingContext();
 		if (bsc.isByteServingRequest()) {
 			bsc.serveDataFromStream(is, cacheEntry.getContentLength(), cacheEntry.getETag());
 		} else {
@@ -194,6 +212,68 @@ public final class CacheHandlerImpl implements CacheHandler {
 		}
 	}
 
+	/**
+	 * @return true, if the request is conditional, the cache entry matches the conditions and no byte range is requested
+	 */
+	private boolean isAnsweredAsNotModified(Context context, CacheEntry cacheEntry) {
+		CacheContext cc = context.getCacheContext();
+		String etag = cc.getETag();
+		Date modifiedSince = cc.getIfModifiedSince();
+		if (etag == null && modifiedSince == null) {
+			return false;
+		}
+		if (etag != null && !etag.equals(cacheEntry.getETag())) {
+			return false;
+		}
+		if (modifiedSince != null) {
+			Date lm = cacheEntry.getLastModified();
+			if (lm != null && lm.getTime() < modifiedSince.getTime()) {
+				return false;
+			}
+		}
+		return !context.getByteServingContext().isByteServingRequest();
+	}
+
+	private boolean isServableFromChannel(CacheEntry cacheEntry) {
+		if (!IndexedCacheEntry.class.isInstance(cacheEntry)) {
+			return false;
+		}
+		IndexedCacheEntry indexedCacheEntry = (IndexedCacheEntry) cacheEntry;
+		return indexedCacheEntry.getDataOffset() != null && indexedCacheEntry.getContentLength() != null && !indexedCacheEntry.isDataInMemory();
+	}
+
+	/**
+	 * Serves the payload of the cache file by transferring the bytes from the file channel. If the cache file does no 
+	 * longer contain the payload at the indexed offset, nothing will be written.
+	 * @return true, if the payload has been served
+	 */
+	private boolean serveCachedDataFromChannel(IndexedCacheEntry indexedCacheEntry, ByteServingContext bsc, Context context) {
+		long dataOffset = indexedCacheEntry.getDataOffset();
+		long contentLength = indexedCacheEntry.getContentLength();
+		try {
+			// the channel is closed together with the cache entry
+			FileChannel channel = indexedCacheEntry.getChannel();
+			if (!cacheInterceptor.getCacheEntryIO().isDataAtOffset(channel, dataOffset, contentLength)) {
+				return false;
+			}
+			if (bsc.isByteServingRequest()) {
+				bsc.serveDataFromChannel(channel, dataOffset, contentLength, indexedCacheEntry.getETag());
+			} else {
+				try (OutputStream os = context.getOutputStream()) {
+					IOUtils.transfer(channel, dataOffset, contentLength, os);
+					os.flush();
+				} catch (WriteIOException ex) {
+					// we ignore this case, because the other end might have closed the connection
+				}
+			}
+			return true;
+		} catch (NoSuchFileException ex) {
+			return false;
+		} catch (IOException ex) {
+			throw new IllegalStateException("failed to serve cache file: " + ex.getMessage(), ex);
+		}
+	}
+
 	private ContentType getContentTypeOfCacheEntry(CacheEntry cacheEntry) {
 		if (cacheEntry == null) {
 			return null;
@@ -227,9 +307,47 @@ public final class CacheHandlerImpl implements CacheHandler {
 			return false;
 		}
 		this.cacheEntry = lookupCacheEntry(context);
-		if (cacheEntry == null) {
+		if (cacheEntry != null && !isExpired(cacheEntry)) {
+			return true;
+		}
+		CacheFillCoordinator coordinator = cacheInterceptor.getCacheFillCoordinator();
+		if (coordinator == null) {
+			return false;
+		}
+		Path fillPath = buildFilePathToResource(context, context.getDesiredContentType());
+		fill = coordinator.tryStart(fillPath);
+		if (fill != null) {
+			// this request builds the entry. concurrent requests will wait for it.
 			return false;
 		}
+		if (cacheInterceptor.isStaleWhileRevalidate()) {
+			if (cacheEntry != null) {
+				// the expired entry is served, while another request rebuilds it
+				return true;
+			}
+			CacheEntry staleEntry = lookupStaleCacheEntry(fillPath);
+			if (staleEntry != null) {
+				cacheEntry = staleEntry;
+				return true;
+			}
+		}
+		CacheFillCoordinator.Fill runningFill = coordinator.getRunningFill(fillPath);
+		if (runningFill != null && !runningFill.await()) {
+			LOG.debug("timed out while waiting for cache entry {}", fillPath);
+			return false;
+		}
+		closeCacheEntry();
+		Path storedPath = runningFill == null ? null : runningFill.getStoredPath();
+		if (storedPath != null) {
+			// the entry is stored under the negotiated output content type, which may differ from the desired content type
+			cacheEntry = isIndexedOrOnDisk(storedPath) ? loadServableCacheEntry(storedPath, context) : null;
+		} else {
+			cacheEntry = lookupCacheEntry(context);
+		}
+		return cacheEntry != null && !isExpired(cacheEntry);
+	}
+
+	private boolean isExpired(CacheEntry cacheEntry) {
 		Integer maxAge = cacheEntry.getMaxAge();
 		if (maxAge != null) {
 			Date lm = cacheEntry.getLastModified();
@@ -237,11 +355,61 @@ public final class CacheHandlerImpl implements CacheHandler {
 				long currentTimeMillis = System.currentTimeMillis();
 				long endOfValidity = lm.getTime() + (maxAge * 1000);
 				if (endOfValidity < currentTimeMillis) {
-					return false;
+					return true;
 				}
 			}
 		}
-		return true;
+		return false;
+	}
+
+	private CacheEntry lookupStaleCacheEntry(Path filePath) {
+		final CacheEntryIndex.StaleEntry staleEntry = cacheInterceptor.getCacheEntryIndex().getStaleEntry(filePath);
+		if (staleEntry == null) {
+			return null;
+		}
+		CacheEntryIndex.MetaData metaData = staleEntry.getMetaData();
+		CacheEntryImpl localCacheEntry = new CacheEntryImpl() {
+
+			@Override
+			public void close() throws Exception {
+				// nothing to do, because the data is held in memory
+			}
+
+		};
+		localCacheEntry.setEtag(metaData.getETag());
+		localCacheEntry.setContentType(metaData.getContentType());
+		localCacheEntry.setEncoding(metaData.getEncoding());
+		localCacheEntry.setContentLanguage(metaData.getContentLanguage());
+		localCacheEntry.setContentLength(metaData.getContentLength());
+		localCacheEntry.setMaxAge(metaData.getMaxAge());
+		localCacheEntry.setLastModified(metaData.getLastModified());
+		localCacheEntry.setData(ReplayableInputStream.newInstance(staleEntry.getBody()));
+		return localCacheEntry;
+	}
+
+	private void closeCacheEntry() {
+		if (cacheEntry != null) {
+			try {
+				cacheEntry.close();
+			} catch (Exception ex) {
+				LOG.warn("failed to close cache entry: {}", ex.getMessage(), ex);
+			}
+			cacheEntry = null;
+		}
+	}
+
+	private void releaseFill() {
+		if (fill != null) {
+			fill.release();
+			fill = null;
+		}
+	}
+
+	private void completeFill(Path storedPath) {
+		if (fill != null) {
+			fill.complete(storedPath);
+			fill = null;
+		}
 	}
 
 	private String buildCacheEtagFromData(InputStream inputStream) throws IOException {
@@ -250,6 +418,7 @@ public final class CacheHandlerImpl implements CacheHandler {
 		return hash.getHashBase64();
 	}
 
+
 	private CacheEntryImpl buildCacheEntryFromContext(Context context) {
 		CacheEntryImpl localCacheEntry = new CacheEntryImpl() {
 
@@ -284,32 +453,65 @@ public final class CacheHandlerImpl implements CacheHandler {
 			return null;
 		}
 		List<QuantifiedContentType> ct = context.getDesiredContentTypes();
-		Path filePath = null;
 		if (!ct.isEmpty()) {
 			for (QuantifiedContentType contentType : ct) {
 				Path tmp = buildFilePathToResource(context, contentType);
-				if (Files.notExists(tmp)) {
+				if (!isIndexedOrOnDisk(tmp)) {
 					continue;
-				} else {
-					filePath = tmp;
-					break;
+				}
+				CacheEntry localCacheEntry = loadServableCacheEntry(tmp, context);
+				if (localCacheEntry != null) {
+					return localCacheEntry;
 				}
 			}
+			return null;
 		} else {
-			filePath = buildFilePathToResource(context, context.getDesiredContentType());
-			if (Files.notExists(filePath)) {
-				filePath = null;
+			Path filePath = buildFilePathToResource(context, context.getDesiredContentType());
+			if (!isIndexedOrOnDisk(filePath)) {
+				return null;
 			}
+			return loadServableCacheEntry(filePath, context);
 		}
-		if (filePath == null) {
-			return null;
+	}
+
+	/**
+	 * Loads the cache entry and makes sure, that its payload can be served. A conditional request, that will be answered 
+	 * with "not modified", is served from the index without any file I/O.
+	 * @return the cache entry or null, if the cache file has been deleted without informing the index
+	 */
+	private CacheEntry loadServableCacheEntry(Path filePath, Context context) {
+		CacheEntry localCacheEntry = loadCacheEntry(filePath);
+		if (IndexedCacheEntry.class.isInstance(localCacheEntry) && !isAnsweredAsNotModified(context, localCacheEntry)) {
+			if (!((IndexedCacheEntry) localCacheEntry).openCacheFile()) {
+				// the file has been deleted without informing the index. the indexed entry can not be served anymore.
+				cacheInterceptor.getCacheEntryIndex().invalidate(filePath);
+				try {
+					localCacheEntry.close();
+				} catch (Exception ex) {
+					LOG.warn("failed to close cache entry: {}", ex.getMessage(), ex);
+				}
+				return null;
+			}
 		}
+		return localCacheEntry;
+	}
+
+	private CacheEntry loadCacheEntry(Path filePath) {
+		CacheEntryIndex cacheEntryIndex = cacheInterceptor.getCacheEntryIndex();
+		CacheEntryIndex.MetaData metaData = cacheEntryIndex.getMetaData(filePath);
+		if (metaData != null) {
+			return new IndexedCacheEntry(filePath, metaData, cacheEntryIndex, cacheInterceptor.getCacheEntryIO());
+		}
+		long generation = cacheEntryIndex.getGeneration();
 		InputStream is = null;
 		try {
 			// the CacheEntry is autocloseable. this means that the input stream
 			// will be closed, when the cache entry is being closed. this has to 
 			// happen outside of this method block
 			is = Files.newInputStream(filePath, StandardOpenOption.READ);
+		} catch (NoSuchFileException ex) {
+			// the file has been deleted since it has been looked up
+			return null;
 		} catch (IOException ex) {
 			if (is != null) {
 				try {
@@ -321,7 +523,31 @@ public final class CacheHandlerImpl implements CacheHandler {
 			throw new IllegalStateException("could not deserialize cache file: " + ex.getMessage(), ex);
 		}
 		CacheEntry localCacheEntry = cacheInterceptor.getCacheEntryIO().deserialize(is);
-		return localCacheEntry;
+		if (localCacheEntry == null) {
+			return null;
+		}
+		CacheEntryIndex.MetaData localMetaData = CacheEntryIndex.MetaData.of(localCacheEntry).withDataOffset(lookupDataOffset(filePath));
+		IndexedCacheEntry indexedCacheEntry = new IndexedCacheEntry(filePath, localMetaData, localCacheEntry, generation, cacheEntryIndex, cacheInterceptor.getCacheEntryIO());
+		cacheEntryIndex.put(filePath, localMetaData, generation);
+		return indexedCacheEntry;
+	}
+
+	private Long lookupDataOffset(Path filePath) {
+		try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+			long offset = cacheInterceptor.getCacheEntryIO().findDataOffset(channel);
+			return offset < 0 ? null : offset;
+		} catch (IOException ex) {
+			// without an offset, the data will be served by deserializing the cache file
+			return null;
+		}
+	}
+
+	/**
+	 * Indexed entries are trusted without touching the disk. A deleted cache file of an indexed entry is detected, when 
+	 * the cache file is opened.
+	 */
+	private boolean isIndexedOrOnDisk(Path filePath) {
+		return cacheInterceptor.getCacheEntryIndex().getMetaData(filePath) != null || Files.exists(filePath);
 	}
 
 	private Path buildFilePathToResource(Context context, ContentType ct) {
@@ -426,26 +652,30 @@ public final class CacheHandlerImpl implements CacheHandler {
 	@Override
 	public void saveCacheData(ReplayableInputStream is, Context context) {
 		CacheEntryImpl localCacheEntry = buildCacheEntryFromContext(context);
-		try {
-			// in order to generate an etag, the data has to be hashed and therefore read completely
-			try (ReplayableInputStream ris = is) {
-				String etag = buildCacheEtagFromData(ris);
-				localCacheEntry.setEtag(etag);
-			}
-			is = is.replay();
-		} catch (IOException ex) {
-			throw new IllegalStateException("could not create etag for cache entry: " + ex.getMessage(), ex);
-		}
 		localCacheEntry.setData(is);
-		context.getCacheContext().setETag(localCacheEntry.getETag());
-		context.getCacheContext().setLastModified(localCacheEntry.getLastModified());
-		Path tempPath = buildTemporaryFilePath(localCacheEntry);
-		try (OutputStream os = Files.newOutputStream(tempPath, StandardOpenOption.WRITE)) {
-			cacheInterceptor.getCacheEntryIO().serialize(localCacheEntry, os);
-			os.flush();
+		CacheEntryIndex cacheEntryIndex = cacheInterceptor.getCacheEntryIndex();
+		long generation = cacheEntryIndex.getGeneration();
+		Path tempPath = buildTemporaryFilePath();
+		// the etag is generated while the data is written to the temporary cache file. this way the data is only read once.
+		boolean didWriteTempFile = false;
+		try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+			String etag = cacheInterceptor.getCacheEntryIO().serialize(localCacheEntry, channel, eTagCalculator);
+			localCacheEntry.setEtag(etag);
+			didWriteTempFile = true;
 		} catch (IOException ex) {
 			throw new IllegalStateException("cache file could not be written", ex);
+		} finally {
+			if (!didWriteTempFile) {
+				try {
+					Files.deleteIfExists(tempPath);
+				} catch (IOException ex) {
+					// silently ignore this, because the original exception is more important
+				}
+			}
 		}
+		context.getCacheContext().setETag(localCacheEntry.getETag());
+		context.getCacheContext().setLastModified(localCacheEntry.getLastModified());
+		Long dataOffset = lookupDataOffset(tempPath);
 		Path filePath = buildFilePathToResource(context, context.getOutputContentType());
 		boolean shouldRemoveTempFile = true;
 		try {
@@ -465,6 +695,12 @@ public final class CacheHandlerImpl implements CacheHandler {
 			} catch (IOException ex) {
 				throw new IllegalStateException("failed to move the temporary cache file", ex);
 			}
+			if (is.getLength() > -1) {
+				localCacheEntry.setContentLength(is.getLength());
+			}
+			cacheEntryIndex.put(filePath, CacheEntryIndex.MetaData.of(localCacheEntry).withDataOffset(dataOffset), generation);
+			// the entry is stored. requests, that have been waiting for it, can be served from the cache file now.
+			completeFill(filePath);
 
 			try {
 				is.replay();
@@ -483,25 +719,25 @@ public final class CacheHandlerImpl implements CacheHandler {
 		
 	}
 
-	private Path buildTemporaryFilePath(CacheEntryImpl localCacheEntry) throws IllegalStateException {
-		return buildTemporaryFilePath(localCacheEntry, 0);
+	private Path buildTemporaryFilePath() throws IllegalStateException {
+		// the etag is not known before the cache file has been written. hence a random name is used.
+		return buildTemporaryFilePath(UUID.randomUUID().toString(), 0);
 	}
 
-	private Path buildTemporaryFilePath(CacheEntryImpl localCacheEntry, int iteration) throws IllegalStateException {
-		Path tempPath = buildTempPath(localCacheEntry, iteration);
+	private Path buildTemporaryFilePath(String fileName, int iteration) throws IllegalStateException {
+		Path tempPath = buildTempPath(fileName, iteration);
 		try {
 			tempPath = Files.createFile(tempPath);
 		} catch (FileAlreadyExistsException ex) {
-			return buildTemporaryFilePath(localCacheEntry, iteration + 1);
+			return buildTemporaryFilePath(fileName, iteration + 1);
 		} catch (IOException ex) {
 			throw new IllegalStateException("could not create temporary file for saving cache data.", ex);
 		}
 		return tempPath;
 	}
 
-	private Path buildTempPath(CacheEntry cacheEntry, int iteration) {
+	private Path buildTempPath(String fileName, int iteration) {
 		Path cacheRootPath = Paths.get(cacheInterceptor.getCacheRoot());
-		String fileName = cacheEntry.getETag();
 		StringBuffer sb = new StringBuffer();
 		for (int index = 0; index < fileName.length(); index++) {
 			char character = fileName.charAt(index);
@@ -518,6 +754,8 @@ public final class CacheHandlerImpl implements CacheHandler {
 
 	@Override
 	public void close() throws Exception {
+		// if the entry could not be stored, the waiting requests have to be woken up anyways
+		releaseFill();
 		try {
 			if (cacheTransaction != null) {
 				cacheTransaction.close();
@@ -89,6 +89,42 @@ public class CacheInterceptor implements ResourceInterceptor, CacheLinkingServic
 				description = "If this property is true, then no caching operations will be performed"
 		)
 		boolean skip() default false;
+
+		@AttributeDefinition(
+				name = "Indexed entries",
+				description = "The number of cache entries, whose meta data is kept in memory to answer conditional requests without reading the cache files"
+		)
+		int indexSize() default 10000;
+
+		@AttributeDefinition(
+				name = "In-memory body cache size",
+				description = "The total number of bytes of response bodies, that are kept in memory. 0 disables the in-memory body cache."
+		)
+		long memoryCacheSize() default 16777216;
+
+		@AttributeDefinition(
+				name = "In-memory body max size",
+				description = "The maximum size in bytes of a response body, that may be kept in memory"
+		)
+		int memoryCacheMaxEntrySize() default 65536;
+
+		@AttributeDefinition(
+				name = "Coalesce cache misses",
+				description = "If this property is true, then only one request at a time builds a missing cache entry. Concurrent requests for the same entry wait for it to be stored. Misses are always coalesced, if stale while revalidate is enabled."
+		)
+		boolean coalesceMisses() default false;
+
+		@AttributeDefinition(
+				name = "Coalescing timeout",
+				description = "The number of milliseconds a request waits for a missing cache entry to be stored by another request, before it builds the entry on its own"
+		)
+		long coalescingTimeout() default 10000;
+
+		@AttributeDefinition(
+				name = "Stale while revalidate",
+				description = "If this property is true, then an expired or flushed cache entry is served while another request rebuilds it. Flushed entries can only be served, if their body was kept in memory. This requires coalesced cache misses, which are enabled implicitly."
+		)
+		boolean staleWhileRevalidate() default false;
 	}
 	
 	private static final Logger LOG = LoggerFactory.getLogger(CacheInterceptor.class);
@@ -102,6 +138,9 @@ public class CacheInterceptor implements ResourceInterceptor, CacheLinkingServic
 	private final ReadWriteLock cacheTransactionListenersLock = new ReentrantReadWriteLock();
 	private final ThreadLocal<CacheHandlerImpl> currentCacheHandler = new ThreadLocal<>();
 	private boolean skip;
+	private CacheEntryIndex cacheEntryIndex = new CacheEntryIndex(10000, 16777216, 65536);
+	private CacheFillCoordinator cacheFillCoordinator;
+	private boolean staleWhileRevalidate;
 	
 	@Reference(
 			bind = "addCacheEventListener",
@@ -212,6 +251,14 @@ public class CacheInterceptor implements ResourceInterceptor, CacheLinkingServic
 	public void activate(Configuration configuration, BundleContext bundleContext) {
 		cacheRoot = configuration.cacheRoot();
 		skip = configuration.skip();
+		staleWhileRevalidate = configuration.staleWhileRevalidate();
+		// a stale entry is only served while the request, that rebuilds the entry, is known to the fill coordinator
+		boolean coalesceMisses = configuration.coalesceMisses() || staleWhileRevalidate;
+		if (staleWhileRevalidate && !configuration.coalesceMisses()) {
+			LOG.info("cache misses will be coalesced, because stale while revalidate is enabled");
+		}
+		cacheEntryIndex = new CacheEntryIndex(configuration.indexSize(), configuration.memoryCacheSize(), configuration.memoryCacheMaxEntrySize(), staleWhileRevalidate);
+		cacheFillCoordinator = coalesceMisses ? new CacheFillCoordinator(configuration.coalescingTimeout()) : null;
 		if (!skip) {
 			LOG.info("cache interceptor will cache resources");
 			reg = ServiceRegistrationBuilder.newInstance(this)
@@ -308,6 +355,26 @@ public class CacheInterceptor implements ResourceInterceptor, CacheLinkingServic
 	
 	public final void setCacheRoot(String cacheRoot) {
 		this.cacheRoot = cacheRoot;
+		cacheEntryIndex.clear();
+	}
+
+	public final CacheEntryIndex getCacheEntryIndex() {
+		return cacheEntryIndex;
+	}
+
+	/**
+	 * @return the coordinator of concurrent cache fills or null, if cache misses should not be coalesced
+	 */
+	public final CacheFillCoordinator getCacheFillCoordinator() {
+		return cacheFillCoordinator;
+	}
+
+	public final void setCacheFillCoordinator(CacheFillCoordinator cacheFillCoordinator) {
+		this.cacheFillCoordinator = cacheFillCoordinator;
+	}
+
+	public final boolean isStaleWhileRevalidate() {
+		return staleWhileRevalidate;
 	}
 	
 	@Override
@@ -434,12 +501,12 @@ public class CacheInterceptor implements ResourceInterceptor, CacheLinkingServic
 		if (!suppressEventing) {
 			cacheEventListenersLock.readLock().lock();
 			try {
-				strategy = new FlushEverything(cacheRoot, new ArrayList<>(cacheEventListeners)); // defensive copy
+				strategy = new FlushEverything(cacheRoot, new ArrayList<>(cacheEventListeners), cacheEntryIndex); // defensive copy
 			} finally {
 				cacheEventListenersLock.readLock().unlock();
 			}
 		} else {
-			strategy = new FlushEverything(cacheRoot, Collections.EMPTY_LIST);
+			strategy = new FlushEverything(cacheRoot, Collections.EMPTY_LIST, cacheEntryIndex);
 		}
 		strategy.doFlush();
 	}
@@ -454,9 +521,9 @@ public class CacheInterceptor implements ResourceInterceptor, CacheLinkingServic
 			cacheEventListenersLock.readLock().unlock();
 		}
 		if (!recursive) {
-			strategy = new FlushPath( pathAsString, cacheRoot, listenersToUse);
+			strategy = new FlushPath(pathAsString, cacheRoot, listenersToUse, cacheEntryIndex);
 		} else {
-			strategy = new FlushPathRecursive(pathAsString, cacheRoot, listenersToUse);
+			strategy = new FlushPathRecursive(pathAsString, cacheRoot, listenersToUse, cacheEntryIndex);
 		}
 		strategy.doFlush();
 	}
@@ -42,11 +42,23 @@ public class FlushEverything extends AbstractFlushStrategy {
 	public FlushEverything(String cacheRoot, List<CacheEventListener> cacheEventListeners) {
 		super(cacheRoot, cacheEventListeners);
 	}
+
+	public FlushEverything(String cacheRoot, List<CacheEventListener> cacheEventListeners, CacheEntryIndex cacheEntryIndex) {
+		super(cacheRoot, cacheEventListeners, cacheEntryIndex);
+	}
 	
 	@Override
 	public void doFlush() {
 		Path cacheRootPath = Paths.get(cacheRoot);
+		if (cacheEntryIndex != null) {
+			// clear the index first, so that no indexed entry will be served, while its file is being deleted
+			cacheEntryIndex.clear();
+		}
 		recursiveDeletePath(cacheRootPath, true);
+		if (cacheEntryIndex != null) {
+			// entries, that have been read while the files were deleted, will not be stored
+			cacheEntryIndex.clear();
+		}
 		for (CacheEventListener cacheEventListener : cacheEventListeners) {
 			cacheEventListener.onFlush();
 		}
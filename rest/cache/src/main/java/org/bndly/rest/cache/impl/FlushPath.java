@@ -43,7 +43,11 @@ public class FlushPath extends AbstractFlushStrategy {
 	protected final String pathAsString;
 
 	public FlushPath(String pathAsString, String cacheRoot, List<CacheEventListener> cacheEventListeners) {
-		super(cacheRoot, cacheEventListeners);
+		this(pathAsString, cacheRoot, cacheEventListeners, null);
+	}
+
+	public FlushPath(String pathAsString, String cacheRoot, List<CacheEventListener> cacheEventListeners, CacheEntryIndex cacheEntryIndex) {
+		super(cacheRoot, cacheEventListeners, cacheEntryIndex);
 		this.pathAsString = pathAsString;
 	}
 	
@@ -162,11 +166,15 @@ public class FlushPath extends AbstractFlushStrategy {
 			Files.delete(file);
 		} catch (java.nio.file.NoSuchFileException e) {
 			// we don't care since we would have deleted it anayways
+		} finally {
+			if (cacheEntryIndex != null) {
+				cacheEntryIndex.invalidate(file);
+			}
 		}
 	}
 	
 	protected void flushLinkedItem(String linkedItemToFlush) {
-		new FlushPath(linkedItemToFlush, cacheRoot, cacheEventListeners).doFlush();
+		new FlushPath(linkedItemToFlush, cacheRoot, cacheEventListeners, cacheEntryIndex).doFlush();
 	}
 	
 	protected void informListeners() {
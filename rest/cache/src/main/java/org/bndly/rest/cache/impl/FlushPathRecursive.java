@@ -33,6 +33,10 @@ public class FlushPathRecursive extends FlushPath {
 		super(pathAsString, cacheRoot, cacheEventListeners);
 	}
 
+	public FlushPathRecursive(String pathAsString, String cacheRoot, List<CacheEventListener> cacheEventListeners, CacheEntryIndex cacheEntryIndex) {
+		super(pathAsString, cacheRoot, cacheEventListeners, cacheEntryIndex);
+	}
+
 	@Override
 	protected boolean shouldStepIntoSubDirectory() {
 		return true;
@@ -40,7 +44,7 @@ public class FlushPathRecursive extends FlushPath {
 
 	@Override
 	protected void flushLinkedItem(String linkedItemToFlush) {
-		new FlushPathRecursive(linkedItemToFlush, cacheRoot, cacheEventListeners).doFlush();
+		new FlushPathRecursive(linkedItemToFlush, cacheRoot, cacheEventListeners, cacheEntryIndex).doFlush();
 	}
 
 	@Override
@@ -0,0 +1,209 @@
+package org.bndly.rest.cache.impl;
+
+/*-
+ * #%L
+ * REST Cache
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.data.io.IOUtils;
+import org.bndly.common.data.io.ReplayableInputStream;
+import org.bndly.rest.api.ResourceURI;
+import org.bndly.rest.cache.api.CacheEntry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+
+/**
+ * An IndexedCacheEntry serves the meta data of a cache file from the {@link CacheEntryIndex}. The cache file is only 
+ * opened, if the data is requested and the body is not held in memory. The cache file is opened at most once per entry.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class IndexedCacheEntry implements CacheEntry {
+
+	private final Path filePath;
+	private final CacheEntryIndex.MetaData metaData;
+	private final CacheEntryIndex cacheEntryIndex;
+	private final CacheEntryIO cacheEntryIO;
+	private FileChannel channel;
+	private CacheEntry delegate;
+	private long delegateGeneration;
+	private ReplayableInputStream data;
+
+	IndexedCacheEntry(Path filePath, CacheEntryIndex.MetaData metaData, CacheEntryIndex cacheEntryIndex, CacheEntryIO cacheEntryIO) {
+		this.filePath = filePath;
+		this.metaData = metaData;
+		this.cacheEntryIndex = cacheEntryIndex;
+		this.cacheEntryIO = cacheEntryIO;
+	}
+
+	/**
+	 * Creates an entry for a cache file, that has already been deserialized.
+	 */
+	IndexedCacheEntry(Path filePath, CacheEntryIndex.MetaData metaData, CacheEntry delegate, long generation, CacheEntryIndex cacheEntryIndex, CacheEntryIO cacheEntryIO) {
+		this(filePath, metaData, cacheEntryIndex, cacheEntryIO);
+		this.delegate = delegate;
+		this.delegateGeneration = generation;
+	}
+
+	@Override
+	public ReplayableInputStream getData() {
+		if (data != null) {
+			return data;
+		}
+		if (delegate == null) {
+			byte[] body = cacheEntryIndex.getBody(filePath);
+			if (body != null) {
+				data = ReplayableInputStream.newInstance(body);
+				return data;
+			}
+			delegateGeneration = cacheEntryIndex.getGeneration();
+			delegate = readCacheFile();
+			if (delegate == null) {
+				throw new IllegalStateException("cache file did not contain any data: " + filePath);
+			}
+		}
+		if (cacheEntryIndex.isBodyCacheable(metaData.getContentLength())) {
+			byte[] body;
+			try (InputStream is = delegate.getData()) {
+				body = IOUtils.read(is);
+			} catch (IOException ex) {
+				throw new IllegalStateException("could not read cache file: " + ex.getMessage(), ex);
+			}
+			cacheEntryIndex.putBody(filePath, body, delegateGeneration);
+			data = ReplayableInputStream.newInstance(body);
+		} else {
+			data = delegate.getData();
+		}
+		return data;
+	}
+
+	private CacheEntry readCacheFile() {
+		InputStream is;
+		try {
+			// the input stream will be closed, when this cache entry is being closed
+			is = Channels.newInputStream(getChannel().position(0));
+		} catch (IOException ex) {
+			throw new IllegalStateException("could not deserialize cache file: " + ex.getMessage(), ex);
+		}
+		return cacheEntryIO.deserialize(is);
+	}
+
+	/**
+	 * Opens the cache file, unless the payload is held in memory. This is the only point, where a cache file, that has 
+	 * been deleted without informing the index, is detected.
+	 * @return false, if the cache file does no longer exist
+	 */
+	boolean openCacheFile() {
+		if (data != null || delegate != null || channel != null || cacheEntryIndex.getBody(filePath) != null) {
+			return true;
+		}
+		try {
+			getChannel();
+			return true;
+		} catch (NoSuchFileException ex) {
+			return false;
+		} catch (IOException ex) {
+			throw new IllegalStateException("could not open cache file: " + ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * @return the channel of the cache file. the channel is closed, when this cache entry is being closed.
+	 */
+	FileChannel getChannel() throws IOException {
+		if (channel == null) {
+			channel = FileChannel.open(filePath, StandardOpenOption.READ);
+		}
+		return channel;
+	}
+
+	Path getFilePath() {
+		return filePath;
+	}
+
+	/**
+	 * @return the offset of the payload within the cache file or null, if it is unknown
+	 */
+	Long getDataOffset() {
+		return metaData.getDataOffset();
+	}
+
+	/**
+	 * @return true, if the payload is held in memory or has already been read by this entry
+	 */
+	boolean isDataInMemory() {
+		return data != null || cacheEntryIndex.isBodyCacheable(metaData.getContentLength());
+	}
+
+	@Override
+	public ResourceURI getResourceURI() {
+		return null;
+	}
+
+	@Override
+	public String getETag() {
+		return metaData.getETag();
+	}
+
+	@Override
+	public String getContentType() {
+		return metaData.getContentType();
+	}
+
+	@Override
+	public String getEncoding() {
+		return metaData.getEncoding();
+	}
+
+	@Override
+	public String getContentLanguage() {
+		return metaData.getContentLanguage();
+	}
+
+	@Override
+	public Long getContentLength() {
+		return metaData.getContentLength();
+	}
+
+	@Override
+	public Integer getMaxAge() {
+		return metaData.getMaxAge();
+	}
+
+	@Override
+	public Date getLastModified() {
+		return metaData.getLastModified();
+	}
+
+	@Override
+	public void close() throws Exception {
+		if (delegate != null) {
+			delegate.close();
+		}
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+package org.bndly.rest.cache;
+
+/*-
+ * #%L
+ * REST Cache
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.rest.cache.impl.CacheEntryIndex;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class CacheEntryIndexTest {
+
+	private static CacheEntryIndex.MetaData metaData(String etag) {
+		return new CacheEntryIndex.MetaData(etag, "text/plain", "UTF-8", null, 3L, null, new Date(1500L));
+	}
+
+	@Test
+	public void testMetaDataIsEvictedInLeastRecentlyUsedOrder() {
+		CacheEntryIndex index = new CacheEntryIndex(2, 1024, 16);
+		Path a = Paths.get("target", "index", "a.tar");
+		Path b = Paths.get("target", "index", "b.tar");
+		Path c = Paths.get("target", "index", "c.tar");
+		index.put(a, metaData("a"), index.getGeneration());
+		index.put(b, metaData("b"), index.getGeneration());
+		Assert.assertEquals(index.getMetaData(a).getETag(), "a");
+		index.put(c, metaData("c"), index.getGeneration());
+		Assert.assertNotNull(index.getMetaData(a));
+		Assert.assertNull(index.getMetaData(b));
+		Assert.assertNotNull(index.getMetaData(c));
+		// the index keeps the precision of the cache files
+		Assert.assertEquals(index.getMetaData(a).getLastModified().getTime(), 1000L);
+	}
+
+	@Test
+	public void testBodiesAreBoundedByWeight() {
+		CacheEntryIndex index = new CacheEntryIndex(10, 10, 6);
+		Path a = Paths.get("target", "index", "a.tar");
+		Path b = Paths.get("target", "index", "b.tar");
+		Path c = Paths.get("target", "index", "c.tar");
+		index.putBody(a, new byte[4], index.getGeneration());
+		index.putBody(b, new byte[4], index.getGeneration());
+		Assert.assertNotNull(index.getBody(a));
+		index.putBody(c, new byte[4], index.getGeneration());
+		Assert.assertNotNull(index.getBody(a));
+		Assert.assertNull(index.getBody(b));
+		Assert.assertNotNull(index.getBody(c));
+		// too large for the body cache
+		index.putBody(b, new byte[7], index.getGeneration());
+		Assert.assertNull(index.getBody(b));
+	}
+
+	@Test
+	public void testInvalidationDropsEntriesReadBefore() {
+		CacheEntryIndex index = new CacheEntryIndex(10, 10, 6);
+		Path a = Paths.get("target", "index", "a.tar");
+		long generation = index.getGeneration();
+		index.invalidate(Paths.get("target", "index", "..", "index", "a.tar"));
+		index.put(a, metaData("a"), generation);
+		index.putBody(a, new byte[1], generation);
+		Assert.assertNull(index.getMetaData(a));
+		Assert.assertNull(index.getBody(a));
+
+		index.put(a, metaData("a"), index.getGeneration());
+		Assert.assertNotNull(index.getMetaData(a));
+		index.invalidate(a);
+		Assert.assertNull(index.getMetaData(a));
+	}
+
+	@Test
+	public void testInvalidationDoesNotDropEntriesOfOtherPaths() {
+		CacheEntryIndex index = new CacheEntryIndex(10, 10, 6);
+		Path a = Paths.get("target", "index", "a.tar");
+		long generation = index.getGeneration();
+		index.invalidate(Paths.get("target", "index", "other.tar"));
+		index.put(a, metaData("a"), generation);
+		index.putBody(a, new byte[1], generation);
+		Assert.assertNotNull(index.getMetaData(a));
+		Assert.assertNotNull(index.getBody(a));
+
+		// a clear drops everything, that has been read before
+		generation = index.getGeneration();
+		index.clear();
+		index.put(a, metaData("a"), generation);
+		Assert.assertNull(index.getMetaData(a));
+	}
+
+	@Test
+	public void testEvictedTombstonesDropEntriesConservatively() {
+		CacheEntryIndex index = new CacheEntryIndex(10, 10, 6);
+		Path a = Paths.get("target", "index", "a.tar");
+		long generation = index.getGeneration();
+		index.invalidate(a);
+		// more invalidations than tombstones are kept evict the tombstone of a
+		for (int i = 0; i < 1024; i++) {
+			index.invalidate(Paths.get("target", "index", i + ".tar"));
+		}
+		index.put(a, metaData("a"), generation);
+		Assert.assertNull(index.getMetaData(a));
+		index.put(a, metaData("a"), index.getGeneration());
+		Assert.assertNotNull(index.getMetaData(a));
+	}
+
+	@Test
+	public void testEvictedMetaDataRemovesTheBody() {
+		CacheEntryIndex index = new CacheEntryIndex(1, 10, 6);
+		Path a = Paths.get("target", "index", "a.tar");
+		Path b = Paths.get("target", "index", "b.tar");
+		index.put(a, metaData("a"), index.getGeneration());
+		index.putBody(a, new byte[6], index.getGeneration());
+		index.put(b, metaData("b"), index.getGeneration());
+		Assert.assertNull(index.getMetaData(a));
+		Assert.assertNull(index.getBody(a));
+		// the budget of the evicted body is available again
+		index.putBody(b, new byte[6], index.getGeneration());
+		Assert.assertNotNull(index.getBody(b));
+	}
+
+	@Test
+	public void testStaleBodiesAreRetainedUntilTheEntryIsStoredAgain() {
+		CacheEntryIndex index = new CacheEntryIndex(10, 10, 6, true);
+		Path a = Paths.get("target", "index", "a.tar");
+		index.put(a, metaData("a"), index.getGeneration());
+		index.putBody(a, new byte[3], index.getGeneration());
+		index.invalidate(a);
+		Assert.assertNull(index.getMetaData(a));
+		Assert.assertNull(index.getBody(a));
+		CacheEntryIndex.StaleEntry staleEntry = index.getStaleEntry(a);
+		Assert.assertNotNull(staleEntry);
+		Assert.assertEquals(staleEntry.getMetaData().getETag(), "a");
+		Assert.assertEquals(staleEntry.getBody().length, 3);
+
+		index.put(a, metaData("b"), index.getGeneration());
+		Assert.assertNull(index.getStaleEntry(a));
+
+		// without retention nothing is kept
+		CacheEntryIndex plainIndex = new CacheEntryIndex(10, 10, 6);
+		plainIndex.put(a, metaData("a"), plainIndex.getGeneration());
+		plainIndex.putBody(a, new byte[3], plainIndex.getGeneration());
+		plainIndex.invalidate(a);
+		Assert.assertNull(plainIndex.getStaleEntry(a));
+	}
+}
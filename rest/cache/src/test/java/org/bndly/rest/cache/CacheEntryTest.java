@@ -24,11 +24,14 @@ import org.bndly.common.data.io.IOUtils;
 import org.bndly.common.data.io.ReplayableInputStream;
 import org.bndly.rest.cache.api.CacheEntry;
 import org.bndly.rest.cache.impl.CacheEntryIO;
+import org.bndly.rest.cache.impl.CacheEntryImpl;
 import org.bndly.rest.api.ResourceURI;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -149,5 +152,64 @@ public class CacheEntryTest {
 			long l = dataIs.getLength();
 			Assert.assertEquals(l, data.length());
 		}
+		
+		try(FileChannel channel = FileChannel.open(f, StandardOpenOption.READ)){
+			long offset = io.findDataOffset(channel);
+			Assert.assertTrue(offset > 0, "data offset could not be found");
+			Assert.assertTrue(io.isDataAtOffset(channel, offset, dataBytes.length));
+			Assert.assertFalse(io.isDataAtOffset(channel, offset, dataBytes.length + 1));
+			Assert.assertFalse(io.isDataAtOffset(channel, 512, dataBytes.length));
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			IOUtils.transfer(channel, offset, dataBytes.length, bos);
+			Assert.assertEquals(new String(bos.toByteArray(), "UTF-8"), data);
+		}
+	}
+
+	@Test
+	public void testCacheEntryIOWithETagCalculation() throws Exception {
+		CacheEntryIO io = new CacheEntryIO();
+		
+		Path f = Paths.get("target","testcacheentryioetag.tar");
+		Files.deleteIfExists(f);
+		f = Files.createFile(f);
+		
+		final String data = "Teststring";
+		final ReplayableInputStream dataStream = ReplayableInputStream.newInstance(data.getBytes("UTF-8"));
+		CacheEntryImpl cacheEntry = new CacheEntryImpl() {
+			@Override
+			public void close() throws Exception {
+			}
+		};
+		cacheEntry.setContentType("text/plain");
+		cacheEntry.setEncoding("UTF-8");
+		cacheEntry.setLastModified(new Date());
+		cacheEntry.setData(dataStream);
+		
+		String etag;
+		try(FileChannel channel = FileChannel.open(f, StandardOpenOption.WRITE)){
+			etag = io.serialize(cacheEntry, channel, new CacheEntryIO.ETagCalculator() {
+				@Override
+				public int getETagLength() {
+					return 10;
+				}
+
+				@Override
+				public String calculateETag(InputStream data) throws IOException {
+					// the payload is read by the calculator only
+					return IOUtils.readToString(data, "UTF-8").toUpperCase();
+				}
+			});
+		}
+		Assert.assertEquals(etag, "TESTSTRING");
+		
+		try(InputStream is = Files.newInputStream(f, StandardOpenOption.READ)){
+			CacheEntry entry = io.deserialize(is);
+			Assert.assertNotNull(entry);
+			Assert.assertEquals(entry.getETag(), etag);
+			Assert.assertEquals(entry.getContentType(), "text/plain");
+			Assert.assertEquals(entry.getContentLength(), Long.valueOf(data.length()));
+			Assert.assertEquals(IOUtils.readToString(entry.getData(), "UTF-8"), data);
+			entry.close();
+		}
 	}
 }
@@ -0,0 +1,135 @@
+package org.bndly.rest.cache;
+
+/*-
+ * #%L
+ * REST Cache
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.crypto.api.HashService;
+import org.bndly.common.data.io.ReplayableInputStream;
+import org.bndly.rest.api.ContentType;
+import org.bndly.rest.api.Context;
+import org.bndly.rest.cache.impl.CacheFillCoordinator;
+import org.bndly.rest.cache.impl.CacheHandlerImpl;
+import org.bndly.rest.cache.impl.CacheInterceptor;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class CacheFillCoordinatorTest {
+
+	@Test
+	public void testOnlyOneFillPerPath() {
+		CacheFillCoordinator coordinator = new CacheFillCoordinator(100);
+		Path a = Paths.get("target", "fill", "a.json.tar");
+		CacheFillCoordinator.Fill fill = coordinator.tryStart(a);
+		Assert.assertNotNull(fill);
+		Assert.assertNull(coordinator.tryStart(Paths.get("target", "fill", "..", "fill", "a.json.tar")));
+		Assert.assertNotNull(coordinator.tryStart(Paths.get("target", "fill", "a.xml.tar")));
+		Assert.assertSame(coordinator.getRunningFill(a), fill);
+
+		fill.release();
+		Assert.assertTrue(fill.isReleased());
+		Assert.assertNull(coordinator.getRunningFill(a));
+		// releasing twice does not remove a fill, that has been started afterwards
+		CacheFillCoordinator.Fill nextFill = coordinator.tryStart(a);
+		Assert.assertNotNull(nextFill);
+		fill.release();
+		Assert.assertSame(coordinator.getRunningFill(a), nextFill);
+	}
+
+	@Test
+	public void testWaitingRequestsAreReleased() throws InterruptedException {
+		CacheFillCoordinator coordinator = new CacheFillCoordinator(10000);
+		Path a = Paths.get("target", "fill", "b.json.tar");
+		final CacheFillCoordinator.Fill fill = coordinator.tryStart(a);
+		final CacheFillCoordinator.Fill runningFill = coordinator.getRunningFill(a);
+		final CountDownLatch done = new CountDownLatch(1);
+		final AtomicBoolean releasedInTime = new AtomicBoolean();
+		Thread waiter = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				releasedInTime.set(runningFill.await());
+				done.countDown();
+			}
+		});
+		waiter.start();
+		fill.release();
+		Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue(releasedInTime.get());
+	}
+
+	@Test
+	public void testWaitingTimesOut() {
+		CacheFillCoordinator coordinator = new CacheFillCoordinator(10);
+		Path a = Paths.get("target", "fill", "c.json.tar");
+		coordinator.tryStart(a);
+		Assert.assertFalse(coordinator.getRunningFill(a).await());
+	}
+
+	@Test
+	public void testWaitingRequestIsServedFromEntryStoredUnderOutputContentType() throws Exception {
+		Path cacheRoot = Paths.get("target", "fillcache");
+		Files.createDirectories(cacheRoot);
+		Files.deleteIfExists(cacheRoot.resolve("fill").resolve("a").resolve("xml.tar"));
+		CacheInterceptor interceptor = new CacheInterceptor();
+		interceptor.setCacheRoot(cacheRoot.toString());
+		interceptor.setCacheFillCoordinator(new CacheFillCoordinator(10000));
+		// the request asks for json, but the resource negotiates xml as the output content type
+		final Context context = CacheHandlerStubs.createContext(ContentType.JSON, ContentType.XML, "fill", "a");
+		HashService hashService = CacheHandlerStubs.createHashService();
+
+		CacheHandlerImpl filler = new CacheHandlerImpl(interceptor, hashService);
+		Assert.assertFalse(filler.canBeServedFromCache(context));
+
+		final CacheHandlerImpl waiter = new CacheHandlerImpl(interceptor, hashService);
+		final AtomicBoolean servedFromCache = new AtomicBoolean();
+		final CountDownLatch done = new CountDownLatch(1);
+		Thread waitingThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				servedFromCache.set(waiter.canBeServedFromCache(context));
+				done.countDown();
+			}
+		});
+		waitingThread.start();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (waitingThread.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		Assert.assertEquals(waitingThread.getState(), Thread.State.TIMED_WAITING);
+
+		filler.saveCacheData(ReplayableInputStream.newInstance("<a/>".getBytes(StandardCharsets.UTF_8)), context);
+		filler.close();
+		// the waiter is woken up by the fill and does not wait for the coalescing timeout
+		Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue(servedFromCache.get());
+		Assert.assertTrue(Files.isRegularFile(cacheRoot.resolve("fill").resolve("a").resolve("xml.tar")));
+		waiter.close();
+	}
+}
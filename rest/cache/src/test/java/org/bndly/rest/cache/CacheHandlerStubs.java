@@ -0,0 +1,103 @@
+package org.bndly.rest.cache;
+
+/*-
+ * #%L
+ * REST Cache
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.crypto.api.HashService;
+import org.bndly.common.crypto.api.SaltedHashResult;
+import org.bndly.rest.api.ByteServingContext;
+import org.bndly.rest.api.CacheContext;
+import org.bndly.rest.api.ContentType;
+import org.bndly.rest.api.Context;
+import org.bndly.rest.api.HTTPMethod;
+import org.bndly.rest.api.ResourceURI;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stand-ins for the request context and the hash service, that are required to drive a cache handler in a test.
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class CacheHandlerStubs {
+
+	private CacheHandlerStubs() {
+	}
+
+	static Context createContext(ContentType desiredContentType, ContentType outputContentType, String... path) {
+		return createContext(Collections.<String, Object>emptyMap(), desiredContentType, outputContentType, path);
+	}
+
+	static Context createContext(Map<String, Object> cacheContextValues, ContentType desiredContentType, ContentType outputContentType, String... path) {
+		Map<String, Object> uriValues = new HashMap<>();
+		uriValues.put("getPath", stub(ResourceURI.Path.class, Collections.<String, Object>singletonMap("iterator", Arrays.asList(path))));
+		Map<String, Object> contextValues = new HashMap<>();
+		contextValues.put("getCacheContext", stub(CacheContext.class, cacheContextValues));
+		contextValues.put("getByteServingContext", stub(ByteServingContext.class, Collections.<String, Object>emptyMap()));
+		contextValues.put("getMethod", HTTPMethod.GET);
+		contextValues.put("getURI", stub(ResourceURI.class, uriValues));
+		contextValues.put("getDesiredContentType", desiredContentType);
+		contextValues.put("getDesiredContentTypes", Collections.emptyList());
+		contextValues.put("getOutputContentType", outputContentType);
+		return stub(Context.class, contextValues);
+	}
+
+	static HashService createHashService() {
+		return (HashService) Proxy.newProxyInstance(HashService.class.getClassLoader(), new Class[]{HashService.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				InputStream inputStream = (InputStream) args[0];
+				byte[] buffer = new byte[1024];
+				int i;
+				while ((i = inputStream.read(buffer)) > -1) {
+					digest.update(buffer, 0, i);
+				}
+				Map<String, Object> result = new HashMap<>();
+				result.put("getHashBase64", Base64.getEncoder().encodeToString(digest.digest()));
+				return stub(SaltedHashResult.class, result);
+			}
+		});
+	}
+
+	static <T> T stub(Class<T> type, final Map<String, Object> values) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				Object value = values.get(method.getName());
+				if ("iterator".equals(method.getName()) && value != null) {
+					return ((Iterable) value).iterator();
+				}
+				if (value == null && method.getReturnType() == boolean.class) {
+					return false;
+				}
+				return value;
+			}
+		}));
+	}
+}
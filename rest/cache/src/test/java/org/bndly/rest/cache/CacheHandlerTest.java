@@ -0,0 +1,120 @@
+package org.bndly.rest.cache;
+
+/*-
+ * #%L
+ * REST Cache
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.crypto.api.HashService;
+import org.bndly.common.data.io.ReplayableInputStream;
+import org.bndly.rest.api.ContentType;
+import org.bndly.rest.api.Context;
+import org.bndly.rest.cache.api.CacheTransaction;
+import org.bndly.rest.cache.impl.CacheHandlerImpl;
+import org.bndly.rest.cache.impl.CacheInterceptor;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class CacheHandlerTest {
+
+	private CacheInterceptor interceptor;
+	private HashService hashService;
+	private Context context;
+	private Path cacheFile;
+
+	@BeforeMethod
+	public void before() throws Exception {
+		Path cacheRoot = Paths.get("target", "handlercache");
+		cacheFile = cacheRoot.resolve("handler").resolve("a").resolve("json.tar");
+		Files.createDirectories(cacheRoot);
+		Files.deleteIfExists(cacheFile);
+		interceptor = new CacheInterceptor();
+		interceptor.setCacheRoot(cacheRoot.toString());
+		hashService = CacheHandlerStubs.createHashService();
+		context = CacheHandlerStubs.createContext(ContentType.JSON, ContentType.JSON, "handler", "a");
+
+		CacheHandlerImpl filler = new CacheHandlerImpl(interceptor, hashService);
+		Assert.assertFalse(filler.canBeServedFromCache(context));
+		filler.saveCacheData(ReplayableInputStream.newInstance("{}".getBytes(StandardCharsets.UTF_8)), context);
+		filler.close();
+		Assert.assertTrue(Files.isRegularFile(cacheFile));
+		Assert.assertNotNull(interceptor.getCacheEntryIndex().getMetaData(cacheFile));
+	}
+
+	@Test
+	public void testIndexedEntryIsServed() throws Exception {
+		CacheHandlerImpl handler = new CacheHandlerImpl(interceptor, hashService);
+		Assert.assertTrue(handler.canBeServedFromCache(context));
+		handler.close();
+	}
+
+	@Test
+	public void testIndexedEntryOfDeletedFileIsNotServed() throws Exception {
+		// the file is removed without telling the index
+		Files.delete(cacheFile);
+
+		CacheHandlerImpl handler = new CacheHandlerImpl(interceptor, hashService);
+		Assert.assertFalse(handler.canBeServedFromCache(context));
+		handler.close();
+		Assert.assertNull(interceptor.getCacheEntryIndex().getMetaData(cacheFile));
+	}
+
+	@Test
+	public void testConditionalRequestIsAnsweredFromIndex() throws Exception {
+		String etag = interceptor.getCacheEntryIndex().getMetaData(cacheFile).getETag();
+		// the file is removed without telling the index. the conditional request does not touch the disk.
+		Files.delete(cacheFile);
+
+		Context conditionalContext = CacheHandlerStubs.createContext(
+				Collections.<String, Object>singletonMap("getETag", etag), ContentType.JSON, ContentType.JSON, "handler", "a"
+		);
+		CacheHandlerImpl handler = new CacheHandlerImpl(interceptor, hashService);
+		Assert.assertTrue(handler.canBeServedFromCache(conditionalContext));
+		handler.close();
+		Assert.assertNotNull(interceptor.getCacheEntryIndex().getMetaData(cacheFile));
+
+		// a request for the body detects the deleted file
+		handler = new CacheHandlerImpl(interceptor, hashService);
+		Assert.assertFalse(handler.canBeServedFromCache(context));
+		handler.close();
+		Assert.assertNull(interceptor.getCacheEntryIndex().getMetaData(cacheFile));
+	}
+
+	@Test
+	public void testFlushEverythingRemovesIndexedEntries() throws Exception {
+		try (CacheTransaction cacheTransaction = interceptor.createCacheTransaction()) {
+			cacheTransaction.flush();
+		}
+		Assert.assertFalse(Files.exists(cacheFile));
+		Assert.assertNull(interceptor.getCacheEntryIndex().getMetaData(cacheFile));
+
+		CacheHandlerImpl handler = new CacheHandlerImpl(interceptor, hashService);
+		Assert.assertFalse(handler.canBeServedFromCache(context));
+		handler.close();
+	}
+}
@@ -0,0 +1,122 @@
+package org.bndly.rest.cache;
+
+/*-
+ * #%L
+ * REST Cache
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.crypto.api.HashService;
+import org.bndly.common.data.io.ReplayableInputStream;
+import org.bndly.rest.api.ContentType;
+import org.bndly.rest.api.Context;
+import org.bndly.rest.cache.api.CacheTransaction;
+import org.bndly.rest.cache.impl.CacheEntryIndex;
+import org.bndly.rest.cache.impl.CacheHandlerImpl;
+import org.bndly.rest.cache.impl.CacheInterceptor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.osgi.framework.BundleContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class StaleWhileRevalidateTest {
+
+	private static CacheInterceptor.Configuration createConfiguration(Path cacheRoot, boolean staleWhileRevalidate, boolean coalesceMisses) {
+		final Map<String, Object> values = new HashMap<>();
+		values.put("cacheRoot", cacheRoot.toString());
+		values.put("staleWhileRevalidate", staleWhileRevalidate);
+		values.put("coalesceMisses", coalesceMisses);
+		return (CacheInterceptor.Configuration) Proxy.newProxyInstance(
+				CacheInterceptor.Configuration.class.getClassLoader(), new Class[]{CacheInterceptor.Configuration.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				Object value = values.get(method.getName());
+				return value == null ? method.getDefaultValue() : value;
+			}
+		});
+	}
+
+	private static CacheInterceptor createInterceptor(Path cacheRoot, boolean staleWhileRevalidate, boolean coalesceMisses) {
+		CacheInterceptor interceptor = new CacheInterceptor();
+		interceptor.activate(
+				createConfiguration(cacheRoot, staleWhileRevalidate, coalesceMisses), 
+				CacheHandlerStubs.stub(BundleContext.class, Collections.<String, Object>emptyMap())
+		);
+		return interceptor;
+	}
+
+	@Test
+	public void testFlushedEntryIsServedWithoutConfiguredCoalescing() throws Exception {
+		Path cacheRoot = Paths.get("target", "swrcache");
+		Path cacheFile = cacheRoot.resolve("swr").resolve("a").resolve("json.tar");
+		Files.createDirectories(cacheRoot);
+		Files.deleteIfExists(cacheFile);
+		CacheInterceptor interceptor = createInterceptor(cacheRoot, true, false);
+		// stale entries are only served while another request rebuilds them. hence misses are coalesced implicitly.
+		Assert.assertNotNull(interceptor.getCacheFillCoordinator());
+		CacheEntryIndex cacheEntryIndex = interceptor.getCacheEntryIndex();
+		Assert.assertTrue(cacheEntryIndex.isRetainingStaleBodies());
+
+		HashService hashService = CacheHandlerStubs.createHashService();
+		Context context = CacheHandlerStubs.createContext(ContentType.JSON, ContentType.JSON, "swr", "a");
+		CacheHandlerImpl filler = new CacheHandlerImpl(interceptor, hashService);
+		Assert.assertFalse(filler.canBeServedFromCache(context));
+		byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+		filler.saveCacheData(ReplayableInputStream.newInstance(body), context);
+		filler.close();
+		// the body is kept in memory, as if it had been served before
+		cacheEntryIndex.putBody(cacheFile, body, cacheEntryIndex.getGeneration());
+		Assert.assertNotNull(cacheEntryIndex.getBody(cacheFile));
+
+		try (CacheTransaction cacheTransaction = interceptor.createCacheTransaction()) {
+			cacheTransaction.flush("swr/a/json.tar");
+		}
+		Assert.assertFalse(Files.exists(cacheFile));
+		Assert.assertNotNull(cacheEntryIndex.getStaleEntry(cacheFile));
+
+		CacheHandlerImpl rebuilder = new CacheHandlerImpl(interceptor, hashService);
+		Assert.assertFalse(rebuilder.canBeServedFromCache(context));
+		CacheHandlerImpl staleReader = new CacheHandlerImpl(interceptor, hashService);
+		Assert.assertTrue(staleReader.canBeServedFromCache(context));
+		staleReader.close();
+		rebuilder.close();
+	}
+
+	@Test
+	public void testStaleBodiesAreNotRetainedWithoutStaleWhileRevalidate() {
+		CacheInterceptor interceptor = createInterceptor(Paths.get("target", "swrcache"), false, false);
+		Assert.assertNull(interceptor.getCacheFillCoordinator());
+		Assert.assertFalse(interceptor.getCacheEntryIndex().isRetainingStaleBodies());
+
+		interceptor = createInterceptor(Paths.get("target", "swrcache"), false, true);
+		Assert.assertNotNull(interceptor.getCacheFillCoordinator());
+		Assert.assertFalse(interceptor.getCacheEntryIndex().isRetainingStaleBodies());
+	}
+}
@@ -23,6 +23,7 @@ package org.bndly.rest.entity.resources;
 import org.bndly.common.mapper.ComplexTypeDetector;
 import org.bndly.common.mapper.MappingContextKey;
 import org.bndly.common.mapper.MappingContextKeyBuilder;
+import org.bndly.schema.beans.AbstractSchemaBean;
 import org.bndly.schema.beans.ActiveRecord;
 import org.bndly.schema.beans.SchemaBeanInvocationHandler;
 import org.bndly.schema.model.Type;
@@ -51,6 +52,8 @@ public class MappingContextKeyBuilderImpl implements MappingContextKeyBuilder {
 					Type t = SchemaBeanInvocationHandler.class.cast(ih).getRecord().getType();
 					typeName = t.getName();
 				}
+			} else if (AbstractSchemaBean.class.isInstance(source)) {
+				typeName = AbstractSchemaBean.class.cast(source).getBackingRecord().getType().getName();
 			}
 			id = ar.getId();
 		}
@@ -34,7 +34,6 @@ import org.bndly.rest.atomlink.api.Fragment;
 import org.bndly.rest.atomlink.api.LinkFactory;
 import org.bndly.rest.atomlink.api.VariableFragment;
 import org.bndly.rest.atomlink.api.annotation.AtomLink;
-import org.bndly.rest.atomlink.api.annotation.AtomLinkDescription;
 import org.bndly.rest.atomlink.api.annotation.BeanID;
 import org.bndly.rest.atomlink.api.annotation.CompiledAtomLinkDescription;
 import org.bndly.rest.atomlink.api.annotation.Parameter;
@@ -47,15 +46,16 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import javax.el.ELContext;
+import java.util.Set;
 import javax.el.ExpressionFactory;
 import javax.el.PropertyNotFoundException;
-import javax.el.ValueExpression;
 
 /**
  *
@@ -68,6 +68,13 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 	private final ContextProvider contextProvider;
 	private final ConverterRegistry converterRegistry;
 	private final BeanIdGetter beanIdGetter;
+	// the expressions and the path template are compiled once, when the controller is deployed
+	private final LinkExpression constraintExpression;
+	private final String pathTemplate;
+	private final Set<String> pathParameterNames;
+	private final Map<String, LinkExpression> pathParameterExpressions;
+	private final Map<String, LinkExpression> queryParameterExpressions;
+	private final Map<String, LinkExpression> parameterExpressions;
 
 	public AtomLinkDescriptionLinkFactory(CompiledAtomLinkDescription atomLinkDescription, ContextProvider contextProvider, ConverterRegistry converterRegistry) {
 		this.atomLinkDescription = atomLinkDescription;
@@ -83,6 +90,57 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 			throw new IllegalArgumentException("converterRegistry is not allowed to be null");
 		}
 		beanIdGetter = createBeanIdGetter(atomLinkDescription.getLinkedInClass());
+		String constraint = atomLinkDescription.getConstraint();
+		constraintExpression = constraint == null || constraint.isEmpty() ? null : LinkExpression.compile(constraint);
+		pathTemplate = createPathTemplate(atomLinkDescription);
+		pathParameterNames = new HashSet<>();
+		List<PathParameter> pathParams = atomLinkDescription.getPathParams();
+		if (pathParams != null) {
+			for (PathParameter pathParam : pathParams) {
+				pathParameterNames.add(pathParam.getName());
+			}
+		}
+		pathParameterExpressions = new HashMap<>();
+		parameterExpressions = new HashMap<>();
+		for (Parameter parameter : atomLinkDescription.getAtomLink().parameters()) {
+			if (pathParameterNames.contains(parameter.name())) {
+				if (!pathParameterExpressions.containsKey(parameter.name())) {
+					pathParameterExpressions.put(parameter.name(), LinkExpression.compile(parameter.expression()));
+				}
+			} else if (!parameterExpressions.containsKey(parameter.name())) {
+				String expression = parameter.expression();
+				if ("".equals(expression)) {
+					expression = "${" + parameter.name() + "}";
+				}
+				parameterExpressions.put(parameter.name(), LinkExpression.compile(expression));
+			}
+		}
+		queryParameterExpressions = new HashMap<>();
+		for (QueryParameter queryParam : atomLinkDescription.getQueryParams()) {
+			String expression = buildElExpressionForVariable(queryParam.getName(), atomLinkDescription.getAtomLink());
+			queryParameterExpressions.put(queryParam.getName(), LinkExpression.compile(expression));
+		}
+	}
+
+	private static String createPathTemplate(CompiledAtomLinkDescription binding) {
+		StringBuffer sb = new StringBuffer();
+		String segString = binding.getSegment();
+		if (segString != null && !"".equals(segString)) {
+			if (!segString.startsWith("/")) {
+				sb.append('/');
+			}
+			sb.append(segString);
+		}
+		Class<?> resource = binding.getControllerMethod().getDeclaringClass();
+		if (resource.isAnnotationPresent(Path.class)) {
+			Path p = resource.getAnnotation(Path.class);
+			appendPathAnnotationToPathElements(p, sb);
+		}
+		Method method = binding.getControllerMethod();
+		if (method.isAnnotationPresent(Path.class)) {
+			appendPathAnnotationToPathElements(method.getAnnotation(Path.class), sb);
+		}
+		return sb.toString();
 	}
 
 	public final CompiledAtomLinkDescription getAtomLinkDescription() {
@@ -104,20 +162,8 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 		Context ctx = contextProvider.getCurrentContext();
 		if (ctx != null) {
 			List<AtomLinkBean> links = new ArrayList<>();
-			ELContext elContext;
-			if (targetBean != null) {
-				elContext = ELUtil.createELContext(targetBean, targetBean.getClass(), EXPRESSION_FACTORY, ctx);
-			} else {
-				elContext = ELUtil.createELContext(EXPRESSION_FACTORY);
-			}
-			ValueExpression atomLinkDescriptionExpression = EXPRESSION_FACTORY.createValueExpression(atomLinkDescription, AtomLinkDescription.class);
-			elContext.getVariableMapper().setVariable("linkDescription", atomLinkDescriptionExpression);
-			Object controller = atomLinkDescription.getController();
-			if (controller != null) {
-				ValueExpression controllerExpression = EXPRESSION_FACTORY.createValueExpression(controller, controller.getClass());
-				elContext.getVariableMapper().setVariable("controller", controllerExpression);
-			}
-			AtomLinkBean link = processLinkResource(atomLinkDescription, targetBean, ctx, isMessageRoot, false, elContext);
+			LinkEvaluation evaluation = new LinkEvaluation(atomLinkDescription, targetBean, ctx, EXPRESSION_FACTORY);
+			AtomLinkBean link = processLinkResource(atomLinkDescription, targetBean, ctx, isMessageRoot, false, evaluation);
 			if (link != null) {
 				links.add(link);
 			}
@@ -131,21 +177,26 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 		return buildLinks(null, true);
 	}
 
-	private AtomLinkBean processLinkResource(CompiledAtomLinkDescription binding, Object entity, Context context, boolean isRoot, boolean failOnServiceDiscoveryException, ELContext elContext) {
-		boolean c = checkConstraint(binding, elContext);
+	private AtomLinkBean processLinkResource(
+			CompiledAtomLinkDescription binding, 
+			Object entity, 
+			Context context, 
+			boolean isRoot, 
+			boolean failOnServiceDiscoveryException, 
+			LinkEvaluation evaluation
+	) {
+		boolean c = checkConstraint(evaluation);
 		if (c) {
-			return addInstanceService(binding, entity, context, isRoot, failOnServiceDiscoveryException, elContext);
+			return addInstanceService(binding, entity, context, isRoot, failOnServiceDiscoveryException, evaluation);
 		}
 		return null;
 	}
 
-	private boolean checkConstraint(AtomLinkDescription binding, ELContext elContext) {
-		String constraint = binding.getConstraint();
-		Method m = binding.getControllerMethod();
-		if (constraint == null || constraint.length() == 0) {
+	private boolean checkConstraint(LinkEvaluation evaluation) {
+		if (constraintExpression == null) {
 			return true;
 		}
-		Boolean ret = ELUtil.evaluateELBoolean(m, elContext, constraint, EXPRESSION_FACTORY);
+		Boolean ret = constraintExpression.evaluateBoolean(evaluation);
 		return ret != null && ret;
 	}
 
@@ -155,13 +206,13 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 			Context context, 
 			boolean isRoot, 
 			boolean failOnServiceDiscoveryException, 
-			ELContext elContext
+			LinkEvaluation evaluation
 	) {
 		Method m = binding.getControllerMethod();
 		ResourceURIBuilder uriBuilder = context.createURIBuilder();
 		try {
 			try {
-				String uri = buildURI(uriBuilder, context, binding, entity, m, isRoot, elContext);
+				String uri = buildURI(uriBuilder, context, binding, entity, m, isRoot, evaluation);
 				if (uri != null) {
 					return createAtomLinkBean(uri);
 				}
@@ -187,37 +238,19 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 			Object entity, 
 			Method m, 
 			boolean isRoot, 
-			ELContext elContext
+			LinkEvaluation evaluation
 	) throws ConversionException {
 		String uriTemplate = binding.getUriTemplate();
 
 		// collect all BeanID values of the entity in "parent-to-child"-order
 		List<Object> beanIds = collectBeanIdsFromEntity(entity);
 
-		StringBuffer sb = new StringBuffer();
-		String segString = binding.getSegment();
-		if (segString != null && !"".equals(segString)) {
-			if (!segString.startsWith("/")) {
-				sb.append('/');
-			}
-			sb.append(segString);
-		}
-		Class<?> resource = binding.getControllerMethod().getDeclaringClass();
-		if (resource.isAnnotationPresent(Path.class)) {
-			Path p = resource.getAnnotation(Path.class);
-			appendPathAnnotationToPathElements(p, sb);
-		}
-		Method method = binding.getControllerMethod();
-		if (method.isAnnotationPresent(Path.class)) {
-			appendPathAnnotationToPathElements(method.getAnnotation(Path.class), sb);
-		}
-
-		ResourceURI templateURI = context.parseURI(sb.toString());
+		ResourceURI templateURI = context.parseURI(pathTemplate);
 		List<QueryParameter> queryParams = binding.getQueryParams();
 		Map<String, QueryParameterAppender> queryParameterApppenders = new LinkedHashMap<>();
 		reappendUsedQueryParameters(binding, isRoot, context, queryParameterApppenders);
-		resolveQueryParameterValues(queryParams, binding, queryParameterApppenders, m, elContext);
-		resolveParameterAnnotationValues(binding, m, elContext, queryParameterApppenders);
+		resolveQueryParameterValues(queryParams, queryParameterApppenders, evaluation);
+		resolveParameterAnnotationValues(binding, evaluation, queryParameterApppenders);
 
 		ResourceURI.Extension ext = templateURI.getExtension();
 		ContentType desiredContentType = binding.isContextExtensionEnabled() ? context.getDesiredContentType() : null;
@@ -244,12 +277,12 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 			if (VariableFragment.class.isInstance(fragment)) {
 				VariableFragment varFragment = VariableFragment.class.cast(fragment);
 				String varName = varFragment.getVariableName();
-				if (isPathParameter(varName, binding)) {
+				if (pathParameterNames.contains(varName)) {
 					Object value = null;
-					Parameter parameter = getParameterForVariable(varName, binding.getAtomLink());
-					if (parameter != null) {
-						String expression = parameter.expression();
-						value = ELUtil.evaluateEL(m, elContext, expression, EXPRESSION_FACTORY);
+					LinkExpression parameterExpression = pathParameterExpressions.get(varName);
+					if (parameterExpression != null) {
+						String expression = parameterExpression.getExpression();
+						value = parameterExpression.evaluate(evaluation);
 						if (value == null) {
 							throw new ServiceDiscoveryException(
 									binding.getControllerMethod(), 
@@ -311,29 +344,21 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 
 	private void resolveQueryParameterValues(
 			List<QueryParameter> queryParams, 
-			CompiledAtomLinkDescription binding, 
 			Map<String, QueryParameterAppender> queryParameterApppenders, 
-			Method m, 
-			ELContext elContext
+			LinkEvaluation evaluation
 	) throws ServiceDiscoveryException {
 		for (final QueryParameter queryParam : queryParams) {
 			String varName = queryParam.getName();
 			Object value = null;
-			Parameter parameterAnnotation = getParameterForVariable(varName, binding.getAtomLink());
-			if (parameterAnnotation == null) {
-				String expression = buildElExpressionForVariable(varName, binding.getAtomLink());
-				try {
-					value = ELUtil.evaluateEL(m, elContext, expression, EXPRESSION_FACTORY);
-				} catch (PropertyNotFoundException e) {
-					// this is not too bad. 
-				}
-			} else {
-				String expression = parameterAnnotation.expression();
-				try {
-					value = ELUtil.evaluateEL(m, elContext, expression, EXPRESSION_FACTORY);
-				} catch (PropertyNotFoundException e) {
-					// this is not too bad. 
-				}
+			LinkExpression expression = queryParameterExpressions.get(varName);
+			if (expression == null) {
+				// the query parameter has been added after the link factory was created
+				expression = LinkExpression.compile(buildElExpressionForVariable(varName, atomLinkDescription.getAtomLink()));
+			}
+			try {
+				value = expression.evaluate(evaluation);
+			} catch (PropertyNotFoundException e) {
+				// this is not too bad. 
 			}
 			if (value != null) {
 				final String _val = value.toString();
@@ -352,16 +377,12 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 		}
 	}
 
-	private void resolveParameterAnnotationValues(CompiledAtomLinkDescription binding, Method m, ELContext elContext, Map<String, QueryParameterAppender> queryParameterApppenders) {
+	private void resolveParameterAnnotationValues(CompiledAtomLinkDescription binding, LinkEvaluation evaluation, Map<String, QueryParameterAppender> queryParameterApppenders) {
 		Parameter[] parameters = binding.getAtomLink().parameters();
 		for (Parameter parameter : parameters) {
 			String parameterName = parameter.name();
-			if (!queryParameterApppenders.containsKey(parameterName) && !isPathParameter(parameterName, binding)) {
-				String expression = parameter.expression();
-				if ("".equals(expression)) {
-					expression = "${" + parameterName + "}";
-				}
-				final Object parameterValue = ELUtil.evaluateEL(m, elContext, expression, EXPRESSION_FACTORY);
+			if (!queryParameterApppenders.containsKey(parameterName) && !pathParameterNames.contains(parameterName)) {
+				final Object parameterValue = parameterExpressions.get(parameterName).evaluate(evaluation);
 				if (parameterValue != null) {
 
 					QueryParameter qp = binding.getQueryParamsByName().get(parameterName);
@@ -441,7 +462,7 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 		}
 	}
 
-	private void appendPathAnnotationToPathElements(Path p, StringBuffer pathBuffer) {
+	private static void appendPathAnnotationToPathElements(Path p, StringBuffer pathBuffer) {
 		String v = p.value();
 		if ("".equals(v)) {
 			return;
@@ -452,18 +473,6 @@ public final class AtomLinkDescriptionLinkFactory implements LinkFactory {
 		pathBuffer.append(v);
 	}
 
-	private boolean isPathParameter(String fragment, AtomLinkDescription binding) {
-		List<PathParameter> params = binding.getPathParams();
-		if (params != null) {
-			for (PathParameter pathParam : params) {
-				if (pathParam.getName().equals(fragment)) {
-					return true;
-				}
-			}
-		}
-		return false;
-	}
-
 	private List<Object> collectBeanIdsFromEntity(Object entity) {
 		if (entity == null) {
 			return Collections.EMPTY_LIST;
@@ -25,6 +25,7 @@ import org.bndly.common.graph.NoOpGraphListener;
 import org.bndly.rest.atomlink.api.AtomLinkInjector;
 import org.bndly.rest.atomlink.impl.AtomLinkInjectingGraphListener.AtomLinkContext;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -74,6 +75,21 @@ public class AtomLinkInjectingGraphListener extends NoOpGraphListener<AtomLinkCo
 		}
 	}
 
+	@Override
+	public void beforeVisitReferenceCollection(Object value, Field field, Object bean, AtomLinkContext context) {
+		if (value == null) {
+			return;
+		}
+		List<Object> entities = new ArrayList<>();
+		for (Object object : (Collection<?>) value) {
+			if (object != null && context.handledBeans.add(object.hashCode())) {
+				entities.add(object);
+			}
+		}
+		// the entities of the collection receive their links in one pass
+		atomLinkInjector.addDiscoveries(entities, false);
+	}
+
 	@Override
 	public void beforeVisitReferenceInCollection(Object object, Collection c, Field field, Object bean, AtomLinkContext context) {
 		if (object != null) {
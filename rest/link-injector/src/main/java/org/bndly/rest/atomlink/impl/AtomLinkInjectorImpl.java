@@ -23,6 +23,7 @@ package org.bndly.rest.atomlink.impl;
 import org.bndly.common.converter.api.ConverterRegistry;
 import org.bndly.rest.api.Context;
 import org.bndly.rest.api.ContextProvider;
+import org.bndly.rest.api.RequestTimings;
 import org.bndly.rest.api.ResourceURI;
 import org.bndly.rest.atomlink.api.AtomLinkBean;
 import org.bndly.rest.atomlink.api.AtomLinkInjector;
@@ -437,6 +438,7 @@ public final class AtomLinkInjectorImpl implements TypeSupportingListableAtomLin
 		if (entity == null) {
 			return null;
 		}
+		long start = System.nanoTime();
 		rootNodeLock.readLock().lock();
 		try {
 			LinkFactoryTreeNode node = rootNode.findClosestNodeForType(entity.getClass());
@@ -446,6 +448,55 @@ public final class AtomLinkInjectorImpl implements TypeSupportingListableAtomLin
 			return entity;
 		} finally {
 			rootNodeLock.readLock().unlock();
+			recordLinkInjection(currentContext, start);
+		}
+	}
+	
+	@Override
+	public <T extends Iterable<?>> T addDiscoveries(T entities, boolean isRoot) {
+		if (entities == null) {
+			return null;
+		}
+		Context currentContext = contextProvider.getCurrentContext();
+		if (currentContext != null) {
+			ResourceURI.QueryParameter preventLinkInjection = currentContext.getURI().getParameter(PREVENT_LINK_INJECTION_PARAM);
+			if (preventLinkInjection != null) {
+				return entities;
+			}
+		}
+		long start = System.nanoTime();
+		rootNodeLock.readLock().lock();
+		try {
+			// the entities of a collection usually share very few types
+			Map<Class<?>, LinkFactoryTreeNode> nodesByType = new HashMap<>();
+			for (Object entity : entities) {
+				if (entity == null) {
+					continue;
+				}
+				LinkFactoryTreeNode node;
+				if (nodesByType.containsKey(entity.getClass())) {
+					node = nodesByType.get(entity.getClass());
+				} else {
+					node = rootNode.findClosestNodeForType(entity.getClass());
+					nodesByType.put(entity.getClass(), node);
+				}
+				if (node != null) {
+					node.injectInto(entity, isRoot);
+				}
+			}
+			return entities;
+		} finally {
+			rootNodeLock.readLock().unlock();
+			recordLinkInjection(currentContext, start);
+		}
+	}
+
+	private static void recordLinkInjection(Context currentContext, long start) {
+		if (currentContext != null) {
+			RequestTimings timings = currentContext.getRequestTimings();
+			if (timings != null) {
+				timings.stop(RequestTimings.Stage.LINK_INJECTION, start);
+			}
 		}
 	}
 	
@@ -0,0 +1,119 @@
+package org.bndly.rest.atomlink.impl;
+
+/*-
+ * #%L
+ * REST Link Injector
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.rest.api.Context;
+import org.bndly.rest.atomlink.api.annotation.AtomLinkDescription;
+import org.bndly.rest.atomlink.api.annotation.CompiledAtomLinkDescription;
+import java.lang.reflect.Method;
+import javax.el.ELContext;
+import javax.el.ExpressionFactory;
+import javax.el.ValueExpression;
+
+/**
+ * The state, that is required to evaluate the expressions of an atom link description for a single target bean. The 
+ * EL context is only created, if an expression can not be evaluated with the precompiled property accessors.
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class LinkEvaluation {
+
+	private final CompiledAtomLinkDescription atomLinkDescription;
+	private final Object targetBean;
+	private final Context context;
+	private final ExpressionFactory expressionFactory;
+	private ELContext elContext;
+
+	public LinkEvaluation(CompiledAtomLinkDescription atomLinkDescription, Object targetBean, Context context, ExpressionFactory expressionFactory) {
+		if (atomLinkDescription == null) {
+			throw new IllegalArgumentException("atomLinkDescription is not allowed to be null");
+		}
+		this.atomLinkDescription = atomLinkDescription;
+		this.targetBean = targetBean;
+		this.context = context;
+		if (expressionFactory == null) {
+			throw new IllegalArgumentException("expressionFactory is not allowed to be null");
+		}
+		this.expressionFactory = expressionFactory;
+	}
+
+	public Method getControllerMethod() {
+		return atomLinkDescription.getControllerMethod();
+	}
+
+	public ExpressionFactory getExpressionFactory() {
+		return expressionFactory;
+	}
+
+	/**
+	 * Looks up the value of a root identifier of an expression. The available identifiers are the same as in the EL 
+	 * context: <code>this</code>, <code>ctx</code>, <code>linkDescription</code> and <code>controller</code>.
+	 * @param name the name of the root identifier
+	 * @return true, if the root identifier is available
+	 */
+	boolean isRootAvailable(String name) {
+		switch (name) {
+			case "this":
+			case "ctx":
+				return targetBean != null;
+			case "linkDescription":
+				return true;
+			case "controller":
+				return atomLinkDescription.getController() != null;
+			default:
+				return false;
+		}
+	}
+
+	Object getRoot(String name) {
+		switch (name) {
+			case "this":
+				return targetBean;
+			case "ctx":
+				return context;
+			case "linkDescription":
+				return atomLinkDescription;
+			case "controller":
+				return atomLinkDescription.getController();
+			default:
+				return null;
+		}
+	}
+
+	public ELContext getELContext() {
+		if (elContext == null) {
+			ELContext c;
+			if (targetBean != null) {
+				c = ELUtil.createELContext(targetBean, targetBean.getClass(), expressionFactory, context);
+			} else {
+				c = ELUtil.createELContext(expressionFactory);
+			}
+			ValueExpression atomLinkDescriptionExpression = expressionFactory.createValueExpression(atomLinkDescription, AtomLinkDescription.class);
+			c.getVariableMapper().setVariable("linkDescription", atomLinkDescriptionExpression);
+			Object controller = atomLinkDescription.getController();
+			if (controller != null) {
+				ValueExpression controllerExpression = expressionFactory.createValueExpression(controller, controller.getClass());
+				c.getVariableMapper().setVariable("controller", controllerExpression);
+			}
+			elContext = c;
+		}
+		return elContext;
+	}
+}
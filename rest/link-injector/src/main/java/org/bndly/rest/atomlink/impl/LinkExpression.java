@@ -0,0 +1,339 @@
+package org.bndly.rest.atomlink.impl;
+
+/*-
+ * #%L
+ * REST Link Injector
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.beans.Introspector;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A link expression is an EL expression of an atom link description, that has been compiled once when the controller 
+ * was deployed. Literals and plain property paths such as <code>${this.id}</code> or 
+ * <code>${controller.schemaName}</code> are evaluated with cached getter methods. All other expressions and all 
+ * property paths, that can not be resolved with a public getter, are evaluated as EL expressions.
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public abstract class LinkExpression {
+
+	private static final Set<String> ROOT_IDENTIFIERS = new HashSet<>(Arrays.asList("this", "ctx", "linkDescription", "controller"));
+	private static final Set<String> RESERVED_WORDS = new HashSet<>(Arrays.asList(
+			"and", "or", "not", "eq", "ne", "lt", "gt", "le", "ge", "true", "false", "null", "instanceof", "empty", "div", "mod"
+	));
+	private static final Object UNRESOLVABLE = new Object();
+
+	private final String expression;
+
+	private LinkExpression(String expression) {
+		this.expression = expression;
+	}
+
+	public static LinkExpression compile(String expression) {
+		if (expression == null) {
+			throw new IllegalArgumentException("expression is not allowed to be null");
+		}
+		if (!expression.contains("${") && !expression.contains("#{") && expression.indexOf('\\') < 0) {
+			return new LiteralLinkExpression(expression);
+		}
+		if (expression.startsWith("${") && expression.endsWith("}")) {
+			String body = expression.substring(2, expression.length() - 1).trim();
+			if ("true".equals(body)) {
+				return new ConstantLinkExpression(expression, Boolean.TRUE);
+			} else if ("false".equals(body)) {
+				return new ConstantLinkExpression(expression, Boolean.FALSE);
+			}
+			String[] segments = body.split("\\.", -1);
+			if (ROOT_IDENTIFIERS.contains(segments[0]) && areIdentifiers(segments)) {
+				return new PropertyPathLinkExpression(expression, segments);
+			}
+		}
+		return new ELLinkExpression(expression);
+	}
+
+	private static boolean areIdentifiers(String[] segments) {
+		for (String segment : segments) {
+			if (segment.isEmpty() || RESERVED_WORDS.contains(segment) || !Character.isJavaIdentifierStart(segment.charAt(0))) {
+				return false;
+			}
+			for (int i = 1; i < segment.length(); i++) {
+				if (!Character.isJavaIdentifierPart(segment.charAt(i))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	public final String getExpression() {
+		return expression;
+	}
+
+	/**
+	 * Tells, if the expression can be evaluated without an EL context.
+	 * @return false, if the expression will always be evaluated as an EL expression
+	 */
+	public abstract boolean isCompiled();
+
+	/**
+	 * Evaluates the expression in the same way as {@link ELUtil#evaluateEL(java.lang.reflect.Method, javax.el.ELContext, java.lang.String, javax.el.ExpressionFactory)}.
+	 * @param evaluation the evaluation state of the current target bean
+	 * @return the value of the expression
+	 */
+	public abstract Object evaluate(LinkEvaluation evaluation);
+
+	/**
+	 * Evaluates the expression in the same way as {@link ELUtil#evaluateELBoolean(java.lang.reflect.Method, javax.el.ELContext, java.lang.String, javax.el.ExpressionFactory)}.
+	 * @param evaluation the evaluation state of the current target bean
+	 * @return the value of the expression coerced to a boolean
+	 */
+	public abstract Boolean evaluateBoolean(LinkEvaluation evaluation);
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+
+	private static Boolean coerceToBoolean(Object value) {
+		if (value == null) {
+			return Boolean.FALSE;
+		} else if (Boolean.class.isInstance(value)) {
+			return (Boolean) value;
+		} else if (String.class.isInstance(value)) {
+			return Boolean.valueOf((String) value);
+		}
+		return null;
+	}
+
+	private static final class LiteralLinkExpression extends LinkExpression {
+
+		public LiteralLinkExpression(String expression) {
+			super(expression);
+		}
+
+		@Override
+		public boolean isCompiled() {
+			return true;
+		}
+
+		@Override
+		public Object evaluate(LinkEvaluation evaluation) {
+			return getExpression();
+		}
+
+		@Override
+		public Boolean evaluateBoolean(LinkEvaluation evaluation) {
+			return coerceToBoolean(getExpression());
+		}
+	}
+
+	private static final class ConstantLinkExpression extends LinkExpression {
+
+		private final Boolean value;
+
+		public ConstantLinkExpression(String expression, Boolean value) {
+			super(expression);
+			this.value = value;
+		}
+
+		@Override
+		public boolean isCompiled() {
+			return true;
+		}
+
+		@Override
+		public Object evaluate(LinkEvaluation evaluation) {
+			return value;
+		}
+
+		@Override
+		public Boolean evaluateBoolean(LinkEvaluation evaluation) {
+			return value;
+		}
+	}
+
+	private static final class ELLinkExpression extends LinkExpression {
+
+		public ELLinkExpression(String expression) {
+			super(expression);
+		}
+
+		@Override
+		public boolean isCompiled() {
+			return false;
+		}
+
+		@Override
+		public Object evaluate(LinkEvaluation evaluation) {
+			return ELUtil.evaluateEL(evaluation.getControllerMethod(), evaluation.getELContext(), getExpression(), evaluation.getExpressionFactory());
+		}
+
+		@Override
+		public Boolean evaluateBoolean(LinkEvaluation evaluation) {
+			return ELUtil.evaluateELBoolean(evaluation.getControllerMethod(), evaluation.getELContext(), getExpression(), evaluation.getExpressionFactory());
+		}
+	}
+
+	private static final class PropertyPathLinkExpression extends LinkExpression {
+
+		private final String root;
+		private final PropertyAccessor[] accessors;
+		private final ELLinkExpression fallback;
+
+		public PropertyPathLinkExpression(String expression, String[] segments) {
+			super(expression);
+			this.root = segments[0];
+			this.accessors = new PropertyAccessor[segments.length - 1];
+			for (int i = 1; i < segments.length; i++) {
+				accessors[i - 1] = new PropertyAccessor(segments[i]);
+			}
+			this.fallback = new ELLinkExpression(expression);
+		}
+
+		@Override
+		public boolean isCompiled() {
+			return true;
+		}
+
+		@Override
+		public Object evaluate(LinkEvaluation evaluation) {
+			Object value = resolve(evaluation);
+			if (value == UNRESOLVABLE) {
+				return fallback.evaluate(evaluation);
+			}
+			return value;
+		}
+
+		@Override
+		public Boolean evaluateBoolean(LinkEvaluation evaluation) {
+			Object value = resolve(evaluation);
+			Boolean result = value == UNRESOLVABLE ? null : coerceToBoolean(value);
+			if (result == null) {
+				// let the EL implementation decide how to deal with values, that can not be coerced
+				return fallback.evaluateBoolean(evaluation);
+			}
+			return result;
+		}
+
+		private Object resolve(LinkEvaluation evaluation) {
+			if (!evaluation.isRootAvailable(root)) {
+				return UNRESOLVABLE;
+			}
+			Object current = evaluation.getRoot(root);
+			for (PropertyAccessor accessor : accessors) {
+				if (current == null) {
+					// EL resolves properties of null to null
+					return null;
+				}
+				try {
+					current = accessor.get(current);
+				} catch (InvocationTargetException e) {
+					throw new ServiceDiscoveryException(evaluation.getControllerMethod(), "Failed to evaluate EL expression: " + getExpression(), e.getTargetException());
+				}
+				if (current == UNRESOLVABLE) {
+					return UNRESOLVABLE;
+				}
+			}
+			return current;
+		}
+	}
+
+	private static final class PropertyAccessor {
+
+		private static final Object NO_GETTER = new Object();
+
+		private final String propertyName;
+		private final String getterSuffix;
+		private final ConcurrentMap<Class<?>, Object> gettersByType = new ConcurrentHashMap<>();
+
+		public PropertyAccessor(String propertyName) {
+			this.propertyName = propertyName;
+			this.getterSuffix = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+		}
+
+		public Object get(Object base) throws InvocationTargetException {
+			if (Map.class.isInstance(base)) {
+				return ((Map) base).get(propertyName);
+			}
+			if (List.class.isInstance(base) || base.getClass().isArray() || ResourceBundle.class.isInstance(base)) {
+				return UNRESOLVABLE;
+			}
+			Object getter = gettersByType.get(base.getClass());
+			if (getter == null) {
+				getter = findGetter(base.getClass());
+				gettersByType.putIfAbsent(base.getClass(), getter);
+			}
+			if (getter == NO_GETTER) {
+				return UNRESOLVABLE;
+			}
+			try {
+				return ((Method) getter).invoke(base);
+			} catch (IllegalAccessException e) {
+				return UNRESOLVABLE;
+			}
+		}
+
+		private Object findGetter(Class<?> type) {
+			if (!propertyName.equals(Introspector.decapitalize(getterSuffix))) {
+				// the bean introspection would derive a different property name from the getter
+				return NO_GETTER;
+			}
+			// the bean introspection prefers an is-getter of a boolean property
+			Method getter = findAccessibleMethod(type, "is" + getterSuffix);
+			if (getter == null || getter.getReturnType() != boolean.class) {
+				getter = findAccessibleMethod(type, "get" + getterSuffix);
+				if (getter != null && getter.getReturnType() == void.class) {
+					getter = null;
+				}
+			}
+			return getter == null ? NO_GETTER : getter;
+		}
+
+		private static Method findAccessibleMethod(Class<?> type, String methodName) {
+			if (type == null) {
+				return null;
+			}
+			if (Modifier.isPublic(type.getModifiers())) {
+				try {
+					Method method = type.getMethod(methodName);
+					return Modifier.isStatic(method.getModifiers()) ? null : method;
+				} catch (NoSuchMethodException e) {
+					return null;
+				}
+			}
+			// methods of non public classes have to be invoked through a public interface or super class
+			for (Class<?> interfaceType : type.getInterfaces()) {
+				Method method = findAccessibleMethod(interfaceType, methodName);
+				if (method != null) {
+					return method;
+				}
+			}
+			return findAccessibleMethod(type.getSuperclass(), methodName);
+		}
+	}
+}
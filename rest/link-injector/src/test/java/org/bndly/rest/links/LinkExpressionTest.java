@@ -0,0 +1,201 @@
+package org.bndly.rest.links;
+
+/*-
+ * #%L
+ * REST Link Injector
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.rest.atomlink.api.annotation.CompiledAtomLinkDescription;
+import org.bndly.rest.atomlink.impl.ELUtil;
+import org.bndly.rest.atomlink.impl.LinkEvaluation;
+import org.bndly.rest.atomlink.impl.LinkExpression;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import javax.el.ExpressionFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the compiled link expressions with the evaluation of the same expressions by the EL implementation.
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class LinkExpressionTest {
+
+	private final ExpressionFactory expressionFactory = ExpressionFactory.newInstance();
+	private final CompiledAtomLinkDescription atomLinkDescription = (CompiledAtomLinkDescription) Proxy.newProxyInstance(
+			CompiledAtomLinkDescription.class.getClassLoader(), new Class[]{CompiledAtomLinkDescription.class}, new InvocationHandler() {
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			return method.getReturnType() == boolean.class ? false : null;
+		}
+	});
+
+	public interface Named {
+		String getName();
+	}
+
+	public static class Bean {
+
+		private final Bean inner;
+		private final Map<String, Object> attributes = new HashMap<>();
+
+		public Bean(Bean inner) {
+			this.inner = inner;
+		}
+
+		public Bean getInner() {
+			return inner;
+		}
+
+		public Map<String, Object> getAttributes() {
+			return attributes;
+		}
+
+		public boolean isActive() {
+			return true;
+		}
+
+		public String getURL() {
+			return "url";
+		}
+
+		public Named getNamed() {
+			return new HiddenNamed();
+		}
+	}
+
+	private static class HiddenNamed implements Named {
+
+		@Override
+		public String getName() {
+			return "hidden";
+		}
+
+		public String getSecret() {
+			return "secret";
+		}
+	}
+
+	@Test
+	public void testLiterals() {
+		Bean bean = new Bean(null);
+		assertSameAsEL("abc", bean, "abc");
+		assertSameAsEL("", bean, "");
+		assertSameAsEL("true", bean, "true");
+		assertSameAsEL("false", bean, "false");
+	}
+
+	@Test
+	public void testBooleanConstants() {
+		Bean bean = new Bean(null);
+		assertSameAsEL("${true}", bean, Boolean.TRUE);
+		assertSameAsEL("${false}", bean, Boolean.FALSE);
+		assertSameAsEL("${ true }", bean, Boolean.TRUE);
+	}
+
+	@Test
+	public void testNullIntermediate() {
+		Bean bean = new Bean(null);
+		assertSameAsEL("${this.inner.inner}", bean, null);
+		assertSameAsEL("${this.inner.attributes}", bean, null);
+	}
+
+	@Test
+	public void testPropertyPath() {
+		Bean bean = new Bean(new Bean(null));
+		assertSameAsEL("${this.inner.active}", bean, Boolean.TRUE);
+		assertSameAsEL("${this.URL}", bean, "url");
+		// the bean introspection does not derive the property uRL from getURL
+		assertSameAsEL("${this.uRL}", bean);
+		assertSameAsEL("${this.missing}", bean);
+	}
+
+	@Test
+	public void testMapProperties() {
+		Bean bean = new Bean(null);
+		bean.getAttributes().put("a", "x");
+		bean.getAttributes().put("flag", Boolean.TRUE);
+		assertSameAsEL("${this.attributes.a}", bean, "x");
+		assertSameAsEL("${this.attributes.flag}", bean, Boolean.TRUE);
+		assertSameAsEL("${this.attributes.missing}", bean, null);
+	}
+
+	@Test
+	public void testGettersOfNonPublicClasses() {
+		Bean bean = new Bean(null);
+		// the getter is invoked through the public interface
+		assertSameAsEL("${this.named.name}", bean, "hidden");
+		// the getter is only declared by the non public class
+		assertSameAsEL("${this.named.secret}", bean);
+	}
+
+	private void assertSameAsEL(String expression, Object bean, Object expectedValue) {
+		Assert.assertEquals(evaluateCompiled(expression, bean), expectedValue, expression);
+		assertSameAsEL(expression, bean);
+	}
+
+	/**
+	 * Asserts, that the compiled expression returns the same value or throws the same type of exception as the EL 
+	 * implementation.
+	 */
+	private void assertSameAsEL(String expression, Object bean) {
+		Assert.assertTrue(LinkExpression.compile(expression).isCompiled(), expression);
+		Assert.assertEquals(evaluateCompiled(expression, bean), evaluateEL(expression, bean), expression);
+		Assert.assertEquals(evaluateCompiledBoolean(expression, bean), evaluateELBoolean(expression, bean), expression);
+	}
+
+	private Object evaluateCompiled(String expression, Object bean) {
+		try {
+			return LinkExpression.compile(expression).evaluate(createEvaluation(bean));
+		} catch (RuntimeException e) {
+			return e.getClass();
+		}
+	}
+
+	private Object evaluateCompiledBoolean(String expression, Object bean) {
+		try {
+			return LinkExpression.compile(expression).evaluateBoolean(createEvaluation(bean));
+		} catch (RuntimeException e) {
+			return e.getClass();
+		}
+	}
+
+	private Object evaluateEL(String expression, Object bean) {
+		try {
+			return ELUtil.evaluateEL(null, createEvaluation(bean).getELContext(), expression, expressionFactory);
+		} catch (RuntimeException e) {
+			return e.getClass();
+		}
+	}
+
+	private Object evaluateELBoolean(String expression, Object bean) {
+		try {
+			return ELUtil.evaluateELBoolean(null, createEvaluation(bean).getELContext(), expression, expressionFactory);
+		} catch (RuntimeException e) {
+			return e.getClass();
+		}
+	}
+
+	private LinkEvaluation createEvaluation(Object bean) {
+		return new LinkEvaluation(atomLinkDescription, bean, null, expressionFactory);
+	}
+}
@@ -0,0 +1,133 @@
+package org.bndly.rest.root.controller;
+
+/*-
+ * #%L
+ * REST Root Controller
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.json.marshalling.Marshaller;
+import org.bndly.common.json.model.JSValue;
+import org.bndly.common.json.serializing.JSONSerializer;
+import org.bndly.rest.api.ContentType;
+import org.bndly.rest.api.RequestTimingMetrics;
+import org.bndly.rest.api.RequestTimingMetricsProvider;
+import org.bndly.rest.atomlink.api.annotation.AtomLink;
+import org.bndly.rest.common.beans.Services;
+import org.bndly.rest.controller.api.CacheControl;
+import org.bndly.rest.controller.api.ControllerResourceRegistry;
+import org.bndly.rest.controller.api.Documentation;
+import org.bndly.rest.controller.api.GET;
+import org.bndly.rest.controller.api.POST;
+import org.bndly.rest.controller.api.Path;
+import org.bndly.rest.controller.api.Response;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * The RequestMetricsResource exposes the aggregated stage timings of the REST request pipeline as JSON.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+@Path("metrics/requests")
+@Component(service = RequestMetricsResource.class, immediate = true)
+public class RequestMetricsResource {
+
+	@Reference
+	private ControllerResourceRegistry controllerResourceRegistry;
+
+	@Reference
+	private RequestTimingMetricsProvider requestTimingMetricsProvider;
+
+	@Activate
+	public void activate() {
+		controllerResourceRegistry.deploy(this);
+	}
+
+	@Deactivate
+	public void deactivate() {
+		controllerResourceRegistry.undeploy(this);
+	}
+
+	@GET
+	@CacheControl(preventCaching = true)
+	@AtomLink(rel = "requestMetrics", target = Services.class)
+	@Documentation(
+		authors = "bndly@bndly.org",
+		value = "Lists the number of requests and the time in nanoseconds, that they spent in the stages of the request pipeline. The timings are aggregated per controller binding and HTTP method."
+	)
+	public Response getRequestMetrics() {
+		List<Object> result = new ArrayList<>();
+		for (RequestTimingMetrics metrics : requestTimingMetricsProvider.getRequestTimingMetrics()) {
+			Map<String, Object> entry = new LinkedHashMap<>();
+			entry.put("binding", metrics.getBinding());
+			entry.put("method", metrics.getHTTPMethod());
+			entry.put("count", metrics.getCount());
+			entry.put("slowCount", metrics.getSlowCount());
+			entry.put("histogramBoundsMicros", toList(metrics.getHistogramBoundsMicros()));
+			Map<String, Object> histograms = new LinkedHashMap<>();
+			for (Map.Entry<String, long[]> histogram : metrics.getStageHistograms().entrySet()) {
+				histograms.put(histogram.getKey(), toList(histogram.getValue()));
+			}
+			entry.put("histograms", histograms);
+			entry.put("meanNanos", metrics.getStageMeanNanos());
+			entry.put("maxNanos", metrics.getStageMaxNanos());
+			result.add(entry);
+		}
+		JSValue json = new Marshaller().marshall(result);
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			try (OutputStreamWriter writer = new OutputStreamWriter(bos, "UTF-8")) {
+				new JSONSerializer().serialize(json, writer);
+				writer.flush();
+			}
+			return Response.ok(new ByteArrayInputStream(bos.toByteArray())).contentType(ContentType.JSON, "UTF-8");
+		} catch (IOException e) {
+			throw new IllegalStateException("could not serialize request metrics", e);
+		}
+	}
+
+	@POST
+	@Path("reset")
+	@AtomLink(rel = "resetRequestMetrics", target = Services.class)
+	@Documentation(
+		authors = "bndly@bndly.org",
+		value = "Drops all aggregated request timings."
+	)
+	public Response reset() {
+		requestTimingMetricsProvider.reset();
+		return Response.NO_CONTENT;
+	}
+
+	private static List<Long> toList(long[] values) {
+		List<Long> list = new ArrayList<>(values.length);
+		for (long value : values) {
+			list.add(value);
+		}
+		return list;
+	}
+}
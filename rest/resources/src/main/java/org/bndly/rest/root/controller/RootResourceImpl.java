@@ -22,6 +22,7 @@ package org.bndly.rest.root.controller;
 
 import org.bndly.common.json.marshalling.Marshaller;
 import org.bndly.common.json.model.JSMember;
+import org.bndly.common.json.model.JSMemberSet;
 import org.bndly.common.json.model.JSObject;
 import org.bndly.common.json.model.JSString;
 import org.bndly.common.json.model.JSValue;
@@ -51,7 +52,6 @@ import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import org.osgi.service.component.annotations.Activate;
@@ -97,7 +97,7 @@ public class RootResourceImpl {
 		Map<String, Object> result = generateCommunicationDescription();
 		JSValue json = new Marshaller().marshall(result);
 		final JSObject wrapper = new JSObject();
-		wrapper.setMembers(new LinkedHashSet<JSMember>());
+		wrapper.setMembers(new JSMemberSet());
 		JSMember types = new JSMember();
 		types.setName(new JSString("types"));
 		types.setValue(json);
@@ -24,6 +24,7 @@ import org.bndly.common.json.api.ConversionContext;
 import org.bndly.common.json.api.ConversionContextBuilder;
 import org.bndly.common.json.model.JSArray;
 import org.bndly.common.json.model.JSMember;
+import org.bndly.common.json.model.JSMemberSet;
 import org.bndly.common.json.model.JSNull;
 import org.bndly.common.json.model.JSObject;
 import org.bndly.common.json.model.JSString;
@@ -43,7 +44,6 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -111,7 +111,7 @@ public class JSONSchemaResourceRenderer implements ResourceRenderer {
 	private void addMemberToJSObject(JSObject o, JSMember m) {
 		if (m != null) {
 			if (o.getMembers() == null) {
-				o.setMembers(new LinkedHashSet<JSMember>());
+				o.setMembers(new JSMemberSet());
 			}
 			o.getMembers().add(m);
 		}
@@ -24,6 +24,7 @@ import org.bndly.common.json.api.ConversionContext;
 import org.bndly.common.json.model.JSArray;
 import org.bndly.common.json.model.JSBoolean;
 import org.bndly.common.json.model.JSMember;
+import org.bndly.common.json.model.JSMemberSet;
 import org.bndly.common.json.model.JSNull;
 import org.bndly.common.json.model.JSNumber;
 import org.bndly.common.json.model.JSObject;
@@ -75,7 +76,6 @@ import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -306,7 +306,7 @@ public class SchemaResource {
 	private void addMemberToJSObject(JSObject o, JSMember m) {
 		if (m != null) {
 			if (o.getMembers() == null) {
-				o.setMembers(new LinkedHashSet<JSMember>());
+				o.setMembers(new JSMemberSet());
 			}
 			o.getMembers().add(m);
 		}
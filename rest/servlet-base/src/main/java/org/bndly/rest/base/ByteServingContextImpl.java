@@ -28,6 +28,7 @@ import org.bndly.rest.api.DataRange;
 import org.bndly.rest.api.StatusWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 /**
  *
@@ -105,6 +106,58 @@ class ByteServingContextImpl implements ByteServingContext {
 		if (rpisLength < 0) {
 			throw new IllegalArgumentException("stream length has to be 0 or positive");
 		}
+		DataRange range = resolveServedRange(rpisLength, etag);
+		if (range == null) {
+			return;
+		}
+		// serve the range
+		try {
+			rpis.skipUnreplayable(range.getStart());
+			// write the remaining data to the output stream
+			context.getStatusWriter().write(StatusWriter.Code.PARTIAL_CONTENT);
+			OutputStream os = context.getOutputStream();
+			IOUtils.copy(rpis, os, RangeHeadersUtil.getServedContentLength(servedRange));
+			os.flush();
+		} catch (WriteIOException e) {
+			// the other end might have closed the connection. hence we silently ignore this.
+		} catch (IOException e) {
+			throw new IllegalStateException("could not send byte range: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public void serveDataFromChannel(FileChannel channel, long position, long length, String etag) {
+		if (channel == null || etag == null) {
+			throw new IllegalArgumentException("channel and etag have to be non-null values");
+		}
+		if (length < 0 || position < 0) {
+			throw new IllegalArgumentException("position and length have to be 0 or positive");
+		}
+		DataRange range = resolveServedRange(length, etag);
+		if (range == null) {
+			return;
+		}
+		// serve the range directly from the channel. no bytes before the range have to be read.
+		try {
+			context.getStatusWriter().write(StatusWriter.Code.PARTIAL_CONTENT);
+			OutputStream os = context.getOutputStream();
+			IOUtils.transfer(channel, position + range.getStart(), RangeHeadersUtil.getServedContentLength(servedRange), os);
+			os.flush();
+		} catch (WriteIOException e) {
+			// the other end might have closed the connection. hence we silently ignore this.
+		} catch (IOException e) {
+			throw new IllegalStateException("could not send byte range: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Checks the requested range against the available data. If a partial response can be served, the served range 
+	 * will be set and returned. Otherwise the status of the response will be written and null will be returned.
+	 * @param length the total length of the available data
+	 * @param etag the etag of the available data
+	 * @return the range to serve or null, if no partial content should be written
+	 */
+	private DataRange resolveServedRange(long length, String etag) {
 		String requestedEtag = getIfRange();
 
 		// when there is an If-Range, we have to check that with the etag. those have to be in sync.
@@ -116,39 +169,29 @@ class ByteServingContextImpl implements ByteServingContext {
 			// check the requested range with the available data
 			Long end = rr.getEnd();
 			if (end == null) {
-				end = rpisLength - 1;
-			} else if (end >= rpisLength) {
+				end = length - 1;
+			} else if (end >= length) {
 				// return a 416 status
 				context.getStatusWriter().write(StatusWriter.Code.REQUESTED_RANGE_NOT_SATISFIABLE);
-				return;
+				return null;
 			}
 			Long start = rr.getStart();
 			if (start == null) {
 				start = 0L;
-			} else if (start >= rpisLength || start < 0) {
+			} else if (start >= length || start < 0) {
 				// return a 416 status
 				context.getStatusWriter().write(StatusWriter.Code.REQUESTED_RANGE_NOT_SATISFIABLE);
-				return;
+				return null;
 			}
-			setServedRange(createDataRange(start, end, rpisLength));
 			// define the actually served range
-			// serve the range
-			try {
-				rpis.skipUnreplayable(start);
-				// write the remaining data to the output stream
-				context.getStatusWriter().write(StatusWriter.Code.PARTIAL_CONTENT);
-				OutputStream os = context.getOutputStream();
-				IOUtils.copy(rpis, os, RangeHeadersUtil.getServedContentLength(servedRange));
-				os.flush();
-			} catch (WriteIOException e) {
-				// the other end might have closed the connection. hence we silently ignore this.
-			} catch (IOException e) {
-				throw new IllegalStateException("could not send byte range: " + e.getMessage(), e);
-			}
+			DataRange range = createDataRange(start, end, length);
+			setServedRange(range);
+			return range;
 		} else {
 			// start new byte serving
 			setAcceptRanges(DataRange.Unit.BYTES);
 			context.getStatusWriter().write(StatusWriter.Code.OK);
+			return null;
 		}
 	}
 
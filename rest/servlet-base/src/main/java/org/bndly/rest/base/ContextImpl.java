@@ -33,6 +33,7 @@ import org.bndly.rest.api.HeaderReader;
 import org.bndly.rest.api.HeaderWriter;
 import org.bndly.rest.api.PathCoder;
 import org.bndly.rest.api.QuantifiedContentType;
+import org.bndly.rest.api.RequestTimings;
 import org.bndly.rest.api.ResourceURI;
 import org.bndly.rest.api.ResourceURIBuilder;
 import org.bndly.rest.api.ResourceURIBuilderImpl;
@@ -96,6 +97,7 @@ public class ContextImpl implements Context, AutoCloseable {
 	private String outputEncoding;
 	private ContentType inputContentType;
 	private boolean didLookForInputContentType;
+	private final RequestTimings requestTimings = new RequestTimings();
 
 	public ContextImpl(
 			ServletRequest request, 
@@ -579,6 +581,11 @@ public class ContextImpl implements Context, AutoCloseable {
 		cacheHandler.saveCacheData(is, this);
 	}
 
+	@Override
+	public RequestTimings getRequestTimings() {
+		return requestTimings;
+	}
+
 	@Override
 	public void setOutputContentLanguage(String contentLanguage) {
 		if (contentLanguage != null) {
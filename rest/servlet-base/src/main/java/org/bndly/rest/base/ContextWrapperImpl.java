@@ -31,6 +31,7 @@ import org.bndly.rest.api.HeaderReader;
 import org.bndly.rest.api.HeaderWriter;
 import org.bndly.rest.api.PathCoder;
 import org.bndly.rest.api.QuantifiedContentType;
+import org.bndly.rest.api.RequestTimings;
 import org.bndly.rest.api.ResourceURI;
 import org.bndly.rest.api.ResourceURIBuilder;
 import org.bndly.rest.api.SecurityContext;
@@ -204,6 +205,11 @@ public class ContextWrapperImpl implements Context {
 		wrapped.saveInCache(is);
 	}
 
+	@Override
+	public RequestTimings getRequestTimings() {
+		return wrapped.getRequestTimings();
+	}
+
 	@Override
 	public ContentType getOutputContentType() {
 		return wrapped.getOutputContentType();
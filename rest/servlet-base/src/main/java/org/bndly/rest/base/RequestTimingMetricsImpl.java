@@ -0,0 +1,142 @@
+package org.bndly.rest.base;
+
+/*-
+ * #%L
+ * REST Servlet Base
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.rest.api.RequestTimingMetrics;
+import org.bndly.rest.api.RequestTimings;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * RequestTimingMetricsImpl aggregates the timings of the requests of a single binding and HTTP method in lock free 
+ * histograms. A stage is only counted for a request, if the request actually entered the stage.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class RequestTimingMetricsImpl implements RequestTimingMetrics {
+
+	private static final long[] HISTOGRAM_BOUNDS_MICROS = new long[]{
+		100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000, 250000, 500000, 1000000, 2500000, 5000000, 10000000
+	};
+	private static final int BUCKETS = HISTOGRAM_BOUNDS_MICROS.length + 1;
+	private static final RequestTimings.Stage[] STAGES = RequestTimings.Stage.values();
+
+	private final String binding;
+	private final String httpMethod;
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong slowCount = new AtomicLong();
+	private final AtomicLongArray histograms = new AtomicLongArray(STAGES.length * BUCKETS);
+	private final AtomicLongArray stageCounts = new AtomicLongArray(STAGES.length);
+	private final AtomicLongArray stageSumNanos = new AtomicLongArray(STAGES.length);
+	private final AtomicLongArray stageMaxNanos = new AtomicLongArray(STAGES.length);
+
+	RequestTimingMetricsImpl(String binding, String httpMethod) {
+		this.binding = binding;
+		this.httpMethod = httpMethod;
+	}
+
+	void record(RequestTimings requestTimings, boolean slow) {
+		count.incrementAndGet();
+		if (slow) {
+			slowCount.incrementAndGet();
+		}
+		for (RequestTimings.Stage stage : STAGES) {
+			long nanos = requestTimings.getNanos(stage);
+			if (nanos <= 0) {
+				continue;
+			}
+			int s = stage.ordinal();
+			stageCounts.incrementAndGet(s);
+			stageSumNanos.addAndGet(s, nanos);
+			long max = stageMaxNanos.get(s);
+			while (nanos > max && !stageMaxNanos.compareAndSet(s, max, nanos)) {
+				max = stageMaxNanos.get(s);
+			}
+			long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+			int i = 0;
+			while (i < HISTOGRAM_BOUNDS_MICROS.length && micros >= HISTOGRAM_BOUNDS_MICROS[i]) {
+				i++;
+			}
+			histograms.incrementAndGet(s * BUCKETS + i);
+		}
+	}
+
+	@Override
+	public String getBinding() {
+		return binding;
+	}
+
+	@Override
+	public String getHTTPMethod() {
+		return httpMethod;
+	}
+
+	@Override
+	public long getCount() {
+		return count.get();
+	}
+
+	@Override
+	public long getSlowCount() {
+		return slowCount.get();
+	}
+
+	@Override
+	public long[] getHistogramBoundsMicros() {
+		return HISTOGRAM_BOUNDS_MICROS.clone();
+	}
+
+	@Override
+	public Map<String, long[]> getStageHistograms() {
+		Map<String, long[]> result = new LinkedHashMap<>();
+		for (RequestTimings.Stage stage : STAGES) {
+			long[] histogram = new long[BUCKETS];
+			for (int i = 0; i < BUCKETS; i++) {
+				histogram[i] = histograms.get(stage.ordinal() * BUCKETS + i);
+			}
+			result.put(stage.name(), histogram);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getStageMeanNanos() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (RequestTimings.Stage stage : STAGES) {
+			long stageCount = stageCounts.get(stage.ordinal());
+			result.put(stage.name(), stageCount == 0 ? 0 : stageSumNanos.get(stage.ordinal()) / stageCount);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getStageMaxNanos() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (RequestTimings.Stage stage : STAGES) {
+			result.put(stage.name(), stageMaxNanos.get(stage.ordinal()));
+		}
+		return result;
+	}
+
+}
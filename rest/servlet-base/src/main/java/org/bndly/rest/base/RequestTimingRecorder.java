@@ -0,0 +1,221 @@
+package org.bndly.rest.base;
+
+/*-
+ * #%L
+ * REST Servlet Base
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.rest.api.Context;
+import org.bndly.rest.api.HTTPMethod;
+import org.bndly.rest.api.RequestTimingMetrics;
+import org.bndly.rest.api.RequestTimingMetricsProvider;
+import org.bndly.rest.api.RequestTimings;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The RequestTimingRecorder aggregates the {@link RequestTimings} of the served requests per binding and HTTP method. 
+ * The aggregated metrics are registered in the MBeanServer, if one is available. Slow requests are logged with their 
+ * stage breakdown. In order to keep the log readable under load, only every n-th slow request is logged.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+@Component(service = {RequestTimingRecorder.class, RequestTimingMetricsProvider.class}, immediate = true)
+@Designate(ocd = RequestTimingRecorder.Configuration.class)
+public class RequestTimingRecorder implements RequestTimingMetricsProvider {
+
+	@ObjectClassDefinition(
+			name = "Request Timing Recorder",
+			description = "The recorder aggregates the time, that the requests spent in the stages of the REST request pipeline."
+	)
+	public @interface Configuration {
+
+		@AttributeDefinition(
+				name = "Enabled",
+				description = "If this property is false, then no request timings will be aggregated"
+		)
+		boolean enabled() default true;
+
+		@AttributeDefinition(
+				name = "Slow request threshold",
+				description = "The number of milliseconds after which a request is considered as slow. 0 disables the slow request log."
+		)
+		long slowRequestThreshold() default 1000;
+
+		@AttributeDefinition(
+				name = "Slow request log sampling",
+				description = "Only every n-th slow request will be logged with its stage breakdown"
+		)
+		int slowRequestLogSampling() default 10;
+	}
+
+	private static final Logger LOG = LoggerFactory.getLogger(RequestTimingRecorder.class);
+	private static final String METRICS_DOMAIN = "org.bndly.rest";
+	/**
+	 * The binding name of requests, that have not been served by a controller binding.
+	 */
+	public static final String UNBOUND = "unbound";
+
+	private final ConcurrentMap<String, RequestTimingMetricsImpl> metricsByKey = new ConcurrentHashMap<>();
+	private final Map<String, ObjectName> objectNamesByKey = new HashMap<>();
+	private final AtomicLong slowRequests = new AtomicLong();
+	private MBeanServer mBeanServer;
+	private boolean enabled = true;
+	private long slowRequestThresholdNanos = TimeUnit.MILLISECONDS.toNanos(1000);
+	private int slowRequestLogSampling = 10;
+
+	@Activate
+	public void activate(Configuration configuration) {
+		enabled = configuration.enabled();
+		slowRequestThresholdNanos = TimeUnit.MILLISECONDS.toNanos(configuration.slowRequestThreshold());
+		slowRequestLogSampling = Math.max(1, configuration.slowRequestLogSampling());
+	}
+
+	@Deactivate
+	public void deactivate() {
+		reset();
+	}
+
+	@Reference(
+			bind = "setMBeanServer",
+			unbind = "unsetMBeanServer",
+			cardinality = ReferenceCardinality.OPTIONAL,
+			policy = ReferencePolicy.DYNAMIC,
+			service = MBeanServer.class
+	)
+	public synchronized void setMBeanServer(MBeanServer mBeanServer) {
+		this.mBeanServer = mBeanServer;
+		for (Map.Entry<String, RequestTimingMetricsImpl> entry : metricsByKey.entrySet()) {
+			registerMBean(entry.getKey(), entry.getValue());
+		}
+	}
+
+	public synchronized void unsetMBeanServer(MBeanServer mBeanServer) {
+		if (this.mBeanServer == mBeanServer) {
+			unregisterMBeans();
+			this.mBeanServer = null;
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Completes the timings of the request of the provided context and adds them to the metrics of the binding, that 
+	 * served the request.
+	 * @param context the context of the served request
+	 */
+	public void record(Context context) {
+		if (!enabled) {
+			return;
+		}
+		RequestTimings requestTimings = context.getRequestTimings();
+		if (requestTimings == null) {
+			return;
+		}
+		requestTimings.complete();
+		String binding = requestTimings.getBinding();
+		if (binding == null) {
+			binding = UNBOUND;
+		}
+		HTTPMethod method = context.getMethod();
+		String httpMethod = method == null ? null : method.name();
+		String key = httpMethod + " " + binding;
+		RequestTimingMetricsImpl metrics = metricsByKey.get(key);
+		if (metrics == null) {
+			// the metrics are created and registered under the lock of reset(), so that no stale instance gets registered
+			synchronized (this) {
+				metrics = metricsByKey.get(key);
+				if (metrics == null) {
+					metrics = new RequestTimingMetricsImpl(binding, httpMethod);
+					metricsByKey.put(key, metrics);
+					registerMBean(key, metrics);
+				}
+			}
+		}
+		long total = requestTimings.getNanos(RequestTimings.Stage.TOTAL);
+		boolean slow = slowRequestThresholdNanos > 0 && total >= slowRequestThresholdNanos;
+		metrics.record(requestTimings, slow);
+		if (slow && slowRequests.incrementAndGet() % slowRequestLogSampling == 0) {
+			LOG.warn("slow request {} {} took {}ms: {}", httpMethod, context.getURI().asString(), TimeUnit.NANOSECONDS.toMillis(total), requestTimings);
+		}
+	}
+
+	@Override
+	public List<RequestTimingMetrics> getRequestTimingMetrics() {
+		return new ArrayList<RequestTimingMetrics>(metricsByKey.values());
+	}
+
+	@Override
+	public synchronized void reset() {
+		unregisterMBeans();
+		metricsByKey.clear();
+	}
+
+	private void registerMBean(String key, RequestTimingMetricsImpl metrics) {
+		if (mBeanServer == null || objectNamesByKey.containsKey(key)) {
+			return;
+		}
+		try {
+			ObjectName objectName = new ObjectName(
+					METRICS_DOMAIN + ":type=RequestTimingMetrics,method=" + metrics.getHTTPMethod() + ",binding=" + ObjectName.quote(metrics.getBinding())
+			);
+			mBeanServer.registerMBean(new StandardMBean(metrics, RequestTimingMetrics.class, true), objectName);
+			objectNamesByKey.put(key, objectName);
+		} catch (JMException e) {
+			LOG.error("could not register request timing metrics of " + key + " as mbean: " + e.getMessage(), e);
+		}
+	}
+
+	private void unregisterMBeans() {
+		if (mBeanServer == null) {
+			objectNamesByKey.clear();
+			return;
+		}
+		for (ObjectName objectName : objectNamesByKey.values()) {
+			try {
+				mBeanServer.unregisterMBean(objectName);
+			} catch (JMException e) {
+				LOG.warn("could not unregister request timing metrics " + objectName + " as mbean: " + e.getMessage(), e);
+			}
+		}
+		objectNamesByKey.clear();
+	}
+}
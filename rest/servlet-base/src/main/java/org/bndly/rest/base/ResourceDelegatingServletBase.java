@@ -30,6 +30,7 @@ import org.bndly.rest.api.ContextProvider;
 import org.bndly.rest.api.DefaultCharacterEncodingProvider;
 import org.bndly.rest.api.Header;
 import org.bndly.rest.api.QuantifiedContentType;
+import org.bndly.rest.api.RequestTimings;
 import org.bndly.rest.api.Resource;
 import org.bndly.rest.api.ResourceBuildingException;
 import org.bndly.rest.api.ResourceInterceptor;
@@ -73,6 +74,10 @@ import org.slf4j.LoggerFactory;
 public class ResourceDelegatingServletBase {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ResourceDelegatingServletBase.class);
+	/**
+	 * The binding name in the request timings of requests, that have been served from the cache.
+	 */
+	public static final String CACHE_BINDING = "cache";
 
 	private final List<ResourceRenderer> renderers = new ArrayList<>();
 	private final ReadWriteLock renderersLock = new ReentrantReadWriteLock();
@@ -95,6 +100,12 @@ public class ResourceDelegatingServletBase {
 			service = FileExtensionContentTypeMapper.class
 	)
 	volatile private FileExtensionContentTypeMapper fileExtensionContentTypeMapper;
+	@Reference(
+			cardinality = ReferenceCardinality.OPTIONAL,
+			policy = ReferencePolicy.DYNAMIC,
+			service = RequestTimingRecorder.class
+	)
+	volatile private RequestTimingRecorder requestTimingRecorder;
 	private final DelegatingResourceInterceptor interceptor = new DelegatingResourceInterceptor();
 
 	private final QuantifiedContentTypeFactory quantifiedContentTypeFactory = new QuantifiedContentTypeFactory() {
@@ -245,6 +256,7 @@ public class ResourceDelegatingServletBase {
 		}
 		try (ContextImpl contextImpl = new ContextImpl(sr, sr1, uri, linkUri, servletConfig.getServletContext(), contextUri, defaultCharacterEncodingProvider)) {
 			contextImpl.setQuantifiedContentTypeFactory(quantifiedContentTypeFactory);
+			RequestTimings timings = contextImpl.getRequestTimings();
 			Context context = contextImpl;
 			context.getStatusWriter().write(StatusWriter.Code.OK);
 			ContextProvider localProvider = getContextProvider();
@@ -256,7 +268,12 @@ public class ResourceDelegatingServletBase {
 			interceptorsLock.readLock().lock();
 			try {
 				if (localInterceptor != null) {
-					localInterceptor.beforeResourceResolving(context);
+					long start = System.nanoTime();
+					try {
+						localInterceptor.beforeResourceResolving(context);
+					} finally {
+						timings.stop(RequestTimings.Stage.REQUEST_INTERCEPTION, start);
+					}
 				}
 				
 				SecurityContext sc = context.getSecurityContext();
@@ -267,8 +284,21 @@ public class ResourceDelegatingServletBase {
 					return;
 				}
 
-				if (context.canBeServedFromCache()) {
-					context.serveFromCache();
+				long cacheLookupStart = System.nanoTime();
+				boolean canBeServedFromCache;
+				try {
+					canBeServedFromCache = context.canBeServedFromCache();
+				} finally {
+					timings.stop(RequestTimings.Stage.CACHE_LOOKUP, cacheLookupStart);
+				}
+				if (canBeServedFromCache) {
+					timings.setBinding(CACHE_BINDING);
+					long start = System.nanoTime();
+					try {
+						context.serveFromCache();
+					} finally {
+						timings.stop(RequestTimings.Stage.CACHE_SERVING, start);
+					}
 				} else {
 					if (context.canBeCached()) {
 						ContextWrapperImpl wrapped = new CacheWritingContextWrapper(context);
@@ -281,46 +311,52 @@ public class ResourceDelegatingServletBase {
 					ResourceRenderer resourceRenderer = getResourceRenderer();
 					providersLock.readLock().lock();
 					try {
-						if (resourceProvider.supports(context)) {
-							Resource resource;
-							try {
-								resource = resourceProvider.build(context, resourceProvider);
-							} catch (ResourceBuildingException e) {
-								resource = handleResourceBuildingException(e);
+						long resolutionStart = System.nanoTime();
+						boolean supported;
+						Resource resource = null;
+						try {
+							supported = resourceProvider.supports(context);
+							if (supported) {
+								try {
+									resource = resourceProvider.build(context, resourceProvider);
+								} catch (ResourceBuildingException e) {
+									resource = handleResourceBuildingException(e);
+								}
 							}
+						} finally {
+							timings.stop(RequestTimings.Stage.RESOURCE_RESOLUTION, resolutionStart);
+						}
+						if (supported) {
 							if (resource != null) {
 								if (localInterceptor != null) {
-									long start = System.currentTimeMillis();
+									long start = System.nanoTime();
 									try {
 										resource = localInterceptor.intercept(resource);
 									} finally {
-										long end = System.currentTimeMillis();
-										LOG.trace("intercepting resource took {}ms", (end - start));
+										timings.stop(RequestTimings.Stage.RESOURCE_INTERCEPTION, start);
 									}
 								}
 								renderersLock.readLock().lock();
 								try {
 									if (resourceRenderer.supports(resource, context)) {
+										long start = System.nanoTime();
 										try {
-											long start = System.currentTimeMillis();
-											try {
-												resourceRenderer.render(resource, context);
-											} catch (Exception e) {
-												LOG.error("failed to render resource: {}", resource == null ? null : resource.getURI().asString(), e);
-												CacheContext cc = context.getCacheContext();
-												if (cc != null) {
-													cc.preventCache();
-												}
-												context.getStatusWriter().write(StatusWriter.Code.INTERNAL_SERVER_ERROR);
-												context.setOutputContentType(ContentType.TEXT, "UTF-8");
-												context.getOutputStream().write(("INTERNAL ERROR: " + e.getMessage()).getBytes("UTF-8"));
-											} finally {
-												long end = System.currentTimeMillis();
-												LOG.trace("rendering resource took {}ms", (end - start));
+											resourceRenderer.render(resource, context);
+										} catch (Exception e) {
+											LOG.error("failed to render resource: {}", resource == null ? null : resource.getURI().asString(), e);
+											CacheContext cc = context.getCacheContext();
+											if (cc != null) {
+												cc.preventCache();
 											}
+											context.getStatusWriter().write(StatusWriter.Code.INTERNAL_SERVER_ERROR);
+											context.setOutputContentType(ContentType.TEXT, "UTF-8");
+											context.getOutputStream().write(("INTERNAL ERROR: " + e.getMessage()).getBytes("UTF-8"));
 										} finally {
 											try (OutputStream os = context.getOutputStream()) {
 												os.flush();
+											} finally {
+												// flushing writes the cache entry and sends the buffered data
+												timings.stop(RequestTimings.Stage.RENDERING, start);
 											}
 										}
 									} else {
@@ -345,6 +381,10 @@ public class ResourceDelegatingServletBase {
 						}
 					} finally {
 						logOutgoingResponse(context);
+						RequestTimingRecorder recorder = requestTimingRecorder;
+						if (recorder != null) {
+							recorder.record(context);
+						}
 						if (localProvider != null) {
 							localProvider.setCurrentContext(null);
 						}
@@ -0,0 +1,65 @@
+package org.bndly.rest.base;
+
+/*-
+ * #%L
+ * REST Servlet Base
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.rest.api.RequestTimings;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class RequestTimingMetricsTest {
+
+	@Test
+	public void testStagesAreAggregatedInHistograms() {
+		RequestTimingMetricsImpl metrics = new RequestTimingMetricsImpl("Controller#get", "GET");
+
+		RequestTimings fast = new RequestTimings();
+		fast.add(RequestTimings.Stage.CONTROLLER_INVOCATION, TimeUnit.MICROSECONDS.toNanos(50));
+		fast.add(RequestTimings.Stage.RENDERING, TimeUnit.MICROSECONDS.toNanos(300));
+		fast.add(RequestTimings.Stage.RENDERING, TimeUnit.MICROSECONDS.toNanos(300));
+		metrics.record(fast, false);
+
+		RequestTimings slow = new RequestTimings();
+		slow.add(RequestTimings.Stage.CONTROLLER_INVOCATION, TimeUnit.SECONDS.toNanos(20));
+		metrics.record(slow, true);
+
+		Assert.assertEquals(metrics.getCount(), 2);
+		Assert.assertEquals(metrics.getSlowCount(), 1);
+		long[] invocation = metrics.getStageHistograms().get(RequestTimings.Stage.CONTROLLER_INVOCATION.name());
+		Assert.assertEquals(invocation.length, metrics.getHistogramBoundsMicros().length + 1);
+		Assert.assertEquals(invocation[0], 1);
+		Assert.assertEquals(invocation[invocation.length - 1], 1);
+		// repeated stages are summed up per request
+		long[] rendering = metrics.getStageHistograms().get(RequestTimings.Stage.RENDERING.name());
+		Assert.assertEquals(rendering[3], 1);
+		Assert.assertEquals(metrics.getStageMeanNanos().get(RequestTimings.Stage.RENDERING.name()).longValue(), TimeUnit.MICROSECONDS.toNanos(600));
+		Assert.assertEquals(metrics.getStageMaxNanos().get(RequestTimings.Stage.CONTROLLER_INVOCATION.name()).longValue(), TimeUnit.SECONDS.toNanos(20));
+		// stages, that have not been entered, are not counted
+		long[] cacheServing = metrics.getStageHistograms().get(RequestTimings.Stage.CACHE_SERVING.name());
+		for (long bucket : cacheServing) {
+			Assert.assertEquals(bucket, 0);
+		}
+	}
+}
@@ -40,6 +40,7 @@ import org.bndly.schema.model.Mixin;
 import org.bndly.schema.model.NamedAttributeHolder;
 import org.bndly.schema.model.NamedAttributeHolderAttribute;
 import org.bndly.schema.model.Schema;
+import org.bndly.schema.model.SchemaUtil;
 import org.bndly.schema.model.StringAttribute;
 import org.bndly.schema.model.Type;
 import java.io.BufferedReader;
@@ -50,10 +51,13 @@ import java.io.InputStream;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 
 /**
  *  Generates Schema Beans from a predefined Schema
@@ -63,6 +67,18 @@ import org.apache.maven.plugins.annotations.Mojo;
 )
 public class SchemaBeanGeneratorMojo extends AbstractSchemaBasedBeanGeneratorMojo {
 
+	protected static final String IMPLEMENTATION_SUFFIX = "Impl";
+	protected static final String ABSTRACT_SCHEMA_BEAN = "org.bndly.schema.beans.AbstractSchemaBean";
+	protected static final String SCHEMA_BEAN_FACTORY = "org.bndly.schema.beans.SchemaBeanFactory";
+	protected static final String RECORD = "org.bndly.schema.api.Record";
+
+	/**
+	 * If true, an implementation class will be generated for every concrete type. The implementation reads and writes 
+	 * the backing record directly and will be preferred over a proxy by the schema bean factory.
+	 */
+	@Parameter(defaultValue = "false")
+	protected boolean generateImplementations;
+
 	@Override
 	protected void doCodeGenerationWithSchema(Schema schema, CodeGenerationContext ctx, File targetPath) throws IOException, MojoExecutionException, MojoFailureException {
 		ctx.setImportResolver(new ImportResolver() {
@@ -81,6 +97,11 @@ public class SchemaBeanGeneratorMojo extends AbstractSchemaBasedBeanGeneratorMoj
 				importStateHolder.reset();
 				CodeBlock code = generateCodeForType(type, ctx);
 				writeCodeToFile(code, targetPath, type);
+				if (generateImplementations && !(type.isAbstract() || type.isVirtual())) {
+					importStateHolder.reset();
+					code = generateImplementationCodeForType(type, ctx);
+					writeCodeToFile(code, targetPath, type, IMPLEMENTATION_SUFFIX);
+				}
 			}
 		}
 		List<Mixin> mixins = schema.getMixins();
@@ -125,6 +146,57 @@ public class SchemaBeanGeneratorMojo extends AbstractSchemaBasedBeanGeneratorMoj
 		return block;
 	}
 
+	private CodeBlock generateImplementationCodeForType(Type type, CodeGenerationContext ctx) {
+		getLog().info("generating java implementation for type " + type.getName());
+		String implementationName = type.getName() + IMPLEMENTATION_SUFFIX;
+		CodeBlock block = ctx.create(CodeBlock.class);
+		block.line("package ").append(ctx.getBasePackage()).append(";");
+		CodeBlock importBlock = block.createContained(CodeBlock.class);
+		assertIsImported(importBlock, RECORD, importStateHolder);
+		assertIsImported(importBlock, ABSTRACT_SCHEMA_BEAN, importStateHolder);
+		assertIsImported(importBlock, SCHEMA_BEAN_FACTORY, importStateHolder);
+		block.line(convertToJavaDoc(generateImplementationJavaDoc(type), 0));
+		block.line("public class ").append(implementationName).append(" extends AbstractSchemaBean implements ").append(type.getName());
+		CodeBracket bracket = block.createContained(CodeBracket.class);
+		bracket.line("public ").append(implementationName).append("(Record record, SchemaBeanFactory schemaBeanFactory)");
+		bracket.createContained(CodeBracket.class).line("super(record, schemaBeanFactory);");
+		Set<String> generatedAttributes = new HashSet<>();
+		for (Attribute attribute : SchemaUtil.collectAttributes(type)) {
+			// attributes of the type itself come first and hide equally named attributes of mixins or super types
+			if (generatedAttributes.add(attribute.getName())) {
+				generateImplementedGetterAndSetter(attribute, bracket, importBlock);
+			}
+		}
+		return block;
+	}
+
+	private void generateImplementedGetterAndSetter(Attribute attribute, CodeBracket bracket, CodeBlock importBlock) {
+		String javaTypeName = getJavaTypeNameForAttribute(attribute, importBlock, importStateHolder);
+		String ucAttributeName = upperCaseFirstLetter(attribute.getName());
+		String virtual = Boolean.toString(attribute.isVirtual());
+		String getterCall;
+		String setterCall;
+		if (NamedAttributeHolderAttribute.class.isInstance(attribute)) {
+			getterCall = "getReferenceValue(\"" + attribute.getName() + "\", " + javaTypeName + ".class, " + virtual + ")";
+			setterCall = "setReferenceValue(\"" + attribute.getName() + "\", " + attribute.getName() + ", " + virtual + ")";
+		} else if (InverseAttribute.class.isInstance(attribute)) {
+			getterCall = "getInverseValue(\"" + attribute.getName() + "\", " + virtual + ")";
+			setterCall = "setInverseValue(\"" + attribute.getName() + "\", " + attribute.getName() + ", " + virtual + ")";
+		} else if (JSONAttribute.class.isInstance(attribute)) {
+			getterCall = "getJSONValue(\"" + attribute.getName() + "\", " + javaTypeName + ".class, " + virtual + ")";
+			setterCall = "setJSONValue(\"" + attribute.getName() + "\", " + attribute.getName() + ", " + virtual + ")";
+		} else {
+			getterCall = "getSimpleValue(\"" + attribute.getName() + "\", " + javaTypeName + ".class, " + virtual + ")";
+			setterCall = "setSimpleValue(\"" + attribute.getName() + "\", " + attribute.getName() + ", " + virtual + ")";
+		}
+		bracket.line("@Override");
+		bracket.line("public ").append(javaTypeName).append(" get").append(ucAttributeName).append("()");
+		bracket.createContained(CodeBracket.class).line("return ").append(getterCall).append(";");
+		bracket.line("@Override");
+		bracket.line("public void set").append(ucAttributeName).append("(").append(javaTypeName).append(" ").append(attribute.getName()).append(")");
+		bracket.createContained(CodeBracket.class).line(setterCall).append(";");
+	}
+
 	protected static String getJavaTypeNameForAttribute(Attribute attribute, CodeBlock importBlock, ImportStateHolder importStateHolder) {
 		return getJavaTypeNameForAttribute(attribute, importBlock, importStateHolder, false);
 	}
@@ -321,6 +393,13 @@ public class SchemaBeanGeneratorMojo extends AbstractSchemaBasedBeanGeneratorMoj
 		return sb.toString();
 	}
 	
+	static String generateImplementationJavaDoc(Type type) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("This class implements the schema bean interface of the type '").append(type.getName()).append("' on top of a record.\n");
+		sb.append("@author ").append(SchemaBeanGeneratorMojo.class.getName());
+		return sb.toString();
+	}
+	
 	static void convertToJavaDoc(String documentation, CodeBlock codeBlock) {
 		BufferedReader br = new BufferedReader(new StringReader(documentation));
 		String line;
@@ -33,6 +33,7 @@ public interface Parser {
 	Object[] getQueryArgs();
 	Object getQueryArg(int index);
 	Object getNextQueryArg();
+	int getQueryArgPosition();
 	Parser markQueryArgPosition();
 	Parser resetQueryArgPosition();
 	Query getQuery();
@@ -26,6 +26,7 @@ import org.bndly.schema.api.Record;
 import org.bndly.schema.api.RecordContext;
 import org.bndly.schema.api.Transaction;
 import org.bndly.schema.api.listener.QueryByExampleIteratorListener;
+import org.bndly.schema.api.tx.ResultCursor;
 import org.bndly.schema.model.NamedAttributeHolder;
 import org.bndly.schema.model.Type;
 import java.util.Iterator;
@@ -36,6 +37,17 @@ public interface Accessor extends DeletionStrategy {
 
 	Record readById(String namedAttributeHolderName, long id, RecordContext recordContext);
 
+	/**
+	 * Loads the record of a lazily loaded reference in the record context of the owner. Implementations may load the
+	 * unresolved references of the same attribute in the other records of the owner's record context in the same batch.
+	 * The provided owner is not modified by this method.
+	 * @param owner the record, that holds the lazily loaded reference
+	 * @param attributeName the name of the reference attribute
+	 * @param id the id of the referenced record
+	 * @return the referenced record or null, if it does not exist
+	 */
+	Record readReference(Record owner, String attributeName, long id);
+
 	void buildInsertQuery(Record record, Transaction transaction);
 	
 	long insert(Record record);
@@ -78,5 +90,35 @@ public interface Accessor extends DeletionStrategy {
 
 	Iterator<Record> query(String nQuery, RecordContext recordContext, LoadedAttributes loadedAttributes, Object... queryArgs);
 
+	/**
+	 * Executes the provided NQuery like {@link #query(java.lang.String, org.bndly.schema.api.RecordContext, org.bndly.schema.api.LoadedAttributes, java.lang.Object...)} 
+	 * and resolves the references of the prefetch hint before the records are returned. The referenced records are loaded 
+	 * in batches instead of one query per record.
+	 * @param nQuery the NQuery string. has to be a PICK query.
+	 * @param prefetch a comma separated list of reference attribute paths, such as "customer, customer.address". may be null.
+	 * @param recordContext the record context, that will hold the loaded records
+	 * @param loadedAttributes optional definition of the attributes to load
+	 * @param queryArgs the arguments of the NQuery
+	 * @return an iterator over the matched records
+	 */
+	Iterator<Record> queryWithPrefetch(String nQuery, String prefetch, RecordContext recordContext, LoadedAttributes loadedAttributes, Object... queryArgs);
+
+	/**
+	 * Executes the provided NQuery and returns a cursor over the matched records. In contrast to 
+	 * {@link #query(java.lang.String, org.bndly.schema.api.RecordContext, org.bndly.schema.api.LoadedAttributes, java.lang.Object...)} 
+	 * the records are mapped while the cursor is iterated, so that large result sets do not have to be held in memory at once.
+	 * The records are still attached to the provided record context. Callers, that process huge result sets, should detach 
+	 * the records they have already processed.
+	 * <p>
+	 * The cursor holds an open database connection. It is released, when the cursor is exhausted or closed.
+	 * </p>
+	 * @param nQuery the NQuery string. has to be a PICK query.
+	 * @param recordContext the record context, that will hold the mapped records
+	 * @param loadedAttributes optional definition of the attributes to load
+	 * @param queryArgs the arguments of the NQuery
+	 * @return a cursor, that has to be closed by the caller
+	 */
+	ResultCursor<Record> queryCursor(String nQuery, RecordContext recordContext, LoadedAttributes loadedAttributes, Object... queryArgs);
+
 	Long count(String nQuery, Object... queryArgs);
 }
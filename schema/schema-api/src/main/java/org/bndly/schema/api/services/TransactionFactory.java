@@ -20,8 +20,20 @@ package org.bndly.schema.api.services;
  * #L%
  */
 
+import org.bndly.schema.api.Record;
 import org.bndly.schema.api.Transaction;
+import org.bndly.schema.api.query.Query;
+import org.bndly.schema.api.tx.ResultCursor;
 
 public interface TransactionFactory {
     Transaction createTransaction();
+
+	/**
+	 * Opens a cursor for the provided select query. The query is executed immediately and not as a part of a transaction.
+	 * The records are mapped while iterating the cursor.
+	 * @param q the select query with a record mapper
+	 * @param fetchSize the number of rows the JDBC driver should fetch per round trip
+	 * @return a cursor, that has to be closed by the caller
+	 */
+	ResultCursor<Record> openCursor(Query q, int fetchSize);
 }
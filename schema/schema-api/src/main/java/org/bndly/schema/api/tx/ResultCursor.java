@@ -0,0 +1,39 @@
+package org.bndly.schema.api.tx;
+
+/*-
+ * #%L
+ * Schema API
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Iterator;
+
+/**
+ * A ResultCursor is an iterator over the rows of an open SQL result set. The rows are mapped lazily while iterating.
+ * The underlying statement and connection are released, once the cursor is exhausted or {@link #close()} is called.
+ * Callers should always close a cursor, if they stop iterating before the last row.
+ * 
+ * @param <E> the type of the mapped rows
+ */
+public interface ResultCursor<E> extends Iterator<E>, AutoCloseable {
+
+	/**
+	 * Releases the result set, the statement and the connection of this cursor. Calling this method multiple times has no effect.
+	 */
+	@Override
+	void close();
+}
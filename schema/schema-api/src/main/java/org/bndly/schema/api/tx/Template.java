@@ -46,4 +46,9 @@ public interface Template {
 	// the key holder might hold the ids of created rows
 	void update(PreparedStatementCreator statementCreator, KeyHolder keyHolder);
 	void update(PreparedStatementCreator statementCreator);
+	
+	// batch update executes the same insert, update or delete statement once per argument array in a single round trip
+	// the key holders will receive the ids of the created rows in the order of the argument arrays
+	void batchUpdate(String sql, List<PreparedStatementArgumentSetter[]> batchArguments);
+	void batchUpdate(String sql, List<PreparedStatementArgumentSetter[]> batchArguments, String primaryKeyColumnName, List<KeyHolder> keyHolders);
 }
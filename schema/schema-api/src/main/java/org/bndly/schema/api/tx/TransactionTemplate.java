@@ -20,6 +20,9 @@ package org.bndly.schema.api.tx;
  * #L%
  */
 
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+import org.bndly.schema.api.mapper.RowMapper;
+
 /**
  * The TransactionTemplate provides access to a SQL transaction to a passed in callback object.
  * The callback receives a {@link TransactionStatus}, that provides access to the SQL connection.
@@ -28,4 +31,15 @@ package org.bndly.schema.api.tx;
 public interface TransactionTemplate {
 	// run any statement in an encapsulated transaction
 	<E> E doInTransaction(TransactionCallback<E> transactionCallback);
+	
+	/**
+	 * Opens a read only cursor for the provided select statement. The result set stays open until the returned cursor is exhausted or closed.
+	 * @param <E> the type of the mapped rows
+	 * @param sql the select statement
+	 * @param arguments the arguments of the select statement
+	 * @param mapper the mapper, that will be invoked for each row while iterating the cursor
+	 * @param fetchSize the number of rows the JDBC driver should fetch per round trip. values lower than 1 will use the driver default.
+	 * @return a cursor, that has to be closed by the caller
+	 */
+	<E> ResultCursor<E> openCursor(String sql, PreparedStatementArgumentSetter[] arguments, RowMapper<E> mapper, int fetchSize);
 }
@@ -0,0 +1,278 @@
+package org.bndly.schema.beans;
+
+/*-
+ * #%L
+ * Schema Beans
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.json.model.JSObject;
+import org.bndly.schema.api.Record;
+import org.bndly.schema.api.RecordContext;
+import org.bndly.schema.api.RecordList;
+import org.bndly.schema.api.Transaction;
+import org.bndly.schema.api.VirtualAttributeAdapter;
+import org.bndly.schema.api.services.Engine;
+import org.bndly.schema.json.beans.JSONSchemaBeanFactory;
+import org.bndly.schema.json.beans.StreamingObject;
+import org.bndly.schema.model.Attribute;
+import org.bndly.schema.model.InverseAttribute;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The base class of the schema bean implementations, that are generated by the <code>maven-schema-bean-generator</code>. 
+ * A generated implementation reads and writes the values of the backing record directly and does not require a 
+ * {@link java.lang.reflect.Proxy}. The {@link SchemaBeanFactory} will use a generated implementation, if a class named 
+ * like the schema bean interface with the suffix {@link SchemaBeanFactory#GENERATED_IMPLEMENTATION_SUFFIX} is 
+ * available in the same package.
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public abstract class AbstractSchemaBean implements ActiveRecord {
+
+	private final Record record;
+	private final SchemaBeanFactory schemaBeanFactory;
+
+	protected AbstractSchemaBean(Record record, SchemaBeanFactory schemaBeanFactory) {
+		if (record == null) {
+			throw new IllegalArgumentException("can not create a schema bean without a record object");
+		}
+		if (schemaBeanFactory == null) {
+			throw new IllegalArgumentException("can not create a schema bean without a schema bean factory");
+		}
+		this.record = record;
+		this.schemaBeanFactory = schemaBeanFactory;
+	}
+
+	/**
+	 * Returns the record, that holds the values of this schema bean. The method is not called <code>getRecord</code> in 
+	 * order to avoid clashes with the accessors of a schema attribute named <code>record</code>.
+	 * @return the backing record
+	 */
+	public final Record getBackingRecord() {
+		return record;
+	}
+
+	private Engine getEngine() {
+		return schemaBeanFactory.getEngine();
+	}
+
+	private JSONSchemaBeanFactory getJsonSchemaBeanFactory() {
+		return schemaBeanFactory.getJsonSchemaBeanFactory();
+	}
+
+	@Override
+	public void persist(Transaction transaction) {
+		getEngine().getAccessor().buildInsertQuery(record, transaction);
+	}
+
+	@Override
+	public void persistCascaded(Transaction transaction) {
+		getEngine().getAccessor().buildInsertCascadedQuery(record, transaction);
+	}
+
+	@Override
+	public void update(Transaction transaction) {
+		getEngine().getAccessor().buildUpdateQuery(record, transaction);
+	}
+
+	@Override
+	public void updateCascaded(Transaction transaction) {
+		getEngine().getAccessor().buildUpdateCascadedQuery(record, transaction);
+	}
+
+	@Override
+	public void updatePostPersist(Transaction transaction) {
+		getEngine().getAccessor().buildUpdateQueryPostPersist(record, transaction);
+	}
+
+	@Override
+	public void delete(Transaction transaction) {
+		getEngine().getAccessor().buildDeleteQuery(record, transaction);
+	}
+
+	@Override
+	public void persist() {
+		getEngine().getAccessor().insert(record);
+	}
+
+	@Override
+	public void persistCascaded() {
+		getEngine().getAccessor().insertCascaded(record);
+	}
+
+	@Override
+	public void update() {
+		getEngine().getAccessor().update(record);
+	}
+
+	@Override
+	public void updateCascaded() {
+		getEngine().getAccessor().updateCascaded(record);
+	}
+
+	@Override
+	public void delete() {
+		Transaction tx = getEngine().getQueryRunner().createTransaction();
+		getEngine().getAccessor().delete(record, tx);
+		tx.commit();
+	}
+
+	@Override
+	public void reload() {
+		getEngine().getAccessor().readById(record.getType().getName(), record.getId(), record.getContext());
+	}
+
+	@Override
+	public Long getId() {
+		return record.getId();
+	}
+
+	@Override
+	public boolean isReference() {
+		return record.isReference();
+	}
+
+	private void assertAttributeIsPresent(String attributeName) {
+		// if the attribute is not present and the record has an id, then reload it, in order to fetch the missing attribute
+		if (!record.isAttributePresent(attributeName) && record.getId() != null) {
+			reload();
+		}
+	}
+
+	private Object readValue(String attributeName, boolean virtual, Class<?> javaType) {
+		if (virtual) {
+			Attribute att = record.getAttributeDefinition(attributeName);
+			VirtualAttributeAdapter adapter = getEngine().getVirtualAttributeAdapterRegistry().getAdapterForAttributeAndType(att, record.getType());
+			if (adapter != null) {
+				return adapter.read(att, record);
+			}
+			return record.getAttributeValue(attributeName);
+		}
+		assertAttributeIsPresent(attributeName);
+		if (javaType == null) {
+			return record.getAttributeValue(attributeName);
+		}
+		return record.getAttributeValue(attributeName, javaType);
+	}
+
+	private void writeValue(String attributeName, boolean virtual, Object value) {
+		if (virtual) {
+			Attribute att = record.getAttributeDefinition(attributeName);
+			VirtualAttributeAdapter adapter = getEngine().getVirtualAttributeAdapterRegistry().getAdapterForAttributeAndType(att, record.getType());
+			if (adapter != null) {
+				adapter.write(att, record, value);
+				return;
+			}
+		}
+		record.setAttributeValue(attributeName, value);
+	}
+
+	protected final <E> E getSimpleValue(String attributeName, Class<E> javaType, boolean virtual) {
+		return javaType.cast(readValue(attributeName, virtual, javaType));
+	}
+
+	protected final void setSimpleValue(String attributeName, Object value, boolean virtual) {
+		writeValue(attributeName, virtual, value);
+	}
+
+	protected final <E> E getReferenceValue(String attributeName, Class<E> beanType, boolean virtual) {
+		Object value = readValue(attributeName, virtual, Record.class);
+		if (value == null) {
+			return null;
+		}
+		return schemaBeanFactory.getSchemaBean(beanType, (Record) value);
+	}
+
+	protected final void setReferenceValue(String attributeName, Object bean, boolean virtual) {
+		writeValue(attributeName, virtual, bean == null ? null : schemaBeanFactory.getRecordFromSchemaBean(bean));
+	}
+
+	protected final <E> List<E> getInverseValue(String attributeName, boolean virtual) {
+		Object value = readValue(attributeName, virtual, RecordList.class);
+		if (value == null) {
+			return null;
+		}
+		List<E> schemaBeanList = new ArrayList<>();
+		for (Object item : (Iterable) value) {
+			schemaBeanList.add((E) schemaBeanFactory.getSchemaBean((Record) item));
+		}
+		return schemaBeanList;
+	}
+
+	protected final void setInverseValue(String attributeName, final List<?> beans, boolean virtual) {
+		if (beans == null) {
+			writeValue(attributeName, virtual, null);
+			return;
+		}
+		InverseAttribute attributeDefinition = record.getAttributeDefinition(attributeName, InverseAttribute.class);
+		RecordList value = record.getContext().createList(new RecordContext.RecordListInitializer() {
+
+			@Override
+			public Iterator<Record> initialize() {
+				final Iterator<?> iter = beans.iterator();
+				return new Iterator<Record>() {
+
+					@Override
+					public boolean hasNext() {
+						return iter.hasNext();
+					}
+
+					@Override
+					public Record next() {
+						return schemaBeanFactory.getRecordFromSchemaBean(iter.next());
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException("Not supported.");
+					}
+				};
+			}
+		}, record, attributeDefinition);
+		writeValue(attributeName, virtual, value);
+	}
+
+	protected final <E> E getJSONValue(String attributeName, Class<E> beanType, boolean virtual) {
+		Object value = readValue(attributeName, virtual, null);
+		if (value == null) {
+			return null;
+		}
+		if (JSObject.class.isInstance(value)) {
+			return (E) getJsonSchemaBeanFactory().getSchemaBean((JSObject) value);
+		} else if (Record.class.isInstance(value)) {
+			return schemaBeanFactory.getSchemaBean(beanType, (Record) value);
+		} else if (schemaBeanFactory.isSchemaBean(value)) {
+			return beanType.cast(value);
+		} else {
+			throw new IllegalStateException("json attributes should be stored as jsobject or record itself within the owner record.");
+		}
+	}
+
+	protected final void setJSONValue(String attributeName, Object value, boolean virtual) {
+		if (value != null) {
+			if (schemaBeanFactory.isSchemaBean(value)) {
+				value = schemaBeanFactory.getRecordFromSchemaBean(value);
+			} else if (getJsonSchemaBeanFactory().isSchemaBean(value)) {
+				value = ((StreamingObject) value).getJSObject();
+			}
+		}
+		writeValue(attributeName, virtual, value);
+	}
+
+}
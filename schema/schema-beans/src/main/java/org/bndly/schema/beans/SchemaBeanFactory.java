@@ -36,24 +36,44 @@ import org.bndly.schema.model.Schema;
 import org.bndly.schema.model.SimpleAttribute;
 import org.bndly.schema.model.Type;
 import org.bndly.schema.model.UniqueConstraint;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SchemaBeanFactory {
 
+	private static final Logger LOG = LoggerFactory.getLogger(SchemaBeanFactory.class);
+
+	/**
+	 * The suffix of the class names of generated schema bean implementations. The implementation of a schema bean 
+	 * interface <code>com.acme.Cart</code> is expected to be <code>com.acme.CartImpl</code>.
+	 */
+	public static final String GENERATED_IMPLEMENTATION_SUFFIX = "Impl";
+
 	private JSONSchemaBeanFactory jsonSchemaBeanFactory;
 	private Engine engine;
 	private final Map<String, Class<?>> defaultTypeBindings = new HashMap<>();
 	private final Map<Class<?>, String> defaultSchemaBeanTypeBindings = new HashMap<>();
+	private final Map<Class<?>, Constructor<?>> generatedImplementationConstructors = new HashMap<>();
 	private final SchemaBeanProvider schemaBeanProvider;
-	private final Map<Method, Invoker> invokerMap = new HashMap<>();
+	// the invoker map is never modified. if a new invoker is compiled, a copy of the map will be published.
+	private volatile Map<Method, Invoker> invokerMap = Collections.emptyMap();
+	private final Set<Class<?>> typesWithCompiledInvokers = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+	private final Object invokerMapLock = new Object();
+	private boolean generatedImplementationsEnabled = true;
 
 	public SchemaBeanFactory(SchemaBeanProvider schemaBeanProvider) {
 		if (schemaBeanProvider == null) {
@@ -62,10 +82,60 @@ public class SchemaBeanFactory {
 		this.schemaBeanProvider = schemaBeanProvider;
 	}
 
+	/**
+	 * Returns the currently compiled invokers of the proxy based schema beans.
+	 * @return an unmodifiable map of the invokers
+	 */
 	public Map<Method, Invoker> getInvokerMap() {
 		return invokerMap;
 	}
 
+	Invoker getInvoker(Method method, Record record) {
+		Invoker invoker = invokerMap.get(method);
+		if (invoker == null) {
+			synchronized (invokerMapLock) {
+				invoker = invokerMap.get(method);
+				if (invoker == null) {
+					invoker = SchemaBeanInvocationHandler.compileInvoker(method, record);
+					Map<Method, Invoker> copy = new HashMap<>(invokerMap);
+					copy.put(method, invoker);
+					invokerMap = Collections.unmodifiableMap(copy);
+				}
+			}
+		}
+		return invoker;
+	}
+
+	private Map<Method, Invoker> getInvokersForType(Class<?> type, Record record) {
+		if (typesWithCompiledInvokers.contains(type)) {
+			return invokerMap;
+		}
+		synchronized (invokerMapLock) {
+			if (!typesWithCompiledInvokers.contains(type)) {
+				Map<Method, Invoker> copy = new HashMap<>(invokerMap);
+				compileInvokers(copy, Object.class.getMethods(), record);
+				compileInvokers(copy, ActiveRecord.class.getMethods(), record);
+				compileInvokers(copy, type.getMethods(), record);
+				invokerMap = Collections.unmodifiableMap(copy);
+				typesWithCompiledInvokers.add(type);
+			}
+			return invokerMap;
+		}
+	}
+
+	private void compileInvokers(Map<Method, Invoker> target, Method[] methods, Record record) {
+		for (Method method : methods) {
+			if (!target.containsKey(method)) {
+				try {
+					target.put(method, SchemaBeanInvocationHandler.compileInvoker(method, record));
+				} catch (RuntimeException e) {
+					// the method will be resolved again and fail, when it is invoked
+					LOG.debug("could not precompile invoker for {} of {}", method, record.getType().getName(), e);
+				}
+			}
+		}
+	}
+
 	public <E> E convertToActiveRecord(E input) {
 		E output = null;
 		if (StreamingObject.class.isInstance(input)) {
@@ -338,10 +408,18 @@ public class SchemaBeanFactory {
 		if (type.isAssignableFrom(boundType)) {
 			type = (Class) boundType;
 		}
+		Constructor<?> generatedImplementationConstructor = generatedImplementationsEnabled ? generatedImplementationConstructors.get(type) : null;
+		if (generatedImplementationConstructor != null) {
+			try {
+				return type.cast(generatedImplementationConstructor.newInstance(record, this));
+			} catch (InstantiationException | IllegalAccessException | InvocationTargetException ex) {
+				throw new IllegalStateException("could not instantiate generated schema bean implementation for " + type.getName(), ex);
+			}
+		}
 		Object proxy = Proxy.newProxyInstance(
 				type.getClassLoader(),
 				new Class[]{type, ActiveRecord.class},
-				new SchemaBeanInvocationHandler(record, this, jsonSchemaBeanFactory, engine, invokerMap)
+				new SchemaBeanInvocationHandler(record, this, jsonSchemaBeanFactory, engine, getInvokersForType(type, record))
 		);
 		return type.cast(proxy);
 	}
@@ -366,6 +444,9 @@ public class SchemaBeanFactory {
 		if (schemaBean == null) {
 			throw new IllegalArgumentException("can not check if null is a schema bean");
 		}
+		if (AbstractSchemaBean.class.isInstance(schemaBean)) {
+			return true;
+		}
 		if (Proxy.isProxyClass(schemaBean.getClass())) {
 			InvocationHandler ih = Proxy.getInvocationHandler(schemaBean);
 			if (SchemaBeanInvocationHandler.class.isInstance(ih)) {
@@ -376,6 +457,9 @@ public class SchemaBeanFactory {
 	}
 
 	public Record getRecordFromSchemaBean(Object schemaBean) {
+		if (AbstractSchemaBean.class.isInstance(schemaBean)) {
+			return ((AbstractSchemaBean) schemaBean).getBackingRecord();
+		}
 		SchemaBeanInvocationHandler ih = getInvocationHandlerFromProxy(schemaBean);
 		return ih.getRecord();
 	}
@@ -384,6 +468,11 @@ public class SchemaBeanFactory {
 		if (!isSchemaBean(schemaBean)) {
 			throw new InvalidSchemaBeanTypeException(schemaBean.getClass(), "provided object is not a schema bean.");
 		}
+		if (AbstractSchemaBean.class.isInstance(schemaBean)) {
+			// generated implementations have no invocation handler. eclipsing still requires one.
+			Record record = ((AbstractSchemaBean) schemaBean).getBackingRecord();
+			return new SchemaBeanInvocationHandler(record, this, jsonSchemaBeanFactory, engine, invokerMap);
+		}
 		InvocationHandler ih = Proxy.getInvocationHandler(schemaBean);
 		if (!SchemaBeanInvocationHandler.class.isInstance(ih)) {
 			throw new InvalidSchemaBeanTypeException(schemaBean.getClass(), "provided object is a proxy but not a schema bean.");
@@ -393,6 +482,7 @@ public class SchemaBeanFactory {
 
 	public void setTypeBindings(List<Class<?>> javaTypes) {
 		defaultTypeBindings.clear();
+		generatedImplementationConstructors.clear();
 		if (javaTypes != null) {
 			for (Class<?> t : javaTypes) {
 				registerTypeBinding(t);
@@ -416,6 +506,43 @@ public class SchemaBeanFactory {
 		assertTypeIsInterface(javaType);
 		defaultTypeBindings.put(typeName, javaType);
 		defaultSchemaBeanTypeBindings.put(javaType, typeName);
+		Constructor<?> generatedImplementationConstructor = findGeneratedImplementationConstructor(javaType);
+		if (generatedImplementationConstructor != null) {
+			generatedImplementationConstructors.put(javaType, generatedImplementationConstructor);
+		} else {
+			generatedImplementationConstructors.remove(javaType);
+		}
+	}
+
+	private Constructor<?> findGeneratedImplementationConstructor(Class<?> javaType) {
+		Class<?> implementationType;
+		try {
+			implementationType = Class.forName(javaType.getName() + GENERATED_IMPLEMENTATION_SUFFIX, false, javaType.getClassLoader());
+		} catch (ClassNotFoundException | LinkageError e) {
+			// no implementation has been generated. the proxy will be used.
+			return null;
+		}
+		if (!javaType.isAssignableFrom(implementationType) || !AbstractSchemaBean.class.isAssignableFrom(implementationType)) {
+			return null;
+		}
+		try {
+			return implementationType.getConstructor(Record.class, SchemaBeanFactory.class);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Enables or disables the use of generated schema bean implementations. If disabled, all schema beans will be 
+	 * proxies.
+	 * @param generatedImplementationsEnabled true, if generated implementations should be used when present
+	 */
+	public void setGeneratedImplementationsEnabled(boolean generatedImplementationsEnabled) {
+		this.generatedImplementationsEnabled = generatedImplementationsEnabled;
+	}
+
+	public boolean isGeneratedImplementationsEnabled() {
+		return generatedImplementationsEnabled;
 	}
 
 	public void setEngine(Engine engine) {
@@ -93,11 +93,14 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-		// precompile the methods into invokers!
+		// the invokers of the bean interface are precompiled by the schema bean factory
 		Invoker invoker = invokersByMethod.get(method);
 		if (invoker == null) {
-			invoker = compileInvoker(method);
-			invokersByMethod.put(method, invoker);
+			if (schemaBeanFactory != null) {
+				invoker = schemaBeanFactory.getInvoker(method, record);
+			} else {
+				invoker = compileInvoker(method, record);
+			}
 		}
 		return invoker.invoke(this, args);
 	}
@@ -120,7 +123,10 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 		return attributeName;
 	}
 
-	private Record getRecordOfSchemaBean(Object schemaBean) {
+	private static Record getRecordOfSchemaBean(Object schemaBean) {
+		if (AbstractSchemaBean.class.isInstance(schemaBean)) {
+			return ((AbstractSchemaBean) schemaBean).getBackingRecord();
+		}
 		InvocationHandler ih = Proxy.getInvocationHandler(schemaBean);
 		if (SchemaBeanInvocationHandler.class.isInstance(ih)) {
 			SchemaBeanInvocationHandler sbih = SchemaBeanInvocationHandler.class.cast(ih);
@@ -223,7 +229,14 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 		}
 	}
 
-	private Invoker compileInvoker(final Method method) {
+	/**
+	 * Compiles the invoker for a method of a schema bean interface. The invoker does not hold a reference to the 
+	 * provided record or to any invocation handler, so it can be shared between all schema beans.
+	 * @param method the invoked method
+	 * @param record a record, that is used to look up the attribute definition of the method
+	 * @return the invoker
+	 */
+	static Invoker compileInvoker(final Method method, final Record record) {
 		if (method.getDeclaringClass().equals(ActiveRecord.class)) {
 			return new Invoker() {
 
@@ -339,7 +352,7 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 		return value;
 	}
 
-	private Invoker compileSimpleAttributeInvoker(final boolean isGetter, final boolean isVirtual, final Attribute attributeDefinition, final Class<?> returnType) {
+	private static Invoker compileSimpleAttributeInvoker(final boolean isGetter, final boolean isVirtual, final Attribute attributeDefinition, final Class<?> returnType) {
 		final String attributeName = attributeDefinition.getName();
 		// simple attributes are just plain get and set. there is no filtering or transformation involved
 		if (isGetter) {
@@ -388,7 +401,7 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 		}
 	}
 	
-	private Invoker compileNamedAttributeHolderAttributeInvoker(
+	private static Invoker compileNamedAttributeHolderAttributeInvoker(
 			final boolean isGetter, 
 			final boolean isVirtual, 
 			final NamedAttributeHolderAttribute attributeDefinition, 
@@ -407,7 +420,7 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 							return null;
 						} else {
 							// return a schema bean
-							return schemaBeanFactory.getSchemaBean(returnType, (Record) v);
+							return schemaBeanInvocationHandler.schemaBeanFactory.getSchemaBean(returnType, (Record) v);
 						}
 					}
 				};
@@ -422,7 +435,7 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 							return null;
 						} else {
 							// return a schema bean
-							return schemaBeanFactory.getSchemaBean(returnType, (Record) v);
+							return schemaBeanInvocationHandler.schemaBeanFactory.getSchemaBean(returnType, (Record) v);
 						}
 					}
 				};
@@ -466,7 +479,7 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 		}
 	}
 	
-	private Invoker compileInverseAttributeInvoker(final boolean isGetter, final boolean isVirtual, final InverseAttribute attributeDefinition, final Class<?> returnType) {
+	private static Invoker compileInverseAttributeInvoker(final boolean isGetter, final boolean isVirtual, final InverseAttribute attributeDefinition, final Class<?> returnType) {
 		final String attributeName = attributeDefinition.getName();
 		if (isGetter) {
 			// get
@@ -482,7 +495,7 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 							List schemaBeanList = new ArrayList();
 							Iterable c = (Iterable) v;
 							for (Object object : c) {
-								Object bean = schemaBeanFactory.getSchemaBean((Record) object);
+								Object bean = schemaBeanInvocationHandler.schemaBeanFactory.getSchemaBean((Record) object);
 								schemaBeanList.add(bean);
 							}
 							return schemaBeanList;
@@ -501,7 +514,7 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 						} else {
 							List schemaBeanList = new ArrayList();
 							for (Record item : list) {
-								Object bean = schemaBeanFactory.getSchemaBean(item);
+								Object bean = schemaBeanInvocationHandler.schemaBeanFactory.getSchemaBean(item);
 								schemaBeanList.add(bean);
 							}
 							return schemaBeanList;
@@ -545,7 +558,7 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 		}
 	}
 	
-	private Invoker compileJSONAttributeInvoker(final boolean isGetter, final boolean isVirtual, final JSONAttribute attributeDefinition, final Class<?> returnType) {
+	private static Invoker compileJSONAttributeInvoker(final boolean isGetter, final boolean isVirtual, final JSONAttribute attributeDefinition, final Class<?> returnType) {
 		final String attributeName = attributeDefinition.getName();
 		if (isGetter) {
 			// get
@@ -560,11 +573,11 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 						}
 						
 						if (JSObject.class.isInstance(value)) {
-							Object bean = jsonSchemaBeanFactory.getSchemaBean((JSObject) value);
+							Object bean = schemaBeanInvocationHandler.jsonSchemaBeanFactory.getSchemaBean((JSObject) value);
 							return bean;
 						} else if (Record.class.isInstance(value)) {
-							return schemaBeanFactory.getSchemaBean(returnType, (Record) value);
-						} else if (schemaBeanFactory.isSchemaBean(value)) {
+							return schemaBeanInvocationHandler.schemaBeanFactory.getSchemaBean(returnType, (Record) value);
+						} else if (schemaBeanInvocationHandler.schemaBeanFactory.isSchemaBean(value)) {
 							// NO-OP
 							return value;
 						} else {
@@ -584,11 +597,11 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 						}
 						
 						if (JSObject.class.isInstance(value)) {
-							Object bean = jsonSchemaBeanFactory.getSchemaBean((JSObject) value);
+							Object bean = schemaBeanInvocationHandler.jsonSchemaBeanFactory.getSchemaBean((JSObject) value);
 							return bean;
 						} else if (Record.class.isInstance(value)) {
-							return schemaBeanFactory.getSchemaBean(returnType, (Record) value);
-						} else if (schemaBeanFactory.isSchemaBean(value)) {
+							return schemaBeanInvocationHandler.schemaBeanFactory.getSchemaBean(returnType, (Record) value);
+						} else if (schemaBeanInvocationHandler.schemaBeanFactory.isSchemaBean(value)) {
 							// NO-OP
 							return value;
 						} else {
@@ -605,9 +618,9 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 					@Override
 					public Object invoke(SchemaBeanInvocationHandler schemaBeanInvocationHandler, Object[] args) throws Throwable {
 						Object value = args[0];
-						if (schemaBeanFactory.isSchemaBean(value)) {
+						if (schemaBeanInvocationHandler.schemaBeanFactory.isSchemaBean(value)) {
 							value = getRecordOfSchemaBean(value);
-						} else if (jsonSchemaBeanFactory.isSchemaBean(value)) {
+						} else if (schemaBeanInvocationHandler.jsonSchemaBeanFactory.isSchemaBean(value)) {
 							final StreamingObject jsonBean = (StreamingObject) value;
 							value = jsonBean.getJSObject();
 						}
@@ -624,9 +637,9 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 						if (value == null) {
 							schemaBeanInvocationHandler.getRecord().setAttributeValue(attributeName, null);
 						} else {
-							if (schemaBeanFactory.isSchemaBean(value)) {
+							if (schemaBeanInvocationHandler.schemaBeanFactory.isSchemaBean(value)) {
 								value = getRecordOfSchemaBean(value);
-							} else if (jsonSchemaBeanFactory.isSchemaBean(value)) {
+							} else if (schemaBeanInvocationHandler.jsonSchemaBeanFactory.isSchemaBean(value)) {
 								final StreamingObject jsonBean = (StreamingObject) value;
 								value = jsonBean.getJSObject();
 							}
@@ -639,7 +652,7 @@ public class SchemaBeanInvocationHandler implements InvocationHandler, ActiveRec
 		}
 	}
 	
-	private Invoker compileBinaryAttributeInvoker(final boolean isGetter, final boolean isVirtual, final BinaryAttribute attributeDefinition, final Class<?> returnType) {
+	private static Invoker compileBinaryAttributeInvoker(final boolean isGetter, final boolean isVirtual, final BinaryAttribute attributeDefinition, final Class<?> returnType) {
 		final String attributeName = attributeDefinition.getName();
 		if (isGetter) {
 			// get
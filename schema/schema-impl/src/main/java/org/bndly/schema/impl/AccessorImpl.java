@@ -62,9 +62,12 @@ import org.bndly.schema.api.services.Accessor;
 import org.bndly.schema.api.services.QueryByExample;
 import org.bndly.schema.api.services.QueryContextFactory;
 import org.bndly.schema.api.services.TableRegistry;
+import org.bndly.schema.api.tx.ResultCursor;
 import org.bndly.schema.impl.events.PersistenceEventTransaction;
 import org.bndly.schema.impl.nquery.BooleanStatementIterator;
 import org.bndly.schema.impl.nquery.ParserImpl;
+import org.bndly.schema.impl.nquery.PickImpl;
+import org.bndly.schema.impl.nquery.TypedExpressionImpl;
 import org.bndly.schema.impl.nquery.sqlmapper.BooleanStatementSQLMapper;
 import org.bndly.schema.impl.nquery.sqlmapper.ComparisonExpressionMapper;
 import org.bndly.schema.impl.nquery.sqlmapper.InRangeExpressionMapper;
@@ -99,12 +102,22 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class AccessorImpl implements Accessor, Resetable {
 
+	public static final int DEFAULT_CURSOR_FETCH_SIZE = 100;
+	public static final int DEFAULT_QUERY_PLAN_CACHE_SIZE = 1000;
+	public static final int DEFAULT_LAZY_LOAD_BATCH_SIZE = 50;
+	
 	private MediatorRegistryImpl mediatorRegistry;
 	private EngineImpl engine;
 	private ExpressionStatementHandler expressionStatementHandler;
+	private int cursorFetchSize = DEFAULT_CURSOR_FETCH_SIZE;
+	private QueryPlanCache queryPlanCache = new QueryPlanCache(DEFAULT_QUERY_PLAN_CACHE_SIZE);
+	private LazyReferenceResolver lazyReferenceResolver = new LazyReferenceResolver(this, DEFAULT_LAZY_LOAD_BATCH_SIZE);
+	private final ConcurrentMap<Type, RecordLayout> recordLayouts = new ConcurrentHashMap<>();
 
 	private final Map<Class<? extends BooleanStatement>, BooleanStatementSQLMapper> sqlMappersByStatementType = new HashMap<>();
 	private final Map<Class<? extends BooleanStatement>, RequiredAttribtuesInspector> requiredAttributesInspectorsByStatementType = new HashMap<>();
@@ -150,11 +163,33 @@ public class AccessorImpl implements Accessor, Resetable {
 
 	@Override
 	public void reset() {
+		QueryPlanCache cache = queryPlanCache;
+		if (cache != null) {
+			cache.clear();
+		}
+		recordLayouts.clear();
+	}
+
+	/**
+	 * Returns the shared slot layout of the records of the provided type. The layouts are dropped, when the accessor is reset.
+	 * @param type the type of the records
+	 * @return the layout of the type
+	 */
+	public RecordLayout getRecordLayout(Type type) {
+		RecordLayout layout = recordLayouts.get(type);
+		if (layout == null) {
+			layout = RecordLayout.create(type);
+			RecordLayout existing = recordLayouts.putIfAbsent(type, layout);
+			if (existing != null) {
+				layout = existing;
+			}
+		}
+		return layout;
 	}
 
 	@Override
 	public RecordContext buildRecordContext() {
-		return new RecordContextImpl(engine);
+		return new RecordContextImpl(engine, this);
 	}
 
 	@Override
@@ -328,6 +363,20 @@ public class AccessorImpl implements Accessor, Resetable {
 		}
 	}
 
+	@Override
+	public Record readReference(Record owner, String attributeName, long id) {
+		Attribute attribute = owner.getAttributeDefinition(attributeName);
+		if (!NamedAttributeHolderAttribute.class.isInstance(attribute)) {
+			throw new IllegalArgumentException("attribute " + attributeName + " of " + owner.getType().getName() + " is not a reference");
+		}
+		NamedAttributeHolderAttribute referenceAttribute = (NamedAttributeHolderAttribute) attribute;
+		if (RecordImpl.class.isInstance(owner)) {
+			// resolves the same reference of the other records in the record context as well
+			return lazyReferenceResolver.resolve((RecordImpl) owner, referenceAttribute, id);
+		}
+		return readById(referenceAttribute.getNamedAttributeHolder().getName(), id, owner.getContext());
+	}
+
 	@Override
 	public void buildInsertQuery(final Record record, Transaction transaction) {
 		if (record.getId() != null) {
@@ -594,9 +643,93 @@ public class AccessorImpl implements Accessor, Resetable {
 		this.expressionStatementHandler = expressionStatementHandler;
 	}
 
+	public void setCursorFetchSize(int cursorFetchSize) {
+		this.cursorFetchSize = cursorFetchSize;
+	}
+
+	public void setQueryPlanCacheSize(int queryPlanCacheSize) {
+		this.queryPlanCache = queryPlanCacheSize > 0 ? new QueryPlanCache(queryPlanCacheSize) : null;
+	}
+
+	public void setLazyLoadBatchSize(int lazyLoadBatchSize) {
+		this.lazyReferenceResolver = new LazyReferenceResolver(this, lazyLoadBatchSize);
+	}
+
 	@Override
 	public Iterator<Record> query(final String nQuery, final RecordContext recordContext, final LoadedAttributes userDefinedLoadedAttributes, final Object... queryArgs) {
+		Query q = buildPickQuery(nQuery, recordContext, userDefinedLoadedAttributes, queryArgs);
+		Transaction tx = engine.getQueryRunner().createTransaction();
+		ObjectReference<List<Record>> items = tx.getQueryRunner().list(q);
+		tx.commit();
+		List<Record> itemsList = items.get();
+		return itemsList == null ? null : itemsList.iterator();
+	}
+
+	@Override
+	public Iterator<Record> queryWithPrefetch(
+			String nQuery, String prefetch, RecordContext recordContext, LoadedAttributes loadedAttributes, Object... queryArgs
+	) {
+		Iterator<Record> iterator = query(nQuery, recordContext, loadedAttributes, queryArgs);
+		List<String> attributePaths = parsePrefetch(prefetch);
+		if (iterator == null || attributePaths.isEmpty()) {
+			return iterator;
+		}
+		List<Record> records = new ArrayList<>();
+		while (iterator.hasNext()) {
+			records.add(iterator.next());
+		}
+		lazyReferenceResolver.prefetch(records, attributePaths);
+		return records.iterator();
+	}
+
+	private static List<String> parsePrefetch(String prefetch) {
+		if (prefetch == null) {
+			return Collections.emptyList();
+		}
+		String tmp = prefetch.trim();
+		// the hint may be written as "fetch customer, customer.address"
+		if (tmp.regionMatches(true, 0, "fetch ", 0, 6)) {
+			tmp = tmp.substring(6);
+		}
+		List<String> attributePaths = new ArrayList<>();
+		for (String attributePath : tmp.split(",")) {
+			attributePath = attributePath.trim();
+			if (!attributePath.isEmpty()) {
+				attributePaths.add(attributePath);
+			}
+		}
+		return attributePaths;
+	}
+
+	@Override
+	public ResultCursor<Record> queryCursor(String nQuery, RecordContext recordContext, LoadedAttributes loadedAttributes, Object... queryArgs) {
+		Query q = buildPickQuery(nQuery, recordContext, loadedAttributes, queryArgs);
+		return engine.getQueryRunner().openCursor(q, cursorFetchSize);
+	}
+
+	private Query buildPickQuery(final String nQuery, final RecordContext recordContext, final LoadedAttributes userDefinedLoadedAttributes, final Object... queryArgs) {
+		QueryPlanCache cache = queryPlanCache;
+		if (cache == null || queryArgs == null || recordContext == null) {
+			return buildPickQuery(parseQuery(nQuery, Pick.class, queryArgs), recordContext, userDefinedLoadedAttributes);
+		}
+		QueryPlan plan = cache.get(Pick.class, nQuery, queryArgs);
+		if (plan != null) {
+			return plan.bind(queryArgs, recordContext);
+		}
+		int generation = cache.getGeneration();
 		Pick pick = parseQuery(nQuery, Pick.class, queryArgs);
+		Query q = buildPickQuery(pick, recordContext, userDefinedLoadedAttributes);
+		if (PickImpl.class.isInstance(pick)) {
+			PickImpl pickImpl = (PickImpl) pick;
+			plan = QueryPlan.createWithPagination(
+					q, pick.getLimit(), pickImpl.getLimitArgumentIndex(), pick.getOffset(), pickImpl.getOffsetArgumentIndex()
+			);
+			cache.put(generation, Pick.class, nQuery, queryArgs, collectStructuralArgumentIndexes(pick.getIfClause()), plan);
+		}
+		return q;
+	}
+
+	private Query buildPickQuery(final Pick pick, final RecordContext recordContext, final LoadedAttributes userDefinedLoadedAttributes) {
 		assertTableExistsForTypeOrMixin(pick.getAttributeHolderName());
 
 		String alias = pick.getAttributeHolderNameAlias();
@@ -667,12 +800,7 @@ public class AccessorImpl implements Accessor, Resetable {
 		}
 
 		qc.setExternalMappingBindingsProvider(iterator);
-		Query q = qc.build(recordContext);
-		Transaction tx = engine.getQueryRunner().createTransaction();
-		ObjectReference<List<Record>> items = tx.getQueryRunner().list(q);
-		tx.commit();
-		List<Record> itemsList = items.get();
-		return itemsList == null ? null : itemsList.iterator();
+		return qc.build(recordContext);
 	}
 
 	@Override
@@ -682,7 +810,30 @@ public class AccessorImpl implements Accessor, Resetable {
 
 	@Override
 	public Long count(String nQuery, Object... queryArgs) {
+		Query q = buildCountQuery(nQuery, queryArgs);
+		Transaction tx = engine.getQueryRunner().createTransaction();
+		ObjectReference<Long> countNumber = tx.getQueryRunner().number(q);
+		tx.commit();
+		return countNumber.get();
+	}
+
+	private Query buildCountQuery(String nQuery, Object... queryArgs) {
+		QueryPlanCache cache = queryPlanCache;
+		if (cache == null || queryArgs == null) {
+			return buildCountQuery(parseQuery(nQuery, Count.class, queryArgs));
+		}
+		QueryPlan plan = cache.get(Count.class, nQuery, queryArgs);
+		if (plan != null) {
+			return plan.bind(queryArgs, buildRecordContext());
+		}
+		int generation = cache.getGeneration();
 		Count count = parseQuery(nQuery, Count.class, queryArgs);
+		Query q = buildCountQuery(count);
+		cache.put(generation, Count.class, nQuery, queryArgs, collectStructuralArgumentIndexes(count.getIfClause()), QueryPlan.create(q));
+		return q;
+	}
+
+	private Query buildCountQuery(Count count) {
 		assertTableExistsForTypeOrMixin(count.getAttributeHolderName());
 		String alias = count.getAttributeHolderNameAlias();
 		IfClause ifClause = count.getIfClause();
@@ -716,11 +867,45 @@ public class AccessorImpl implements Accessor, Resetable {
 		}
 
 		RecordContext recordContext = buildRecordContext();
-		Query q = qc.build(recordContext);
-		Transaction tx = engine.getQueryRunner().createTransaction();
-		ObjectReference<Long> countNumber = tx.getQueryRunner().number(q);
-		tx.commit();
-		return countNumber.get();
+		return qc.build(recordContext);
+	}
+
+	/**
+	 * Collects the positions of the query arguments, whose values change the structure of the generated SQL statement.
+	 * The type name of a TYPED expression determines the tables, that will be joined.
+	 */
+	private static int[] collectStructuralArgumentIndexes(IfClause ifClause) {
+		if (ifClause == null) {
+			return new int[0];
+		}
+		final List<Integer> indexes = new ArrayList<>();
+		BooleanStatementIterator.iterate(ifClause.getNext(), new BooleanStatementIterator.NoOpCallback() {
+
+			@Override
+			public void onLastBooleanStatement(BooleanStatement booleanStatement) {
+				inspect(booleanStatement);
+			}
+
+			@Override
+			public void onBooleanStatement(BooleanStatement booleanStatement, BooleanOperator operator) {
+				inspect(booleanStatement);
+			}
+
+			private void inspect(BooleanStatement booleanStatement) {
+				if (TypedExpressionImpl.class.isInstance(booleanStatement)) {
+					int index = ((TypedExpressionImpl) booleanStatement).getTypeNameArgumentIndex();
+					if (index >= 0) {
+						indexes.add(index);
+					}
+				}
+			}
+
+		});
+		int[] result = new int[indexes.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = indexes.get(i);
+		}
+		return result;
 	}
 
 	private <E extends org.bndly.schema.api.nquery.Query> E parseQuery(String nQuery, Class<E> queryType, Object... queryArgs) {
@@ -50,6 +50,19 @@ public class AliasedRecordRowMapper implements RowMapper<Record> {
 		this.recordContext = recordContext;
 	}
 
+	/**
+	 * Creates a mapper with the same mapping bindings, that will map rows into the provided record context.
+	 * @param recordContext the record context for the mapped records
+	 * @return a new mapper
+	 */
+	public AliasedRecordRowMapper withRecordContext(RecordContext recordContext) {
+		return new AliasedRecordRowMapper(mappingBindingsProvider, mediatorRegistry, accessor, recordContext);
+	}
+
+	RecordContext getRecordContext() {
+		return recordContext;
+	}
+
 	@Override
 	public Record mapRow(ResultSet rs, int i) throws SQLException {
 		Record r = null;
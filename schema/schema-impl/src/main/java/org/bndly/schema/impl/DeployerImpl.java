@@ -43,6 +43,8 @@ import org.bndly.schema.impl.db.JoinTableImpl;
 import org.bndly.schema.impl.db.TableImpl;
 import org.bndly.schema.impl.db.TypeTableImpl;
 import org.bndly.schema.impl.db.UniqueConstraintTableImpl;
+import org.bndly.schema.vendor.CatalogSnapshot;
+import org.bndly.schema.vendor.CatalogSnapshotAdapter;
 import org.bndly.schema.vendor.VendorConfiguration;
 import org.bndly.schema.model.Attribute;
 import org.bndly.schema.model.InverseAttribute;
@@ -88,8 +90,15 @@ public class DeployerImpl implements Deployer, Resetable {
 	private String internalDatabaseSchemaName;
 	private StringBuffer deploymentSQL;
 	private boolean validateOnly;
+	private boolean dryRun;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private CatalogSnapshot catalogSnapshot;
+	private CatalogSnapshot plannedCatalog;
+	private DeploymentPlan deploymentPlan;
 	private final EngineImpl engine;
 	
+	public static final int DEFAULT_BATCH_SIZE = 100;
+	
 	private static final String ALLOWED_IDENTIFIER_CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_";
 	private boolean validationErrorIgnored;
 	private static final AntiSQLInject ANTI_SQL_INJECT = new AntiSQLInject() {
@@ -124,6 +133,23 @@ public class DeployerImpl implements Deployer, Resetable {
 		this.validationErrorIgnored = validationErrorIgnored;
 	}
 
+	/**
+	 * In dry run mode the deployer only computes and logs the plan of the missing DDL statements. Nothing is executed 
+	 * and the schema deployment listeners are not notified.
+	 * @param dryRun true, if the deployment plan should not be applied
+	 */
+	public void setDryRun(boolean dryRun) {
+		this.dryRun = dryRun;
+	}
+
+	/**
+	 * Sets the number of DDL statements, that are executed within a single transaction.
+	 * @param batchSize the number of statements per transaction. values lower than 1 will be treated as 1.
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize < 1 ? 1 : batchSize;
+	}
+
 	@Override
 	public void reset() {
 		tablesForNamedAttributeHolders = new HashSet<>();
@@ -132,6 +158,9 @@ public class DeployerImpl implements Deployer, Resetable {
 		uniqueConstraintsByName = new HashMap<>();
 		uniqueConstraintNames = new ArrayList<>();
 		indices = new ArrayList<>();
+		catalogSnapshot = null;
+		plannedCatalog = new CatalogSnapshot();
+		deploymentPlan = new DeploymentPlan();
 	}
 
 	@Override
@@ -144,16 +173,31 @@ public class DeployerImpl implements Deployer, Resetable {
 		try {
 			this.schema = schema;
 			reset();
+			// compiled query plans refer to the tables of the previous schema
+			if (Resetable.class.isInstance(engine.getAccessor())) {
+				((Resetable) engine.getAccessor()).reset();
+			}
+			long start = System.nanoTime();
+			catalogSnapshot = readCatalogSnapshot();
+			long catalogRead = System.nanoTime();
+			deploymentPlan.setCatalogReadNanos(catalogRead - start);
 			createTables();
 			createMixinTables();
 			createUniqueConstraintTables();
 			addAttributesToTables();
 			addForeignKeyConstraints();
 			addIndicesOnColumns();
+			deploymentPlan.setDiffNanos(System.nanoTime() - catalogRead);
 			
 			uniqueConstraintsByName = Collections.unmodifiableMap(uniqueConstraintsByName);
 			uniqueConstraintNames = Collections.unmodifiableList(new ArrayList<>(uniqueConstraintsByName.keySet()));
 			
+			if (dryRun) {
+				LOG.info("dry run of deployment of schema {}: {}", schema.getName(), deploymentPlan.describe());
+				return;
+			}
+			applyDeploymentPlan();
+			
 			if (listeners != null) {
 				deploymentListenersLock.readLock().lock();
 				try {
@@ -189,6 +233,60 @@ public class DeployerImpl implements Deployer, Resetable {
 		return deploymentSQL == null ? null : deploymentSQL.toString();
 	}
 
+	/**
+	 * Returns the DDL statements, that were missing in the database during the last deployment. In dry run mode these 
+	 * statements have not been executed.
+	 * @return the planned statements in the order of their execution
+	 */
+	public List<String> getDeploymentPlan() {
+		return deploymentPlan == null ? Collections.<String>emptyList() : deploymentPlan.getStatements();
+	}
+
+	private CatalogSnapshot readCatalogSnapshot() {
+		CatalogSnapshotAdapter catalogSnapshotAdapter = vendorConfiguration.getCatalogSnapshotAdapter();
+		if (catalogSnapshotAdapter == null) {
+			LOG.debug("no catalog snapshot adapter available. falling back to existence checks per database object.");
+			return null;
+		}
+		CatalogSnapshot snapshot = catalogSnapshotAdapter.readCatalog(internalDatabaseSchemaName, transactionTemplate);
+		LOG.debug("read catalog snapshot: {}", snapshot);
+		return snapshot;
+	}
+
+	private void plan(DeploymentPlan.Kind kind, String objectName, String sql) {
+		deploymentPlan.add(kind, objectName, sql);
+	}
+
+	private void applyDeploymentPlan() {
+		if (deploymentPlan.isEmpty()) {
+			LOG.info("schema {} is up to date: {}", schema.getName(), deploymentPlan.summary());
+			return;
+		}
+		long start = System.nanoTime();
+		final List<DeploymentPlan.Step> steps = deploymentPlan.getSteps();
+		for (int from = 0; from < steps.size(); from += batchSize) {
+			final List<DeploymentPlan.Step> batch = steps.subList(from, Math.min(from + batchSize, steps.size()));
+			transactionTemplate.doInTransaction(new TransactionCallback() {
+
+				@Override
+				public Object doInTransaction(TransactionStatus transactionStatus, Template template) {
+					for (DeploymentPlan.Step step : batch) {
+						try {
+							template.execute(step.getSql());
+						} catch (Exception ex) {
+							LOG.error("could not create " + step.getKind() + " " + step.getObjectName() + ": " + step.getSql(), ex);
+							throw new IllegalStateException("could not create " + step.getKind() + " " + step.getObjectName() + ": " + ex.getMessage(), ex);
+						}
+						LOG.debug("CREATED {}: {}", step.getKind(), step.getObjectName());
+					}
+					return null;
+				}
+			});
+		}
+		deploymentPlan.setApplyNanos(System.nanoTime() - start);
+		LOG.info("deployed schema {}: {}", schema.getName(), deploymentPlan.summary());
+	}
+
 	private void createTables() {
 		List<Type> types = schema.getTypes();
 		if (types != null) {
@@ -413,14 +511,8 @@ public class DeployerImpl implements Deployer, Resetable {
 		sb.append(")");
 		// ALTER TABLE TEST ADD CONSTRAINT NAME_UNIQUE UNIQUE(NAME)
 		final String constraintSql = sb.toString();
-		transactionTemplate.doInTransaction(new TransactionCallback() {
-
-			@Override
-			public Object doInTransaction(TransactionStatus transactionStatus, Template template) {
-				template.execute(constraintSql);
-				return null;
-			}
-		});
+		plannedCatalog.addConstraint(table.getTableName(), constraintName);
+		plan(DeploymentPlan.Kind.UNIQUE_CONSTRAINT, constraintName, constraintSql);
 	}
 
 	private void createPrimaryKeyAttributesForUniqueConstraintTable(Table table, UniqueConstraintTable uniqueConstraintTable) {
@@ -546,14 +638,8 @@ public class DeployerImpl implements Deployer, Resetable {
 					throw new SchemaException("constraint did not exist: " + constraintName);
 				}
 			}
-			transactionTemplate.doInTransaction(new TransactionCallback() {
-
-				@Override
-				public Object doInTransaction(TransactionStatus transactionStatus, Template template) {
-					template.execute(sql);
-					return null;
-				}
-			});
+			plannedCatalog.addConstraint(table.getTableName(), constraintName);
+			plan(DeploymentPlan.Kind.FOREIGN_KEY, constraintName, sql);
 		}
 	}
 
@@ -673,8 +759,7 @@ public class DeployerImpl implements Deployer, Resetable {
 					final IndexImpl index = new IndexImpl(finalIndexName, indexedColumns, table);
 					indices.add(index);
 					// test is index exists
-					boolean doesExist = vendorConfiguration.getIndexExistenceAdapter()
-							.isIndexDefinedOnTableColumn(internalDatabaseSchemaName, finalIndexName, table, transactionTemplate);
+					boolean doesExist = isIndexDefinedOnTable(finalIndexName, table);
 					if (!doesExist) {
 						if (validateOnly) {
 							if (validationErrorIgnored) {
@@ -683,20 +768,10 @@ public class DeployerImpl implements Deployer, Resetable {
 								throw new SchemaException("index did not exist: " + finalIndexName);
 							}
 						}
-						LOG.debug("trying to create index {} on {}.{}", finalIndexName, table.getTableName(), column.getColumnName());
-						try {
-							// if index is missing, create it
-							transactionTemplate.doInTransaction(new TransactionCallback() {
-
-								@Override
-								public Object doInTransaction(TransactionStatus transactionStatus, Template template) {
-									template.execute(sql);
-									return null;
-								}
-							});
-						} catch (Exception ex) {
-							throw new IllegalStateException("could not create index " + finalIndexName + ": " + ex.getMessage(), ex);
-						}
+						LOG.debug("planning creation of index {} on {}.{}", finalIndexName, table.getTableName(), column.getColumnName());
+						// if index is missing, create it
+						plannedCatalog.addIndex(table.getTableName(), finalIndexName);
+						plan(DeploymentPlan.Kind.INDEX, finalIndexName, sql);
 						index.setState(DeploymentState.CREATED);
 					} else {
 						LOG.debug("skipping creation of index {} on {}.{}, because it does already exist", finalIndexName, table.getTableName(), column.getColumnName());
@@ -735,37 +810,54 @@ public class DeployerImpl implements Deployer, Resetable {
 				throw new SchemaException("could not deploy schema, because a required table did not exist: table=" + table.getTableName());
 			}
 		}
-		try {
-			transactionTemplate.doInTransaction(new TransactionCallback() {
-
-				@Override
-				public Object doInTransaction(TransactionStatus transactionStatus, Template template) {
-					template.execute(sql);
-					return null;
-				}
-			});
-		} catch (Exception ex) {
-			throw new IllegalStateException("could not create table: " + ex.getMessage(), ex);
-		}
-		if (!tableExists(table.getTableName())) {
-			throw new IllegalStateException("created table, but can not query it.");
-		}
-		LOG.debug("CREATED TABLE: " + table.getTableName());
+		plannedCatalog.addTable(table.getTableName());
+		plan(DeploymentPlan.Kind.TABLE, table.getTableName(), sql);
+		LOG.debug("planned creation of table: " + table.getTableName());
 	}
 
 	private void createTableWithNameAndPrimaryKey(TableImpl table) /*throws DataAccessException*/ {
 		createTableWithName(table, true);
 	}
 	
+	// objects of the deployment plan do not exist yet. objects on a planned table can not exist unless they are planned as well.
 	private boolean doesColumnExistInTable(String tableName, String columnName) {
+		if (plannedCatalog.isColumnDefinedOnTable(columnName, tableName)) {
+			return true;
+		} else if (plannedCatalog.isTableDefined(tableName)) {
+			return false;
+		} else if (catalogSnapshot != null) {
+			return catalogSnapshot.isColumnDefinedOnTable(columnName, tableName);
+		}
 		return vendorConfiguration.getColumnExistenceAdapter().isColumnDefinedOnTable(internalDatabaseSchemaName, columnName, tableName, transactionTemplate);
 	}
 	private boolean tableExists(final String name) {
+		if (plannedCatalog.isTableDefined(name)) {
+			return true;
+		} else if (catalogSnapshot != null) {
+			return catalogSnapshot.isTableDefined(name);
+		}
 		return vendorConfiguration.getTableExistenceAdapter().isTableDefined(internalDatabaseSchemaName, name, transactionTemplate, ANTI_SQL_INJECT);
 	}
 	private boolean isConstraintDefinedOnTable(String constraintName, Table table) {
+		String tableName = table.getTableName();
+		if (plannedCatalog.isConstraintDefinedOnTable(constraintName, tableName)) {
+			return true;
+		} else if (plannedCatalog.isTableDefined(tableName)) {
+			return false;
+		} else if (catalogSnapshot != null) {
+			return catalogSnapshot.isConstraintDefinedOnTable(constraintName, tableName);
+		}
 		return vendorConfiguration.getConstraintExistenceAdapter().isConstraintDefinedOnTable(internalDatabaseSchemaName, constraintName, table, transactionTemplate);
 	}
+	private boolean isIndexDefinedOnTable(String indexName, Table table) {
+		String tableName = table.getTableName();
+		if (plannedCatalog.isIndexDefinedOnTable(indexName, tableName)) {
+			return true;
+		} else if (catalogSnapshot != null && catalogSnapshot.isIndexCatalogued()) {
+			return catalogSnapshot.isIndexDefinedOnTable(indexName, tableName);
+		}
+		return vendorConfiguration.getIndexExistenceAdapter().isIndexDefinedOnTableColumn(internalDatabaseSchemaName, indexName, table, transactionTemplate);
+	}
 
 	private AttributeColumn createAttributeForTable(Attribute attribute, Table table) {
 		if (attribute.isVirtual()) {
@@ -819,21 +911,10 @@ public class DeployerImpl implements Deployer, Resetable {
 					}
 				}
 
-				try {
-					transactionTemplate.doInTransaction(new TransactionCallback() {
-
-						@Override
-						public Object doInTransaction(TransactionStatus transactionStatus, Template template) {
-							template.execute(sql);
-							return null;
-						}
-					});
-				} catch (Exception ex) {
-					LOG.error("COULD NOT CREATE COLUMN FOR ATTRIBUTE: " + columnNameTransformed + " " + attribute.getName(), ex);
-					throw new IllegalStateException("could not create column for attribute: " + ex.getMessage(), ex);
-				}
+				plannedCatalog.addColumn(tableName, columnNameTransformed);
+				plan(DeploymentPlan.Kind.COLUMN, tableName + "." + columnNameTransformed, sql);
 				table.getColumns().add(attributeColumn);
-				LOG.debug("CREATED COLUMN FOR ATTRIBUTE: " + columnNameTransformed + " " + attribute.getName());
+				LOG.debug("planned column for attribute: " + columnNameTransformed + " " + attribute.getName());
 				return attributeColumn;
 			}
 		}
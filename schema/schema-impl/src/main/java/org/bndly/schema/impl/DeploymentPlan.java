@@ -0,0 +1,143 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A DeploymentPlan collects the DDL statements, that are missing in the database in order to deploy a schema. The 
+ * statements are kept in the order in which they have been planned, so that tables are created before their columns 
+ * and columns before the constraints and indices on them.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class DeploymentPlan {
+
+	enum Kind {
+		TABLE,
+		COLUMN,
+		UNIQUE_CONSTRAINT,
+		FOREIGN_KEY,
+		INDEX
+	}
+
+	static final class Step {
+		private final Kind kind;
+		private final String objectName;
+		private final String sql;
+
+		private Step(Kind kind, String objectName, String sql) {
+			this.kind = kind;
+			this.objectName = objectName;
+			this.sql = sql;
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		public String getObjectName() {
+			return objectName;
+		}
+
+		public String getSql() {
+			return sql;
+		}
+
+	}
+
+	private final List<Step> steps = new ArrayList<>();
+	private final int[] countsByKind = new int[Kind.values().length];
+	private long catalogReadNanos;
+	private long diffNanos;
+	private long applyNanos;
+
+	void add(Kind kind, String objectName, String sql) {
+		steps.add(new Step(kind, objectName, sql));
+		countsByKind[kind.ordinal()]++;
+	}
+
+	List<Step> getSteps() {
+		return Collections.unmodifiableList(steps);
+	}
+
+	List<String> getStatements() {
+		List<String> statements = new ArrayList<>(steps.size());
+		for (Step step : steps) {
+			statements.add(step.getSql());
+		}
+		return statements;
+	}
+
+	boolean isEmpty() {
+		return steps.isEmpty();
+	}
+
+	int size() {
+		return steps.size();
+	}
+
+	int count(Kind kind) {
+		return countsByKind[kind.ordinal()];
+	}
+
+	void setCatalogReadNanos(long catalogReadNanos) {
+		this.catalogReadNanos = catalogReadNanos;
+	}
+
+	void setDiffNanos(long diffNanos) {
+		this.diffNanos = diffNanos;
+	}
+
+	void setApplyNanos(long applyNanos) {
+		this.applyNanos = applyNanos;
+	}
+
+	String summary() {
+		StringBuilder sb = new StringBuilder()
+			.append(steps.size()).append(" statements (")
+			.append(count(Kind.TABLE)).append(" tables, ")
+			.append(count(Kind.COLUMN)).append(" columns, ")
+			.append(count(Kind.UNIQUE_CONSTRAINT)).append(" unique constraints, ")
+			.append(count(Kind.FOREIGN_KEY)).append(" foreign keys, ")
+			.append(count(Kind.INDEX)).append(" indices), catalog read in ")
+			.append(toMillis(catalogReadNanos)).append("ms, diff computed in ")
+			.append(toMillis(diffNanos)).append("ms");
+		if (applyNanos > 0) {
+			sb.append(", applied in ").append(toMillis(applyNanos)).append("ms");
+		}
+		return sb.toString();
+	}
+
+	String describe() {
+		StringBuilder sb = new StringBuilder(summary());
+		for (Step step : steps) {
+			sb.append('\n').append(step.getKind()).append(' ').append(step.getObjectName()).append(": ").append(step.getSql()).append(';');
+		}
+		return sb.toString();
+	}
+
+	private static long toMillis(long nanos) {
+		return nanos / 1000000L;
+	}
+}
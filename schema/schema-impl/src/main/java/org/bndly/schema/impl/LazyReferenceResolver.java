@@ -0,0 +1,236 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.Record;
+import org.bndly.schema.api.services.Accessor;
+import org.bndly.schema.model.Attribute;
+import org.bndly.schema.model.NamedAttributeHolder;
+import org.bndly.schema.model.NamedAttributeHolderAttribute;
+import org.bndly.schema.model.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The LazyReferenceResolver loads lazily loaded references of records in batches. Instead of reading each referenced 
+ * record with a single query, the unresolved ids of the same attribute are collected and loaded with one query per 
+ * batch. The batch query is a PICK with an OR chain on the id. The number of ids per query is rounded up to a power of 
+ * two by repeating the last id, so that only a few distinct query strings reach the query plan cache.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class LazyReferenceResolver {
+
+	private final Accessor accessor;
+	private final int batchSize;
+
+	LazyReferenceResolver(Accessor accessor, int batchSize) {
+		if (accessor == null) {
+			throw new IllegalArgumentException("accessor is not allowed to be null");
+		}
+		this.accessor = accessor;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Loads the record, that is referenced by the provided attribute of the owner. The unresolved references of the same 
+	 * attribute in the other records of the owner's type in the owner's record context are loaded in the same batch.
+	 * @param owner the record, that holds the lazily loaded reference
+	 * @param attribute the attribute of the reference
+	 * @param id the id of the referenced record
+	 * @return the referenced record or null, if it does not exist
+	 */
+	Record resolve(RecordImpl owner, NamedAttributeHolderAttribute attribute, long id) {
+		NamedAttributeHolder holder = attribute.getNamedAttributeHolder();
+		RecordContextImpl recordContext = owner.getContext();
+		if (batchSize <= 1 || !isBatchable(holder)) {
+			return accessor.readById(holder.getName(), id, recordContext);
+		}
+		String attributeName = attribute.getName();
+		Set<Long> ids = new LinkedHashSet<>();
+		ids.add(id);
+		List<RecordImpl> siblings = new ArrayList<>();
+		Iterator<Record> iterator = recordContext.listPersistedRecordsOfType(owner.getType());
+		while (iterator.hasNext() && ids.size() < batchSize) {
+			Record next = iterator.next();
+			if (next != owner && RecordImpl.class.isInstance(next)) {
+				RecordImpl sibling = (RecordImpl) next;
+				if (sibling.getAttributeDefinition(attributeName) == attribute) {
+					Long siblingReference = sibling.getUnresolvedReferenceId(attributeName);
+					if (siblingReference != null) {
+						ids.add(siblingReference);
+						siblings.add(sibling);
+					}
+				}
+			}
+		}
+		if (ids.size() == 1) {
+			return accessor.readById(holder.getName(), id, recordContext);
+		}
+		Map<Long, Record> loaded = readByIds(holder, ids, recordContext);
+		for (RecordImpl sibling : siblings) {
+			Record referenced = loaded.get(sibling.getUnresolvedReferenceId(attributeName));
+			if (referenced != null) {
+				sibling.resolveReference(attributeName, referenced);
+			}
+		}
+		return loaded.get(id);
+	}
+
+	/**
+	 * Resolves the references of the provided attribute paths in the provided records. A path like 
+	 * <code>customer.address</code> resolves the customer of each record first and then the address of each customer.
+	 * @param records the records, that own the references
+	 * @param attributePaths the dot separated attribute paths to resolve
+	 */
+	void prefetch(List<Record> records, Collection<String> attributePaths) {
+		for (String attributePath : attributePaths) {
+			List<RecordImpl> owners = new ArrayList<>(records.size());
+			for (Record record : records) {
+				if (RecordImpl.class.isInstance(record)) {
+					owners.add((RecordImpl) record);
+				}
+			}
+			for (String attributeName : attributePath.split("\\.")) {
+				if (owners.isEmpty()) {
+					break;
+				}
+				owners = resolveAll(owners, attributeName.trim());
+			}
+		}
+	}
+
+	private List<RecordImpl> resolveAll(List<RecordImpl> owners, String attributeName) {
+		// owners of different types may define the attribute differently
+		Map<Attribute, List<RecordImpl>> ownersByAttribute = new IdentityHashMap<>();
+		for (RecordImpl owner : owners) {
+			if (owner.isAttributeDefined(attributeName)) {
+				Attribute attribute = owner.getAttributeDefinition(attributeName);
+				if (NamedAttributeHolderAttribute.class.isInstance(attribute)) {
+					List<RecordImpl> list = ownersByAttribute.get(attribute);
+					if (list == null) {
+						list = new ArrayList<>();
+						ownersByAttribute.put(attribute, list);
+					}
+					list.add(owner);
+				}
+			}
+		}
+		Set<RecordImpl> resolved = new LinkedHashSet<>();
+		for (Map.Entry<Attribute, List<RecordImpl>> entry : ownersByAttribute.entrySet()) {
+			NamedAttributeHolder holder = ((NamedAttributeHolderAttribute) entry.getKey()).getNamedAttributeHolder();
+			Set<Long> ids = new LinkedHashSet<>();
+			for (RecordImpl owner : entry.getValue()) {
+				Long id = owner.getUnresolvedReferenceId(attributeName);
+				if (id != null) {
+					ids.add(id);
+				}
+			}
+			Map<Long, Record> loaded = ids.isEmpty() ? new HashMap<Long, Record>() : readByIds(holder, ids, entry.getValue().get(0).getContext());
+			for (RecordImpl owner : entry.getValue()) {
+				Long id = owner.getUnresolvedReferenceId(attributeName);
+				Record referenced;
+				if (id != null) {
+					referenced = loaded.get(id);
+					if (referenced != null) {
+						owner.resolveReference(attributeName, referenced);
+					}
+				} else {
+					referenced = owner.getAttributeValue(attributeName, Record.class);
+				}
+				if (RecordImpl.class.isInstance(referenced)) {
+					resolved.add((RecordImpl) referenced);
+				}
+			}
+		}
+		return new ArrayList<>(resolved);
+	}
+
+	private Map<Long, Record> readByIds(NamedAttributeHolder holder, Set<Long> ids, RecordContextImpl recordContext) {
+		Map<Long, Record> result = new HashMap<>();
+		if (batchSize <= 1 || !isBatchable(holder)) {
+			for (Long id : ids) {
+				Record record = accessor.readById(holder.getName(), id, recordContext);
+				if (record != null) {
+					result.put(id, record);
+				}
+			}
+			return result;
+		}
+		List<Long> chunk = new ArrayList<>(batchSize);
+		Iterator<Long> iterator = ids.iterator();
+		while (iterator.hasNext()) {
+			chunk.add(iterator.next());
+			if (chunk.size() == batchSize || !iterator.hasNext()) {
+				readChunk(holder, chunk, recordContext, result);
+				chunk.clear();
+			}
+		}
+		return result;
+	}
+
+	private void readChunk(NamedAttributeHolder holder, List<Long> chunk, RecordContextImpl recordContext, Map<Long, Record> result) {
+		int size = 1;
+		while (size < chunk.size()) {
+			size = size << 1;
+		}
+		size = Math.min(size, batchSize);
+		Object[] args = new Object[size];
+		StringBuilder sb = new StringBuilder("PICK ").append(holder.getName()).append(" x IF ");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(" OR ");
+			}
+			sb.append("x.id=?");
+			args[i] = chunk.get(Math.min(i, chunk.size() - 1));
+		}
+		Iterator<Record> records = accessor.query(sb.toString(), recordContext, null, args);
+		if (records != null) {
+			while (records.hasNext()) {
+				Record record = records.next();
+				result.put(record.getId(), record);
+			}
+		}
+	}
+
+	/**
+	 * Only references to concrete types without sub types are loaded in batches. Those records are identified by the 
+	 * primary key of their own type table. References to mixins or type hierarchies are read one by one.
+	 */
+	private static boolean isBatchable(NamedAttributeHolder holder) {
+		if (!Type.class.isInstance(holder)) {
+			return false;
+		}
+		Type type = (Type) holder;
+		if (type.isAbstract() || type.isVirtual()) {
+			return false;
+		}
+		List<Type> subTypes = type.getSubTypes();
+		return subTypes == null || subTypes.isEmpty();
+	}
+}
@@ -0,0 +1,184 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+import org.bndly.schema.api.Record;
+import org.bndly.schema.api.RecordContext;
+import org.bndly.schema.api.exception.SchemaException;
+import org.bndly.schema.api.mapper.RowMapper;
+import org.bndly.schema.api.query.Query;
+import org.bndly.schema.impl.nquery.RebindableArgumentSetter;
+import org.bndly.schema.impl.query.QueryImpl;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A QueryPlan is the rendered SQL of a NQuery together with the argument setter slots and the row mapper template of 
+ * its first execution. The plan does not keep the arguments or the record context of the first execution. It can be 
+ * bound to the arguments of further executions of the same NQuery, as long as the arguments do not change the structure 
+ * of the SQL statement.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class QueryPlan {
+
+	private final String sql;
+	private final Object[] args;
+	private final PreparedStatementArgumentSetter[] setterSlots;
+	private final AliasedRecordRowMapper mapperTemplate;
+	private final boolean asUpdate;
+	private final int limitSetterPosition;
+	private final int limitArgumentIndex;
+	private final int offsetSetterPosition;
+	private final int offsetArgumentIndex;
+
+	private QueryPlan(
+			Query<RowMapper<Record>> template, 
+			int limitSetterPosition, 
+			int limitArgumentIndex, 
+			int offsetSetterPosition, 
+			int offsetArgumentIndex
+	) {
+		RowMapper<Record> mapper = template.getMapper();
+		if (!AliasedRecordRowMapper.class.isInstance(mapper)) {
+			throw new SchemaException("can not create query plan for a query without an aliased record row mapper");
+		}
+		this.sql = template.getSql();
+		this.mapperTemplate = ((AliasedRecordRowMapper) mapper).withRecordContext(null);
+		this.asUpdate = template.asUpdate();
+		this.limitSetterPosition = limitSetterPosition;
+		this.limitArgumentIndex = limitArgumentIndex;
+		this.offsetSetterPosition = offsetSetterPosition;
+		this.offsetArgumentIndex = offsetArgumentIndex;
+		PreparedStatementArgumentSetter[] templateSetters = template.getArgumentSetters();
+		this.setterSlots = new PreparedStatementArgumentSetter[templateSetters.length];
+		for (int i = 0; i < templateSetters.length; i++) {
+			if (i == limitSetterPosition || i == offsetSetterPosition) {
+				// will be created from the query arguments during binding
+				setterSlots[i] = null;
+			} else if (RebindableArgumentSetter.class.isInstance(templateSetters[i])) {
+				setterSlots[i] = ((RebindableArgumentSetter) templateSetters[i]).unbind();
+			} else {
+				setterSlots[i] = templateSetters[i];
+			}
+		}
+		// the plain arguments of a select only contain the LIMIT and OFFSET values
+		Object[] templateArgs = template.getArgs();
+		this.args = templateArgs == null ? new Object[0] : templateArgs.clone();
+		if (limitSetterPosition > -1) {
+			args[args.length - (setterSlots.length - limitSetterPosition)] = null;
+		}
+		if (offsetSetterPosition > -1) {
+			args[args.length - 1] = null;
+		}
+	}
+
+	/**
+	 * Creates a plan for a query without LIMIT and OFFSET.
+	 * @param template the query of the first execution
+	 * @return a plan
+	 */
+	static QueryPlan create(Query<RowMapper<Record>> template) {
+		return new QueryPlan(template, -1, -1, -1, -1);
+	}
+
+	/**
+	 * Creates a plan for a select, that may end with a LIMIT and an OFFSET. The select renders the LIMIT and OFFSET 
+	 * values as the last arguments of the statement. The OFFSET is only rendered, if a LIMIT is present.
+	 * @param template the query of the first execution
+	 * @param limit the LIMIT of the first execution or null
+	 * @param limitArgumentIndex the position of the LIMIT value in the NQuery arguments or -1
+	 * @param offset the OFFSET of the first execution or null
+	 * @param offsetArgumentIndex the position of the OFFSET value in the NQuery arguments or -1
+	 * @return a plan
+	 */
+	static QueryPlan createWithPagination(Query<RowMapper<Record>> template, Long limit, int limitArgumentIndex, Long offset, int offsetArgumentIndex) {
+		if (limit == null) {
+			return create(template);
+		}
+		int setters = template.getArgumentSetters().length;
+		int limitSetterPosition = offset == null ? setters - 1 : setters - 2;
+		int offsetSetterPosition = offset == null ? -1 : setters - 1;
+		return new QueryPlan(
+				template, 
+				limitArgumentIndex < 0 ? -1 : limitSetterPosition, 
+				limitArgumentIndex, 
+				offsetArgumentIndex < 0 ? -1 : offsetSetterPosition, 
+				offsetArgumentIndex
+		);
+	}
+
+	/**
+	 * Binds the plan to the arguments and the record context of a NQuery execution.
+	 * @param queryArgs the arguments of the execution
+	 * @param recordContext the record context, that should receive the loaded records
+	 * @return a query, that can be executed
+	 */
+	Query<RowMapper<Record>> bind(Object[] queryArgs, RecordContext recordContext) {
+		if (recordContext == null) {
+			throw new IllegalArgumentException("recordContext is not allowed to be null");
+		}
+		PreparedStatementArgumentSetter[] setters = new PreparedStatementArgumentSetter[setterSlots.length];
+		Object[] boundArgs = args.clone();
+		for (int i = 0; i < setterSlots.length; i++) {
+			if (i == limitSetterPosition) {
+				PaginationArgumentSetter setter = createPaginationSetter("LIMIT", queryArgs[limitArgumentIndex]);
+				boundArgs[boundArgs.length - (setterSlots.length - i)] = setter.get();
+				setters[i] = setter;
+			} else if (i == offsetSetterPosition) {
+				PaginationArgumentSetter setter = createPaginationSetter("OFFSET", queryArgs[offsetArgumentIndex]);
+				boundArgs[boundArgs.length - 1] = setter.get();
+				setters[i] = setter;
+			} else if (RebindableArgumentSetter.class.isInstance(setterSlots[i])) {
+				setters[i] = ((RebindableArgumentSetter) setterSlots[i]).rebind(queryArgs);
+			} else {
+				setters[i] = setterSlots[i];
+			}
+		}
+		return new QueryImpl(sql, boundArgs, mapperTemplate.withRecordContext(recordContext), setters, asUpdate);
+	}
+
+	private static PaginationArgumentSetter createPaginationSetter(String keyword, Object arg) {
+		if (!Number.class.isInstance(arg)) {
+			throw new SchemaException("failed to parse query string: " + keyword + " has to be a number");
+		}
+		return new PaginationArgumentSetter(((Number) arg).longValue());
+	}
+
+	private static final class PaginationArgumentSetter implements PreparedStatementArgumentSetter {
+
+		private final long value;
+
+		public PaginationArgumentSetter(long value) {
+			this.value = value;
+		}
+
+		public Long get() {
+			return value;
+		}
+
+		@Override
+		public void set(int index, PreparedStatement ps) throws SQLException {
+			ps.setLong(index, value);
+		}
+	}
+}
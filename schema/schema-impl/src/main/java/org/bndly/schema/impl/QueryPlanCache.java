@@ -0,0 +1,120 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The QueryPlanCache holds the compiled plans of NQuery strings. A NQuery string can result in different SQL 
+ * statements depending on its arguments: a null argument is rendered as IS NULL and the argument of a TYPED 
+ * expression selects the joined tables. Therefore the plans of a NQuery string are kept per shape of the arguments.
+ * Both, the NQuery strings and their shapes are evicted in least recently used order.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class QueryPlanCache {
+
+	private static final int MAX_SHAPES_PER_QUERY = 16;
+
+	private final Map<String, QueryPlans> plansByQuery;
+	private int generation;
+
+	QueryPlanCache(final int maxQueries) {
+		plansByQuery = new LinkedHashMap<String, QueryPlans>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, QueryPlans> eldest) {
+				return size() > maxQueries;
+			}
+
+		};
+	}
+
+	/**
+	 * The generation is increased whenever the cache is cleared. A plan, that has been compiled for an older 
+	 * generation, will not be stored.
+	 * @return the current generation
+	 */
+	synchronized int getGeneration() {
+		return generation;
+	}
+
+	synchronized QueryPlan get(Class<?> queryType, String nQuery, Object[] queryArgs) {
+		QueryPlans plans = plansByQuery.get(createQueryKey(queryType, nQuery));
+		if (plans == null || plans.argumentCount != queryArgs.length) {
+			return null;
+		}
+		return plans.shapes.get(plans.createShapeKey(queryArgs));
+	}
+
+	synchronized void put(int generation, Class<?> queryType, String nQuery, Object[] queryArgs, int[] structuralArgumentIndexes, QueryPlan plan) {
+		if (this.generation != generation) {
+			return;
+		}
+		String queryKey = createQueryKey(queryType, nQuery);
+		QueryPlans plans = plansByQuery.get(queryKey);
+		if (plans == null || plans.argumentCount != queryArgs.length) {
+			plans = new QueryPlans(queryArgs.length, structuralArgumentIndexes);
+			plansByQuery.put(queryKey, plans);
+		}
+		plans.shapes.put(plans.createShapeKey(queryArgs), plan);
+	}
+
+	synchronized void clear() {
+		generation++;
+		plansByQuery.clear();
+	}
+
+	private static String createQueryKey(Class<?> queryType, String nQuery) {
+		return queryType.getSimpleName() + ":" + nQuery;
+	}
+
+	private static final class QueryPlans {
+
+		private final int argumentCount;
+		private final int[] structuralArgumentIndexes;
+		private final Map<String, QueryPlan> shapes = new LinkedHashMap<String, QueryPlan>(4, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, QueryPlan> eldest) {
+				return size() > MAX_SHAPES_PER_QUERY;
+			}
+
+		};
+
+		public QueryPlans(int argumentCount, int[] structuralArgumentIndexes) {
+			this.argumentCount = argumentCount;
+			this.structuralArgumentIndexes = structuralArgumentIndexes;
+		}
+
+		private String createShapeKey(Object[] queryArgs) {
+			StringBuilder sb = new StringBuilder(queryArgs.length + 16);
+			for (Object queryArg : queryArgs) {
+				sb.append(queryArg == null ? '0' : '1');
+			}
+			for (int structuralArgumentIndex : structuralArgumentIndexes) {
+				sb.append('|').append(queryArgs[structuralArgumentIndex]);
+			}
+			return sb.toString();
+		}
+	}
+}
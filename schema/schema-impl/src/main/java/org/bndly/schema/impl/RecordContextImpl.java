@@ -43,15 +43,33 @@ import java.util.Map;
 public class RecordContextImpl implements RecordContext {
 
 	private final Engine engine;
+	private final AccessorImpl accessorImpl;
 	private final Map<RecordContextKey, RecordContextEntry> entries = new HashMap<>();
 	private final Map<String, List<RecordContextEntry>> unpersistedEntriesByType = new HashMap<>();
 	private final Map<String, Type> typesByName = new HashMap<>();
 
 	public RecordContextImpl(Engine engine) {
+		this(engine, null);
+	}
+
+	/**
+	 * Creates a record context, whose records share the record layouts of the provided accessor.
+	 * @param engine the engine of the records
+	 * @param accessorImpl the accessor, that provides the shared record layouts. may be null.
+	 */
+	public RecordContextImpl(Engine engine, AccessorImpl accessorImpl) {
 		if (engine == null) {
 			throw new IllegalArgumentException("engine is not allowed to be null");
 		}
 		this.engine = engine;
+		this.accessorImpl = accessorImpl;
+	}
+
+	private RecordLayout getRecordLayout(Type type) {
+		if (type == null) {
+			return null;
+		}
+		return accessorImpl == null ? RecordLayout.create(type) : accessorImpl.getRecordLayout(type);
 	}
 
 	@Override
@@ -181,7 +199,7 @@ public class RecordContextImpl implements RecordContext {
 				entry = entries.get(key);
 				if (entry == null) {
 					RecordImpl r = new RecordImpl(engine.getAccessor());
-					r.setType(record.getType());
+					r.setType(record.getType(), getRecordLayout(record.getType()));
 					r.setId(id);
 					entry = new RecordContextEntry(r, this);
 					r.setRecordContextEntry(entry);
@@ -322,7 +340,7 @@ public class RecordContextImpl implements RecordContext {
 		} else {
 			r = new RecordImpl(accessor);
 		}
-		r.setType(type);
+		r.setType(type, getRecordLayout(type));
 		r.setId(id);
 		assertRecordOfEntryMatched(_attach(r, true /* true, because the record is currently in construction */));
 		return r;
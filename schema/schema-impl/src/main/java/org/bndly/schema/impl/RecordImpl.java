@@ -25,28 +25,35 @@ import org.bndly.schema.api.Record;
 import org.bndly.schema.api.RecordAttributeIterator;
 import org.bndly.schema.api.RecordContext;
 import org.bndly.schema.api.RecordList;
-import org.bndly.schema.api.RecordValue;
 import org.bndly.schema.api.exception.SchemaException;
 import org.bndly.schema.api.query.Query;
 import org.bndly.schema.api.services.Accessor;
 import org.bndly.schema.model.Attribute;
 import org.bndly.schema.model.InverseAttribute;
 import org.bndly.schema.model.NamedAttributeHolderAttribute;
-import org.bndly.schema.model.SchemaUtil;
 import org.bndly.schema.model.Type;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A RecordImpl stores its values in a flat array. The slot of an attribute is defined by the {@link RecordLayout} of the 
+ * record's type. A slot is <code>null</code>, if the attribute is not present. An attribute, that is present with a 
+ * <code>null</code> value, holds a marker object. The changed attributes are tracked in a bit set.
+ */
 public class RecordImpl implements Record {
 	private static final Logger LOG = LoggerFactory.getLogger(RecordImpl.class);
+	private static final Object NULL_VALUE = new Object();
+	private static final Object[] NO_VALUES = new Object[0];
 	
 	private final Accessor accessor; // this makes a record an active record. yikes.
-	private final Map<String, RecordValue> values = new HashMap<>();
-	private Map<String, Attribute> attributes;
+	private RecordLayout layout;
+	private Object[] values = NO_VALUES;
+	// the dirty flags of the first 64 slots. further slots are tracked in moreDirtySlots.
+	private long dirtySlots;
+	private long[] moreDirtySlots;
 	private Type type;
 	private Long id;
 	private boolean isReference;
@@ -88,11 +95,12 @@ public class RecordImpl implements Record {
 	}
 
 	private void dropAttribute(String attributeName, boolean removeValue) {
-		Attribute att = assertAttributeIsKnown(attributeName);
-		RecordValue val = values.get(att.getName());
+		int slot = assertSlotIsKnown(attributeName);
+		Attribute att = layout.getAttribute(slot);
+		Object val = values[slot];
 		if (val != null) {
 			// remove it
-			Object realValue = val.getValue();
+			Object realValue = val == NULL_VALUE ? null : val;
 			if (Record.class.isInstance(realValue)) {
 				RecordContextEntry entry = ((RecordImpl) realValue).getRecordContextEntry();
 				List<RecordContext.RecordReference> refs = entry.getReferences();
@@ -117,20 +125,19 @@ public class RecordImpl implements Record {
 				}
 			}
 			if (removeValue) {
-				values.remove(att.getName());
+				values[slot] = null;
 			}
 		}
 	}
 
 	@Override
 	public final void dropAttributes() {
-		Iterator<String> attributeNameIterator = values.keySet().iterator();
-		while (attributeNameIterator.hasNext()) {
-			String attributeName = attributeNameIterator.next();
-			// beware of concurrent modifications
-			dropAttribute(attributeName, false);
+		for (int slot = 0; slot < values.length; slot++) {
+			if (values[slot] != null) {
+				dropAttribute(layout.getAttribute(slot).getName(), false);
+			}
 		}
-		values.clear();
+		Arrays.fill(values, null);
 	}
 
 	@Override
@@ -150,6 +157,47 @@ public class RecordImpl implements Record {
 
 	public final void setIsDirty(boolean isDirty) {
 		this.isDirty = isDirty;
+		if (!isDirty) {
+			dirtySlots = 0;
+			if (moreDirtySlots != null) {
+				Arrays.fill(moreDirtySlots, 0);
+			}
+		}
+	}
+
+	/**
+	 * @param attributeName the name of an attribute
+	 * @return true, if the attribute has been set since the record was loaded or marked as not dirty
+	 */
+	public final boolean isAttributeDirty(String attributeName) {
+		return isSlotDirty(assertSlotIsKnown(attributeName));
+	}
+
+	private boolean isSlotDirty(int slot) {
+		return isBitSet(dirtySlots, moreDirtySlots, slot);
+	}
+
+	private static boolean isBitSet(long first, long[] more, int slot) {
+		if (slot < 64) {
+			return (first & (1L << slot)) != 0;
+		}
+		int index = (slot >> 6) - 1;
+		return more != null && index < more.length && (more[index] & (1L << slot)) != 0;
+	}
+
+	private void setSlotDirty(int slot, boolean dirty) {
+		if (slot < 64) {
+			dirtySlots = dirty ? dirtySlots | (1L << slot) : dirtySlots & ~(1L << slot);
+			return;
+		}
+		int index = (slot >> 6) - 1;
+		if (moreDirtySlots == null || index >= moreDirtySlots.length) {
+			if (!dirty) {
+				return;
+			}
+			moreDirtySlots = moreDirtySlots == null ? new long[index + 1] : Arrays.copyOf(moreDirtySlots, index + 1);
+		}
+		moreDirtySlots[index] = dirty ? moreDirtySlots[index] | (1L << slot) : moreDirtySlots[index] & ~(1L << slot);
 	}
 
 	@Override
@@ -168,17 +216,46 @@ public class RecordImpl implements Record {
 	}
 
 	public void setType(Type type) {
+		setType(type, type == null ? null : RecordLayout.create(type));
+	}
+
+	/**
+	 * Sets the type of the record and uses the provided layout for the attribute values. Records of the same type should 
+	 * share the same layout instance.
+	 * @param type the type of the record
+	 * @param newLayout the layout of the provided type or null, if the type is null
+	 */
+	public void setType(Type type, RecordLayout newLayout) {
 		this.type = type;
-		List<Attribute> tmp = SchemaUtil.collectAttributes(type);
-		this.attributes = new HashMap<>();
-		for (Attribute attribute : tmp) {
-			this.attributes.put(attribute.getName(), attribute);
+		if (newLayout == layout) {
+			return;
+		}
+		RecordLayout oldLayout = layout;
+		Object[] oldValues = values;
+		layout = newLayout;
+		values = newLayout == null ? NO_VALUES : new Object[newLayout.size()];
+		if (oldLayout != null) {
+			// keep the values of the attributes, that still exist in the new type
+			long oldDirtySlots = dirtySlots;
+			long[] oldMoreDirtySlots = moreDirtySlots;
+			dirtySlots = 0;
+			moreDirtySlots = null;
+			for (int oldSlot = 0; oldSlot < oldValues.length; oldSlot++) {
+				int slot = layout == null ? -1 : layout.slotOf(oldLayout.getAttribute(oldSlot).getName());
+				if (slot > -1) {
+					values[slot] = oldValues[oldSlot];
+					if (isBitSet(oldDirtySlots, oldMoreDirtySlots, oldSlot)) {
+						setSlotDirty(slot, true);
+					}
+				}
+			}
 		}
 	}
 
 	@Override
 	public final <E> E setAttributeValue(String attributeName, E value) {
-		Attribute attribute = assertAttributeIsKnown(attributeName);
+		int slot = assertSlotIsKnown(attributeName);
+		Attribute attribute = layout.getAttribute(slot);
 		// first drop existing value, because we want a cleaned up record context
 		dropAttribute(attributeName);
 		if (NamedAttributeHolderAttribute.class.isInstance(attribute)) {
@@ -211,23 +288,24 @@ public class RecordImpl implements Record {
 				}
 			}
 		}
-		values.put(attributeName, new RecordValueImpl(this, attribute, value));
+		values[slot] = value == null ? NULL_VALUE : value;
 		if (!attribute.isVirtual()) {
 			setIsDirty(true);
+			setSlotDirty(slot, true);
 		}
 		return value;
 	}
 
 	@Override
 	public boolean isAttributePresent(String attributeName) {
-		assertAttributeIsKnown(attributeName);
-		return values.containsKey(attributeName);
+		return values[assertSlotIsKnown(attributeName)] != null;
 	}
 
 	@Override
 	public final <E> E getAttributeValue(String attributeName, Class<E> desiredType) {
-		Attribute att = assertAttributeIsKnown(attributeName);
-		RecordValue v = values.get(attributeName);
+		int slot = assertSlotIsKnown(attributeName);
+		Attribute att = layout.getAttribute(slot);
+		Object v = values[slot];
 		final E returnValue;
 		if (v == null) {
 			// value is not defined
@@ -268,7 +346,7 @@ public class RecordImpl implements Record {
 				returnValue = null;
 			}
 		} else {
-			Object raw = v.getValue();
+			Object raw = v == NULL_VALUE ? null : v;
 			if (raw == null) {
 				returnValue = null;
 			} else {
@@ -294,7 +372,7 @@ public class RecordImpl implements Record {
 						}
 					} else if (Long.class.isInstance(raw)) {
 						if (Record.class.isAssignableFrom(desiredType)) {
-							Record rec = accessor.readById(((NamedAttributeHolderAttribute) att).getNamedAttributeHolder().getName(), (Long) raw, getContext());
+							Record rec = accessor.readReference(this, attributeName, (Long) raw);
 							setAttributeValue(attributeName, rec);
 							returnValue = (E) rec;
 						} else {
@@ -315,27 +393,47 @@ public class RecordImpl implements Record {
 		return returnValue;
 	}
 
+	/**
+	 * Returns the id of a lazily loaded reference, that has not been resolved to a record yet.
+	 * @param attributeName the name of the reference attribute
+	 * @return the id of the referenced record or null, if there is no unresolved reference
+	 */
+	final Long getUnresolvedReferenceId(String attributeName) {
+		Object raw = values[assertSlotIsKnown(attributeName)];
+		return Long.class.isInstance(raw) ? (Long) raw : null;
+	}
+
+	/**
+	 * Replaces an unresolved reference with the loaded record. In contrast to 
+	 * {@link #setAttributeValue(java.lang.String, java.lang.Object)} the dirty flag of this record is retained, because 
+	 * the persistent state did not change.
+	 * @param attributeName the name of the reference attribute
+	 * @param referencedRecord the loaded record
+	 */
+	final void resolveReference(String attributeName, Record referencedRecord) {
+		int slot = assertSlotIsKnown(attributeName);
+		boolean wasDirty = isDirty;
+		boolean wasSlotDirty = isSlotDirty(slot);
+		setAttributeValue(attributeName, referencedRecord);
+		isDirty = wasDirty;
+		setSlotDirty(slot, wasSlotDirty);
+	}
+
 	@Override
 	public boolean isAttributeDefined(String attributeName) {
-		Attribute attribute = null;
-		if (attributes != null) {
-			attribute = attributes.get(attributeName);
-		}
-		if (attribute == null) {
-			return false;
-		}
-		return true;
+		return layout != null && layout.slotOf(attributeName) > -1;
 	}
 
 	private Attribute assertAttributeIsKnown(String attributeName) throws IllegalStateException {
-		Attribute attribute = null;
-		if (attributes != null) {
-			attribute = attributes.get(attributeName);
-		}
-		if (attribute == null) {
+		return layout.getAttribute(assertSlotIsKnown(attributeName));
+	}
+
+	private int assertSlotIsKnown(String attributeName) throws IllegalStateException {
+		int slot = layout == null ? -1 : layout.slotOf(attributeName);
+		if (slot < 0) {
 			throw new IllegalStateException("unknown attribute " + attributeName + " for type " + type.getName());
 		}
-		return attribute;
+		return slot;
 	}
 
 	@Override
@@ -361,16 +459,16 @@ public class RecordImpl implements Record {
 
 	@Override
 	public void iterateValues(RecordAttributeIterator listener) {
-		for (Attribute attribute : attributes.values()) {
-			listener.handleAttribute(attribute, this);
+		for (int slot = 0; slot < values.length; slot++) {
+			listener.handleAttribute(layout.getAttribute(slot), this);
 		}
 	}
 
 	@Override
 	public void iteratePresentValues(RecordAttributeIterator listener) {
-		for (Attribute attribute : attributes.values()) {
-			if (isAttributePresent(attribute.getName())) {
-				listener.handleAttribute(attribute, this);
+		for (int slot = 0; slot < values.length; slot++) {
+			if (values[slot] != null) {
+				listener.handleAttribute(layout.getAttribute(slot), this);
 			}
 		}
 	}
@@ -0,0 +1,95 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.model.Attribute;
+import org.bndly.schema.model.SchemaUtil;
+import org.bndly.schema.model.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A RecordLayout assigns a slot index to each attribute of a type. The layout is immutable and shared by all records 
+ * of the type, so that a record only has to hold a flat array of values instead of its own maps.
+ * <p>
+ * If the type hierarchy declares an attribute name multiple times, the attribute, that is collected last, wins. This 
+ * matches the lookup of {@link SchemaUtil#collectAttributes(org.bndly.schema.model.NamedAttributeHolder)} results by name.
+ * </p>
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class RecordLayout {
+
+	private final Type type;
+	private final Map<String, Integer> slotsByName;
+	private final Attribute[] attributes;
+
+	private RecordLayout(Type type, Map<String, Integer> slotsByName, Attribute[] attributes) {
+		this.type = type;
+		this.slotsByName = slotsByName;
+		this.attributes = attributes;
+	}
+
+	public static RecordLayout create(Type type) {
+		if (type == null) {
+			throw new IllegalArgumentException("type is not allowed to be null");
+		}
+		Map<String, Integer> slotsByName = new HashMap<>();
+		List<Attribute> slots = new ArrayList<>();
+		for (Attribute attribute : SchemaUtil.collectAttributes(type)) {
+			Integer slot = slotsByName.get(attribute.getName());
+			if (slot == null) {
+				slotsByName.put(attribute.getName(), slots.size());
+				slots.add(attribute);
+			} else {
+				slots.set(slot, attribute);
+			}
+		}
+		return new RecordLayout(type, Collections.unmodifiableMap(slotsByName), slots.toArray(new Attribute[slots.size()]));
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return the number of slots of this layout
+	 */
+	public int size() {
+		return attributes.length;
+	}
+
+	/**
+	 * @param attributeName the name of an attribute
+	 * @return the slot index of the attribute or -1, if the type has no attribute with the provided name
+	 */
+	public int slotOf(String attributeName) {
+		Integer slot = slotsByName.get(attributeName);
+		return slot == null ? -1 : slot;
+	}
+
+	public Attribute getAttribute(int slot) {
+		return attributes[slot];
+	}
+}
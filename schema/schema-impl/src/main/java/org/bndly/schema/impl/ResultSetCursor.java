@@ -0,0 +1,146 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.exception.SchemaException;
+import org.bndly.schema.api.mapper.RowMapper;
+import org.bndly.schema.api.services.Engine;
+import org.bndly.schema.api.tx.ResultCursor;
+import org.bndly.schema.vendor.VendorConfiguration;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+/**
+ * A ResultSetCursor maps the rows of an open result set one at a time. The next row is fetched from the result set, 
+ * when {@link #hasNext()} is called and the previously fetched row has been consumed.
+ * Once the result set is exhausted or the cursor is closed, the result set and the statement are closed and 
+ * {@link #release()} is invoked, so that subclasses can hand back the connection.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ * @param <E> the type of the mapped rows
+ */
+public abstract class ResultSetCursor<E> implements ResultCursor<E> {
+
+	private final VendorConfiguration vendorConfiguration;
+	private final Engine engine;
+	private final ResultSet resultSet;
+	private final PreparedStatement preparedStatement;
+	private final RowMapper<E> mapper;
+	private final String sql;
+	private int rowIndex;
+	private boolean rowFetched;
+	private boolean closed;
+
+	public ResultSetCursor(
+			VendorConfiguration vendorConfiguration, 
+			Engine engine, 
+			ResultSet resultSet, 
+			PreparedStatement preparedStatement, 
+			RowMapper<E> mapper, 
+			String sql
+	) {
+		this.vendorConfiguration = vendorConfiguration;
+		this.engine = engine;
+		this.resultSet = resultSet;
+		this.preparedStatement = preparedStatement;
+		this.mapper = mapper;
+		this.sql = sql;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (closed) {
+			return false;
+		}
+		if (rowFetched) {
+			return true;
+		}
+		boolean hasRow;
+		try {
+			hasRow = resultSet.next();
+		} catch (SQLException ex) {
+			close();
+			throw vendorConfiguration.getErrorCodeMapper().map("failed to iterate result set of statement in row " + rowIndex + " : " + sql, ex, engine);
+		}
+		if (hasRow) {
+			rowFetched = true;
+		} else {
+			close();
+		}
+		return hasRow;
+	}
+
+	@Override
+	public E next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("cursor has no further rows");
+		}
+		rowFetched = false;
+		try {
+			return mapper.mapRow(resultSet, rowIndex++);
+		} catch (Exception ex) {
+			close();
+			throw new SchemaException("failed to handle row " + (rowIndex - 1) + " of result set for statement: " + sql, ex);
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("rows of a cursor can not be removed");
+	}
+
+	@Override
+	public final void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		rowFetched = false;
+		try {
+			silentlyClose(resultSet);
+			silentlyClose(preparedStatement);
+		} finally {
+			release();
+		}
+	}
+
+	public final boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Invoked exactly once, after the result set and the statement of this cursor have been closed.
+	 */
+	protected abstract void release();
+
+	private void silentlyClose(AutoCloseable closeable) {
+		if (closeable == null) {
+			return;
+		}
+		try {
+			closeable.close();
+		} catch (Exception ex) {
+			// ignore
+		}
+	}
+}
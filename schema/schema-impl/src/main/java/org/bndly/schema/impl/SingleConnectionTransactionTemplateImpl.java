@@ -20,11 +20,19 @@ package org.bndly.schema.impl;
  * #L%
  */
 
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+import org.bndly.schema.api.mapper.RowMapper;
+import org.bndly.schema.api.tx.ResultCursor;
+import org.bndly.schema.api.tx.Template;
 import org.bndly.schema.api.tx.TransactionCallback;
+import org.bndly.schema.api.tx.TransactionStatus;
 import org.bndly.schema.api.exception.SchemaException;
 import org.bndly.schema.api.services.Engine;
 import org.bndly.schema.vendor.VendorConfiguration;
 import java.sql.Connection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  *
@@ -51,4 +59,39 @@ public class SingleConnectionTransactionTemplateImpl extends TransactionTemplate
 		return super.doInTransaction(transactionCallback);
 	}
 
+	/**
+	 * The single connection is shared by all transactions of the engine. An open result set on that connection would be 
+	 * affected by the commits of other transactions. Therefore the rows are read eagerly and the cursor iterates over a list.
+	 */
+	@Override
+	public <E> ResultCursor<E> openCursor(final String sql, final PreparedStatementArgumentSetter[] arguments, final RowMapper<E> mapper, int fetchSize) {
+		List<E> rows = doInTransaction(new TransactionCallback<List<E>>() {
+			@Override
+			public List<E> doInTransaction(TransactionStatus transactionStatus, Template template) {
+				return template.query(sql, arguments, mapper);
+			}
+		});
+		final Iterator<E> iterator = rows == null ? Collections.<E>emptyIterator() : rows.iterator();
+		return new ResultCursor<E>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public E next() {
+				return iterator.next();
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("rows of a cursor can not be removed");
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
 }
@@ -328,6 +328,81 @@ public class TemplateImpl implements Template {
 		update(statementCreator, null);
 	}
 
+	@Override
+	public void batchUpdate(String sql, List<PreparedStatementArgumentSetter[]> batchArguments) {
+		batchUpdate(sql, batchArguments, null, null);
+	}
+
+	@Override
+	public void batchUpdate(final String sql, final List<PreparedStatementArgumentSetter[]> batchArguments, final String primaryKeyColumnName, final List<KeyHolder> keyHolders) {
+		runOnConnection(new ConnectionCallback() {
+
+			@Override
+			public Object doWithConnection(Connection connection) {
+				PreparedStatement ps;
+				try {
+					if (primaryKeyColumnName == null) {
+						ps = connection.prepareStatement(sql);
+					} else {
+						ps = connection.prepareStatement(sql, new String[]{primaryKeyColumnName});
+					}
+				} catch (SQLException e) {
+					throw vendorConfiguration.getErrorCodeMapper().map("could not create prepared statement", e, engine);
+				}
+				for (PreparedStatementArgumentSetter[] arguments : batchArguments) {
+					setParametersInPreparedStatement(ps, arguments);
+					try {
+						ps.addBatch();
+					} catch (SQLException e) {
+						silentlyClose(ps);
+						throw vendorConfiguration.getErrorCodeMapper().map("could not add parameters to batch", e, engine);
+					}
+				}
+				LOG.debug("{} (batch of {})", sql, batchArguments.size());
+				try {
+					ps.executeBatch();
+				} catch (SQLException ex) {
+					silentlyClose(ps);
+					throw vendorConfiguration.getErrorCodeMapper().map("failed to execute statement batch: " + sql, ex, engine);
+				}
+				if (keyHolders != null) {
+					pushGeneratedKeysToKeyHolders(ps, keyHolders, sql);
+				}
+				releaseResources(ps);
+				return null;
+			}
+		});
+	}
+
+	private void pushGeneratedKeysToKeyHolders(PreparedStatement ps, final List<KeyHolder> keyHolders, String sql) {
+		ResultSet rs = retrieveGeneratedKeys(ps);
+		final ObjectHolder<Integer> rowCount = new ObjectHolder<>(0);
+		iterate(rs, ps, new ResultSetIterator() {
+
+			@Override
+			public void onRow(ResultSet rs, int rowIndex) throws SQLException {
+				rowCount.setObject(rowIndex + 1);
+				if (rowIndex < keyHolders.size()) {
+					final long id = rs.getLong(1);
+					keyHolders.get(rowIndex).setKey(new Key() {
+
+						@Override
+						public long longValue() {
+							return id;
+						}
+					});
+				}
+			}
+		}, sql);
+		releaseResources(rs);
+		if (rowCount.getObject() != keyHolders.size()) {
+			silentlyClose(ps);
+			throw new SchemaException(
+				"statement batch returned " + rowCount.getObject() + " generated keys for " + keyHolders.size() + " rows: " + sql
+			);
+		}
+	}
+
 	
 	private void releaseResources(AutoCloseable... closeables) {
 		if (closeables == null) {
@@ -20,9 +20,8 @@ package org.bndly.schema.impl;
  * #L%
  */
 
-import org.bndly.schema.api.tx.PreparedStatementCreator;
 import org.bndly.schema.api.tx.PreparedStatementCallback;
-import org.bndly.schema.api.tx.KeyHolder;
+import org.bndly.schema.api.tx.ResultCursor;
 import org.bndly.schema.api.tx.Template;
 import org.bndly.schema.api.tx.TransactionCallback;
 import org.bndly.schema.api.tx.TransactionStatus;
@@ -45,7 +44,6 @@ import org.bndly.schema.api.services.TransactionFactory;
 import org.bndly.schema.impl.events.PersistenceEventBuilder;
 import org.bndly.schema.impl.events.PersistenceEventTransaction;
 import org.bndly.schema.api.mapper.RowMapper;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -58,22 +56,7 @@ public class TransactionFactoryImpl implements TransactionFactory {
 	
 	private EngineImpl engineImpl;
 	private TransactionTemplate transactionTemplate;
-
-	private PreparedStatementCreator buildPreparedStatementCreatorFromQuery(final Query q, final String... columnsToReturn) {
-		return new PreparedStatementCreator() {
-			@Override
-			public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
-				PreparedStatement ps = connection.prepareStatement(q.getSql(), columnsToReturn);
-
-				for (int i = 0; i < q.getArgumentSetters().length; i++) {
-					PreparedStatementArgumentSetter preparedStatementArgumentSetter = q.getArgumentSetters()[i];
-					preparedStatementArgumentSetter.set(i + 1, ps);
-				}
-
-				return ps;
-			}
-		};
-	}
+	private boolean batchedGeneratedKeyRetrievalSupported;
 
 	public void runInTransaction(final Query... queries) {
 		Transaction tx = createTransaction();
@@ -135,15 +118,7 @@ public class TransactionFactoryImpl implements TransactionFactory {
 						throw new SchemaException("provided query has to be an update and the primaryKeyFieldName has to be non-null");
 					}
 					final ObjectReference<Long> result = new ObjectReference<>();
-					add(new AbstractTemplateBasedTransactionalQueryImpl("number: " + q.getSql()) {
-
-						@Override
-						public void execute(Transaction transaction) {
-							KeyHolder keyHolder = new GeneratedKeyHolder();
-							template.update(buildPreparedStatementCreatorFromQuery(q, primaryKeyFieldName), keyHolder);
-							result.set(keyHolder.getKey().longValue());
-						}
-					});
+					add(new UpdateTransactionalQuery("number: " + q.getSql(), q, primaryKeyFieldName, result));
 					return result;
 				}
 
@@ -166,13 +141,7 @@ public class TransactionFactoryImpl implements TransactionFactory {
 
 				@Override
 				public void run(final Query q) {
-					add(new AbstractTemplateBasedTransactionalQueryImpl("run") {
-						
-						@Override
-						public void execute(Transaction transaction) {
-							template.update(buildPreparedStatementCreatorFromQuery(q));
-						}
-					});
+					add(new UpdateTransactionalQuery("run", q));
 				}
 
 				@Override
@@ -237,9 +206,17 @@ public class TransactionFactoryImpl implements TransactionFactory {
 						ExceptionHandlingTransactionalQuery ehq = null;
 						TransactionalQuery currentQuery = null;
 						Logic currentLogic = null;
+						UpdateStatementBatch batch = new UpdateStatementBatch(template, _this, batchedGeneratedKeyRetrievalSupported);
 						try {
 							for (Logic logic : logicElements) {
 								currentLogic = logic;
+								if (batch.add(logic)) {
+									currentQuery = (TransactionalQuery) logic;
+									ehq = null;
+									continue;
+								}
+								// everything queued before has to be written, because the logic may depend on it
+								batch.flush();
 								if (TemplateBasedTransactionalQuery.class.isInstance(logic)) {
 									((TemplateBasedTransactionalQuery) logic).setTemplate(template);
 								}
@@ -253,6 +230,7 @@ public class TransactionFactoryImpl implements TransactionFactory {
 								}
 								logic.execute(_this);
 							}
+							batch.flush();
 							currentQuery = null;
 						} catch (RuntimeException e) {
 							if (!ConstraintViolationException.class.isInstance(e) && !IntegrityException.class.isInstance(e)) {
@@ -311,10 +289,24 @@ public class TransactionFactoryImpl implements TransactionFactory {
 		};
 	}
 
+	@Override
+	public ResultCursor<Record> openCursor(Query q, int fetchSize) {
+		final RowMapper<Record> mapper = (RowMapper<Record>) q.getMapper();
+		if (mapper == null) {
+			throw new IllegalStateException("mapper for cursor query was not build.");
+		}
+		LOG.debug("opening cursor");
+		return transactionTemplate.openCursor(q.getSql(), q.getArgumentSetters(), mapper, fetchSize);
+	}
+
 	public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
 		this.transactionTemplate = transactionTemplate;
 	}
 
+	public void setBatchedGeneratedKeyRetrievalSupported(boolean batchedGeneratedKeyRetrievalSupported) {
+		this.batchedGeneratedKeyRetrievalSupported = batchedGeneratedKeyRetrievalSupported;
+	}
+
 	public void setEngineImpl(EngineImpl engineImpl) {
 		this.engineImpl = engineImpl;
 	}
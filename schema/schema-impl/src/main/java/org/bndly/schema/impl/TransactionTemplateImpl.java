@@ -20,6 +20,9 @@ package org.bndly.schema.impl;
  * #L%
  */
 
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+import org.bndly.schema.api.mapper.RowMapper;
+import org.bndly.schema.api.tx.ResultCursor;
 import org.bndly.schema.api.tx.TransactionCallback;
 import org.bndly.schema.api.tx.TransactionStatus;
 import org.bndly.schema.api.tx.TransactionTemplate;
@@ -27,6 +30,8 @@ import org.bndly.schema.api.exception.SchemaException;
 import org.bndly.schema.api.services.Engine;
 import org.bndly.schema.vendor.VendorConfiguration;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import javax.sql.DataSource;
 import org.slf4j.Logger;
@@ -156,6 +161,75 @@ public class TransactionTemplateImpl implements TransactionTemplate {
 		});
 	}
 
+	@Override
+	public <E> ResultCursor<E> openCursor(String sql, PreparedStatementArgumentSetter[] arguments, RowMapper<E> mapper, int fetchSize) {
+		final Connection connection = getConnection();
+		boolean restoreAutoCommit = false;
+		boolean opened = false;
+		PreparedStatement ps = null;
+		try {
+			// some drivers (e.g. postgres) will only respect the fetch size, if auto commit is disabled
+			if (connection.getAutoCommit()) {
+				connection.setAutoCommit(false);
+				restoreAutoCommit = true;
+			}
+			ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			if (fetchSize > 0) {
+				ps.setFetchSize(fetchSize);
+			}
+			if (arguments != null) {
+				for (int i = 1; i <= arguments.length; i++) {
+					arguments[i - 1].set(i, ps);
+				}
+			}
+			LOG.debug(sql);
+			ResultSet rs = ps.executeQuery();
+			final boolean shouldEnableAutoCommit = restoreAutoCommit;
+			ResultCursor<E> cursor = new ResultSetCursor<E>(vendorConfiguration, engine, rs, ps, mapper, sql) {
+				@Override
+				protected void release() {
+					releaseCursorConnection(connection, shouldEnableAutoCommit);
+				}
+			};
+			opened = true;
+			return cursor;
+		} catch (SQLException ex) {
+			throw vendorConfiguration.getErrorCodeMapper().map("failed to open cursor for statement: " + sql, ex, engine);
+		} finally {
+			if (!opened) {
+				// runtime exceptions of the argument setters or the cursor must not leak the statement or the connection
+				if (ps != null) {
+					try {
+						ps.close();
+					} catch (SQLException e) {
+						// ignore
+					}
+				}
+				releaseCursorConnection(connection, restoreAutoCommit);
+			}
+		}
+	}
+
+	private void releaseCursorConnection(Connection connection, boolean shouldEnableAutoCommit) {
+		try {
+			if (shouldEnableAutoCommit) {
+				// the cursor only read data. ending the transaction releases the locks and snapshots held by the database.
+				connection.commit();
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException ex) {
+			LOG.error("failed to end cursor transaction: " + ex.getMessage(), ex);
+		} finally {
+			if (closeConnectionAfterUsage) {
+				try {
+					connection.close();
+				} catch (SQLException ex) {
+					LOG.error("failed to close connection: " + ex.getMessage(), ex);
+				}
+			}
+		}
+	}
+
 	public void setDataSource(DataSource dataSource) {
 		this.dataSource = dataSource;
 	}
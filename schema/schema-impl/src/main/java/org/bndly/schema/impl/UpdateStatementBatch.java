@@ -0,0 +1,118 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.Logic;
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+import org.bndly.schema.api.Transaction;
+import org.bndly.schema.api.tx.KeyHolder;
+import org.bndly.schema.api.tx.Template;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The UpdateStatementBatch collects consecutive update queries with identical SQL while a transaction is commited.
+ * The collected queries are executed as a single JDBC statement batch, as soon as a query with a different SQL or
+ * any other logic has to be executed. Queries, that need a generated key, are only batched if the JDBC driver 
+ * returns the generated keys of a statement batch.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class UpdateStatementBatch {
+
+	static final int MAX_BATCH_SIZE = 500;
+
+	private final Template template;
+	private final Transaction transaction;
+	private final boolean batchedGeneratedKeyRetrievalSupported;
+	private final List<UpdateTransactionalQuery> queries = new ArrayList<>();
+
+	UpdateStatementBatch(Template template, Transaction transaction, boolean batchedGeneratedKeyRetrievalSupported) {
+		this.template = template;
+		this.transaction = transaction;
+		this.batchedGeneratedKeyRetrievalSupported = batchedGeneratedKeyRetrievalSupported;
+	}
+
+	/**
+	 * Adds the logic to the batch, if it is an update query. If the query does not fit into the current batch, the
+	 * current batch will be executed first.
+	 * @param logic the logic to add
+	 * @return true, if the logic has been added to the batch. false, if the logic has to be executed by the caller.
+	 */
+	boolean add(Logic logic) {
+		if (!UpdateTransactionalQuery.class.isInstance(logic)) {
+			return false;
+		}
+		UpdateTransactionalQuery query = (UpdateTransactionalQuery) logic;
+		if (query.getPrimaryKeyFieldName() != null && !batchedGeneratedKeyRetrievalSupported) {
+			return false;
+		}
+		if (!queries.isEmpty() && (!isCompatible(queries.get(0), query) || queries.size() >= MAX_BATCH_SIZE)) {
+			flush();
+		}
+		queries.add(query);
+		return true;
+	}
+
+	private boolean isCompatible(UpdateTransactionalQuery first, UpdateTransactionalQuery query) {
+		if (!first.getQuery().getSql().equals(query.getQuery().getSql())) {
+			return false;
+		}
+		String pk = first.getPrimaryKeyFieldName();
+		return pk == null ? query.getPrimaryKeyFieldName() == null : pk.equals(query.getPrimaryKeyFieldName());
+	}
+
+	/**
+	 * Executes the collected queries. A single query is executed without a statement batch.
+	 */
+	void flush() {
+		if (queries.isEmpty()) {
+			return;
+		}
+		try {
+			if (queries.size() == 1) {
+				UpdateTransactionalQuery query = queries.get(0);
+				query.setTemplate(template);
+				query.execute(transaction);
+				return;
+			}
+			UpdateTransactionalQuery first = queries.get(0);
+			List<PreparedStatementArgumentSetter[]> batchArguments = new ArrayList<>(queries.size());
+			for (UpdateTransactionalQuery query : queries) {
+				batchArguments.add(query.getQuery().getArgumentSetters());
+			}
+			if (first.getPrimaryKeyFieldName() == null) {
+				template.batchUpdate(first.getQuery().getSql(), batchArguments);
+			} else {
+				List<KeyHolder> keyHolders = new ArrayList<>(queries.size());
+				for (int i = 0; i < queries.size(); i++) {
+					keyHolders.add(new GeneratedKeyHolder());
+				}
+				template.batchUpdate(first.getQuery().getSql(), batchArguments, first.getPrimaryKeyFieldName(), keyHolders);
+				for (int i = 0; i < queries.size(); i++) {
+					queries.get(i).getResult().set(keyHolders.get(i).getKey().longValue());
+				}
+			}
+		} finally {
+			queries.clear();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.ObjectReference;
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+import org.bndly.schema.api.Transaction;
+import org.bndly.schema.api.query.Query;
+import org.bndly.schema.api.tx.KeyHolder;
+import org.bndly.schema.api.tx.PreparedStatementCreator;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * An UpdateTransactionalQuery executes an insert, update or delete statement. If a primary key column name is 
+ * provided, the generated key of the created row will be stored in the result reference.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class UpdateTransactionalQuery extends AbstractTemplateBasedTransactionalQueryImpl {
+
+	private final Query query;
+	private final String primaryKeyFieldName;
+	private final ObjectReference<Long> result;
+
+	public UpdateTransactionalQuery(String description, Query query) {
+		this(description, query, null, null);
+	}
+
+	public UpdateTransactionalQuery(String description, Query query, String primaryKeyFieldName, ObjectReference<Long> result) {
+		super(description);
+		this.query = query;
+		this.primaryKeyFieldName = primaryKeyFieldName;
+		this.result = result;
+	}
+
+	public Query getQuery() {
+		return query;
+	}
+
+	public String getPrimaryKeyFieldName() {
+		return primaryKeyFieldName;
+	}
+
+	public ObjectReference<Long> getResult() {
+		return result;
+	}
+
+	@Override
+	public void execute(Transaction transaction) {
+		if (primaryKeyFieldName == null) {
+			template.update(buildPreparedStatementCreatorFromQuery(query));
+		} else {
+			KeyHolder keyHolder = new GeneratedKeyHolder();
+			template.update(buildPreparedStatementCreatorFromQuery(query, primaryKeyFieldName), keyHolder);
+			result.set(keyHolder.getKey().longValue());
+		}
+	}
+
+	static PreparedStatementCreator buildPreparedStatementCreatorFromQuery(final Query q, final String... columnsToReturn) {
+		return new PreparedStatementCreator() {
+			@Override
+			public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
+				PreparedStatement ps = connection.prepareStatement(q.getSql(), columnsToReturn);
+
+				for (int i = 0; i < q.getArgumentSetters().length; i++) {
+					PreparedStatementArgumentSetter preparedStatementArgumentSetter = q.getArgumentSetters()[i];
+					preparedStatementArgumentSetter.set(i + 1, ps);
+				}
+
+				return ps;
+			}
+		};
+	}
+}
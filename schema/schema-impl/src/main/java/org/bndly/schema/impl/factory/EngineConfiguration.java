@@ -95,6 +95,38 @@ public class EngineConfiguration {
 		)
 		boolean ignoreValidationErrors() default false;
 
+		@AttributeDefinition(
+				name = "Cursor fetch size",
+				description = "The number of rows, that the JDBC driver should fetch per round trip when records are streamed via a cursor. "
+						+ "MySQL drivers only stream result sets with a fetch size of -2147483648 or with the connection parameter useCursorFetch=true."
+		)
+		int cursorFetchSize() default 100;
+
+		@AttributeDefinition(
+				name = "Query plan cache size",
+				description = "The number of NQuery strings, for which the generated SQL statements are kept for reuse. 0 disables the cache."
+		)
+		int queryPlanCacheSize() default 1000;
+
+		@AttributeDefinition(
+				name = "Lazy load batch size",
+				description = "The maximum number of lazily loaded references, that are resolved with a single query. 1 disables the batching."
+		)
+		int lazyLoadBatchSize() default 50;
+
+		@AttributeDefinition(
+				name = "Deployment batch size",
+				description = "The number of DDL statements, that are executed within a single transaction, when the missing parts of the schema are deployed."
+		)
+		int deploymentBatchSize() default 100;
+
+		@AttributeDefinition(
+				name = "Deployment dry run",
+				description = "If checked, the DDL statements that are missing in the database will only be logged together with the timing of the deployment plan. "
+						+ "Nothing will be executed and schema deployment listeners will not be notified."
+		)
+		boolean deploymentDryRun() default false;
+
 	}
 
 	private String schema;
@@ -103,6 +135,11 @@ public class EngineConfiguration {
 	private String connection;
 	private boolean validateOnly;
 	private boolean ignoreValidationErrors;
+	private int cursorFetchSize;
+	private int queryPlanCacheSize;
+	private int lazyLoadBatchSize;
+	private int deploymentBatchSize;
+	private boolean deploymentDryRun;
 	private VendorConfiguration vendorConfig;
 
 	@Activate
@@ -112,6 +149,11 @@ public class EngineConfiguration {
 		dialect = configuration.dialect();
 		connection = configuration.connection();
 		validateOnly = configuration.validateOnly();
+		cursorFetchSize = configuration.cursorFetchSize();
+		queryPlanCacheSize = configuration.queryPlanCacheSize();
+		lazyLoadBatchSize = configuration.lazyLoadBatchSize();
+		deploymentBatchSize = configuration.deploymentBatchSize();
+		deploymentDryRun = configuration.deploymentDryRun();
 		// track the dialect's vendor configuration. if found, register the engine configuration as a service.
 		tracker = new ServiceTracker<VendorConfiguration, VendorConfiguration>(bundleContext, bundleContext.createFilter("(&(" + Constants.OBJECTCLASS + "=" + VendorConfiguration.class.getName() + ")(name=" + dialect + "))"), null) {
 			
@@ -185,4 +227,24 @@ public class EngineConfiguration {
 		return ignoreValidationErrors;
 	}
 
+	public int getCursorFetchSize() {
+		return cursorFetchSize;
+	}
+
+	public int getQueryPlanCacheSize() {
+		return queryPlanCacheSize;
+	}
+
+	public int getLazyLoadBatchSize() {
+		return lazyLoadBatchSize;
+	}
+
+	public int getDeploymentBatchSize() {
+		return deploymentBatchSize;
+	}
+
+	public boolean isDeploymentDryRun() {
+		return deploymentDryRun;
+	}
+
 }
@@ -209,14 +209,16 @@ public class EngineFactoryImpl implements EngineFactory {
 					@Override
 					protected void onReady(DataSource dataSource, SchemaProvider schemaProvider) {
 						LOG.info("creating schema engine for schema " + schemaProvider.getSchemaName());
-						engine = createEngine(
-								dataSource,
-								engineConfiguration.getSchema(),
-								engineConfiguration.getVendorConfig(),
-								engineConfiguration.getConnection(),
-								engineConfiguration.isValidateOnly(),
-								engineConfiguration.isValidationErrorIgnored()
-						);
+						EngineOptions options = new EngineOptions();
+						options.setConnectionStrategy(engineConfiguration.getConnection());
+						options.setValidateOnly(engineConfiguration.isValidateOnly());
+						options.setValidationErrorIgnored(engineConfiguration.isValidationErrorIgnored());
+						options.setCursorFetchSize(engineConfiguration.getCursorFetchSize());
+						options.setQueryPlanCacheSize(engineConfiguration.getQueryPlanCacheSize());
+						options.setLazyLoadBatchSize(engineConfiguration.getLazyLoadBatchSize());
+						options.setDeploymentBatchSize(engineConfiguration.getDeploymentBatchSize());
+						options.setDeploymentDryRun(engineConfiguration.isDeploymentDryRun());
+						engine = createEngine(dataSource, engineConfiguration.getSchema(), engineConfiguration.getVendorConfig(), options);
 						LOG.info("created schema engine for schema " + schemaProvider.getSchemaName());
 						try {
 							// start tracking listeners for that particular engine
@@ -412,6 +414,18 @@ public class EngineFactoryImpl implements EngineFactory {
 	}
 	
 	public Engine createEngine(DataSource dataSource, String schemaName, final VendorConfiguration vendorConfiguration, String connectionStrategy, boolean validateOnly, boolean validationErrorIgnored) {
+		EngineOptions options = new EngineOptions();
+		options.setConnectionStrategy(connectionStrategy);
+		options.setValidateOnly(validateOnly);
+		options.setValidationErrorIgnored(validationErrorIgnored);
+		return createEngine(dataSource, schemaName, vendorConfiguration, options);
+	}
+	
+	public Engine createEngine(DataSource dataSource, String schemaName, final VendorConfiguration vendorConfiguration, EngineOptions options) {
+		if (options == null) {
+			options = new EngineOptions();
+		}
+		String connectionStrategy = options.getConnectionStrategy();
 		if (connectionStrategy == null) {
 			connectionStrategy = CONNECTION_SINGLE;
 		}
@@ -442,6 +456,9 @@ public class EngineFactoryImpl implements EngineFactory {
 
 		AccessorImpl accessorImpl = new AccessorImpl();
 		accessorImpl.setExpressionStatementHandler(expressionStatementHandler);
+		accessorImpl.setCursorFetchSize(options.getCursorFetchSize());
+		accessorImpl.setQueryPlanCacheSize(options.getQueryPlanCacheSize());
+		accessorImpl.setLazyLoadBatchSize(options.getLazyLoadBatchSize());
 		engineImpl.setAccessor(accessorImpl);
 		TransactionFactoryImpl queryRunnerImpl = new TransactionFactoryImpl();
 		engineImpl.setQueryRunner(queryRunnerImpl);
@@ -452,12 +469,14 @@ public class EngineFactoryImpl implements EngineFactory {
 		ConstraintRegistryImpl constraintRegistryImpl = new ConstraintRegistryImpl();
 		engineImpl.setConstraintRegistry(constraintRegistryImpl);
 		DeployerImpl deployerImpl = new DeployerImpl(engineImpl);
-		if (validateOnly) {
+		if (options.isValidateOnly()) {
 			deployerImpl.setValidateOnly(true);
 		}
-		if (validationErrorIgnored) {
+		if (options.isValidationErrorIgnored()) {
 			deployerImpl.setValidationErrorIgnored(true);
 		}
+		deployerImpl.setBatchSize(options.getDeploymentBatchSize());
+		deployerImpl.setDryRun(options.isDeploymentDryRun());
 		engineImpl.setDeployer(deployerImpl);
 		TableRegistryImpl tableRegistryImpl = new TableRegistryImpl();
 		tableRegistryImpl.setVendorConfiguration(vendorConfiguration);
@@ -495,6 +514,7 @@ public class EngineFactoryImpl implements EngineFactory {
 		accessorImpl.setMediatorRegistry(mediatorRegistry);
 
 		queryRunnerImpl.setTransactionTemplate(transactionTemplate);
+		queryRunnerImpl.setBatchedGeneratedKeyRetrievalSupported(vendorConfiguration.isBatchedGeneratedKeyRetrievalSupported());
 		queryRunnerImpl.setEngineImpl(engineImpl);
 
 		queryContextFactoryImpl.setVendorConfiguration(vendorConfiguration);
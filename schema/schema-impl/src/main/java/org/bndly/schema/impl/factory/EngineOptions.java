@@ -0,0 +1,112 @@
+package org.bndly.schema.impl.factory;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.bndly.schema.impl.AccessorImpl;
+import org.bndly.schema.impl.DeployerImpl;
+
+/**
+ * The EngineOptions hold the tuning and deployment settings of an engine, that is created by 
+ * {@link EngineFactoryImpl#createEngine(javax.sql.DataSource, java.lang.String, org.bndly.schema.vendor.VendorConfiguration, org.bndly.schema.impl.factory.EngineOptions)}.
+ * Options, that are not set, keep their defaults.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class EngineOptions {
+
+	private String connectionStrategy;
+	private boolean validateOnly;
+	private boolean validationErrorIgnored;
+	private int cursorFetchSize = AccessorImpl.DEFAULT_CURSOR_FETCH_SIZE;
+	private int queryPlanCacheSize = AccessorImpl.DEFAULT_QUERY_PLAN_CACHE_SIZE;
+	private int lazyLoadBatchSize = AccessorImpl.DEFAULT_LAZY_LOAD_BATCH_SIZE;
+	private int deploymentBatchSize = DeployerImpl.DEFAULT_BATCH_SIZE;
+	private boolean deploymentDryRun;
+
+	/**
+	 * @return the connection strategy or null, if a single connection should be used
+	 */
+	public String getConnectionStrategy() {
+		return connectionStrategy;
+	}
+
+	public void setConnectionStrategy(String connectionStrategy) {
+		this.connectionStrategy = connectionStrategy;
+	}
+
+	public boolean isValidateOnly() {
+		return validateOnly;
+	}
+
+	public void setValidateOnly(boolean validateOnly) {
+		this.validateOnly = validateOnly;
+	}
+
+	public boolean isValidationErrorIgnored() {
+		return validationErrorIgnored;
+	}
+
+	public void setValidationErrorIgnored(boolean validationErrorIgnored) {
+		this.validationErrorIgnored = validationErrorIgnored;
+	}
+
+	public int getCursorFetchSize() {
+		return cursorFetchSize;
+	}
+
+	public void setCursorFetchSize(int cursorFetchSize) {
+		this.cursorFetchSize = cursorFetchSize;
+	}
+
+	public int getQueryPlanCacheSize() {
+		return queryPlanCacheSize;
+	}
+
+	public void setQueryPlanCacheSize(int queryPlanCacheSize) {
+		this.queryPlanCacheSize = queryPlanCacheSize;
+	}
+
+	public int getLazyLoadBatchSize() {
+		return lazyLoadBatchSize;
+	}
+
+	public void setLazyLoadBatchSize(int lazyLoadBatchSize) {
+		this.lazyLoadBatchSize = lazyLoadBatchSize;
+	}
+
+	public int getDeploymentBatchSize() {
+		return deploymentBatchSize;
+	}
+
+	public void setDeploymentBatchSize(int deploymentBatchSize) {
+		this.deploymentBatchSize = deploymentBatchSize;
+	}
+
+	public boolean isDeploymentDryRun() {
+		return deploymentDryRun;
+	}
+
+	public void setDeploymentDryRun(boolean deploymentDryRun) {
+		this.deploymentDryRun = deploymentDryRun;
+	}
+
+}
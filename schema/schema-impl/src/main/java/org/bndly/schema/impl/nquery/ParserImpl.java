@@ -74,6 +74,11 @@ public final class ParserImpl implements ReservedKeywords, Parser {
 		return arg;
 	}
 
+	@Override
+	public int getQueryArgPosition() {
+		return queryArgsPos;
+	}
+
 	@Override
 	public Parser resetQueryArgPosition() {
 		queryArgsPos = markerQueryArgsPos;
@@ -153,6 +158,11 @@ public final class ParserImpl implements ReservedKeywords, Parser {
 					return that.getNextQueryArg();
 				}
 
+				@Override
+				public int getQueryArgPosition() {
+					return that.getQueryArgPosition();
+				}
+
 				@Override
 				public Parser resetQueryArgPosition() {
 					that.resetQueryArgPosition();
@@ -34,6 +34,8 @@ public class PickImpl implements Pick {
 	private IfClause ifClause;
 	private Long limit;
 	private Long offset;
+	private int limitArgumentIndex = -1;
+	private int offsetArgumentIndex = -1;
 	private Ordering ordering;
 
 	@Override
@@ -86,6 +88,28 @@ public class PickImpl implements Pick {
 		this.offset = offset;
 	}
 
+	/**
+	 * @return the position of the LIMIT value in the query arguments or -1, if no LIMIT is defined
+	 */
+	public int getLimitArgumentIndex() {
+		return limitArgumentIndex;
+	}
+
+	public void setLimitArgumentIndex(int limitArgumentIndex) {
+		this.limitArgumentIndex = limitArgumentIndex;
+	}
+
+	/**
+	 * @return the position of the OFFSET value in the query arguments or -1, if no OFFSET is defined
+	 */
+	public int getOffsetArgumentIndex() {
+		return offsetArgumentIndex;
+	}
+
+	public void setOffsetArgumentIndex(int offsetArgumentIndex) {
+		this.offsetArgumentIndex = offsetArgumentIndex;
+	}
+
 	public void setOrdering(Ordering ordering) {
 		this.ordering = ordering;
 	}
@@ -20,6 +20,7 @@ package org.bndly.schema.impl.nquery;
  * #L%
  */
 
+import org.bndly.schema.api.nquery.Parser;
 import org.bndly.schema.api.nquery.ReservedKeywords;
 
 /**
@@ -27,11 +28,23 @@ import org.bndly.schema.api.nquery.ReservedKeywords;
  * @author cybercon &lt;bndly@cybercon.de&gt;
  */
 public class QueryArgumentContextVariable implements ContextVariable {
+	private final int index;
 	private final Object arg;
 
-	public QueryArgumentContextVariable(Object arg) {
+	public QueryArgumentContextVariable(int index, Object arg) {
+		this.index = index;
 		this.arg = arg;
 	}
+
+	/**
+	 * Creates a context variable for the next query argument of the provided parser.
+	 * @param parser the parser, that provides the query arguments
+	 * @return a context variable, that knows the position of its argument in the query arguments
+	 */
+	public static QueryArgumentContextVariable next(Parser parser) {
+		int index = parser.getQueryArgPosition();
+		return new QueryArgumentContextVariable(index, parser.getNextQueryArg());
+	}
 	
 	@Override
 	public final String getName() {
@@ -48,4 +61,11 @@ public class QueryArgumentContextVariable implements ContextVariable {
 		return arg;
 	}
 
+	/**
+	 * @return the position of the argument in the query arguments
+	 */
+	public int getIndex() {
+		return index;
+	}
+
 }
@@ -0,0 +1,46 @@
+package org.bndly.schema.impl.nquery;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+
+/**
+ * A RebindableArgumentSetter sets a value, that originates from a NQuery argument. Cached query plans use it to 
+ * create the argument setter for the arguments of another execution of the same query.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public interface RebindableArgumentSetter extends PreparedStatementArgumentSetter {
+	
+	/**
+	 * Creates a new argument setter, that will set the value from the provided query arguments.
+	 * @param queryArgs the arguments of the NQuery execution
+	 * @return a new argument setter
+	 */
+	PreparedStatementArgumentSetter rebind(Object[] queryArgs);
+
+	/**
+	 * Creates a setter, that only knows the position of its value in the NQuery arguments, but not the value itself. 
+	 * Cached query plans keep the unbound setter, so that they do not hold on to the arguments of a single execution.
+	 * @return an argument setter without a bound value
+	 */
+	RebindableArgumentSetter unbind();
+}
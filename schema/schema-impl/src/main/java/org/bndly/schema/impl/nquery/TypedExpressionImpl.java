@@ -27,6 +27,7 @@ package org.bndly.schema.impl.nquery;
 public class TypedExpressionImpl extends ExpressionImpl implements TypedExpression {
 	private ContextVariable field;
 	private String typeName;
+	private int typeNameArgumentIndex = -1;
 
 	public TypedExpressionImpl(String statement) {
 		super(statement);
@@ -49,5 +50,16 @@ public class TypedExpressionImpl extends ExpressionImpl implements TypedExpressi
 	public void setTypeName(String typeName) {
 		this.typeName = typeName;
 	}
+
+	/**
+	 * @return the position of the type name in the query arguments or -1, if unknown
+	 */
+	public int getTypeNameArgumentIndex() {
+		return typeNameArgumentIndex;
+	}
+
+	public void setTypeNameArgumentIndex(int typeNameArgumentIndex) {
+		this.typeNameArgumentIndex = typeNameArgumentIndex;
+	}
 	
 }
@@ -113,7 +113,7 @@ public abstract class AbstractSimpleExpressionStatementHandler implements Expres
 
 	protected final ContextVariable createContextVariable(String rawString, Parser parser) throws QueryParsingException {
 		if (ReservedKeywords.PARAM_WILDCARD.equals(rawString)) {
-			return new QueryArgumentContextVariable(parser.getNextQueryArg());
+			return QueryArgumentContextVariable.next(parser);
 		} else {
 			return new EntityAttributeReferenceVariable(rawString);
 		}
@@ -97,9 +97,9 @@ public class InRangeExpressionStatementHandler implements ExpressionStatementHan
 						if (expectParam && ReservedKeywords.PARAM_WILDCARD.equals(cs)) {
 							expectParam = false;
 							if (lower == null) {
-								lower = new QueryArgumentContextVariable(parser.getNextQueryArg());
+								lower = QueryArgumentContextVariable.next(parser);
 							} else if (upper == null) {
-								upper = new QueryArgumentContextVariable(parser.getNextQueryArg());
+								upper = QueryArgumentContextVariable.next(parser);
 							} else {
 								parser.pop();
 								throw new QueryParsingException("INRANGE requires two arguments");
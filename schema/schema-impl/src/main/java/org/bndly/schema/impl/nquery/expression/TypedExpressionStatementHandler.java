@@ -26,6 +26,7 @@ import org.bndly.schema.api.nquery.QueryParsingException;
 import org.bndly.schema.api.nquery.ReservedKeywords;
 import org.bndly.schema.impl.nquery.ContextVariable;
 import org.bndly.schema.impl.nquery.EntityAttributeReferenceVariable;
+import org.bndly.schema.impl.nquery.QueryArgumentContextVariable;
 import org.bndly.schema.impl.nquery.TypedExpressionImpl;
 import org.bndly.schema.impl.nquery.states.AcceptStringState;
 import org.bndly.schema.impl.nquery.states.ConsumeWhiteSpacesState;
@@ -73,6 +74,9 @@ public class TypedExpressionStatementHandler implements ExpressionStatementHandl
 										EntityAttributeReferenceVariable f = new EntityAttributeReferenceVariable(field.getName() + ".id");
 										typedExpressionImpl.setField(f);
 										typedExpressionImpl.setTypeName((String) val);
+										if (QueryArgumentContextVariable.class.isInstance(contextVariable)) {
+											typedExpressionImpl.setTypeNameArgumentIndex(((QueryArgumentContextVariable) contextVariable).getIndex());
+										}
 										typedExpressionImpl.setNextOperator(context.nextOperator());
 										context.expressionCreated(typedExpressionImpl);
 									}
@@ -30,8 +30,6 @@ import org.bndly.schema.impl.nquery.ContextVariable;
 import org.bndly.schema.impl.nquery.ComparisonExpression;
 import org.bndly.schema.impl.query.ExpressionProducer;
 import org.bndly.schema.model.Attribute;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.Set;
 
 /**
@@ -132,18 +130,7 @@ public class ComparisonExpressionMapper
 	static PreparedStatementValueProvider createPreparedStatementValueProvider(MediatorProvider mediatorProvider, final AttributeColumn attributeColumn, final ContextVariable contextVariable) {
 		final Attribute attribute = attributeColumn.getAttribute();
 		final AttributeMediator mediator = mediatorProvider.getMediatorForAttribute(attribute);
-		return new PreparedStatementValueProvider() {
-
-			@Override
-			public Object get() {
-				return contextVariable.getArg();
-			}
-
-			@Override
-			public void set(int index, PreparedStatement ps) throws SQLException {
-				mediator.setRawParameterInPreparedStatement(index, ps, attribute, get());
-			}
-		};
+		return new QueryArgumentValueProvider(mediator, attribute, contextVariable);
 	}
 
 	private void mapGreater(ComparisonExpression ee, Criteria criteria, String fieldName, AttributeColumn attributeColumn) {
@@ -0,0 +1,84 @@
+package org.bndly.schema.impl.nquery.sqlmapper;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.AttributeMediator;
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+import org.bndly.schema.api.query.PreparedStatementValueProvider;
+import org.bndly.schema.impl.nquery.ContextVariable;
+import org.bndly.schema.impl.nquery.QueryArgumentContextVariable;
+import org.bndly.schema.impl.nquery.RebindableArgumentSetter;
+import org.bndly.schema.model.Attribute;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Provides the value of a context variable to a prepared statement by using the mediator of the compared attribute.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class QueryArgumentValueProvider implements PreparedStatementValueProvider, RebindableArgumentSetter {
+
+	private final AttributeMediator mediator;
+	private final Attribute attribute;
+	private final ContextVariable contextVariable;
+
+	public QueryArgumentValueProvider(AttributeMediator mediator, Attribute attribute, ContextVariable contextVariable) {
+		this.mediator = mediator;
+		this.attribute = attribute;
+		this.contextVariable = contextVariable;
+	}
+
+	@Override
+	public Object get() {
+		return contextVariable.getArg();
+	}
+
+	@Override
+	public void set(int index, PreparedStatement ps) throws SQLException {
+		mediator.setRawParameterInPreparedStatement(index, ps, attribute, get());
+	}
+
+	@Override
+	public PreparedStatementArgumentSetter rebind(Object[] queryArgs) {
+		if (!QueryArgumentContextVariable.class.isInstance(contextVariable)) {
+			return this;
+		}
+		int index = ((QueryArgumentContextVariable) contextVariable).getIndex();
+		if (index < 0) {
+			return this;
+		}
+		return new QueryArgumentValueProvider(mediator, attribute, new QueryArgumentContextVariable(index, queryArgs[index]));
+	}
+
+	@Override
+	public RebindableArgumentSetter unbind() {
+		if (!QueryArgumentContextVariable.class.isInstance(contextVariable)) {
+			return this;
+		}
+		int index = ((QueryArgumentContextVariable) contextVariable).getIndex();
+		if (index < 0) {
+			return this;
+		}
+		return new QueryArgumentValueProvider(mediator, attribute, new QueryArgumentContextVariable(index, null));
+	}
+
+}
@@ -24,6 +24,7 @@ import org.bndly.schema.api.nquery.ReservedKeywords;
 import org.bndly.schema.impl.nquery.IfClauseImpl;
 import org.bndly.schema.api.nquery.Parser;
 import org.bndly.schema.impl.nquery.PickImpl;
+import org.bndly.schema.impl.nquery.QueryArgumentContextVariable;
 import org.bndly.schema.api.nquery.QueryParsingException;
 import org.bndly.schema.impl.nquery.ContextVariable;
 import org.bndly.schema.impl.nquery.EntityAttributeReferenceVariable;
@@ -103,6 +104,9 @@ public class PickState extends ConsumeWhiteSpacesState {
 						throw new QueryParsingException("LIMIT has to be a number");
 					}
 					pickImpl.setLimit(((Number)limit).longValue());
+					if (QueryArgumentContextVariable.class.isInstance(contextVariable)) {
+						pickImpl.setLimitArgumentIndex(((QueryArgumentContextVariable) contextVariable).getIndex());
+					}
 				}
 			});
 		} else if (ReservedKeywords.OFFSET.equals(kw)) {
@@ -121,6 +125,9 @@ public class PickState extends ConsumeWhiteSpacesState {
 						throw new QueryParsingException("OFFSET has to be a number");
 					}
 					pickImpl.setOffset(((Number)offset).longValue());
+					if (QueryArgumentContextVariable.class.isInstance(contextVariable)) {
+						pickImpl.setOffsetArgumentIndex(((QueryArgumentContextVariable) contextVariable).getIndex());
+					}
 				}
 			});
 		} else if (ReservedKeywords.ORDERBY.equals(kw)) {
@@ -84,7 +84,7 @@ public abstract class ReadContextVariableState implements ParsingState {
 		parser.pop();
 		ContextVariable contextVariable;
 		if (ReservedKeywords.PARAM_WILDCARD.equals(raw)) {
-			contextVariable = new QueryArgumentContextVariable(parser.getNextQueryArg());
+			contextVariable = QueryArgumentContextVariable.next(parser);
 		} else if (raw != null) {
 			contextVariable = new EntityAttributeReferenceVariable(raw);
 		} else {
@@ -33,6 +33,7 @@ import org.bndly.schema.api.RecordContext;
 import org.bndly.schema.api.repository.ModificationNotAllowedException;
 import org.bndly.schema.api.repository.RepositoryListener;
 import org.bndly.schema.api.services.Engine;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -103,13 +104,29 @@ public class NodeImpl extends AbstractRepositoryItem implements Node, IndexManag
 				return item.isRemovalScheduled();
 			}
 
+			@Override
+			protected boolean isPersistenceOfItemScheduled(NodeImpl item) {
+				return item.isPersistenceScheduled();
+			}
+
 			@Override
 			protected Iterator<Record> performItemsQuery() {
 				return getAccessor().query("PICK Node n IF n.parent.id=? ORDERBY n.parentIndex", getRecordContext(), null, getRecord() == null ? null : getRecord().getId());
 			}
 
+			@Override
+			protected Iterator<Record> performItemsPageQuery(long offset, int limit) {
+				return getAccessor().query(
+					"PICK Node n IF n.parent.id=? ORDERBY n.parentIndex LIMIT ? OFFSET ?", getRecordContext(), null, getRecord() == null ? null : getRecord().getId(), limit, offset
+				);
+			}
+
 			@Override
 			protected Iterator<Record> performItemQueryByKey(String key) {
+				Record cached = getCachedChildRecord(key);
+				if (cached != null) {
+					return Collections.singletonList(cached).iterator();
+				}
 				return getAccessor().query("PICK Node n IF n.name=? AND n.parent.id=? LIMIT ?", getRecordContext(), null, key, getRecord() == null ? null : getRecord().getId(), 1);
 			}
 
@@ -168,13 +185,32 @@ public class NodeImpl extends AbstractRepositoryItem implements Node, IndexManag
 				return item.isRemovalScheduled();
 			}
 
+			@Override
+			protected boolean isPersistenceOfItemScheduled(PropertyImpl item) {
+				return item.isPersistenceScheduled();
+			}
+
 			@Override
 			protected Iterator<Record> performItemsQuery() {
 				return getAccessor().query("PICK Property p IF p.node.id=? ORDERBY p.parentIndex", getRecordContext(), null, getRecord() == null ? null : getRecord().getId());
 			}
 
+			@Override
+			protected Iterator<Record> performItemsPageQuery(long offset, int limit) {
+				return getAccessor().query(
+					"PICK Property p IF p.node.id=? ORDERBY p.parentIndex LIMIT ? OFFSET ?", getRecordContext(), null, getRecord() == null ? null : getRecord().getId(), limit, offset
+				);
+			}
+
 			@Override
 			protected Iterator<Record> performItemQueryByKey(String key) {
+				RepositoryCache cache = getRepositorySession().getCache();
+				if (cache != null) {
+					RepositoryCache.CachedProperty cachedProperty = cache.getProperty(path.toString(), key);
+					if (cachedProperty != null) {
+						return Collections.singletonList(cachedProperty.toRecord(getRecordContext(), getRecord())).iterator();
+					}
+				}
 				return getAccessor().query("PICK Property p IF p.node.id=? AND p.name=? LIMIT ?", getRecordContext(), null, getRecord() == null ? null : getRecord().getId(), key, 1);
 			}
 
@@ -267,6 +303,9 @@ public class NodeImpl extends AbstractRepositoryItem implements Node, IndexManag
 		childNodeRecord.setAttributeValue("nodeType", type);
 		childNodeRecord.setAttributeValue("parentIndex", nodeIndexManager.pullNextChildIndex());
 		Path childPath = PathBuilder.newInstance(getPath()).element(name).build();
+		if (getRepositorySession().isPathIndexed()) {
+			childNodeRecord.setAttributeValue("path", childPath.toString());
+		}
 		NodeImpl childNode = createNodeInstance(this, childPath, childNodeRecord);
 		children.retain(childNode);
 		childNode.createPersist(this);
@@ -288,14 +327,53 @@ public class NodeImpl extends AbstractRepositoryItem implements Node, IndexManag
 	
 	private NodeImpl createNodeInstance(final NodeImpl parent, final Path path, final Record nodeRecord) {
 		final String type = nodeRecord.getAttributeValue("nodeType", String.class);
+		getRepositorySession().cacheNode(path, nodeRecord);
 		return new NodeImpl(parent, type, path, getRecordContext(), super.getRepositorySession(), nodeRecord, getEngine());
 	}
 
+	private Record getCachedChildRecord(String name) {
+		RepositoryCache cache = getRepositorySession().getCache();
+		if (cache == null || isTransient()) {
+			return null;
+		}
+		RepositoryCache.CachedNode cachedNode = cache.getNode(PathBuilder.newInstance(path).element(name).build().toString());
+		return cachedNode == null ? null : cachedNode.toRecord(getRecordContext(), getRecord());
+	}
+
+	/**
+	 * Looks up a child, that is either already known to the session or that is available in the shared repository cache. 
+	 * The persistence layer will not be queried.
+	 * @param name the name of the child
+	 * @return the child or null, if the child is not available without a query
+	 */
+	NodeImpl peekChild(String name) {
+		NodeImpl child = children.peekItem(name);
+		if (child != null) {
+			return child;
+		}
+		Record cached = getCachedChildRecord(name);
+		return cached == null ? null : children.adoptItem(cached);
+	}
+
+	/**
+	 * Puts a child, whose record has been loaded by the session, into the children of this node.
+	 * @param childRecord the record of the child node
+	 * @return the child or null, if the removal of the child is scheduled
+	 */
+	NodeImpl adoptChild(Record childRecord) {
+		return children.adoptItem(childRecord);
+	}
+
 	@Override
 	public Iterator<Node> getChildren() throws RepositoryException {
 		return (Iterator) children.getItems();
 	}
 
+	@Override
+	public Iterator<Node> getChildren(long offset, int limit) throws RepositoryException {
+		return (Iterator) children.getItems(offset, limit);
+	}
+
 	@Override
 	public Node getChild(String name) throws RepositoryException {
 		return children.getItem(name);
@@ -371,6 +449,7 @@ public class NodeImpl extends AbstractRepositoryItem implements Node, IndexManag
 		final Property.Type propertyType = Property.Type.valueOf(propertyRecord.getAttributeValue("type", String.class));
 		Boolean tmp = propertyRecord.getAttributeValue("isMultiValued", Boolean.class);
 		final boolean multiValued = tmp == null ? false : tmp;
+		getRepositorySession().cacheProperty(path, propertyRecord);
 		return new PropertyImpl(propertyType, name, this, multiValued, super.getRepositorySession(), propertyRecord, getEngine(), getRecordContext());
 	}
 
@@ -0,0 +1,311 @@
+package org.bndly.schema.impl.repository;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.Record;
+import org.bndly.schema.api.RecordContext;
+import org.bndly.schema.api.repository.Node;
+import org.bndly.schema.api.repository.Property;
+import org.bndly.schema.api.repository.RepositoryException;
+import org.bndly.schema.api.repository.RepositoryListener;
+import org.bndly.schema.api.repository.RepositorySession;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The RepositoryCache keeps the persisted state of nodes and their properties by the path of the node. It is shared 
+ * between the read only sessions of a repository. The cache only holds immutable snapshots of the node and property 
+ * records. Each session materializes the snapshots as records in its own record context. Values of properties are not 
+ * cached.
+ * <p>
+ * Modifications are collected by the {@link #getInvalidationListener() invalidation listener} per session and applied 
+ * after the session has been flushed successfully. Every invalidation increments the generation of the cache. Snapshots, 
+ * that have been read with an older generation, are not put into the cache, so that a concurrent flush can not be 
+ * overwritten with stale data.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public final class RepositoryCache {
+
+	public static final int DEFAULT_MAX_CACHED_NODES = 10000;
+
+	private final ConcurrentMap<String, CachedNode> nodesByPath = new ConcurrentHashMap<>();
+	private final ConcurrentMap<RepositorySession, List<Invalidation>> pendingInvalidations = new ConcurrentHashMap<>();
+	private final AtomicLong generation = new AtomicLong();
+	private final int maxCachedNodes;
+	private final RepositoryListener invalidationListener = new InvalidationListener();
+
+	static final class CachedNode {
+		private final long id;
+		private final String name;
+		private final String nodeType;
+		private final long parentIndex;
+		private final ConcurrentMap<String, CachedProperty> properties = new ConcurrentHashMap<>();
+
+		private CachedNode(Record record) {
+			this.id = record.getId();
+			this.name = record.getAttributeValue("name", String.class);
+			this.nodeType = record.getAttributeValue("nodeType", String.class);
+			this.parentIndex = record.getAttributeValue("parentIndex", Long.class);
+		}
+
+		Record toRecord(RecordContext recordContext, Record parentRecord) {
+			Record record = recordContext.create("Node", id);
+			if (parentRecord != null) {
+				record.setAttributeValue("parent", parentRecord);
+			}
+			record.setAttributeValue("name", name);
+			record.setAttributeValue("nodeType", nodeType);
+			record.setAttributeValue("parentIndex", parentIndex);
+			return record;
+		}
+	}
+
+	static final class CachedProperty {
+		private final long id;
+		private final String name;
+		private final String type;
+		private final boolean multiValued;
+		private final long parentIndex;
+
+		private CachedProperty(Record record) {
+			this.id = record.getId();
+			this.name = record.getAttributeValue("name", String.class);
+			this.type = record.getAttributeValue("type", String.class);
+			Boolean tmp = record.getAttributeValue("isMultiValued", Boolean.class);
+			this.multiValued = tmp == null ? false : tmp;
+			this.parentIndex = record.getAttributeValue("parentIndex", Long.class);
+		}
+
+		Record toRecord(RecordContext recordContext, Record nodeRecord) {
+			Record record = recordContext.create("Property", id);
+			record.setAttributeValue("node", nodeRecord);
+			record.setAttributeValue("name", name);
+			record.setAttributeValue("type", type);
+			record.setAttributeValue("isMultiValued", multiValued);
+			record.setAttributeValue("parentIndex", parentIndex);
+			return record;
+		}
+	}
+
+	private static final class Invalidation {
+		private final String path;
+		private final boolean subtree;
+		private final boolean children;
+		private final boolean properties;
+
+		private Invalidation(String path, boolean subtree, boolean children, boolean properties) {
+			this.path = path;
+			this.subtree = subtree;
+			this.children = children;
+			this.properties = properties;
+		}
+	}
+
+	public RepositoryCache() {
+		this(DEFAULT_MAX_CACHED_NODES);
+	}
+
+	public RepositoryCache(int maxCachedNodes) {
+		this.maxCachedNodes = maxCachedNodes;
+	}
+
+	public long getGeneration() {
+		return generation.get();
+	}
+
+	public int size() {
+		return nodesByPath.size();
+	}
+
+	/**
+	 * The listener has to be registered at the repository, so that modifications of admin sessions invalidate the cache.
+	 * @return the listener, that invalidates the cache after a successful flush
+	 */
+	public RepositoryListener getInvalidationListener() {
+		return invalidationListener;
+	}
+
+	CachedNode getNode(String path) {
+		return nodesByPath.get(path);
+	}
+
+	void putNode(String path, Record nodeRecord, long readGeneration) {
+		if (nodeRecord.getId() == null || readGeneration != generation.get()) {
+			return;
+		}
+		if (nodesByPath.size() >= maxCachedNodes && !nodesByPath.containsKey(path)) {
+			// the cache is read-mostly. dropping everything is cheaper than maintaining an access order.
+			nodesByPath.clear();
+		}
+		CachedNode cachedNode = new CachedNode(nodeRecord);
+		CachedNode existing = nodesByPath.putIfAbsent(path, cachedNode);
+		if (existing != null && existing.id != cachedNode.id) {
+			nodesByPath.replace(path, existing, cachedNode);
+		}
+	}
+
+	CachedProperty getProperty(String nodePath, String propertyName) {
+		CachedNode cachedNode = nodesByPath.get(nodePath);
+		return cachedNode == null ? null : cachedNode.properties.get(propertyName);
+	}
+
+	void putProperty(String nodePath, Record propertyRecord, long readGeneration) {
+		if (propertyRecord.getId() == null || readGeneration != generation.get()) {
+			return;
+		}
+		CachedNode cachedNode = nodesByPath.get(nodePath);
+		if (cachedNode != null) {
+			CachedProperty cachedProperty = new CachedProperty(propertyRecord);
+			cachedNode.properties.put(cachedProperty.name, cachedProperty);
+		}
+	}
+
+	public void clear() {
+		generation.incrementAndGet();
+		nodesByPath.clear();
+	}
+
+	private void invalidate(Invalidation invalidation) {
+		generation.incrementAndGet();
+		String path = invalidation.path;
+		if (invalidation.properties) {
+			CachedNode cachedNode = nodesByPath.get(path);
+			if (cachedNode != null) {
+				cachedNode.properties.clear();
+			}
+		}
+		if (invalidation.subtree) {
+			nodesByPath.remove(path);
+		}
+		if (invalidation.subtree || invalidation.children) {
+			String prefix = "/".equals(path) ? "/" : path + "/";
+			Iterator<String> iterator = nodesByPath.keySet().iterator();
+			while (iterator.hasNext()) {
+				String cachedPath = iterator.next();
+				if (cachedPath.startsWith(prefix) && (invalidation.subtree || cachedPath.indexOf('/', prefix.length()) < 0)) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	private void schedule(RepositorySession session, Invalidation invalidation) {
+		List<Invalidation> invalidations = pendingInvalidations.get(session);
+		if (invalidations == null) {
+			invalidations = new ArrayList<>();
+			List<Invalidation> existing = pendingInvalidations.putIfAbsent(session, invalidations);
+			if (existing != null) {
+				invalidations = existing;
+			}
+		}
+		synchronized (invalidations) {
+			invalidations.add(invalidation);
+		}
+	}
+
+	private static String parentPath(Node node) throws RepositoryException {
+		Node parent = node.getParent();
+		return parent == null ? "/" : parent.getPath().toString();
+	}
+
+	private final class InvalidationListener implements RepositoryListener {
+
+		@Override
+		public void onSessionStart(RepositorySession session) throws RepositoryException {
+		}
+
+		@Override
+		public void onSessionEnd(RepositorySession session) throws RepositoryException {
+			pendingInvalidations.remove(session);
+		}
+
+		@Override
+		public void onBeforeFlush(RepositorySession session) throws RepositoryException {
+		}
+
+		@Override
+		public void onFlushSuccess(RepositorySession session) throws RepositoryException {
+			List<Invalidation> invalidations = pendingInvalidations.remove(session);
+			if (invalidations == null) {
+				return;
+			}
+			synchronized (invalidations) {
+				for (Invalidation invalidation : invalidations) {
+					invalidate(invalidation);
+				}
+			}
+		}
+
+		@Override
+		public void onFlushFailure(RepositorySession session) throws RepositoryException {
+			// the invalidations stay pending, because the session might be flushed again
+		}
+
+		@Override
+		public void onNodeCreated(Node node) throws RepositoryException {
+			// nodes are only cached after they have been found. hence there is nothing to invalidate.
+		}
+
+		@Override
+		public void onNodeRemoved(Node node) throws RepositoryException {
+			schedule(node.getRepositorySession(), new Invalidation(node.getPath().toString(), true, false, true));
+		}
+
+		@Override
+		public void onNodeMoved(Node node, long index) throws RepositoryException {
+			// moving a node shifts the index of its siblings
+			schedule(node.getRepositorySession(), new Invalidation(parentPath(node), false, true, false));
+		}
+
+		@Override
+		public void onPropertyCreated(Property property) throws RepositoryException {
+			onPropertyChanged(property);
+		}
+
+		@Override
+		public void onPropertyRemoved(Property property) throws RepositoryException {
+			onPropertyChanged(property);
+		}
+
+		@Override
+		public void onPropertyChanged(Property property) throws RepositoryException {
+			Node node = property.getNode();
+			schedule(node.getRepositorySession(), new Invalidation(node.getPath().toString(), false, false, true));
+		}
+
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("RepositoryCache[nodes=").append(nodesByPath.size()).append(", generation=").append(generation.get());
+		int pending = 0;
+		for (Map.Entry<RepositorySession, List<Invalidation>> entry : pendingInvalidations.entrySet()) {
+			pending += entry.getValue().size();
+		}
+		return sb.append(", pendingInvalidations=").append(pending).append("]").toString();
+	}
+}
@@ -47,10 +47,20 @@ public class RepositoryImpl implements Repository {
 	
 	public final List<RepositoryListener> listeners = new ArrayList<>();
 	private final ReadWriteLock listenersLock = new ReentrantReadWriteLock();
+	private final RepositoryCache cache = new RepositoryCache();
+
+	public RepositoryImpl() {
+		// the cache has to see the modifications of all admin sessions
+		listeners.add(cache.getInvalidationListener());
+	}
+
+	public RepositoryCache getCache() {
+		return cache;
+	}
 
 	@Override
 	public RepositorySession createReadOnlySession() throws RepositoryException {
-		RepositorySessionImpl session = new RepositorySessionImpl(true, engine, engine.getAccessor().buildRecordContext(), listeners, listenersLock);
+		RepositorySessionImpl session = new RepositorySessionImpl(true, engine, engine.getAccessor().buildRecordContext(), listeners, listenersLock, cache);
 		listenersLock.readLock().lock();
 		try {
 			for (RepositoryListener listener : listeners) {
@@ -78,6 +88,8 @@ public class RepositoryImpl implements Repository {
 
 	public void setEngine(Engine engine) {
 		this.engine = engine;
+		// cached snapshots belong to the records of the previous engine
+		cache.clear();
 	}
 
 	@Reference(
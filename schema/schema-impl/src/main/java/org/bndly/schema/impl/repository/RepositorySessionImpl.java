@@ -25,6 +25,7 @@ import org.bndly.schema.api.repository.RepositoryException;
 import org.bndly.schema.api.repository.NodeNotFoundException;
 import org.bndly.schema.api.repository.RepositorySession;
 import org.bndly.schema.api.repository.Path;
+import org.bndly.schema.api.repository.PathBuilder;
 import org.bndly.schema.api.repository.Node;
 import org.bndly.schema.api.RecordContext;
 import org.bndly.schema.api.Transaction;
@@ -32,10 +33,16 @@ import org.bndly.schema.api.exception.SchemaException;
 import org.bndly.schema.api.repository.EntityReference;
 import org.bndly.schema.api.repository.RepositoryListener;
 import org.bndly.schema.api.services.Engine;
+import org.bndly.schema.model.Attribute;
+import org.bndly.schema.model.Schema;
+import org.bndly.schema.model.SchemaUtil;
+import org.bndly.schema.model.Type;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
@@ -50,10 +57,28 @@ public final class RepositorySessionImpl implements RepositorySession {
 	private final List<TransactionItem> transactionItems = new ArrayList<>();
 	private final List<RepositoryListener> listeners;
 	private final ReadWriteLock listenersLock;
+	private final RepositoryCache cache;
+	private final long cacheGeneration;
 
-	private Node root;
+	private NodeImpl root;
+	private Boolean pathIndexed;
 
 	public RepositorySessionImpl(boolean readOnly, Engine engine, RecordContext recordContext, List<RepositoryListener> listeners, ReadWriteLock lock) {
+		this(readOnly, engine, recordContext, listeners, lock, null);
+	}
+
+	/**
+	 * Creates a session, that uses a shared repository cache. The cache will only be used, if the session is read only.
+	 * @param readOnly true, if the session is not allowed to modify the repository
+	 * @param engine the engine of the repository schema
+	 * @param recordContext the record context of the session
+	 * @param listeners the repository listeners
+	 * @param lock the lock to guard the listeners
+	 * @param cache the shared cache or null
+	 */
+	public RepositorySessionImpl(
+			boolean readOnly, Engine engine, RecordContext recordContext, List<RepositoryListener> listeners, ReadWriteLock lock, RepositoryCache cache
+	) {
 		if (engine == null) {
 			throw new IllegalArgumentException("engine is not allowed to be null");
 		}
@@ -68,6 +93,9 @@ public final class RepositorySessionImpl implements RepositorySession {
 		this.listeners = listeners;
 		this.listenersLock = lock;
 		this.readOnly = readOnly;
+		this.cache = readOnly ? cache : null;
+		// snapshots are only put into the cache, if no invalidation happened since the session started
+		this.cacheGeneration = this.cache == null ? -1 : this.cache.getGeneration();
 	}
 
 	@Override
@@ -109,8 +137,51 @@ public final class RepositorySessionImpl implements RepositorySession {
 		return new EntityReferenceImpl(record);
 	}
 
+	RepositoryCache getCache() {
+		return cache;
+	}
+
+	void cacheNode(Path path, Record nodeRecord) {
+		if (cache != null) {
+			cache.putNode(path.toString(), nodeRecord, cacheGeneration);
+		}
+	}
+
+	void cacheProperty(Path nodePath, Record propertyRecord) {
+		if (cache != null) {
+			cache.putProperty(nodePath.toString(), propertyRecord, cacheGeneration);
+		}
+	}
+
+	/**
+	 * Tells, if the deployed Node type has a <code>path</code> attribute. If so, the full path of each node is stored 
+	 * with the node and any node can be looked up by its path.
+	 * @return true, if nodes can be looked up by their materialized path
+	 */
+	public boolean isPathIndexed() {
+		if (pathIndexed == null) {
+			boolean found = false;
+			Schema schema = engine.getDeployer().getDeployedSchema();
+			if (schema != null && schema.getTypes() != null) {
+				for (Type type : schema.getTypes()) {
+					if ("Node".equals(type.getName())) {
+						for (Attribute attribute : SchemaUtil.collectAttributes(type)) {
+							if ("path".equals(attribute.getName())) {
+								found = true;
+								break;
+							}
+						}
+						break;
+					}
+				}
+			}
+			pathIndexed = found;
+		}
+		return pathIndexed;
+	}
+
 	@Override
-	public Node getRoot() throws RepositoryException {
+	public NodeImpl getRoot() throws RepositoryException {
 		if (root == null) {
 			root = NodeImpl.createRootNode(recordContext, this, engine);
 		}
@@ -166,12 +237,57 @@ public final class RepositorySessionImpl implements RepositorySession {
 
 	@Override
 	public Node getNode(Path path) throws NodeNotFoundException, RepositoryException {
-		Node rootNode = getRoot();
-		Node current = rootNode;
-		for (String elementName : path.getElementNames()) {
-			current = current.getChild(elementName);
+		List<String> elementNames = path.getElementNames();
+		NodeImpl current = getRoot();
+		int i = 0;
+		// descend through the nodes, that are already known to the session or to the shared cache
+		while (i < elementNames.size()) {
+			NodeImpl child = current.peekChild(elementNames.get(i));
+			if (child == null) {
+				break;
+			}
+			current = child;
+			i++;
+		}
+		// load all missing ancestors with a single query on the materialized paths
+		if (i < elementNames.size() && !current.isTransient() && isPathIndexed()) {
+			Map<String, Record> recordsByPath = loadNodeRecordsByPath(current.getPath(), elementNames.subList(i, elementNames.size()));
+			while (i < elementNames.size()) {
+				Record record = recordsByPath.get(PathBuilder.newInstance(current.getPath()).element(elementNames.get(i)).build().toString());
+				NodeImpl child = record == null ? null : current.adoptChild(record);
+				if (child == null) {
+					break;
+				}
+				current = child;
+				i++;
+			}
+		}
+		// nodes without a materialized path are resolved element by element. this will also throw the NodeNotFoundException.
+		while (i < elementNames.size()) {
+			current = (NodeImpl) current.getChild(elementNames.get(i));
+			i++;
 		}
 		return current;
 	}
 
+	private Map<String, Record> loadNodeRecordsByPath(Path start, List<String> elementNames) {
+		StringBuilder sb = new StringBuilder("PICK Node n IF ");
+		Object[] args = new Object[elementNames.size()];
+		PathBuilder pathBuilder = PathBuilder.newInstance(start);
+		for (int i = 0; i < elementNames.size(); i++) {
+			if (i > 0) {
+				sb.append(" OR ");
+			}
+			sb.append("n.path=?");
+			args[i] = pathBuilder.element(elementNames.get(i)).build().toString();
+		}
+		Map<String, Record> recordsByPath = new HashMap<>();
+		Iterator<Record> records = engine.getAccessor().query(sb.toString(), recordContext, null, args);
+		while (records.hasNext()) {
+			Record record = records.next();
+			recordsByPath.put(record.getAttributeValue("path", String.class), record);
+		}
+		return recordsByPath;
+	}
+
 }
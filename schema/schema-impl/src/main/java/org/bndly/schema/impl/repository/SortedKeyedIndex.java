@@ -45,11 +45,13 @@ public abstract class SortedKeyedIndex<KEY,ITEM extends IndexedItem> {
 	
 	protected abstract boolean isTransient();
 	protected abstract Iterator<Record> performItemsQuery();
+	protected abstract Iterator<Record> performItemsPageQuery(long offset, int limit);
 	protected abstract Iterator<Record> performItemQueryByKey(KEY key);
 	protected abstract ITEM wrapItemRecord(Record record);
 	protected abstract KEY getKeyOfItem(ITEM item);
 	protected abstract ITEM setIndexOfItem(ITEM item, long index) throws RepositoryException;
 	protected abstract boolean isRemovalOfItemScheduled(ITEM item);
+	protected abstract boolean isPersistenceOfItemScheduled(ITEM item);
 	protected abstract void testMovePreconditions(ITEM item, long index) throws RepositoryException;
 	protected abstract void throwItemNotFoundException(KEY keyOfItem) throws RepositoryException;
 	protected abstract Long countItemsInPersistenceLayer();
@@ -166,6 +168,87 @@ public abstract class SortedKeyedIndex<KEY,ITEM extends IndexedItem> {
 		return itemList == null ? Collections.EMPTY_LIST.iterator() : itemList.iterator();
 	}
 	
+	/**
+	 * Returns a page of the sorted items. As long as the items have not been loaded completely and no item has a pending 
+	 * modification, only the requested page will be loaded from the persistence layer.
+	 * @param offset the number of items to skip
+	 * @param limit the maximum number of items to return
+	 * @return an iterator over the items of the page
+	 * @throws RepositoryException if the items can not be loaded
+	 */
+	public final Iterator<ITEM> getItems(long offset, int limit) throws RepositoryException {
+		if (offset < 0 || limit < 0) {
+			throw new IllegalArgumentException("offset and limit have to be positive");
+		}
+		List<ITEM> page = new ArrayList<>();
+		if (isTransient() || didLoadItems || isModificationOfItemsScheduled()) {
+			Iterator<ITEM> items = getItems();
+			long i = 0;
+			while (items.hasNext() && page.size() < limit) {
+				ITEM item = items.next();
+				if (i >= offset) {
+					page.add(item);
+				}
+				i++;
+			}
+		} else {
+			Iterator<Record> records = performItemsPageQuery(offset, limit);
+			while (records.hasNext()) {
+				ITEM item = adoptItem(records.next());
+				if (item != null) {
+					page.add(item);
+				}
+			}
+		}
+		return page.iterator();
+	}
+
+	/**
+	 * Looks up an item without querying the persistence layer.
+	 * @param key the key of the item
+	 * @return the item or null, if the item is not known yet or if its removal is scheduled
+	 */
+	public final ITEM peekItem(KEY key) {
+		if (itemsByKey == null) {
+			return null;
+		}
+		ITEM item = itemsByKey.get(key);
+		if (item == null || isRemovalOfItemScheduled(item)) {
+			return null;
+		}
+		return item;
+	}
+
+	/**
+	 * Puts an item for a record, that has been loaded outside of this index, into the index. If the index already 
+	 * contains an item with the same key, the existing item will be kept.
+	 * @param record the loaded record of the item
+	 * @return the item of the index or null, if the removal of the item is scheduled
+	 */
+	public final ITEM adoptItem(Record record) {
+		ITEM item = wrapItemRecord(record);
+		KEY key = getKeyOfItem(item);
+		if (itemsByKey != null && itemsByKey.containsKey(key)) {
+			ITEM existing = itemsByKey.get(key);
+			return isRemovalOfItemScheduled(existing) ? null : existing;
+		}
+		retain(item);
+		sortingItemsRequired = true;
+		return item;
+	}
+
+	private boolean isModificationOfItemsScheduled() {
+		if (itemsByKey == null) {
+			return false;
+		}
+		for (ITEM item : itemsByKey.values()) {
+			if (isRemovalOfItemScheduled(item) || isPersistenceOfItemScheduled(item)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	public final ITEM getItem(KEY key) throws RepositoryException {
 		if (itemsByKey != null && itemsByKey.containsKey(key)) {
 			return filterRemovedItem(itemsByKey.get(key));
@@ -36,8 +36,10 @@ import org.bndly.schema.api.repository.Property.Type;
 import org.bndly.schema.api.repository.PropertyNotFoundException;
 import org.bndly.schema.api.repository.RepositorySession;
 import org.bndly.schema.api.repository.RepositoryException;
+import org.bndly.schema.api.repository.RepositoryListener;
 import org.bndly.schema.impl.repository.PackageImporterImpl;
 import org.bndly.schema.impl.repository.PropertyImpl;
+import org.bndly.schema.impl.repository.RepositoryCache;
 import org.bndly.schema.impl.repository.RepositoryImporterImpl;
 import org.bndly.schema.impl.repository.RepositorySessionImpl;
 import org.bndly.schema.impl.repository.Value;
@@ -723,7 +725,82 @@ public class KeyValueStoreTest extends AbstractSchemaTest {
 		Assert.assertEquals(child1.getIndex(), child1Index);
 	}
 	
+	@Test
+	public void testNodeLookupByMaterializedPath() throws RepositoryException {
+		Accessor accessor = deployNodeSchema(true);
+		RepositorySessionImpl session = new RepositorySessionImpl(false, engine, accessor.buildRecordContext(), Collections.EMPTY_LIST, LOCK);
+		Assert.assertTrue(session.isPathIndexed());
+		session.getRoot().createChild("a", NodeTypes.UNSTRUCTURED).createChild("b", NodeTypes.UNSTRUCTURED).createChild("c", NodeTypes.UNSTRUCTURED);
+		session.flush();
+
+		session = new RepositorySessionImpl(false, engine, accessor.buildRecordContext(), Collections.EMPTY_LIST, LOCK);
+		Node c = session.getNode(PathBuilder.newInstance("/a/b/c").build());
+		Assert.assertEquals(c.getName(), "c");
+		Assert.assertEquals(c.getPath().toString(), "/a/b/c");
+		Assert.assertEquals(c.getParent().getName(), "b");
+		Assert.assertEquals(c.getParent().getParent().getName(), "a");
+		try {
+			session.getNode(PathBuilder.newInstance("/a/x/c").build());
+			Assert.fail("expected node to not exist");
+		} catch (NodeNotFoundException e) {
+			// that's ok
+		}
+	}
+
+	@Test
+	public void testPagedChildren() throws RepositoryException {
+		Accessor accessor = deployNodeSchema();
+		RepositorySessionImpl session = new RepositorySessionImpl(false, engine, accessor.buildRecordContext(), Collections.EMPTY_LIST, LOCK);
+		for (int i = 0; i < 5; i++) {
+			session.getRoot().createChild("child-" + i, NodeTypes.UNSTRUCTURED);
+		}
+		Iterator<Node> page = session.getRoot().getChildren(1, 2);
+		Assert.assertEquals(page.next().getName(), "child-1");
+		Assert.assertEquals(page.next().getName(), "child-2");
+		Assert.assertFalse(page.hasNext());
+		session.flush();
+
+		session = new RepositorySessionImpl(false, engine, accessor.buildRecordContext(), Collections.EMPTY_LIST, LOCK);
+		page = session.getRoot().getChildren(3, 10);
+		Assert.assertEquals(page.next().getName(), "child-3");
+		Assert.assertEquals(page.next().getName(), "child-4");
+		Assert.assertFalse(page.hasNext());
+		// a child, that has been loaded with a page, has to be the same instance, when it is requested by its name
+		page = session.getRoot().getChildren(0, 1);
+		Assert.assertSame(page.next(), session.getRoot().getChild("child-0"));
+	}
+
+	@Test
+	public void testSharedCacheInvalidation() throws RepositoryException {
+		Accessor accessor = deployNodeSchema(true);
+		RepositoryCache cache = new RepositoryCache();
+		List<RepositoryListener> listeners = Collections.singletonList(cache.getInvalidationListener());
+		RepositorySessionImpl session = new RepositorySessionImpl(false, engine, accessor.buildRecordContext(), listeners, LOCK, cache);
+		session.getRoot().createChild("a", NodeTypes.UNSTRUCTURED).createChild("b", NodeTypes.UNSTRUCTURED);
+		session.flush();
+
+		RepositorySessionImpl readOnly = new RepositorySessionImpl(true, engine, accessor.buildRecordContext(), listeners, LOCK, cache);
+		Assert.assertEquals(readOnly.getNode(PathBuilder.newInstance("/a/b").build()).getName(), "b");
+		Assert.assertTrue(cache.size() > 0);
+
+		session = new RepositorySessionImpl(false, engine, accessor.buildRecordContext(), listeners, LOCK, cache);
+		session.getNode(PathBuilder.newInstance("/a/b").build()).remove();
+		session.flush();
+
+		readOnly = new RepositorySessionImpl(true, engine, accessor.buildRecordContext(), listeners, LOCK, cache);
+		try {
+			readOnly.getNode(PathBuilder.newInstance("/a/b").build());
+			Assert.fail("expected removed node to be evicted from the cache");
+		} catch (NodeNotFoundException e) {
+			// that's ok
+		}
+	}
+	
 	private Accessor deployNodeSchema() {
+		return deployNodeSchema(false);
+	}
+
+	private Accessor deployNodeSchema(boolean pathIndexed) {
 		Deployer deployer = engine.getDeployer();
 		Accessor accessor = engine.getAccessor();
 		SchemaBuilder sb = new SchemaBuilder("test", "http://test.bndly.org");
@@ -751,6 +828,11 @@ public class KeyValueStoreTest extends AbstractSchemaTest {
 					.mandatory()
 				.unique("parent", "name")
 				;
+		if (pathIndexed) {
+			sb.attribute("path", StringAttribute.class)
+					.indexAttribute()
+					;
+		}
 		sb.type("Property")
 				.mixWith("Named")
 				.mixWith("IndexedItem")
@@ -0,0 +1,107 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+import org.bndly.schema.api.Record;
+import org.bndly.schema.api.RecordContext;
+import org.bndly.schema.api.mapper.RowMapper;
+import org.bndly.schema.api.query.Query;
+import org.bndly.schema.impl.nquery.QueryArgumentContextVariable;
+import org.bndly.schema.impl.nquery.sqlmapper.QueryArgumentValueProvider;
+import org.bndly.schema.impl.query.QueryImpl;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class QueryPlanTest {
+
+	@Test
+	public void testBindUsesRecordContextAndArgumentsOfExecution() {
+		RecordContext first = createRecordContext();
+		RecordContext second = createRecordContext();
+		QueryPlan plan = QueryPlan.createWithPagination(createQuery(first, "first", 10L), 10L, 1, null, -1);
+
+		Query<RowMapper<Record>> bound = plan.bind(new Object[]{"second", 5L}, second);
+		Assert.assertSame(((AliasedRecordRowMapper) bound.getMapper()).getRecordContext(), second);
+		Assert.assertEquals(((QueryArgumentValueProvider) bound.getArgumentSetters()[0]).get(), "second");
+		Assert.assertEquals(bound.getArgs()[0], 5L);
+	}
+
+	@Test
+	public void testPlanDoesNotKeepFirstExecution() {
+		RecordContext first = createRecordContext();
+		QueryPlan plan = QueryPlan.createWithPagination(createQuery(first, "first", 10L), 10L, 1, null, -1);
+
+		// a null argument must not fall back to the argument of the first execution
+		Query<RowMapper<Record>> bound = plan.bind(new Object[]{null, 10L}, createRecordContext());
+		Assert.assertEquals(((QueryArgumentValueProvider) bound.getArgumentSetters()[0]).get(), null);
+		Assert.assertTrue(((AliasedRecordRowMapper) bound.getMapper()).getRecordContext() != first);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testBindRejectsMissingRecordContext() {
+		QueryPlan plan = QueryPlan.create(createQuery(createRecordContext(), "first", null));
+		plan.bind(new Object[]{"second"}, null);
+	}
+
+	private static Query<RowMapper<Record>> createQuery(RecordContext recordContext, String arg, Long limit) {
+		AliasedRecordRowMapper mapper = new AliasedRecordRowMapper(null, null, null, recordContext);
+		QueryArgumentValueProvider argSetter = new QueryArgumentValueProvider(null, null, new QueryArgumentContextVariable(0, arg));
+		if (limit == null) {
+			return new QueryImpl("SELECT", new Object[0], mapper, new PreparedStatementArgumentSetter[]{argSetter}, false);
+		}
+		final long limitValue = limit;
+		PreparedStatementArgumentSetter limitSetter = new PreparedStatementArgumentSetter() {
+
+			@Override
+			public void set(int index, PreparedStatement ps) throws SQLException {
+				ps.setLong(index, limitValue);
+			}
+		};
+		return new QueryImpl("SELECT", new Object[]{limit}, mapper, new PreparedStatementArgumentSetter[]{argSetter, limitSetter}, false);
+	}
+
+	private static RecordContext createRecordContext() {
+		return (RecordContext) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(), new Class[]{RecordContext.class}, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("equals".equals(method.getName())) {
+					return proxy == args[0];
+				}
+				if ("hashCode".equals(method.getName())) {
+					return System.identityHashCode(proxy);
+				}
+				return null;
+			}
+		});
+	}
+}
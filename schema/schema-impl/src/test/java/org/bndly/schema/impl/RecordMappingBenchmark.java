@@ -0,0 +1,175 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.RecordValue;
+import org.bndly.schema.model.Attribute;
+import org.bndly.schema.model.BooleanAttribute;
+import org.bndly.schema.model.DateAttribute;
+import org.bndly.schema.model.DecimalAttribute;
+import org.bndly.schema.model.SchemaBuilder;
+import org.bndly.schema.model.SchemaUtil;
+import org.bndly.schema.model.StringAttribute;
+import org.bndly.schema.model.Type;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the slot based storage of {@link RecordImpl} with the previous storage in per record hash maps. Each operation 
+ * maps a single row the way the row mappers do: create the record, set the type and the id, set the column values and 
+ * reset the dirty flag. The benchmark is not executed by the test suite. Run it with the main method from the test 
+ * classpath. The GC profiler reports the allocated bytes per record as <code>gc.alloc.rate.norm</code>.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordMappingBenchmark {
+
+	private static final int ROWS = 1000;
+
+	private AccessorImpl accessor;
+	private Type type;
+	private String[] names;
+	private Object[][] rows;
+
+	@Setup
+	public void setup() {
+		SchemaBuilder sb = new SchemaBuilder("bench", "http://bench.bndly.org");
+		sb
+			.type("Customer")
+				.attribute("name", StringAttribute.class)
+			.type("Purchase")
+				.attribute("number", StringAttribute.class)
+				.attribute("comment", StringAttribute.class)
+				.attribute("total", DecimalAttribute.class)
+				.attribute("tax", DecimalAttribute.class)
+				.attribute("createdOn", DateAttribute.class)
+				.attribute("updatedOn", DateAttribute.class)
+				.attribute("paid", BooleanAttribute.class)
+				.typeAttribute("customer", "Customer");
+		type = sb.getSchema().getTypes().get(1);
+		accessor = new AccessorImpl();
+		List<Attribute> attributes = SchemaUtil.collectAttributes(type);
+		names = new String[attributes.size()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = attributes.get(i).getName();
+		}
+		rows = new Object[ROWS][];
+		Date now = new Date();
+		for (int i = 0; i < ROWS; i++) {
+			rows[i] = new Object[]{
+				"P-" + i, i % 3 == 0 ? null : "comment " + i, new BigDecimal(i), new BigDecimal(i).movePointLeft(1), now, now, i % 2 == 0, (long) i
+			};
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void mapRowsToSlots(Blackhole blackhole) {
+		for (int i = 0; i < ROWS; i++) {
+			RecordImpl record = new RecordImpl(accessor);
+			record.setType(type);
+			record.setId((long) i);
+			Object[] row = rows[i];
+			for (int c = 0; c < names.length; c++) {
+				record.setAttributeValue(names[c], row[c]);
+			}
+			record.setIsDirty(false);
+			blackhole.consume(record);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void mapRowsToHashMaps(Blackhole blackhole) {
+		for (int i = 0; i < ROWS; i++) {
+			HashMapRecord record = new HashMapRecord();
+			record.setType(type);
+			record.id = (long) i;
+			Object[] row = rows[i];
+			for (int c = 0; c < names.length; c++) {
+				record.setAttributeValue(names[c], row[c]);
+			}
+			record.isDirty = false;
+			blackhole.consume(record);
+		}
+	}
+
+	/**
+	 * The storage of a record before the slot layout was introduced.
+	 */
+	private static final class HashMapRecord {
+
+		private final Map<String, RecordValue> values = new HashMap<>();
+		private Map<String, Attribute> attributes;
+		private Long id;
+		private boolean isDirty;
+
+		void setType(Type type) {
+			List<Attribute> tmp = SchemaUtil.collectAttributes(type);
+			attributes = new HashMap<>();
+			for (Attribute attribute : tmp) {
+				attributes.put(attribute.getName(), attribute);
+			}
+		}
+
+		void setAttributeValue(String attributeName, Object value) {
+			Attribute attribute = attributes.get(attributeName);
+			if (attribute == null) {
+				throw new IllegalStateException("unknown attribute " + attributeName);
+			}
+			values.remove(attributeName);
+			values.put(attributeName, new RecordValueImpl(null, attribute, value));
+			if (!attribute.isVirtual()) {
+				isDirty = true;
+			}
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RecordMappingBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+	}
+}
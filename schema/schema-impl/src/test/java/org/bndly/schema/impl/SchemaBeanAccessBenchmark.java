@@ -0,0 +1,184 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.Record;
+import org.bndly.schema.api.SchemaBeanProvider;
+import org.bndly.schema.beans.AbstractSchemaBean;
+import org.bndly.schema.beans.SchemaBeanFactory;
+import org.bndly.schema.model.BooleanAttribute;
+import org.bndly.schema.model.SchemaBuilder;
+import org.bndly.schema.model.StringAttribute;
+import org.bndly.schema.model.Type;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the schema bean access through a {@link java.lang.reflect.Proxy} with the access through a generated 
+ * implementation. All threads share the same schema bean factories, so the invoker lookup of the proxies is measured 
+ * under contention. Each operation wraps a record in a schema bean and reads three attributes. The benchmark is not 
+ * executed by the test suite. Run it with the main method from the test classpath.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class SchemaBeanAccessBenchmark {
+
+	private SchemaBeanFactory proxyFactory;
+	private SchemaBeanFactory generatedFactory;
+	private Record record;
+
+	/**
+	 * The schema bean interface as it would be generated by the <code>maven-schema-bean-generator</code>.
+	 */
+	public interface Purchase {
+		String getNumber();
+		void setNumber(String number);
+		String getComment();
+		void setComment(String comment);
+		Boolean getPaid();
+		void setPaid(Boolean paid);
+	}
+
+	/**
+	 * The implementation as it would be generated with <code>generateImplementations</code> enabled.
+	 */
+	public static class PurchaseImpl extends AbstractSchemaBean implements Purchase {
+
+		public PurchaseImpl(Record record, SchemaBeanFactory schemaBeanFactory) {
+			super(record, schemaBeanFactory);
+		}
+
+		@Override
+		public String getNumber() {
+			return getSimpleValue("number", String.class, false);
+		}
+
+		@Override
+		public void setNumber(String number) {
+			setSimpleValue("number", number, false);
+		}
+
+		@Override
+		public String getComment() {
+			return getSimpleValue("comment", String.class, false);
+		}
+
+		@Override
+		public void setComment(String comment) {
+			setSimpleValue("comment", comment, false);
+		}
+
+		@Override
+		public Boolean getPaid() {
+			return getSimpleValue("paid", Boolean.class, false);
+		}
+
+		@Override
+		public void setPaid(Boolean paid) {
+			setSimpleValue("paid", paid, false);
+		}
+	}
+
+	@Setup
+	public void setup() {
+		SchemaBuilder sb = new SchemaBuilder("bench", "http://bench.bndly.org");
+		sb
+			.type("Purchase")
+				.attribute("number", StringAttribute.class)
+				.attribute("comment", StringAttribute.class)
+				.attribute("paid", BooleanAttribute.class);
+		Type type = sb.getSchema().getTypes().get(0);
+		RecordImpl recordImpl = new RecordImpl(new AccessorImpl());
+		recordImpl.setType(type);
+		recordImpl.setId(1L);
+		recordImpl.setAttributeValue("number", "P-1");
+		recordImpl.setAttributeValue("comment", "a comment");
+		recordImpl.setAttributeValue("paid", true);
+		recordImpl.setIsDirty(false);
+		record = recordImpl;
+
+		SchemaBeanProvider schemaBeanProvider = new SchemaBeanProvider() {
+			@Override
+			public String getSchemaName() {
+				return "bench";
+			}
+
+			@Override
+			public String getSchemaBeanPackage() {
+				return SchemaBeanAccessBenchmark.class.getPackage().getName();
+			}
+
+			@Override
+			public ClassLoader getSchemaBeanClassLoader() {
+				return SchemaBeanAccessBenchmark.class.getClassLoader();
+			}
+		};
+		proxyFactory = new SchemaBeanFactory(schemaBeanProvider);
+		proxyFactory.setGeneratedImplementationsEnabled(false);
+		proxyFactory.registerTypeBinding("Purchase", Purchase.class);
+		generatedFactory = new SchemaBeanFactory(schemaBeanProvider);
+		generatedFactory.registerTypeBinding("Purchase", Purchase.class);
+		if (!PurchaseImpl.class.isInstance(generatedFactory.getSchemaBean(Purchase.class, record))) {
+			throw new IllegalStateException("generated implementation has not been picked up");
+		}
+	}
+
+	@Benchmark
+	public void proxyBeanAccess(Blackhole blackhole) {
+		Purchase purchase = proxyFactory.getSchemaBean(Purchase.class, record);
+		blackhole.consume(purchase.getNumber());
+		blackhole.consume(purchase.getComment());
+		blackhole.consume(purchase.getPaid());
+	}
+
+	@Benchmark
+	public void generatedBeanAccess(Blackhole blackhole) {
+		Purchase purchase = generatedFactory.getSchemaBean(Purchase.class, record);
+		blackhole.consume(purchase.getNumber());
+		blackhole.consume(purchase.getComment());
+		blackhole.consume(purchase.getPaid());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SchemaBeanAccessBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,197 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.bndly.schema.api.Record;
+import org.bndly.schema.api.SchemaBeanProvider;
+import org.bndly.schema.beans.AbstractSchemaBean;
+import org.bndly.schema.beans.SchemaBeanFactory;
+import org.bndly.schema.beans.impl.Invoker;
+import org.bndly.schema.model.BooleanAttribute;
+import org.bndly.schema.model.SchemaBuilder;
+import org.bndly.schema.model.StringAttribute;
+import org.bndly.schema.model.Type;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class SchemaBeanFactoryTest {
+
+	private RecordImpl record;
+	private SchemaBeanProvider schemaBeanProvider;
+
+	public interface Purchase {
+		String getNumber();
+		void setNumber(String number);
+		Boolean getPaid();
+		void setPaid(Boolean paid);
+	}
+
+	public static class PurchaseImpl extends AbstractSchemaBean implements Purchase {
+
+		public PurchaseImpl(Record record, SchemaBeanFactory schemaBeanFactory) {
+			super(record, schemaBeanFactory);
+		}
+
+		@Override
+		public String getNumber() {
+			return getSimpleValue("number", String.class, false);
+		}
+
+		@Override
+		public void setNumber(String number) {
+			setSimpleValue("number", number, false);
+		}
+
+		@Override
+		public Boolean getPaid() {
+			return getSimpleValue("paid", Boolean.class, false);
+		}
+
+		@Override
+		public void setPaid(Boolean paid) {
+			setSimpleValue("paid", paid, false);
+		}
+	}
+
+	/**
+	 * A schema bean interface without a generated implementation, that declares a method without a matching attribute.
+	 */
+	public interface Refund {
+		String getNumber();
+		String getReason();
+	}
+
+	@BeforeMethod
+	public void setup() {
+		SchemaBuilder sb = new SchemaBuilder("test", "http://test.bndly.org");
+		sb
+			.type("Purchase")
+				.attribute("number", StringAttribute.class)
+				.attribute("paid", BooleanAttribute.class);
+		Type type = sb.getSchema().getTypes().get(0);
+		record = new RecordImpl(new AccessorImpl());
+		record.setType(type);
+		record.setId(1L);
+		record.setAttributeValue("number", "P-1");
+		record.setAttributeValue("paid", true);
+		record.setIsDirty(false);
+
+		schemaBeanProvider = new SchemaBeanProvider() {
+			@Override
+			public String getSchemaName() {
+				return "test";
+			}
+
+			@Override
+			public String getSchemaBeanPackage() {
+				return SchemaBeanFactoryTest.class.getPackage().getName();
+			}
+
+			@Override
+			public ClassLoader getSchemaBeanClassLoader() {
+				return SchemaBeanFactoryTest.class.getClassLoader();
+			}
+		};
+	}
+
+	@Test
+	public void testGeneratedImplementationAccessesRecord() {
+		SchemaBeanFactory factory = new SchemaBeanFactory(schemaBeanProvider);
+		factory.registerTypeBinding("Purchase", Purchase.class);
+
+		Purchase purchase = factory.getSchemaBean(Purchase.class, record);
+		Assert.assertTrue(PurchaseImpl.class.isInstance(purchase));
+		Assert.assertEquals(purchase.getNumber(), "P-1");
+		Assert.assertEquals(purchase.getPaid(), Boolean.TRUE);
+
+		purchase.setNumber("P-2");
+		purchase.setPaid(false);
+		Assert.assertEquals(record.getAttributeValue("number"), "P-2");
+		Assert.assertEquals(record.getAttributeValue("paid"), Boolean.FALSE);
+		Assert.assertTrue(record.isDirty());
+		// the proxies are not used, hence no invokers are compiled
+		Assert.assertTrue(factory.getInvokerMap().isEmpty());
+	}
+
+	@Test
+	public void testProxyIsUsedWhenGeneratedImplementationsAreDisabled() {
+		SchemaBeanFactory factory = new SchemaBeanFactory(schemaBeanProvider);
+		factory.setGeneratedImplementationsEnabled(false);
+		factory.registerTypeBinding("Purchase", Purchase.class);
+
+		Purchase purchase = factory.getSchemaBean(Purchase.class, record);
+		Assert.assertTrue(Proxy.isProxyClass(purchase.getClass()));
+		Assert.assertEquals(purchase.getNumber(), "P-1");
+		purchase.setPaid(false);
+		Assert.assertEquals(record.getAttributeValue("paid"), Boolean.FALSE);
+	}
+
+	@Test
+	public void testInvokersArePrecompiledForProxies() throws NoSuchMethodException {
+		SchemaBeanFactory factory = new SchemaBeanFactory(schemaBeanProvider);
+		factory.setGeneratedImplementationsEnabled(false);
+		factory.registerTypeBinding("Purchase", Purchase.class);
+		Assert.assertTrue(factory.getInvokerMap().isEmpty());
+
+		factory.getSchemaBean(Purchase.class, record);
+		Map<Method, Invoker> invokers = factory.getInvokerMap();
+		for (Method method : Purchase.class.getMethods()) {
+			Assert.assertNotNull(invokers.get(method), "missing invoker for " + method);
+		}
+		Assert.assertNotNull(invokers.get(Object.class.getMethod("toString")));
+
+		// the same type does not compile its invokers again
+		factory.getSchemaBean(Purchase.class, record);
+		Assert.assertSame(factory.getInvokerMap(), invokers);
+	}
+
+	@Test
+	public void testMethodWithoutAttributeIsNotPrecompiled() throws NoSuchMethodException {
+		SchemaBeanFactory factory = new SchemaBeanFactory(schemaBeanProvider);
+		factory.setGeneratedImplementationsEnabled(false);
+		factory.registerTypeBinding("Purchase", Refund.class);
+
+		Refund refund = factory.getSchemaBean(Refund.class, record);
+		Map<Method, Invoker> invokers = factory.getInvokerMap();
+		Assert.assertNotNull(invokers.get(Refund.class.getMethod("getNumber")));
+		Assert.assertNull(invokers.get(Refund.class.getMethod("getReason")));
+		Assert.assertEquals(refund.getNumber(), "P-1");
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testInvokerMapIsUnmodifiable() throws NoSuchMethodException {
+		SchemaBeanFactory factory = new SchemaBeanFactory(schemaBeanProvider);
+		factory.setGeneratedImplementationsEnabled(false);
+		factory.registerTypeBinding("Purchase", Purchase.class);
+		factory.getSchemaBean(Purchase.class, record);
+
+		factory.getInvokerMap().put(Purchase.class.getMethod("getNumber"), null);
+	}
+}
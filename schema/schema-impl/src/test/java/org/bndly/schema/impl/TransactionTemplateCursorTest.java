@@ -0,0 +1,143 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+import org.bndly.schema.api.exception.SchemaException;
+import org.bndly.schema.api.mapper.RowMapper;
+import org.bndly.schema.api.tx.ResultCursor;
+import org.bndly.schema.api.tx.Template;
+import org.bndly.schema.api.tx.TransactionCallback;
+import org.bndly.schema.api.tx.TransactionStatus;
+import org.bndly.schema.impl.vendor.VendorConfigurations;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.h2.jdbcx.JdbcDataSource;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class TransactionTemplateCursorTest {
+
+	private final List<Connection> openedConnections = new ArrayList<>();
+	private TransactionTemplateImpl transactionTemplate;
+
+	private final RowMapper<Long> idMapper = new RowMapper<Long>() {
+		@Override
+		public Long mapRow(ResultSet rs, int i) throws SQLException {
+			return rs.getLong(1);
+		}
+	};
+
+	@BeforeMethod
+	public void setup() {
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL("jdbc:h2:mem:cursortest;DB_CLOSE_DELAY=-1");
+		ds.setUser("sa");
+		transactionTemplate = new TransactionTemplateImpl(VendorConfigurations.H2, new EngineImpl()) {
+			@Override
+			protected Connection getConnection() throws SchemaException {
+				Connection connection = super.getConnection();
+				openedConnections.add(connection);
+				return connection;
+			}
+		};
+		transactionTemplate.setDataSource(ds);
+		transactionTemplate.setCloseConnectionAfterUsage(true);
+		transactionTemplate.doInTransaction(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus transactionStatus, Template template) {
+				template.execute("CREATE TABLE CURSOR_TEST (ID BIGINT)");
+				for (int i = 0; i < 10; i++) {
+					template.execute("INSERT INTO CURSOR_TEST (ID) VALUES (" + i + ")");
+				}
+				return null;
+			}
+		});
+		openedConnections.clear();
+	}
+
+	@AfterMethod
+	public void destroy() {
+		transactionTemplate.doInTransaction(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus transactionStatus, Template template) {
+				template.execute("DROP ALL OBJECTS");
+				return null;
+			}
+		});
+		transactionTemplate.setDataSource(null);
+	}
+
+	@Test
+	public void testCursorIsReleasedWhenExhausted() throws SQLException {
+		ResultCursor<Long> cursor = transactionTemplate.openCursor("SELECT ID FROM CURSOR_TEST ORDER BY ID", null, idMapper, 3);
+		Assert.assertEquals(openedConnections.size(), 1);
+		Connection connection = openedConnections.get(0);
+		long expected = 0;
+		while (cursor.hasNext()) {
+			Assert.assertFalse(connection.isClosed());
+			Assert.assertEquals(cursor.next().longValue(), expected);
+			expected++;
+		}
+		Assert.assertEquals(expected, 10);
+		Assert.assertTrue(connection.isClosed());
+	}
+
+	@Test
+	public void testCursorIsReleasedWhenClosed() throws SQLException {
+		ResultCursor<Long> cursor = transactionTemplate.openCursor("SELECT ID FROM CURSOR_TEST ORDER BY ID", null, idMapper, 3);
+		Assert.assertEquals(cursor.next().longValue(), 0L);
+		Assert.assertEquals(cursor.next().longValue(), 1L);
+		cursor.close();
+		Assert.assertTrue(openedConnections.get(0).isClosed());
+		Assert.assertFalse(cursor.hasNext());
+		// closing twice has no effect
+		cursor.close();
+	}
+
+	@Test
+	public void testConnectionIsReleasedWhenArgumentSetterFails() throws SQLException {
+		PreparedStatementArgumentSetter failingSetter = new PreparedStatementArgumentSetter() {
+			@Override
+			public void set(int index, PreparedStatement ps) throws SQLException {
+				throw new IllegalStateException("failing argument setter");
+			}
+		};
+		try {
+			transactionTemplate.openCursor("SELECT ID FROM CURSOR_TEST WHERE ID > ?", new PreparedStatementArgumentSetter[]{failingSetter}, idMapper, 3);
+			Assert.fail("expected the exception of the argument setter");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals(e.getMessage(), "failing argument setter");
+		}
+		Assert.assertEquals(openedConnections.size(), 1);
+		Assert.assertTrue(openedConnections.get(0).isClosed());
+	}
+}
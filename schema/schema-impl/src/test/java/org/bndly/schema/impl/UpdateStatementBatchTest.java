@@ -0,0 +1,161 @@
+package org.bndly.schema.impl;
+
+/*-
+ * #%L
+ * Schema Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.Logic;
+import org.bndly.schema.api.ObjectReference;
+import org.bndly.schema.api.PreparedStatementArgumentSetter;
+import org.bndly.schema.api.Transaction;
+import org.bndly.schema.api.tx.Template;
+import org.bndly.schema.api.tx.TransactionCallback;
+import org.bndly.schema.api.tx.TransactionStatus;
+import org.bndly.schema.impl.query.QueryImpl;
+import org.bndly.schema.impl.vendor.VendorConfigurations;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.h2.jdbcx.JdbcDataSource;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class UpdateStatementBatchTest {
+
+	private static final String INSERT_SQL = "INSERT INTO BATCH_TEST (VAL) VALUES (?)";
+	private static final String OTHER_INSERT_SQL = "INSERT INTO BATCH_TEST (VAL) VALUES (? + 100)";
+
+	private final List<String> invokedMethods = new ArrayList<>();
+	private TransactionTemplateImpl transactionTemplate;
+
+	@BeforeMethod
+	public void setup() {
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL("jdbc:h2:mem:batchtest;DB_CLOSE_DELAY=-1");
+		ds.setUser("sa");
+		transactionTemplate = new TransactionTemplateImpl(VendorConfigurations.H2, new EngineImpl());
+		transactionTemplate.setDataSource(ds);
+		transactionTemplate.setCloseConnectionAfterUsage(true);
+		transactionTemplate.doInTransaction(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus transactionStatus, Template template) {
+				template.execute("CREATE TABLE BATCH_TEST (ID BIGINT AUTO_INCREMENT PRIMARY KEY, VAL INT)");
+				return null;
+			}
+		});
+		invokedMethods.clear();
+	}
+
+	@AfterMethod
+	public void destroy() {
+		transactionTemplate.doInTransaction(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus transactionStatus, Template template) {
+				template.execute("DROP ALL OBJECTS");
+				return null;
+			}
+		});
+		transactionTemplate.setDataSource(null);
+	}
+
+	@Test
+	public void testConsecutiveStatementsAreBatched() {
+		final List<Long> countsSeenByLogic = new ArrayList<>();
+		transactionTemplate.doInTransaction(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus transactionStatus, final Template template) {
+				Template recordingTemplate = recording(template);
+				UpdateStatementBatch batch = new UpdateStatementBatch(recordingTemplate, null, false);
+				for (int i = 0; i < 5; i++) {
+					Assert.assertTrue(batch.add(new UpdateTransactionalQuery("run", insert(INSERT_SQL, i))));
+				}
+				Logic countingLogic = new Logic() {
+					@Override
+					public void execute(Transaction transaction) {
+						countsSeenByLogic.add(template.queryForObject("SELECT COUNT(*) FROM BATCH_TEST", (Object[]) null, Long.class));
+					}
+				};
+				Assert.assertFalse(batch.add(countingLogic));
+				batch.flush();
+				countingLogic.execute(null);
+				Assert.assertTrue(batch.add(new UpdateTransactionalQuery("run", insert(INSERT_SQL, 5))));
+				Assert.assertTrue(batch.add(new UpdateTransactionalQuery("run", insert(OTHER_INSERT_SQL, 6))));
+				Assert.assertTrue(batch.add(new UpdateTransactionalQuery("run", insert(OTHER_INSERT_SQL, 7))));
+				batch.flush();
+				countingLogic.execute(null);
+				return null;
+			}
+		});
+		Assert.assertEquals(countsSeenByLogic.get(0), Long.valueOf(5));
+		Assert.assertEquals(countsSeenByLogic.get(1), Long.valueOf(8));
+		// 5 batched inserts, 1 single insert and 2 batched inserts with a different statement
+		Assert.assertEquals(invokedMethods.toString(), "[batchUpdate, update, batchUpdate]");
+	}
+
+	@Test
+	public void testGeneratedKeysAreOnlyBatchedIfSupported() {
+		transactionTemplate.doInTransaction(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus transactionStatus, final Template template) {
+				UpdateStatementBatch batch = new UpdateStatementBatch(recording(template), null, false);
+				ObjectReference<Long> result = new ObjectReference<>();
+				Assert.assertFalse(batch.add(new UpdateTransactionalQuery("number", insert(INSERT_SQL, 1), "ID", result)));
+				Assert.assertTrue(batch.add(new UpdateTransactionalQuery("run", insert(INSERT_SQL, 1))));
+				batch.flush();
+				return null;
+			}
+		});
+		Assert.assertEquals(invokedMethods.toString(), "[update]");
+	}
+
+	private QueryImpl insert(String sql, final int value) {
+		PreparedStatementArgumentSetter setter = new PreparedStatementArgumentSetter() {
+			@Override
+			public void set(int index, PreparedStatement ps) throws SQLException {
+				ps.setInt(index, value);
+			}
+		};
+		return new QueryImpl(sql, new Object[]{value}, null, new PreparedStatementArgumentSetter[]{setter}, true);
+	}
+
+	private Template recording(final Template template) {
+		return (Template) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Template.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				invokedMethods.add(method.getName());
+				try {
+					return method.invoke(template, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		});
+	}
+}
@@ -77,4 +77,30 @@ public class ValidationDeploymentTest extends AbstractSchemaTest {
 		// this should pass, because we ignore errors
 		deployer.deploy(schema);
 	}
+
+	@Test
+	public void testDryRunOnlyPlansMissingStatements() {
+		DeployerImpl deployer = (DeployerImpl) engine.getDeployer();
+		SchemaBuilder sb = new SchemaBuilder("test", "http://test.bndly.org");
+		sb.type("Something")
+			.attribute("name", StringAttribute.class);
+		Schema schema = sb.getSchema();
+
+		deployer.setDryRun(true);
+		deployer.deploy(schema);
+		Assert.assertFalse(deployer.getDeploymentPlan().isEmpty(), "the dry run should plan the missing table and column");
+
+		// the dry run did not create anything, so the plan stays the same
+		int plannedStatements = deployer.getDeploymentPlan().size();
+		deployer.deploy(schema);
+		Assert.assertEquals(deployer.getDeploymentPlan().size(), plannedStatements);
+
+		deployer.setDryRun(false);
+		deployer.deploy(schema);
+		Assert.assertEquals(deployer.getDeploymentPlan().size(), plannedStatements);
+
+		// after the rollout nothing is missing anymore
+		deployer.deploy(schema);
+		Assert.assertTrue(deployer.getDeploymentPlan().isEmpty(), "nothing should be planned after the rollout: " + deployer.getDeploymentPlan());
+	}
 }
@@ -20,11 +20,13 @@ package org.bndly.schema.impl.nquery;
  * #L%
  */
 
+import org.bndly.schema.api.LoadedAttributes;
 import org.bndly.schema.api.Record;
 import org.bndly.schema.api.RecordContext;
 import org.bndly.schema.api.Transaction;
 import org.bndly.schema.api.services.Accessor;
 import org.bndly.schema.api.services.Deployer;
+import org.bndly.schema.api.tx.ResultCursor;
 import org.bndly.schema.impl.AbstractSchemaTest;
 import org.bndly.schema.impl.AccessorImpl;
 import org.bndly.schema.impl.RecordContextImpl;
@@ -180,6 +182,149 @@ public class NQueryTest extends AbstractSchemaTest {
 		}
 	}
 	
+	@Test
+	public void testQueryCursor() {
+		Deployer deployer = engine.getDeployer();
+		SchemaBuilder sb = new SchemaBuilder("test", "http://test.bndly.org");
+		sb
+				.type("Foo")
+				.attribute("bar", StringAttribute.class);
+		Schema schema = sb.getSchema();
+		deployer.deploy(schema);
+
+		int items = 5;
+		Transaction tx = engine.getQueryRunner().createTransaction();
+		for (int i = 0; i < items; i++) {
+			RecordContext ctx = engine.getAccessor().buildRecordContext();
+			Record foo = ctx.create("Foo");
+			foo.setAttributeValue("bar", "" + i);
+			engine.getAccessor().buildInsertQuery(foo, tx);
+		}
+		tx.commit();
+
+		RecordContext ctx = engine.getAccessor().buildRecordContext();
+		try (ResultCursor<Record> cursor = engine.getAccessor().queryCursor("PICK Foo", ctx, null)) {
+			List<Record> list = toList(cursor);
+			Assert.assertEquals(list.size(), items);
+			for (int i = 0; i < items; i++) {
+				Assert.assertEquals(list.get(i).getAttributeValue("bar", String.class), "" + i);
+			}
+			Assert.assertSame(list.get(0).getContext(), ctx);
+			Assert.assertFalse(cursor.hasNext());
+		}
+	}
+	
+	@Test
+	public void testQueryPlanReuse() {
+		Deployer deployer = engine.getDeployer();
+		SchemaBuilder sb = new SchemaBuilder("test", "http://test.bndly.org");
+		sb
+				.type("Foo")
+				.attribute("bar", StringAttribute.class);
+		Schema schema = sb.getSchema();
+		deployer.deploy(schema);
+
+		int items = 5;
+		Transaction tx = engine.getQueryRunner().createTransaction();
+		for (int i = 0; i < items; i++) {
+			RecordContext ctx = engine.getAccessor().buildRecordContext();
+			Record foo = ctx.create("Foo");
+			foo.setAttributeValue("bar", i == 0 ? null : "" + i);
+			engine.getAccessor().buildInsertQuery(foo, tx);
+		}
+		tx.commit();
+
+		for (int i = 1; i < items; i++) {
+			List<Record> list = toList(engine.getAccessor().query("PICK Foo f IF f.bar=?", "" + i));
+			Assert.assertEquals(list.size(), 1);
+			Assert.assertEquals(list.get(0).getAttributeValue("bar", String.class), "" + i);
+			Assert.assertEquals(engine.getAccessor().count("COUNT Foo f IF f.bar=?", "" + i), Long.valueOf(1));
+		}
+		// a null argument changes the statement to IS NULL
+		List<Record> list = toList(engine.getAccessor().query("PICK Foo f IF f.bar=?", (Object) null));
+		Assert.assertEquals(list.size(), 1);
+		Assert.assertNull(list.get(0).getAttributeValue("bar", String.class));
+		Assert.assertEquals(engine.getAccessor().count("COUNT Foo f IF f.bar=?", (Object) null), Long.valueOf(1));
+
+		for (int i = 0; i < items - 1; i++) {
+			list = toList(engine.getAccessor().query("PICK Foo LIMIT ? OFFSET ?", 2, i));
+			Assert.assertEquals(list.size(), Math.min(2, items - i));
+			Assert.assertEquals(list.get(0).getAttributeValue("bar", String.class), i == 0 ? null : "" + i);
+		}
+		
+		RecordContext ctx = engine.getAccessor().buildRecordContext();
+		list = toList(engine.getAccessor().query("PICK Foo LIMIT ? OFFSET ?", ctx, (LoadedAttributes) null, 1, 1));
+		Assert.assertEquals(list.size(), 1);
+		Assert.assertSame(list.get(0).getContext(), ctx);
+	}
+	
+	@Test
+	public void testBatchedLazyReferences() {
+		Deployer deployer = engine.getDeployer();
+		SchemaBuilder sb = new SchemaBuilder("test", "http://test.bndly.org");
+		sb
+			.type("Address")
+				.attribute("street", StringAttribute.class)
+			.type("Customer")
+				.attribute("name", StringAttribute.class)
+				.typeAttribute("address", "Address")
+			.type("Purchase")
+				.attribute("number", StringAttribute.class)
+				.typeAttribute("customer", "Customer")
+				;
+		Schema schema = sb.getSchema();
+		deployer.deploy(schema);
+
+		int items = 5;
+		RecordContext ctx = engine.getAccessor().buildRecordContext();
+		Transaction tx = engine.getQueryRunner().createTransaction();
+		for (int i = 0; i < items; i++) {
+			Record address = ctx.create("Address");
+			address.setAttributeValue("street", "street " + i);
+			Record customer = ctx.create("Customer");
+			customer.setAttributeValue("name", "customer " + i);
+			customer.setAttributeValue("address", address);
+			Record purchase = ctx.create("Purchase");
+			purchase.setAttributeValue("number", "" + i);
+			purchase.setAttributeValue("customer", customer);
+			engine.getAccessor().buildInsertQuery(address, tx);
+			engine.getAccessor().buildInsertQuery(customer, tx);
+			engine.getAccessor().buildInsertQuery(purchase, tx);
+		}
+		tx.commit();
+
+		// touching a single lazy reference resolves the references of all purchases in the record context
+		ctx = engine.getAccessor().buildRecordContext();
+		List<Record> purchases = toList(engine.getAccessor().query("PICK Purchase p ORDERBY p.number", ctx, (LoadedAttributes) null));
+		Assert.assertEquals(purchases.size(), items);
+		Assert.assertEquals(ctx.persistedEntriesSize(), items);
+		Record customer = purchases.get(0).getAttributeValue("customer", Record.class);
+		Assert.assertEquals(customer.getAttributeValue("name"), "customer 0");
+		Assert.assertEquals(ctx.persistedEntriesSize(), items * 2);
+		for (int i = 0; i < items; i++) {
+			Record purchase = purchases.get(i);
+			if (i > 0) {
+				// resolving the references of the other purchases does not change their persistent state
+				Assert.assertFalse(purchase.isDirty());
+			}
+			Assert.assertEquals(purchase.getAttributeValue("customer", Record.class).getAttributeValue("name"), "customer " + i);
+		}
+		Assert.assertEquals(ctx.persistedEntriesSize(), items * 2);
+
+		// the prefetch hint resolves the references before the records are returned
+		ctx = engine.getAccessor().buildRecordContext();
+		purchases = toList(engine.getAccessor().queryWithPrefetch(
+				"PICK Purchase p ORDERBY p.number", "fetch customer, customer.address", ctx, (LoadedAttributes) null
+		));
+		Assert.assertEquals(purchases.size(), items);
+		Assert.assertEquals(ctx.persistedEntriesSize(), items * 3);
+		for (int i = 0; i < items; i++) {
+			Record address = purchases.get(i).getAttributeValue("customer", Record.class).getAttributeValue("address", Record.class);
+			Assert.assertEquals(address.getAttributeValue("street"), "street " + i);
+		}
+		Assert.assertEquals(ctx.persistedEntriesSize(), items * 3);
+	}
+
 	@Test
 	public void testSimpleIfClause() throws UnsupportedEncodingException, IOException {
 		Deployer deployer = engine.getDeployer();
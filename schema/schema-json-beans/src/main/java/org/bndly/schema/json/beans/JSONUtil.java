@@ -23,6 +23,7 @@ package org.bndly.schema.json.beans;
 import org.bndly.common.json.model.JSArray;
 import org.bndly.common.json.model.JSBoolean;
 import org.bndly.common.json.model.JSMember;
+import org.bndly.common.json.model.JSMemberSet;
 import org.bndly.common.json.model.JSNull;
 import org.bndly.common.json.model.JSNumber;
 import org.bndly.common.json.model.JSObject;
@@ -30,7 +31,6 @@ import org.bndly.common.json.model.JSString;
 import org.bndly.common.json.model.JSValue;
 import java.math.BigDecimal;
 import java.util.Date;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -122,7 +122,7 @@ public class JSONUtil {
 	public static Set<JSMember> assertMembersNotNull(JSObject jsObject) {
 		Set<JSMember> members = jsObject.getMembers();
 		if (members == null) {
-			members = new LinkedHashSet<>();
+			members = new JSMemberSet();
 			jsObject.setMembers(members);
 		}
 		return members;
@@ -20,7 +20,9 @@ package org.bndly.schema.api.repository;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  *
@@ -37,6 +39,26 @@ public interface Node extends BelongsToRepositorySession, IndexedItem {
 	Path getPath();
 
 	Iterator<Node> getChildren() throws RepositoryException;
+	/**
+	 * Returns a page of the children of this node in the order of their index.
+	 * @param offset the number of children to skip
+	 * @param limit the maximum number of children to return
+	 * @return an iterator over the children of the page
+	 * @throws RepositoryException if the children can not be loaded
+	 */
+	default Iterator<Node> getChildren(long offset, int limit) throws RepositoryException {
+		List<Node> page = new ArrayList<>();
+		Iterator<Node> children = getChildren();
+		long i = 0;
+		while (children.hasNext() && page.size() < limit) {
+			Node child = children.next();
+			if (i >= offset) {
+				page.add(child);
+			}
+			i++;
+		}
+		return page.iterator();
+	}
 
 	Node getChild(String name) throws RepositoryException;
 
@@ -0,0 +1,65 @@
+package org.bndly.search.api;
+
+/*-
+ * #%L
+ * Search API
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A ReindexProgress is a snapshot of the progress of a reindex of a single type.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public interface ReindexProgress {
+
+	/**
+	 * @return the name of the reindexed type
+	 */
+	String getTypeName();
+
+	/**
+	 * @return true, if the reindex is still running
+	 */
+	boolean isRunning();
+
+	/**
+	 * @return true, if the reindex continued a previously interrupted reindex
+	 */
+	boolean isResumed();
+
+	/**
+	 * @return the number of records, that had to be indexed when the reindex was started
+	 */
+	long getTotalRecords();
+
+	/**
+	 * @return the number of records, that have been indexed so far. This includes the records of a resumed reindex.
+	 */
+	long getIndexedRecords();
+
+	/**
+	 * @return the number of indexed records per second since the reindex was started
+	 */
+	double getRecordsPerSecond();
+
+	/**
+	 * @return the estimated remaining time in milliseconds or -1, if no estimate is available yet
+	 */
+	long getEstimatedRemainingMillis();
+
+}
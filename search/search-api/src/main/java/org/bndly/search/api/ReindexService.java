@@ -20,6 +20,14 @@ package org.bndly.search.api;
  * #L%
  */
 
+import java.util.List;
+
 public interface ReindexService {
-    void reindex();
+	void reindex();
+
+	/**
+	 * Returns the progress of the types, that are reindexed by the running or the last reindex.
+	 * @return a list of progress snapshots. never null.
+	 */
+	List<ReindexProgress> getProgress();
 }
@@ -20,19 +20,31 @@ package org.bndly.search.impl;
  * #L%
  */
 
-import java.io.IOException;
+import org.bndly.search.api.SearchException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import org.apache.solr.client.solrj.SolrServer;
-import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.request.UpdateRequest;
-import org.apache.solr.client.solrj.response.UpdateResponse;
 import org.apache.solr.common.SolrInputDocument;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
@@ -41,9 +53,23 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.Designate;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.osgi.service.metatype.annotations.Option;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The SolrRequestCommiter decouples the producers of index updates from the dispatch of the updates to solr. Work items 
+ * are put in a lock free queue. A single dispatcher thread drains the queue into update requests per target server. 
+ * The dispatcher runs periodically and as soon as a full batch of work items is queued. If the queue is full, producers 
+ * are blocked until the dispatcher made room or the maximum block time elapsed.
+ * <p>
+ * Work items, that could not be sent to solr, stay queued for their target server and are retried in the following 
+ * dispatches, until the maximum number of retries is reached. A flush reports the work items, that could not be sent in 
+ * the dispatch of the flush. A flush of a single server leaves the work items of the other servers queued in their 
+ * original order.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
 @Component(service = SolrRequestCommiter.class, immediate = true)
 @Designate(ocd = SolrRequestCommiter.Configuration.class)
 public class SolrRequestCommiter extends AbstractSolrServerTracker implements Runnable {
@@ -56,6 +82,47 @@ public class SolrRequestCommiter extends AbstractSolrServerTracker implements Ru
 				description = "The time in milliseconds to sleep between commits towards solr."
 		)
 		long sleepTime() default 3000;
+
+		@AttributeDefinition(
+				name = "Batch size",
+				description = "The maximum number of work items per update request. A dispatch is started as soon as this number of work items is queued."
+		)
+		int batchSize() default 500;
+
+		@AttributeDefinition(
+				name = "Max queue size",
+				description = "The number of queued work items, at which producers will be blocked until the queue has been drained."
+		)
+		int maxQueueSize() default 10000;
+
+		@AttributeDefinition(
+				name = "Max block time",
+				description = "The maximum time in milliseconds a producer will be blocked, if the queue is full. Afterwards the work item will be queued anyway."
+		)
+		long maxBlockTime() default 5000;
+
+		@AttributeDefinition(
+				name = "Max retries",
+				description = "The number of dispatches, in which a work item, that could not be sent to solr, is retried. Afterwards the work item will be dropped."
+		)
+		int maxRetries() default 3;
+
+		@AttributeDefinition(
+				name = "Commit mode",
+				description = "Defines how the updates will be made visible after a dispatch.",
+				options = {
+					@Option(label = "Hard commit", value = "COMMIT"),
+					@Option(label = "Soft commit", value = "SOFT_COMMIT"),
+					@Option(label = "Commit within", value = "COMMIT_WITHIN")
+				}
+		)
+		String commitMode() default "COMMIT";
+
+		@AttributeDefinition(
+				name = "Commit within",
+				description = "The time in milliseconds within solr should commit the updates, if the commit mode is 'Commit within'."
+		)
+		int commitWithin() default 1000;
 	}
 	
 	private static final Logger LOG = LoggerFactory.getLogger(SolrRequestCommiter.class);
@@ -66,43 +133,153 @@ public class SolrRequestCommiter extends AbstractSolrServerTracker implements Ru
 		ADD, DELETE
 	}
 
+	public static enum CommitMode {
+		/**
+		 * a hard commit is sent to every server, that received updates in a dispatch
+		 */
+		COMMIT,
+		/**
+		 * a soft commit is sent to every server, that received updates in a dispatch
+		 */
+		SOFT_COMMIT,
+		/**
+		 * the update requests carry a commitWithin parameter and solr decides when to commit
+		 */
+		COMMIT_WITHIN
+	}
+
 	static interface WorkItem {
 		WorkMode getMode();
 		String getTargetServer();
 		void attachTo(UpdateRequest updateRequest);
 	};
+
+	private static final class RetriedWorkItem implements WorkItem {
+		private final WorkItem workItem;
+		private int retries;
+
+		public RetriedWorkItem(WorkItem workItem) {
+			this.workItem = workItem;
+		}
+
+		@Override
+		public WorkMode getMode() {
+			return workItem.getMode();
+		}
+
+		@Override
+		public String getTargetServer() {
+			return workItem.getTargetServer();
+		}
+
+		@Override
+		public void attachTo(UpdateRequest updateRequest) {
+			workItem.attachTo(updateRequest);
+		}
+	}
+	
+	private final Queue<WorkItem> workItems = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queueDepth = new AtomicInteger();
+	private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+	private final ReentrantLock capacityLock = new ReentrantLock();
+	private final Condition capacityAvailable = capacityLock.newCondition();
+	
+	private final AtomicLong enqueuedCount = new AtomicLong();
+	private final AtomicLong dispatchedCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong backpressureWaitCount = new AtomicLong();
+	private final AtomicLong backpressureTimeoutCount = new AtomicLong();
+	private volatile long lastDispatchDuration;
+	private volatile Thread dispatcherThread;
 	
-	private final List<WorkItem> workItems = new ArrayList<>();
-	private final ReadWriteLock workItemsLock = new ReentrantReadWriteLock();
+	// the following fields are only accessed by the dispatcher thread
+	private final Map<String, List<WorkItem>> deferredItems = new LinkedHashMap<>();
+	private int deferredItemCount;
+	
+	private final Runnable dispatchTask = new Runnable() {
+		@Override
+		public void run() {
+			dispatchScheduled.set(false);
+			dispatch(null);
+		}
+	};
 	
 	private long sleepTime = 3000;
-	private ScheduledExecutorService service;
+	private int batchSize = 500;
+	private int maxQueueSize = 10000;
+	private long maxBlockTime = 5000;
+	private int maxRetries = 3;
+	private CommitMode commitMode = CommitMode.COMMIT;
+	private int commitWithin = 1000;
+	private volatile ScheduledExecutorService service;
 
 	@Activate
 	public void activate(Configuration configuration, ComponentContext componentContext) {
 		this.componentContext = componentContext;
+		configure(configuration);
+		startDispatcher();
+		startTracking();
+	}
+
+	final void configure(Configuration configuration) {
 		sleepTime = configuration.sleepTime();
-		service = Executors.newSingleThreadScheduledExecutor();
+		batchSize = Math.max(1, configuration.batchSize());
+		maxQueueSize = Math.max(batchSize, configuration.maxQueueSize());
+		maxBlockTime = configuration.maxBlockTime();
+		maxRetries = Math.max(0, configuration.maxRetries());
+		commitWithin = configuration.commitWithin();
+		try {
+			commitMode = CommitMode.valueOf(configuration.commitMode());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			LOG.warn("unsupported commit mode {}. falling back to {}", configuration.commitMode(), CommitMode.COMMIT);
+			commitMode = CommitMode.COMMIT;
+		}
+	}
+
+	final void startDispatcher() {
+		service = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "solr-request-commiter");
+				thread.setDaemon(true);
+				dispatcherThread = thread;
+				return thread;
+			}
+		});
 		// schedule a runnable, that will periodically flush the changes to solr
 		service.scheduleAtFixedRate(this, 0, sleepTime, TimeUnit.MILLISECONDS);
-		startTracking();
 	}
 
 	@Deactivate
 	public void deactivate() {
-		workItemsLock.writeLock().lock();
-		try {
-			stopTracking();
-			if (service != null) {
-				service.shutdown();
+		ScheduledExecutorService s = service;
+		service = null;
+		stopTracking();
+		boolean terminated = true;
+		if (s != null) {
+			s.shutdown();
+			try {
+				terminated = s.awaitTermination(sleepTime, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				terminated = false;
+				Thread.currentThread().interrupt();
 			}
-			service = null;
-			componentContext = null;
-			LOG.info("deactivating solr request commiter, but {} work items had not been processes", workItems.size());
+		}
+		componentContext = null;
+		LOG.info("deactivating solr request commiter, but {} work items had not been processes", queueDepth.get());
+		if (terminated) {
+			// the dispatcher thread is gone, hence the deferred items can be accessed from this thread
+			dispatcherThread = null;
 			workItems.clear();
-		} finally {
-			workItemsLock.writeLock().unlock();
+			deferredItems.clear();
+			deferredItemCount = 0;
+			queueDepth.set(0);
+		} else {
+			LOG.warn("the dispatcher of the solr request commiter did not terminate within {}ms. the queued work items will not be cleared.", sleepTime);
 		}
+		signalCapacityAvailable();
 	}
 
 	@Override
@@ -111,139 +288,306 @@ public class SolrRequestCommiter extends AbstractSolrServerTracker implements Ru
 	}
 
 	public void append(final SolrInputDocument inputDocument, final String targetServer) {
-		workItemsLock.writeLock().lock();
-		try {
-			workItems.add(new WorkItem() {
-				@Override
-				public WorkMode getMode() {
-					return WorkMode.ADD;
-				}
+		enqueue(new WorkItem() {
+			@Override
+			public WorkMode getMode() {
+				return WorkMode.ADD;
+			}
 
-				@Override
-				public String getTargetServer() {
-					return targetServer;
-				}
+			@Override
+			public String getTargetServer() {
+				return targetServer;
+			}
 
-				@Override
-				public void attachTo(UpdateRequest updateRequest) {
-					updateRequest.add(inputDocument, true);
-				}
+			@Override
+			public void attachTo(UpdateRequest updateRequest) {
+				updateRequest.add(inputDocument, true);
+			}
 
-			});
-		} finally {
-			workItemsLock.writeLock().unlock();
-		}
+		});
 	}
 
 	public void delete(final String deleteQuery, final String targetServer) {
-		workItemsLock.writeLock().lock();
-		try {
-			workItems.add(new WorkItem() {
-				@Override
-				public WorkMode getMode() {
-					return WorkMode.DELETE;
-				}
+		enqueue(new WorkItem() {
+			@Override
+			public WorkMode getMode() {
+				return WorkMode.DELETE;
+			}
 
-				@Override
-				public String getTargetServer() {
-					return targetServer;
-				}
+			@Override
+			public String getTargetServer() {
+				return targetServer;
+			}
 
-				@Override
-				public void attachTo(UpdateRequest updateRequest) {
-					updateRequest.deleteByQuery(deleteQuery);
-				}
+			@Override
+			public void attachTo(UpdateRequest updateRequest) {
+				updateRequest.deleteByQuery(deleteQuery);
+			}
 
-			});
-		} finally {
-			workItemsLock.writeLock().unlock();
-		}
+		});
 	}
 
+	/**
+	 * Dispatches all queued work items and waits until the dispatch is complete.
+	 * @throws SearchException if work items could not be sent to solr in the dispatch. the work items stay queued until 
+	 * they have been retried for the configured maximum number of times.
+	 */
 	public void flushAll() {
-		run();
+		flush0(null);
 	}
 	
+	/**
+	 * Dispatches the queued work items of the provided server and waits until the dispatch is complete. The work items of 
+	 * the other servers stay queued in their original order.
+	 * @param serverName the name of the target server
+	 * @throws SearchException if work items of the server could not be sent to solr in the dispatch. the work items stay 
+	 * queued until they have been retried for the configured maximum number of times.
+	 */
 	public void flush(final String serverName) {
-		flushWorkItems(serverName);
+		if (serverName == null) {
+			throw new IllegalArgumentException("serverName is not allowed to be null");
+		}
+		flush0(serverName);
+	}
+
+	private void flush0(final String serverName) {
+		ScheduledExecutorService s = service;
+		if (s == null) {
+			return;
+		}
+		TransactionState.Failure failure;
+		if (Thread.currentThread() == dispatcherThread) {
+			// the dispatcher thread would wait forever for a task, that only it can run
+			failure = dispatchAndCollectFailures(serverName);
+		} else {
+			Future<TransactionState.Failure> future;
+			try {
+				future = s.submit(new Callable<TransactionState.Failure>() {
+					@Override
+					public TransactionState.Failure call() {
+						return dispatchAndCollectFailures(serverName);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				throw new SearchException("could not flush work items, because the solr request commiter is shutting down", e);
+			}
+			try {
+				failure = future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SearchException("interrupted while flushing work items", e);
+			} catch (ExecutionException e) {
+				throw new SearchException("failed to flush work items: " + e.getCause().getMessage(), e.getCause());
+			}
+		}
+		if (failure != null) {
+			String target = serverName == null ? "solr" : "solr server " + serverName;
+			throw new SearchException(failure.getItems() + " work items could not be sent to " + target, failure.getCause());
+		}
+	}
+
+	private TransactionState.Failure dispatchAndCollectFailures(String serverName) {
+		Map<String, TransactionState.Failure> failures = dispatch(serverName);
+		TransactionState.Failure failure = null;
+		for (TransactionState.Failure serverFailure : failures.values()) {
+			if (failure == null) {
+				failure = new TransactionState.Failure();
+			}
+			failure.add(serverFailure);
+		}
+		return failure;
 	}
 
 	@Override
 	public void run() {
-		flushAllWorkItems();
+		dispatch(null);
 	}
-	
-	private void flushAllWorkItems() {
-		lock.readLock().lock();
-		workItemsLock.writeLock().lock();
+
+	private void enqueue(WorkItem workItem) {
+		if (queueDepth.get() >= maxQueueSize) {
+			awaitCapacity();
+		}
+		workItems.offer(workItem);
+		enqueuedCount.incrementAndGet();
+		if (queueDepth.incrementAndGet() >= batchSize) {
+			scheduleDispatch();
+		}
+	}
+
+	private void awaitCapacity() {
+		backpressureWaitCount.incrementAndGet();
+		// make sure that the dispatcher is draining the queue
+		scheduleDispatch();
+		long remaining = TimeUnit.MILLISECONDS.toNanos(maxBlockTime);
+		capacityLock.lock();
 		try {
-			Iterator<WorkItem> iterator = workItems.iterator();
-			TransactionState transactionState = new TransactionState(updateServers);
-			// iterate over the items and execute them
-			while (iterator.hasNext()) {
-				WorkItem item = iterator.next();
-				transactionState.append(item);
-				iterator.remove();
-			}
-			transactionState.flush();
+			while (queueDepth.get() >= maxQueueSize && service != null) {
+				if (remaining <= 0) {
+					backpressureTimeoutCount.incrementAndGet();
+					LOG.warn("solr work item queue was still full after {}ms. the work item will be queued anyway.", maxBlockTime);
+					return;
+				}
+				remaining = capacityAvailable.awaitNanos(remaining);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		} finally {
-			workItemsLock.writeLock().unlock();
-			lock.readLock().unlock();
+			capacityLock.unlock();
 		}
 	}
-	
-	private void flushWorkItems(String serverName) {
-		lock.readLock().lock();
-		workItemsLock.writeLock().lock();
+
+	private void signalCapacityAvailable() {
+		capacityLock.lock();
 		try {
-			Iterator<WorkItem> iterator = workItems.iterator();
-			WorkMode currentMode = null;
-			UpdateRequest currentUpdateRequest = null;
-			// iterate over the items and execute them
-			while (iterator.hasNext()) {
-				WorkItem item = iterator.next();
-				if (!serverName.equals(item.getTargetServer())) {
-					continue;
-				}
-				if (currentMode == null && currentUpdateRequest == null) {
-					currentMode = item.getMode();
-					currentUpdateRequest = new UpdateRequest();
-					item.attachTo(currentUpdateRequest);
-					iterator.remove();
-				} else {
-					if (currentMode != item.getMode()) {
-						// submit the request and null everything
-						if (currentUpdateRequest != null) {
-							SolrServer updateSolrServer = updateServers.get(serverName);
-							if (updateSolrServer == null) {
-								LOG.warn("could not flush work items, because the target solr update server {} was not available", serverName);
-								continue;
-							}
-							try {
-								UpdateResponse updateResponse = currentUpdateRequest.process(updateSolrServer);
-								updateSolrServer.commit();
-							} catch (SolrServerException | IOException e) {
-								LOG.error("failed to commit update request to solr update server " + serverName, e);
-							}
-						}
-						
-						currentMode = null;
-						currentUpdateRequest = null;
-					} else if (currentUpdateRequest != null) {
-						// we can just append to the request
-						item.attachTo(currentUpdateRequest);
-						iterator.remove();
-					}
-				}
+			capacityAvailable.signalAll();
+		} finally {
+			capacityLock.unlock();
+		}
+	}
+
+	private void scheduleDispatch() {
+		ScheduledExecutorService s = service;
+		if (s != null && dispatchScheduled.compareAndSet(false, true)) {
+			try {
+				s.execute(dispatchTask);
+			} catch (RejectedExecutionException e) {
+				dispatchScheduled.set(false);
 			}
+		}
+	}
+
+	/**
+	 * Drains the work items, that are queued at the beginning of the dispatch. If a server name is provided, only the work 
+	 * items of that server are sent. The other work items are deferred to a later dispatch. This method is only called by 
+	 * the single thread of the executor service.
+	 * <p>
+	 * Work items, that could not be sent, are deferred to the next dispatch, unless they have already been retried for the 
+	 * maximum number of times.
+	 * @param serverName the name of the server, whose work items should be sent, or null to send all work items
+	 * @return the failures of the dispatch by target server name
+	 */
+	private Map<String, TransactionState.Failure> dispatch(String serverName) {
+		int toDrain = queueDepth.get() - deferredItemCount;
+		if (toDrain <= 0 && (serverName == null ? deferredItemCount == 0 : !deferredItems.containsKey(serverName))) {
+			return Collections.emptyMap();
+		}
+		long start = System.currentTimeMillis();
+		Map<String, SolrServer> servers;
+		lock.readLock().lock();
+		try {
+			servers = new HashMap<>(updateServers);
 		} finally {
-			workItemsLock.writeLock().unlock();
 			lock.readLock().unlock();
 		}
+		TransactionState transactionState = new TransactionState(servers, batchSize, commitMode, commitWithin);
+		// deferred work items have been queued before the work items in the queue
+		Iterator<Map.Entry<String, List<WorkItem>>> deferredIterator = deferredItems.entrySet().iterator();
+		while (deferredIterator.hasNext()) {
+			Map.Entry<String, List<WorkItem>> entry = deferredIterator.next();
+			if (serverName == null || serverName.equals(entry.getKey())) {
+				for (WorkItem deferredItem : entry.getValue()) {
+					transactionState.append(deferredItem);
+				}
+				deferredItemCount -= entry.getValue().size();
+				queueDepth.addAndGet(-entry.getValue().size());
+				deferredIterator.remove();
+			}
+		}
+		int drained = 0;
+		WorkItem item;
+		while (drained < toDrain && (item = workItems.poll()) != null) {
+			drained++;
+			if (serverName != null && !serverName.equals(item.getTargetServer())) {
+				// the item is still counted in the queue depth
+				defer(item);
+				continue;
+			}
+			queueDepth.decrementAndGet();
+			if (drained % batchSize == 0) {
+				// blocked producers may continue while the batches are sent
+				signalCapacityAvailable();
+			}
+			transactionState.append(item);
+		}
+		signalCapacityAvailable();
+		transactionState.flush();
+		for (TransactionState.Failure failure : transactionState.getFailures().values()) {
+			retry(failure.getUnsentItems());
+		}
+		dispatchedCount.addAndGet(transactionState.getSentItems());
+		failedCount.addAndGet(transactionState.getFailedItems());
+		requestCount.addAndGet(transactionState.getSentRequests());
+		lastDispatchDuration = System.currentTimeMillis() - start;
+		return transactionState.getFailures();
+	}
+
+	private void retry(List<WorkItem> unsentItems) {
+		int dropped = 0;
+		for (WorkItem unsentItem : unsentItems) {
+			RetriedWorkItem retriedItem = unsentItem instanceof RetriedWorkItem ? (RetriedWorkItem) unsentItem : new RetriedWorkItem(unsentItem);
+			if (retriedItem.retries >= maxRetries) {
+				dropped++;
+				continue;
+			}
+			retriedItem.retries++;
+			// the item is counted in the queue depth again
+			queueDepth.incrementAndGet();
+			defer(retriedItem);
+		}
+		if (dropped > 0) {
+			droppedCount.addAndGet(dropped);
+			LOG.error("dropped {} work items of solr update server {}, because they could not be sent after {} retries", dropped, unsentItems.get(0).getTargetServer(), maxRetries);
+		}
+	}
+
+	private void defer(WorkItem item) {
+		List<WorkItem> items = deferredItems.get(item.getTargetServer());
+		if (items == null) {
+			items = new ArrayList<>();
+			deferredItems.put(item.getTargetServer(), items);
+		}
+		items.add(item);
+		deferredItemCount++;
 	}
 	
 	public void setSleepTime(long sleepTime) {
 		this.sleepTime = sleepTime;
 	}
 
+	public int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	public long getEnqueuedCount() {
+		return enqueuedCount.get();
+	}
+
+	public long getDispatchedCount() {
+		return dispatchedCount.get();
+	}
+
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	public long getBackpressureWaitCount() {
+		return backpressureWaitCount.get();
+	}
+
+	public long getBackpressureTimeoutCount() {
+		return backpressureTimeoutCount.get();
+	}
+
+	public long getLastDispatchDuration() {
+		return lastDispatchDuration;
+	}
+
 }
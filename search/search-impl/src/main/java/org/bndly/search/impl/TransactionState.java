@@ -22,77 +22,205 @@ package org.bndly.search.impl;
 
 import org.bndly.search.impl.SolrRequestCommiter.WorkItem;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.solr.client.solrj.SolrServer;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.request.UpdateRequest;
-import org.apache.solr.client.solrj.response.UpdateResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- *
+ * A TransactionState collects the work items of a single dispatch run. The items are grouped by their target server. 
+ * For each server, consecutive items of the same mode are sent as one update request, as long as the request does not 
+ * exceed the batch size. The order of the items per server is retained. Once all items have been appended, 
+ * {@link #flush()} sends the pending requests and commits each server, that received updates, according to the 
+ * {@link SolrRequestCommiter.CommitMode}. Work items, that could not be sent or committed, are recorded as a 
+ * {@link Failure} of their target server. The failure keeps the work items, that could not be sent, so that they can be 
+ * retried.
+ * 
  * @author cybercon &lt;bndly@cybercon.de&gt;
  */
 class TransactionState {
 
 	private static final Logger LOG = LoggerFactory.getLogger(TransactionState.class);
 	private final Map<String, SolrServer> updateServers;
-	private String currentTargetServer = null;
-	private SolrRequestCommiter.WorkMode currentMode = null;
-	private UpdateRequest currentUpdateRequest = null;
+	private final int batchSize;
+	private final SolrRequestCommiter.CommitMode commitMode;
+	private final int commitWithinMillis;
+	private final Map<String, ServerBatch> batches = new LinkedHashMap<>();
+	private final Map<String, Failure> failures = new LinkedHashMap<>();
+	private int sentItems;
+	private int failedItems;
+	private int sentRequests;
 
-	public TransactionState(Map<String, SolrServer> updateServers) {
-		this.updateServers = updateServers;
+	/**
+	 * A Failure counts the work items of a server, that could not be sent or committed, and keeps the first cause. The 
+	 * work items, that could not be sent, are kept in their original order.
+	 */
+	static final class Failure {
+		private int items;
+		private Throwable cause;
+		private final List<WorkItem> unsentItems = new ArrayList<>();
+
+		Failure add(int items, Throwable cause) {
+			this.items += items;
+			if (this.cause == null) {
+				this.cause = cause;
+			}
+			return this;
+		}
+
+		Failure addUnsent(List<WorkItem> unsentItems, Throwable cause) {
+			this.unsentItems.addAll(unsentItems);
+			return add(unsentItems.size(), cause);
+		}
+
+		Failure add(Failure failure) {
+			unsentItems.addAll(failure.unsentItems);
+			return add(failure.items, failure.cause);
+		}
+
+		int getItems() {
+			return items;
+		}
+
+		Throwable getCause() {
+			return cause;
+		}
+
+		List<WorkItem> getUnsentItems() {
+			return unsentItems;
+		}
 	}
-	
-	TransactionState append(WorkItem item) {
-		if (isNoWorkQueued()) {
-			currentTargetServer = item.getTargetServer();
-			currentMode = item.getMode();
-			currentUpdateRequest = new UpdateRequest();
-			item.attachTo(currentUpdateRequest);
-		} else if (isSimilarWorkQueued(item)) {
+
+	private final class ServerBatch {
+		private final String targetServer;
+		private final SolrServer updateSolrServer;
+		private SolrRequestCommiter.WorkMode currentMode;
+		private UpdateRequest currentUpdateRequest;
+		private final List<WorkItem> currentItems = new ArrayList<>();
+		private int sentItemsOfBatch;
+
+		public ServerBatch(String targetServer, SolrServer updateSolrServer) {
+			this.targetServer = targetServer;
+			this.updateSolrServer = updateSolrServer;
+		}
+
+		void append(WorkItem item) {
+			if (currentUpdateRequest != null && (currentMode != item.getMode() || currentItems.size() >= batchSize)) {
+				send();
+			}
+			if (currentUpdateRequest == null) {
+				currentMode = item.getMode();
+				currentUpdateRequest = new UpdateRequest();
+				if (commitMode == SolrRequestCommiter.CommitMode.COMMIT_WITHIN) {
+					currentUpdateRequest.setCommitWithin(commitWithinMillis);
+				}
+			}
 			item.attachTo(currentUpdateRequest);
-		} else {
-			flush();
-			return append(item);
+			currentItems.add(item);
+		}
+
+		void send() {
+			if (currentUpdateRequest == null) {
+				return;
+			}
+			int currentSize = currentItems.size();
+			try {
+				if (updateSolrServer == null) {
+					LOG.warn("could not flush {} work items, because the target solr update server {} was not available", currentSize, targetServer);
+					failedItems += currentSize;
+					recordFailure(targetServer).addUnsent(currentItems, null);
+					return;
+				}
+				try {
+					currentUpdateRequest.process(updateSolrServer);
+					sentItems += currentSize;
+					sentItemsOfBatch += currentSize;
+					sentRequests++;
+				} catch (SolrServerException | IOException | RuntimeException e) {
+					failedItems += currentSize;
+					recordFailure(targetServer).addUnsent(currentItems, e);
+					LOG.error("failed to send update request to solr update server " + targetServer, e);
+				}
+			} finally {
+				currentMode = null;
+				currentUpdateRequest = null;
+				currentItems.clear();
+			}
+		}
+
+		void commit() {
+			if (sentItemsOfBatch == 0) {
+				return;
+			}
+			try {
+				if (commitMode == SolrRequestCommiter.CommitMode.COMMIT) {
+					updateSolrServer.commit();
+				} else if (commitMode == SolrRequestCommiter.CommitMode.SOFT_COMMIT) {
+					updateSolrServer.commit(false, false, true);
+				}
+			} catch (SolrServerException | IOException | RuntimeException e) {
+				// the sent items may not be visible or durable without the commit
+				recordFailure(targetServer).add(sentItemsOfBatch, e);
+				LOG.error("failed to commit solr update server " + targetServer, e);
+			}
 		}
-		return this;
-	}
-	
-	private boolean isSimilarWorkQueued(WorkItem item) {
-		return item.getTargetServer().equals(currentTargetServer) && item.getMode().equals(currentMode);
 	}
-	
-	private boolean isNoWorkQueued() {
-		return currentTargetServer == null && currentMode == null && currentUpdateRequest == null;
+
+	public TransactionState(Map<String, SolrServer> updateServers, int batchSize, SolrRequestCommiter.CommitMode commitMode, int commitWithinMillis) {
+		this.updateServers = updateServers;
+		this.batchSize = batchSize;
+		this.commitMode = commitMode;
+		this.commitWithinMillis = commitWithinMillis;
 	}
 	
-	private boolean isWorkQueued() {
-		return currentTargetServer != null && currentMode != null && currentUpdateRequest != null;
+	TransactionState append(WorkItem item) {
+		ServerBatch batch = batches.get(item.getTargetServer());
+		if (batch == null) {
+			batch = new ServerBatch(item.getTargetServer(), updateServers.get(item.getTargetServer()));
+			batches.put(item.getTargetServer(), batch);
+		}
+		batch.append(item);
+		return this;
 	}
 	
 	void flush() {
-		if (isNoWorkQueued()) {
-			return;
+		for (ServerBatch batch : batches.values()) {
+			batch.send();
+			batch.commit();
 		}
-		try {
-			SolrServer updateSolrServer = updateServers.get(currentTargetServer);
-			if (updateSolrServer == null) {
-				LOG.warn("could not flush work items, because the target solr update server {} was not available", currentTargetServer);
-				return;
-			}
-			try {
-				UpdateResponse updateResponse = currentUpdateRequest.process(updateSolrServer);
-				updateSolrServer.commit();
-			} catch (SolrServerException | IOException e) {
-				LOG.error("failed to commit update request to solr update server " + currentTargetServer, e);
-			}
-		} finally {
-			currentTargetServer = null;
-			currentMode = null;
-			currentUpdateRequest = null;
+		batches.clear();
+	}
+
+	private Failure recordFailure(String targetServer) {
+		Failure failure = failures.get(targetServer);
+		if (failure == null) {
+			failure = new Failure();
+			failures.put(targetServer, failure);
 		}
+		return failure;
+	}
+
+	/**
+	 * @return the failures of this dispatch run by target server name
+	 */
+	Map<String, Failure> getFailures() {
+		return failures;
+	}
+
+	int getSentItems() {
+		return sentItems;
+	}
+
+	int getFailedItems() {
+		return failedItems;
+	}
+
+	int getSentRequests() {
+		return sentRequests;
 	}
 }
@@ -0,0 +1,104 @@
+package org.bndly.search.impl;
+
+/*-
+ * #%L
+ * Search Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.params.UpdateParams;
+import org.apache.solr.common.util.NamedList;
+
+/**
+ * An InProcessSolrServer stands in for a solr update server. It records the ids of the added documents, the delete 
+ * queries and the commits. While it is failing, every request is answered with a {@link SolrServerException}.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+class InProcessSolrServer extends SolrServer {
+
+	private final List<String> addedIds = new ArrayList<>();
+	private final List<String> deleteQueries = new ArrayList<>();
+	private final AtomicInteger commits = new AtomicInteger();
+	private volatile boolean failing;
+	private volatile Runnable onRequest;
+
+	@Override
+	public synchronized NamedList<Object> request(SolrRequest request) throws SolrServerException, IOException {
+		Runnable callback = onRequest;
+		if (callback != null) {
+			onRequest = null;
+			callback.run();
+		}
+		if (failing) {
+			throw new SolrServerException("in process solr server is failing");
+		}
+		if (UpdateRequest.class.isInstance(request)) {
+			UpdateRequest updateRequest = (UpdateRequest) request;
+			if (updateRequest.getDocuments() != null) {
+				for (SolrInputDocument document : updateRequest.getDocuments()) {
+					addedIds.add((String) document.getFieldValue("id"));
+				}
+			}
+			if (updateRequest.getDeleteQuery() != null) {
+				deleteQueries.addAll(updateRequest.getDeleteQuery());
+			}
+			SolrParams params = updateRequest.getParams();
+			if (params != null && params.getBool(UpdateParams.COMMIT, false)) {
+				commits.incrementAndGet();
+			}
+		}
+		return new NamedList<>();
+	}
+
+	@Override
+	public void shutdown() {
+	}
+
+	public synchronized List<String> getAddedIds() {
+		return new ArrayList<>(addedIds);
+	}
+
+	public synchronized List<String> getDeleteQueries() {
+		return new ArrayList<>(deleteQueries);
+	}
+
+	public int getCommits() {
+		return commits.get();
+	}
+
+	public void setFailing(boolean failing) {
+		this.failing = failing;
+	}
+
+	/**
+	 * @param onRequest a callback, that is invoked on the dispatcher thread once, when the next request is received
+	 */
+	public void setOnRequest(Runnable onRequest) {
+		this.onRequest = onRequest;
+	}
+}
@@ -0,0 +1,208 @@
+package org.bndly.search.impl;
+
+/*-
+ * #%L
+ * Search Impl
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.search.api.SearchException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.solr.common.SolrInputDocument;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class SolrRequestCommiterTest {
+
+	private SolrRequestCommiter commiter;
+	private InProcessSolrServer serverA;
+	private InProcessSolrServer serverB;
+
+	@BeforeMethod
+	public void before() {
+		serverA = new InProcessSolrServer();
+		serverB = new InProcessSolrServer();
+		commiter = new SolrRequestCommiter();
+		commiter.configure(createConfiguration());
+		commiter.updateServers.put("a", serverA);
+		commiter.updateServers.put("b", serverB);
+		commiter.startDispatcher();
+		// wait for the first periodic dispatch, so that it does not interfere with the tests
+		commiter.flushAll();
+	}
+
+	@AfterMethod
+	public void after() {
+		commiter.deactivate();
+	}
+
+	@Test
+	public void testFlushSendsAndCommitsQueuedItems() {
+		commiter.append(createDocument("1"), "a");
+		commiter.delete("type:foo", "a");
+		commiter.append(createDocument("2"), "a");
+		commiter.flush("a");
+		Assert.assertEquals(serverA.getAddedIds(), Arrays.asList("1", "2"));
+		Assert.assertEquals(serverA.getDeleteQueries(), Collections.singletonList("type:foo"));
+		Assert.assertEquals(serverA.getCommits(), 1);
+		Assert.assertEquals(commiter.getQueueDepth(), 0);
+		Assert.assertEquals(commiter.getDispatchedCount(), 3);
+	}
+
+	@Test
+	public void testFlushOfServerKeepsItemsOfOtherServersQueued() {
+		commiter.append(createDocument("b1"), "b");
+		commiter.append(createDocument("a1"), "a");
+		commiter.append(createDocument("b2"), "b");
+		commiter.flush("a");
+		Assert.assertEquals(serverA.getAddedIds(), Collections.singletonList("a1"));
+		Assert.assertTrue(serverB.getAddedIds().isEmpty());
+		Assert.assertEquals(commiter.getQueueDepth(), 2);
+
+		commiter.append(createDocument("b3"), "b");
+		commiter.flush("b");
+		// the deferred items are sent before the items, that have been queued afterwards
+		Assert.assertEquals(serverB.getAddedIds(), Arrays.asList("b1", "b2", "b3"));
+		Assert.assertEquals(commiter.getQueueDepth(), 0);
+	}
+
+	@Test
+	public void testFlushReportsFailedItems() {
+		serverA.setFailing(true);
+		commiter.append(createDocument("1"), "a");
+		commiter.append(createDocument("2"), "b");
+		try {
+			commiter.flushAll();
+			Assert.fail("expected the flush to report the failed work items");
+		} catch (SearchException e) {
+			Assert.assertTrue(e.getMessage().startsWith("1 work items"), e.getMessage());
+		}
+		Assert.assertEquals(commiter.getFailedCount(), 1);
+		Assert.assertEquals(serverB.getAddedIds(), Collections.singletonList("2"));
+		// the failed item stays queued
+		Assert.assertEquals(commiter.getQueueDepth(), 1);
+
+		// the failed item is retried before the items, that have been queued afterwards
+		serverA.setFailing(false);
+		commiter.append(createDocument("3"), "a");
+		commiter.flush("a");
+		Assert.assertEquals(serverA.getAddedIds(), Arrays.asList("1", "3"));
+		Assert.assertEquals(commiter.getQueueDepth(), 0);
+	}
+
+	@Test
+	public void testFailedItemsOfPeriodicDispatchesAreRetried() {
+		serverA.setFailing(true);
+		commiter.append(createDocument("1"), "a");
+		// the periodic dispatch runs without a flush, that waits for it
+		commiter.run();
+		Assert.assertEquals(commiter.getFailedCount(), 1);
+		serverA.setFailing(false);
+		commiter.flush("a");
+		Assert.assertEquals(serverA.getAddedIds(), Collections.singletonList("1"));
+		Assert.assertEquals(commiter.getQueueDepth(), 0);
+		Assert.assertEquals(commiter.getDroppedCount(), 0);
+	}
+
+	@Test
+	public void testFailedItemsAreDroppedAfterMaxRetries() {
+		serverA.setFailing(true);
+		commiter.append(createDocument("1"), "a");
+		// the first dispatch and 3 retries
+		for (int i = 0; i < 4; i++) {
+			try {
+				commiter.flush("a");
+				Assert.fail("expected the flush to report the failed work item");
+			} catch (SearchException e) {
+				// expected
+			}
+		}
+		Assert.assertEquals(commiter.getFailedCount(), 4);
+		Assert.assertEquals(commiter.getDroppedCount(), 1);
+		Assert.assertEquals(commiter.getQueueDepth(), 0);
+
+		serverA.setFailing(false);
+		commiter.flush("a");
+		Assert.assertTrue(serverA.getAddedIds().isEmpty());
+	}
+
+	@Test
+	public void testFlushOnDispatcherThreadDoesNotDeadlock() throws Exception {
+		final AtomicReference<Thread> requestThread = new AtomicReference<>();
+		commiter.append(createDocument("b1"), "b");
+		commiter.append(createDocument("a1"), "a");
+		serverA.setOnRequest(new Runnable() {
+			@Override
+			public void run() {
+				requestThread.set(Thread.currentThread());
+				commiter.flush("b");
+			}
+		});
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> future = executorService.submit(new Callable<Object>() {
+				@Override
+				public Object call() {
+					commiter.flush("a");
+					return null;
+				}
+			});
+			future.get(5, TimeUnit.SECONDS);
+		} finally {
+			executorService.shutdownNow();
+		}
+		Assert.assertEquals(requestThread.get().getName(), "solr-request-commiter");
+		Assert.assertEquals(serverA.getAddedIds(), Collections.singletonList("a1"));
+		Assert.assertEquals(serverB.getAddedIds(), Collections.singletonList("b1"));
+	}
+
+	private static SolrInputDocument createDocument(String id) {
+		SolrInputDocument document = new SolrInputDocument();
+		document.addField("id", id);
+		return document;
+	}
+
+	private static SolrRequestCommiter.Configuration createConfiguration() {
+		return (SolrRequestCommiter.Configuration) Proxy.newProxyInstance(
+				SolrRequestCommiterTest.class.getClassLoader(), new Class[]{SolrRequestCommiter.Configuration.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("sleepTime".equals(method.getName())) {
+					// the tests trigger the dispatches on their own
+					return 3600000L;
+				}
+				return method.getDefaultValue();
+			}
+		});
+	}
+}
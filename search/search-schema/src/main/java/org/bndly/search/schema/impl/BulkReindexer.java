@@ -0,0 +1,253 @@
+package org.bndly.search.schema.impl;
+
+/*-
+ * #%L
+ * Search Schema
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.schema.api.Record;
+import org.bndly.schema.api.listener.QueryByExampleIteratorListener;
+import org.bndly.schema.api.services.Accessor;
+import org.bndly.search.api.SearchException;
+import org.bndly.search.api.SearchIndexService;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The BulkReindexer indexes the records of types by splitting each type into id range partitions. The partitions are 
+ * processed by a bounded pool of worker threads. A worker reads the records of its partition page by page with a 
+ * keyset query and builds the search documents. The documents are handed to the {@link SearchIndexService}, which 
+ * sends them to the search server asynchronously, so that reading, document building and submission overlap.
+ * <p>
+ * The progress of the partitions is periodically stored in a {@link ReindexCheckpoint}. Before a checkpoint is stored, 
+ * the search index is flushed. If the flush reports documents, that could not be sent to the search server, the 
+ * checkpoint is not stored and the partitions are stopped. The last stored checkpoint stays in place, so that the next 
+ * reindex resumes before the lost documents.
+ * </p>
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class BulkReindexer {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BulkReindexer.class);
+
+	private final ExecutorService executorService;
+	private final SearchIndexService searchIndexService;
+	private final int pageSize;
+	private final long partitionSize;
+	private final long checkpointInterval;
+	private volatile boolean stopped;
+
+	BulkReindexer(ExecutorService executorService, SearchIndexService searchIndexService, int pageSize, long partitionSize, long checkpointInterval) {
+		if (executorService == null) {
+			throw new IllegalArgumentException("executorService is not allowed to be null");
+		}
+		if (searchIndexService == null) {
+			throw new IllegalArgumentException("searchIndexService is not allowed to be null");
+		}
+		this.executorService = executorService;
+		this.searchIndexService = searchIndexService;
+		this.pageSize = Math.max(1, pageSize);
+		this.partitionSize = Math.max(1, partitionSize);
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Stops all running partitions after their current page. The progress since the last checkpoint is not stored, 
+	 * because it is not guaranteed to be in the search index.
+	 */
+	void stop() {
+		stopped = true;
+		executorService.shutdownNow();
+	}
+
+	/**
+	 * Splits the id range of the provided type into partitions.
+	 * @param accessor the accessor to query the records
+	 * @param typeName the name of the type
+	 * @return the partitions of the type. empty, if the type has no records.
+	 */
+	List<ReindexPartition> planPartitions(Accessor accessor, String typeName) {
+		Long minId = readBoundaryId(accessor, typeName, "");
+		Long maxId = readBoundaryId(accessor, typeName, " DESC");
+		List<ReindexPartition> partitions = new ArrayList<>();
+		if (minId == null || maxId == null) {
+			return partitions;
+		}
+		// the lower bound is exclusive
+		long lower = minId - 1;
+		while (lower < maxId) {
+			long upper = maxId - lower > partitionSize ? lower + partitionSize : maxId;
+			partitions.add(new ReindexPartition(lower, upper));
+			lower = upper;
+		}
+		return partitions;
+	}
+
+	long countRecords(Accessor accessor, String typeName) {
+		Long count = accessor.count("COUNT " + typeName + " t");
+		return count == null ? 0 : count;
+	}
+
+	private Long readBoundaryId(Accessor accessor, String typeName, String direction) {
+		Iterator<Record> iterator = accessor.query(
+				"PICK " + typeName + " t ORDERBY t.id" + direction + " LIMIT ?", accessor.buildRecordContext(), null, 1
+		);
+		if (iterator.hasNext()) {
+			return iterator.next().getId();
+		}
+		return null;
+	}
+
+	/**
+	 * Indexes all open partitions of the provided jobs and waits until they are done.
+	 * @param accessor the accessor to query the records
+	 * @param checkpoint the checkpoint, that holds the partitions of the jobs
+	 * @param jobs the jobs to execute
+	 * @param handler the handler, that indexes a single record
+	 * @return true, if all partitions have been indexed
+	 */
+	boolean run(final Accessor accessor, final ReindexCheckpoint checkpoint, List<TypeReindexJob> jobs, final QueryByExampleIteratorListener handler) {
+		final AtomicLong lastCheckpoint = new AtomicLong(System.currentTimeMillis());
+		final AtomicBoolean flushFailed = new AtomicBoolean();
+		List<Future<?>> futures = new ArrayList<>();
+		for (final TypeReindexJob job : jobs) {
+			for (final ReindexPartition partition : job.getPartitions()) {
+				if (partition.isDone()) {
+					continue;
+				}
+				try {
+					futures.add(executorService.submit(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								indexPartition(accessor, job, partition, handler, checkpoint, lastCheckpoint, flushFailed);
+							} finally {
+								job.partitionFinished();
+							}
+						}
+					}));
+				} catch (RejectedExecutionException e) {
+					job.partitionFinished();
+					LOG.warn("could not schedule reindex of partition {} of {}", partition.serialize(), job.getTypeName());
+				}
+			}
+		}
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} catch (ExecutionException e) {
+				LOG.error("reindex of a partition failed: " + e.getCause().getMessage(), e.getCause());
+			}
+		}
+		boolean complete = true;
+		for (TypeReindexJob job : jobs) {
+			complete = complete && job.isComplete();
+		}
+		if (stopped || flushFailed.get()) {
+			return false;
+		}
+		Properties snapshot = checkpoint.snapshot();
+		if (!flush(checkpoint, flushFailed)) {
+			return false;
+		}
+		if (complete) {
+			checkpoint.delete();
+		} else {
+			checkpoint.save(snapshot);
+		}
+		return complete;
+	}
+
+	private void indexPartition(
+			Accessor accessor, 
+			TypeReindexJob job, 
+			ReindexPartition partition, 
+			QueryByExampleIteratorListener handler, 
+			ReindexCheckpoint checkpoint, 
+			AtomicLong lastCheckpoint, 
+			AtomicBoolean flushFailed
+	) {
+		String query = "PICK " + job.getTypeName() + " t IF t.id>? AND t.id<=? ORDERBY t.id LIMIT ?";
+		long lastId = partition.getLastId();
+		boolean done = partition.isDone();
+		// after a failed flush the progress can not be stored anymore
+		while (!done && !stopped && !flushFailed.get()) {
+			// a fresh record context per page keeps the memory consumption independent of the partition size
+			Iterator<Record> records = accessor.query(query, accessor.buildRecordContext(), null, lastId, partition.getUpperId(), pageSize);
+			int count = 0;
+			while (records.hasNext()) {
+				Record record = records.next();
+				handler.handleRecord(record);
+				lastId = record.getId();
+				count++;
+			}
+			done = count < pageSize || lastId >= partition.getUpperId();
+			partition.advance(lastId, count, done);
+			job.recordsIndexed(count);
+			maybeStoreCheckpoint(checkpoint, lastCheckpoint, flushFailed);
+		}
+	}
+
+	private void maybeStoreCheckpoint(ReindexCheckpoint checkpoint, AtomicLong lastCheckpoint, AtomicBoolean flushFailed) {
+		long last = lastCheckpoint.get();
+		long now = System.currentTimeMillis();
+		if (stopped || flushFailed.get() || now - last < checkpointInterval || !lastCheckpoint.compareAndSet(last, now)) {
+			return;
+		}
+		Properties snapshot = checkpoint.snapshot();
+		if (!flush(checkpoint, flushFailed)) {
+			return;
+		}
+		try {
+			checkpoint.save(snapshot);
+		} catch (RuntimeException e) {
+			// the next checkpoint will contain the progress as well
+			LOG.warn("could not store reindex checkpoint " + checkpoint.getName() + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Flushes the search index. If documents could not be sent to the search server, the snapshot taken before the flush 
+	 * claims records, that are not in the search index. Such a snapshot must not be stored.
+	 * @return true, if all documents reached the search server
+	 */
+	private boolean flush(ReindexCheckpoint checkpoint, AtomicBoolean flushFailed) {
+		try {
+			searchIndexService.flush();
+			return true;
+		} catch (SearchException e) {
+			flushFailed.set(true);
+			LOG.error("search index flush failed. reindex " + checkpoint.getName() + " will be resumed from its last stored checkpoint.", e);
+			return false;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package org.bndly.search.schema.impl;
+
+/*-
+ * #%L
+ * Search Schema
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.data.api.ChangeableData;
+import org.bndly.common.data.api.Data;
+import org.bndly.common.data.api.DataStore;
+import org.bndly.common.data.api.SimpleData;
+import org.bndly.common.data.io.ReplayableInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A ReindexCheckpoint stores the partitions of the types of a reindex in a {@link DataStore}. As long as the checkpoint 
+ * exists, a reindex with the same name will continue with the stored partitions instead of starting from scratch.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class ReindexCheckpoint {
+
+	private static final String CONTENT_TYPE = "text/plain";
+	private static final String TYPES = "types";
+
+	private final DataStore dataStore;
+	private final String name;
+	private final boolean resumed;
+	private final Map<String, List<ReindexPartition>> partitionsByType;
+	private final Map<String, Long> totalRecordsByType;
+
+	private ReindexCheckpoint(DataStore dataStore, String name, boolean resumed) {
+		this.dataStore = dataStore;
+		this.name = name;
+		this.resumed = resumed;
+		this.partitionsByType = new LinkedHashMap<>();
+		this.totalRecordsByType = new LinkedHashMap<>();
+	}
+
+	static ReindexCheckpoint create(DataStore dataStore, String name) {
+		return new ReindexCheckpoint(dataStore, name, false);
+	}
+
+	/**
+	 * Loads a previously stored checkpoint.
+	 * @param dataStore the data store, that holds the checkpoint
+	 * @param name the name of the checkpoint
+	 * @return the checkpoint or null, if no valid checkpoint exists
+	 */
+	static ReindexCheckpoint load(DataStore dataStore, String name) {
+		Data data = dataStore.findByName(name);
+		if (data == null) {
+			return null;
+		}
+		ReplayableInputStream is = data.getInputStream();
+		if (is == null) {
+			return null;
+		}
+		Properties properties = new Properties();
+		try (InputStream in = is) {
+			properties.load(in);
+			ReindexCheckpoint checkpoint = new ReindexCheckpoint(dataStore, name, true);
+			String types = properties.getProperty(TYPES);
+			if (types != null && !types.isEmpty()) {
+				for (String typeName : types.split(",")) {
+					long total = Long.parseLong(properties.getProperty(typeName + ".total", "0"));
+					int count = Integer.parseInt(properties.getProperty(typeName + ".partitions", "0"));
+					List<ReindexPartition> partitions = new ArrayList<>(count);
+					for (int i = 0; i < count; i++) {
+						String value = properties.getProperty(typeName + "." + i);
+						if (value == null) {
+							throw new IllegalArgumentException("missing partition " + i + " of " + typeName);
+						}
+						partitions.add(ReindexPartition.deserialize(value));
+					}
+					checkpoint.putType(typeName, total, partitions);
+				}
+			}
+			return checkpoint;
+		} catch (IOException | IllegalArgumentException e) {
+			// a broken checkpoint is treated like a missing checkpoint. the reindex will start from scratch.
+			return null;
+		}
+	}
+
+	String getName() {
+		return name;
+	}
+
+	boolean isResumed() {
+		return resumed;
+	}
+
+	void putType(String typeName, long totalRecords, List<ReindexPartition> partitions) {
+		partitionsByType.put(typeName, Collections.unmodifiableList(new ArrayList<>(partitions)));
+		totalRecordsByType.put(typeName, totalRecords);
+	}
+
+	Map<String, List<ReindexPartition>> getPartitionsByType() {
+		return Collections.unmodifiableMap(partitionsByType);
+	}
+
+	long getTotalRecords(String typeName) {
+		Long total = totalRecordsByType.get(typeName);
+		return total == null ? 0 : total;
+	}
+
+	/**
+	 * Captures the current state of all partitions. The snapshot has to be taken before the index is flushed and may only 
+	 * be stored, if the flush did not report any failures. Otherwise the snapshot claims records, that did not reach the 
+	 * index.
+	 * @return the state of the partitions as properties
+	 */
+	Properties snapshot() {
+		Properties properties = new Properties();
+		StringBuilder types = new StringBuilder();
+		for (Map.Entry<String, List<ReindexPartition>> entry : partitionsByType.entrySet()) {
+			String typeName = entry.getKey();
+			if (types.length() > 0) {
+				types.append(',');
+			}
+			types.append(typeName);
+			List<ReindexPartition> partitions = entry.getValue();
+			properties.setProperty(typeName + ".total", Long.toString(getTotalRecords(typeName)));
+			properties.setProperty(typeName + ".partitions", Integer.toString(partitions.size()));
+			for (int i = 0; i < partitions.size(); i++) {
+				properties.setProperty(typeName + "." + i, partitions.get(i).serialize());
+			}
+		}
+		properties.setProperty(TYPES, types.toString());
+		return properties;
+	}
+
+	void save(Properties snapshot) {
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			snapshot.store(bos, "search reindex checkpoint");
+			SimpleData d = new SimpleData(null);
+			d.setName(name);
+			d.setContentType(CONTENT_TYPE);
+			d.setCreatedOn(new Date());
+			d.setInputStream(ReplayableInputStream.newInstance(bos.toByteArray()));
+			Data found = dataStore.findByName(name);
+			if (found == null) {
+				dataStore.create(d);
+			} else if (ChangeableData.class.isInstance(found)) {
+				ChangeableData cd = (ChangeableData) found;
+				cd.setUpdatedOn(d.getCreatedOn());
+				cd.setInputStream(d.getInputStream());
+				dataStore.update(found);
+			} else {
+				throw new IllegalStateException(
+						"could not write reindex checkpoint " + name + ", because the data store " + dataStore.getName() + " returned data, that can not be changed"
+				);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("could not write reindex checkpoint " + name, e);
+		}
+	}
+
+	void delete() {
+		Data found = dataStore.findByName(name);
+		if (found != null) {
+			dataStore.delete(found);
+		}
+	}
+}
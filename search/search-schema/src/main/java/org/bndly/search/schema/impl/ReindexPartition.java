@@ -0,0 +1,89 @@
+package org.bndly.search.schema.impl;
+
+/*-
+ * #%L
+ * Search Schema
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A ReindexPartition is a range of record ids of a single type. The lower bound is exclusive and the upper bound is 
+ * inclusive. The partition remembers the id of the last indexed record, so that an interrupted reindex can continue 
+ * after this id.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class ReindexPartition {
+
+	private final long lowerId;
+	private final long upperId;
+	private long lastId;
+	private long indexedRecords;
+	private boolean done;
+
+	ReindexPartition(long lowerId, long upperId) {
+		this(lowerId, upperId, lowerId, 0, false);
+	}
+
+	ReindexPartition(long lowerId, long upperId, long lastId, long indexedRecords, boolean done) {
+		this.lowerId = lowerId;
+		this.upperId = upperId;
+		this.lastId = lastId;
+		this.indexedRecords = indexedRecords;
+		this.done = done;
+	}
+
+	long getLowerId() {
+		return lowerId;
+	}
+
+	long getUpperId() {
+		return upperId;
+	}
+
+	synchronized long getLastId() {
+		return lastId;
+	}
+
+	synchronized long getIndexedRecords() {
+		return indexedRecords;
+	}
+
+	synchronized boolean isDone() {
+		return done;
+	}
+
+	synchronized void advance(long lastId, int indexedRecords, boolean done) {
+		this.lastId = lastId;
+		this.indexedRecords += indexedRecords;
+		this.done = done;
+	}
+
+	synchronized String serialize() {
+		return lowerId + "," + upperId + "," + lastId + "," + indexedRecords + "," + done;
+	}
+
+	static ReindexPartition deserialize(String value) {
+		String[] parts = value.split(",");
+		if (parts.length != 5) {
+			throw new IllegalArgumentException("invalid reindex partition: " + value);
+		}
+		return new ReindexPartition(
+				Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3]), Boolean.parseBoolean(parts[4])
+		);
+	}
+}
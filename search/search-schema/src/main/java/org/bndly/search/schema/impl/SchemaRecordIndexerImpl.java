@@ -35,6 +35,7 @@ import org.bndly.schema.api.listener.MergeListener;
 import org.bndly.schema.api.listener.PersistListener;
 import org.bndly.schema.api.listener.QueryByExampleIteratorListener;
 import org.bndly.schema.api.listener.SchemaDeploymentListener;
+import org.bndly.schema.api.services.Accessor;
 import org.bndly.schema.api.services.Engine;
 import org.bndly.schema.model.Attribute;
 import org.bndly.schema.model.BinaryAttribute;
@@ -50,6 +51,7 @@ import org.bndly.schema.model.StringAttribute;
 import org.bndly.schema.model.Type;
 import org.bndly.search.api.DocumentFieldValue;
 import org.bndly.search.api.DocumentFieldValueProvider;
+import org.bndly.search.api.ReindexProgress;
 import org.bndly.search.api.ReindexService;
 import org.bndly.search.api.SearchIndexService;
 import org.bndly.search.api.SearchServiceListener;
@@ -59,6 +61,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -66,6 +69,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -75,6 +80,8 @@ import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.Designate;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @Component(
 		service = {
@@ -101,8 +108,36 @@ public class SchemaRecordIndexerImpl implements PersistListener, MergeListener,
 				description = "Names of types to be excluded from indexing. Names should follow the pattern of SCHEMANAME:TYPENAME. Example: ebx:BackendAccount"
 		)
 		String[] excludedTypes();
+
+		@AttributeDefinition(
+				name = "Reindex Threads",
+				description = "The number of worker threads, that index the partitions of a reindex in parallel."
+		)
+		int reindexThreads() default 4;
+
+		@AttributeDefinition(
+				name = "Reindex Page Size",
+				description = "The number of records, that are read with a single query during a reindex."
+		)
+		int reindexPageSize() default 500;
+
+		@AttributeDefinition(
+				name = "Reindex Partition Size",
+				description = "The size of the id range of a single reindex partition."
+		)
+		long reindexPartitionSize() default 10000;
+
+		@AttributeDefinition(
+				name = "Reindex Checkpoint Interval",
+				description = "The minimum time in milliseconds between two stored checkpoints of a reindex. A restarted reindex continues at the last checkpoint."
+		)
+		long reindexCheckpointInterval() default 30000;
 	}
 	
+	private static final Logger LOG = LoggerFactory.getLogger(SchemaRecordIndexerImpl.class);
+	private static final String CHECKPOINT_PREFIX = "searchReindex_";
+	private static final String CHECKPOINT_SUFFIX = ".properties";
+
 	@Reference
 	private DataStore dataStore;
 	@Reference
@@ -111,6 +146,9 @@ public class SchemaRecordIndexerImpl implements PersistListener, MergeListener,
 	private boolean isReady;
 	private final List<KnownEngine> knownEngines = new ArrayList<>();
 	private Map<String,Set<String>> excludedTypesPerSchema = new HashMap<>();
+	private final Object reindexLock = new Object();
+	private final List<TypeReindexJob> reindexJobs = new CopyOnWriteArrayList<>();
+	private BulkReindexer bulkReindexer;
 	
 	private class KnownEngine {
 		private final Engine engine;
@@ -143,10 +181,22 @@ public class SchemaRecordIndexerImpl implements PersistListener, MergeListener,
 				}
 			}
 		}
+		int reindexThreads = Math.max(1, adapter.getInteger("reindexThreads", 4));
+		bulkReindexer = new BulkReindexer(
+				Executors.newFixedThreadPool(reindexThreads),
+				searchIndexService,
+				adapter.getInteger("reindexPageSize", 500),
+				adapter.getLong("reindexPartitionSize", 10000L),
+				adapter.getLong("reindexCheckpointInterval", 30000L)
+		);
 	}
 	
 	@Deactivate
 	public void deactivate() {
+		if (bulkReindexer != null) {
+			bulkReindexer.stop();
+			bulkReindexer = null;
+		}
 		excludedTypesPerSchema.clear();
 	}
 	
@@ -193,33 +243,71 @@ public class SchemaRecordIndexerImpl implements PersistListener, MergeListener,
 
 	@Override
 	public void reindex(final String typeName, Engine engine) {
-		searchIndexService.removeFromIndex(new DocumentFieldValueProvider() {
+		synchronized (reindexLock) {
+			reindexJobs.clear();
+			String checkpointName = CHECKPOINT_PREFIX + engine.getDeployer().getDeployedSchema().getName() + "_" + typeName + CHECKPOINT_SUFFIX;
+			reindexTypes(engine, checkpointName, Collections.singletonList(typeName), new DocumentFieldValueProvider() {
 
-			@Override
-			public List<DocumentFieldValue> getDocumentFieldValues() {
-				List<DocumentFieldValue> l = new ArrayList<>();
-				l.add(new DocumentFieldValue() {
+				@Override
+				public List<DocumentFieldValue> getDocumentFieldValues() {
+					List<DocumentFieldValue> l = new ArrayList<>();
+					l.add(new DocumentFieldValue() {
 
-					@Override
-					public String getFieldName() {
-						return "_type";
-					}
+						@Override
+						public String getFieldName() {
+							return "_type";
+						}
 
-					@Override
-					public Object getValue() {
-						return typeName;
-					}
-				});
-				return l;
+						@Override
+						public Object getValue() {
+							return typeName;
+						}
+					});
+					return l;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Reindexes the provided types of an engine. If a checkpoint of an interrupted reindex exists, the reindex continues 
+	 * at the checkpoint. Otherwise the documents matched by the removal provider are removed from the index and the 
+	 * types are partitioned from scratch.
+	 */
+	private void reindexTypes(Engine engine, String checkpointName, List<String> typeNames, DocumentFieldValueProvider removal) {
+		BulkReindexer reindexer = bulkReindexer;
+		if (reindexer == null) {
+			return;
+		}
+		Accessor accessor = engine.getAccessor();
+		ReindexCheckpoint checkpoint = ReindexCheckpoint.load(dataStore, checkpointName);
+		if (checkpoint == null) {
+			searchIndexService.removeFromIndex(removal);
+			searchIndexService.flush();
+			checkpoint = ReindexCheckpoint.create(dataStore, checkpointName);
+			for (String typeName : typeNames) {
+				checkpoint.putType(typeName, reindexer.countRecords(accessor, typeName), reindexer.planPartitions(accessor, typeName));
 			}
-		});
-		searchIndexService.flush();
-		engine.getAccessor().iterate(typeName, new QueryByExampleIteratorListener() {
+			checkpoint.save(checkpoint.snapshot());
+		} else {
+			LOG.info("resuming reindex from checkpoint {}", checkpointName);
+		}
+		List<TypeReindexJob> jobs = new ArrayList<>();
+		for (Map.Entry<String, List<ReindexPartition>> entry : checkpoint.getPartitionsByType().entrySet()) {
+			String typeName = entry.getKey();
+			TypeReindexJob job = new TypeReindexJob(typeName, entry.getValue(), checkpoint.getTotalRecords(typeName), checkpoint.isResumed());
+			jobs.add(job);
+			reindexJobs.add(job);
+		}
+		boolean complete = reindexer.run(accessor, checkpoint, jobs, new QueryByExampleIteratorListener() {
 			@Override
 			public void handleRecord(Record r) {
 				onPersist(r);
 			}
-		}, 10, false, engine.getAccessor().buildRecordContext());
+		});
+		if (!complete) {
+			LOG.warn("reindex {} did not complete. it will be resumed with the next reindex.", checkpointName);
+		}
 	}
 
 	@Override
@@ -411,6 +499,14 @@ public class SchemaRecordIndexerImpl implements PersistListener, MergeListener,
 		return (!excludedTypes.contains(record.getType().getName())) && (getSearchDocumentAdapter(record) != null);
 	}
 
+	private boolean isIndexedType(Type type) {
+		Set<String> excludedTypes = excludedTypesPerSchema.get(type.getSchema().getName());
+		if (excludedTypes != null && excludedTypes.contains(type.getName())) {
+			return false;
+		}
+		return globalDocumentAdapters.get(System.identityHashCode(type)) != null;
+	}
+
 	private RecordSearchDocumentAdapter getSearchDocumentAdapter(Record record) {
 		RecordSearchDocumentAdapter adapter = globalDocumentAdapters.get(System.identityHashCode(record.getType()));
 		return adapter;
@@ -442,41 +538,42 @@ public class SchemaRecordIndexerImpl implements PersistListener, MergeListener,
 
 	@Override
 	public void reindex() {
-		for (KnownEngine knownEngine : knownEngines) {
-			searchIndexService.removeFromIndex(new DocumentFieldValueProvider() {
-				@Override
-				public List<DocumentFieldValue> getDocumentFieldValues() {
-					List<DocumentFieldValue> l = new ArrayList<>();
-					l.add(new DocumentFieldValue() {
-
-						@Override
-						public String getFieldName() {
-							return "id";
-						}
-
-						@Override
-						public Object getValue() {
-							return "*";
-						}
-					});
-					return l;
+		synchronized (reindexLock) {
+			reindexJobs.clear();
+			for (KnownEngine knownEngine : knownEngines) {
+				Schema s = knownEngine.engine.getDeployer().getDeployedSchema();
+				List<String> typeNames = new ArrayList<>();
+				for (Type type : s.getTypes()) {
+					if (!type.isVirtual() && !type.isAbstract() && isIndexedType(type)) {
+						typeNames.add(type.getName());
+					}
 				}
-			});
+				reindexTypes(knownEngine.engine, CHECKPOINT_PREFIX + s.getName() + CHECKPOINT_SUFFIX, typeNames, new DocumentFieldValueProvider() {
+					@Override
+					public List<DocumentFieldValue> getDocumentFieldValues() {
+						List<DocumentFieldValue> l = new ArrayList<>();
+						l.add(new DocumentFieldValue() {
 
-			Schema s = knownEngine.engine.getDeployer().getDeployedSchema();
-			for (Type type : s.getTypes()) {
-				int batchSize = 10;
-				if (!type.isVirtual() && !type.isAbstract()) {
-					QueryByExampleIteratorListener listener = new QueryByExampleIteratorListener() {
-						@Override
-						public void handleRecord(Record r) {
-							onPersist(r);
-						}
-					};
-					knownEngine.engine.getAccessor().iterate(type.getName(), listener, batchSize, false, knownEngine.engine.getAccessor().buildRecordContext());
-				}
+							@Override
+							public String getFieldName() {
+								return "id";
+							}
+
+							@Override
+							public Object getValue() {
+								return "*";
+							}
+						});
+						return l;
+					}
+				});
 			}
 		}
 	}
 
+	@Override
+	public List<ReindexProgress> getProgress() {
+		return new ArrayList<ReindexProgress>(reindexJobs);
+	}
+
 }
@@ -0,0 +1,136 @@
+package org.bndly.search.schema.impl;
+
+/*-
+ * #%L
+ * Search Schema
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.search.api.ReindexProgress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A TypeReindexJob tracks the progress of the reindex of a single type across all of its partitions.
+ * 
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+final class TypeReindexJob implements ReindexProgress {
+
+	private final String typeName;
+	private final List<ReindexPartition> partitions;
+	private final long totalRecords;
+	private final boolean resumed;
+	private final long previouslyIndexedRecords;
+	private final AtomicLong indexedRecords = new AtomicLong();
+	private final AtomicLong runningPartitions;
+	private final long startedOn;
+	private volatile long finishedOn = -1;
+
+	TypeReindexJob(String typeName, List<ReindexPartition> partitions, long totalRecords, boolean resumed) {
+		this.typeName = typeName;
+		this.partitions = partitions;
+		this.totalRecords = totalRecords;
+		this.resumed = resumed;
+		long previous = 0;
+		int open = 0;
+		for (ReindexPartition partition : partitions) {
+			previous += partition.getIndexedRecords();
+			if (!partition.isDone()) {
+				open++;
+			}
+		}
+		this.previouslyIndexedRecords = previous;
+		this.runningPartitions = new AtomicLong(open);
+		this.startedOn = System.currentTimeMillis();
+		if (open == 0) {
+			finishedOn = startedOn;
+		}
+	}
+
+	List<ReindexPartition> getPartitions() {
+		return partitions;
+	}
+
+	void recordsIndexed(int count) {
+		indexedRecords.addAndGet(count);
+	}
+
+	void partitionFinished() {
+		if (runningPartitions.decrementAndGet() <= 0) {
+			finishedOn = System.currentTimeMillis();
+		}
+	}
+
+	boolean isComplete() {
+		for (ReindexPartition partition : partitions) {
+			if (!partition.isDone()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String getTypeName() {
+		return typeName;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return finishedOn < 0;
+	}
+
+	@Override
+	public boolean isResumed() {
+		return resumed;
+	}
+
+	@Override
+	public long getTotalRecords() {
+		return totalRecords;
+	}
+
+	@Override
+	public long getIndexedRecords() {
+		return previouslyIndexedRecords + indexedRecords.get();
+	}
+
+	@Override
+	public double getRecordsPerSecond() {
+		long end = finishedOn < 0 ? System.currentTimeMillis() : finishedOn;
+		long duration = end - startedOn;
+		if (duration <= 0) {
+			return 0;
+		}
+		return indexedRecords.get() * 1000D / duration;
+	}
+
+	@Override
+	public long getEstimatedRemainingMillis() {
+		if (!isRunning()) {
+			return 0;
+		}
+		double rate = getRecordsPerSecond();
+		if (rate <= 0) {
+			return -1;
+		}
+		long remaining = Math.max(0, totalRecords - getIndexedRecords());
+		return (long) (remaining * 1000D / rate);
+	}
+
+}
@@ -0,0 +1,255 @@
+package org.bndly.search.schema.impl;
+
+/*-
+ * #%L
+ * Search Schema
+ * %%
+ * Copyright (C) 2013 - 2020 Cybercon GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bndly.common.data.api.Data;
+import org.bndly.common.data.api.DataStore;
+import org.bndly.common.data.api.SimpleData;
+import org.bndly.common.data.io.ReplayableInputStream;
+import org.bndly.schema.api.Record;
+import org.bndly.schema.api.listener.QueryByExampleIteratorListener;
+import org.bndly.schema.api.services.Accessor;
+import org.bndly.search.api.SearchException;
+import org.bndly.search.api.SearchIndexService;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author cybercon &lt;bndly@cybercon.de&gt;
+ */
+public class BulkReindexerTest {
+
+	private static final String CHECKPOINT = "reindex-test";
+	private static final long MAX_ID = 10;
+
+	private final Map<String, byte[]> storedData = new HashMap<>();
+	private final List<Long> indexedIds = Collections.synchronizedList(new ArrayList<Long>());
+	private final AtomicInteger flushes = new AtomicInteger();
+	private volatile int failingFlush;
+	private ExecutorService executorService;
+
+	@BeforeMethod
+	public void before() {
+		storedData.clear();
+		indexedIds.clear();
+		flushes.set(0);
+		failingFlush = -1;
+		executorService = Executors.newSingleThreadExecutor();
+	}
+
+	@AfterMethod
+	public void after() {
+		executorService.shutdownNow();
+	}
+
+	@Test
+	public void testCheckpointDoesNotAdvanceAfterFailedFlush() {
+		DataStore dataStore = createDataStore();
+		ReindexCheckpoint checkpoint = createCheckpoint(dataStore);
+		// the first page is stored with the first flush. the documents of the second page are lost.
+		failingFlush = 2;
+		boolean complete = createReindexer().run(createAccessor(), checkpoint, createJobs(checkpoint), createHandler());
+		Assert.assertFalse(complete);
+		Assert.assertEquals(indexedIds.size(), 4);
+
+		ReindexPartition partition = loadPartition(dataStore);
+		Assert.assertEquals(partition.getLastId(), 2);
+		Assert.assertEquals(partition.getIndexedRecords(), 2);
+		Assert.assertFalse(partition.isDone());
+	}
+
+	@Test
+	public void testResumeFromCheckpoint() {
+		DataStore dataStore = createDataStore();
+		ReindexCheckpoint checkpoint = createCheckpoint(dataStore);
+		failingFlush = 2;
+		createReindexer().run(createAccessor(), checkpoint, createJobs(checkpoint), createHandler());
+		indexedIds.clear();
+		failingFlush = -1;
+
+		ReindexCheckpoint resumed = ReindexCheckpoint.load(dataStore, CHECKPOINT);
+		Assert.assertNotNull(resumed);
+		Assert.assertTrue(resumed.isResumed());
+		boolean complete = createReindexer().run(createAccessor(), resumed, createJobs(resumed), createHandler());
+		Assert.assertTrue(complete);
+		// the lost documents of the second page are indexed again
+		List<Long> expected = new ArrayList<>();
+		for (long id = 3; id <= MAX_ID; id++) {
+			expected.add(id);
+		}
+		Assert.assertEquals(indexedIds, expected);
+		// a completed reindex removes its checkpoint
+		Assert.assertNull(ReindexCheckpoint.load(dataStore, CHECKPOINT));
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void testSaveFailsForDataThatCanNotBeChanged() {
+		DataStore dataStore = (DataStore) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{DataStore.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("findByName".equals(method.getName())) {
+					return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Data.class}, new InvocationHandler() {
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							return null;
+						}
+					});
+				}
+				return null;
+			}
+		});
+		ReindexCheckpoint checkpoint = ReindexCheckpoint.create(dataStore, CHECKPOINT);
+		checkpoint.save(checkpoint.snapshot());
+	}
+
+	private BulkReindexer createReindexer() {
+		SearchIndexService searchIndexService = (SearchIndexService) Proxy.newProxyInstance(
+				getClass().getClassLoader(), new Class[]{SearchIndexService.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("flush".equals(method.getName()) && flushes.incrementAndGet() == failingFlush) {
+					throw new SearchException("2 work items could not be sent to solr");
+				}
+				return null;
+			}
+		});
+		// a checkpoint is stored after every page
+		return new BulkReindexer(executorService, searchIndexService, 2, MAX_ID, 0);
+	}
+
+	private ReindexCheckpoint createCheckpoint(DataStore dataStore) {
+		ReindexCheckpoint checkpoint = ReindexCheckpoint.create(dataStore, CHECKPOINT);
+		checkpoint.putType("Foo", MAX_ID, Collections.singletonList(new ReindexPartition(0, MAX_ID)));
+		checkpoint.save(checkpoint.snapshot());
+		return checkpoint;
+	}
+
+	private static List<TypeReindexJob> createJobs(ReindexCheckpoint checkpoint) {
+		List<TypeReindexJob> jobs = new ArrayList<>();
+		for (Map.Entry<String, List<ReindexPartition>> entry : checkpoint.getPartitionsByType().entrySet()) {
+			jobs.add(new TypeReindexJob(entry.getKey(), entry.getValue(), checkpoint.getTotalRecords(entry.getKey()), checkpoint.isResumed()));
+		}
+		return jobs;
+	}
+
+	private static ReindexPartition loadPartition(DataStore dataStore) {
+		ReindexCheckpoint stored = ReindexCheckpoint.load(dataStore, CHECKPOINT);
+		Assert.assertNotNull(stored);
+		return stored.getPartitionsByType().get("Foo").get(0);
+	}
+
+	private QueryByExampleIteratorListener createHandler() {
+		return new QueryByExampleIteratorListener() {
+			@Override
+			public void handleRecord(Record r) {
+				indexedIds.add(r.getId());
+			}
+		};
+	}
+
+	/**
+	 * Creates an accessor, that answers the keyset queries of the reindexer with the records 1 to {@link #MAX_ID}.
+	 */
+	private Accessor createAccessor() {
+		return (Accessor) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Accessor.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if (!"query".equals(method.getName())) {
+					return null;
+				}
+				Object[] queryArgs = (Object[]) args[args.length - 1];
+				long lastId = ((Number) queryArgs[0]).longValue();
+				long upperId = ((Number) queryArgs[1]).longValue();
+				int limit = ((Number) queryArgs[2]).intValue();
+				List<Record> records = new ArrayList<>();
+				for (long id = lastId + 1; id <= Math.min(upperId, MAX_ID) && records.size() < limit; id++) {
+					records.add(createRecord(id));
+				}
+				return records.iterator();
+			}
+		});
+	}
+
+	private Record createRecord(final long id) {
+		return (Record) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Record.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				return "getId".equals(method.getName()) ? id : null;
+			}
+		});
+	}
+
+	/**
+	 * Creates a data store, that keeps the bytes of the stored data in memory.
+	 */
+	private DataStore createDataStore() {
+		return (DataStore) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{DataStore.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				String methodName = method.getName();
+				if ("findByName".equals(methodName)) {
+					byte[] bytes = storedData.get((String) args[0]);
+					if (bytes == null) {
+						return null;
+					}
+					SimpleData data = new SimpleData(null);
+					data.setName((String) args[0]);
+					data.setInputStream(ReplayableInputStream.newInstance(bytes));
+					return data;
+				} else if ("create".equals(methodName) || "update".equals(methodName)) {
+					Data data = (Data) args[0];
+					storedData.put(data.getName(), readBytes(data.getInputStream()));
+					return data;
+				} else if ("delete".equals(methodName)) {
+					storedData.remove(((Data) args[0]).getName());
+				}
+				return null;
+			}
+		});
+	}
+
+	private static byte[] readBytes(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int i;
+		while ((i = inputStream.read(buffer)) > -1) {
+			bos.write(buffer, 0, i);
+		}
+		return bos.toByteArray();
+	}
+}